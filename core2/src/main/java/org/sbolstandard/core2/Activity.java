@@ -140,6 +140,16 @@ public class Activity extends TopLevel{
 		return u;
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(startedAtTime == null ? null : startedAtTime.toString());
+		contentDigest.update(endedAtTime == null ? null : endedAtTime.toString());
+		contentDigest.updateURIs(wasInformedBys);
+		contentDigest.updateChildren(associations.values());
+		contentDigest.updateChildren(usages.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -281,6 +291,7 @@ public class Activity extends TopLevel{
 	 */
 	public void setStartedAtTime(DateTime startedAtTime) {
 		this.startedAtTime = startedAtTime;
+		modified();
 	}
 	
 	/**
@@ -304,6 +315,7 @@ public class Activity extends TopLevel{
 	 */
 	public void setEndedAtTime(DateTime endedAtTime) {
 		this.endedAtTime = endedAtTime;
+		modified();
 	}
 	
 	/**
@@ -336,7 +348,9 @@ public class Activity extends TopLevel{
 				throw new SBOLValidationException("sbol-12407",this);
 			}
 		}
-		return wasInformedBys.add(activityURI);
+		boolean result = wasInformedBys.add(activityURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -422,6 +436,7 @@ public class Activity extends TopLevel{
 	 */
 	public void clearWasInformedBys() {
 		wasInformedBys.clear();
+		modified();
 	}
 
 
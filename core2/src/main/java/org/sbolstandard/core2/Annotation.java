@@ -45,6 +45,7 @@ public class Annotation implements Comparable<Annotation>  {
 	private String nestedPrefix = null;
 	private URI nestedURI = null;
 	private List<Annotation> nestedAnnotations = null;
+	private Identified owner = null;
 
 	/**
 	 * Constructs an annotation using the given qName and the string type literal.
@@ -215,6 +216,7 @@ public class Annotation implements Comparable<Annotation>  {
 		namespaceURI = qName.getNamespaceURI();
 		localPart = qName.getLocalPart();
 		prefix = qName.getPrefix();
+		modified();
 	}
 
 	/**
@@ -224,6 +226,7 @@ public class Annotation implements Comparable<Annotation>  {
 	public void setBooleanValue(boolean literal) {
 		type = "Boolean";
 		boolValue = literal;
+		modified();
 	}
 
 	/**
@@ -258,6 +261,7 @@ public class Annotation implements Comparable<Annotation>  {
 	public void setDoubleValue(double literal) {
 		type = "Double";
 		doubleValue = literal;
+		modified();
 	}
 
 	/**
@@ -292,6 +296,7 @@ public class Annotation implements Comparable<Annotation>  {
 	public void setIntegerValue(int literal) {
 		type = "Integer";
 		intValue = literal;
+		modified();
 	}
 
 	/**
@@ -331,6 +336,7 @@ public class Annotation implements Comparable<Annotation>  {
 		}
 		type = "String";
 		stringValue = literal;
+		modified();
 	}
 
 	/**
@@ -370,6 +376,7 @@ public class Annotation implements Comparable<Annotation>  {
 		}
 		type = "URI";
 		URIValue = literal;
+		modified();
 	}
 	
 	/**
@@ -412,6 +419,7 @@ public class Annotation implements Comparable<Annotation>  {
 		nestedNamespaceURI = qName.getNamespaceURI();
 		nestedLocalPart = qName.getLocalPart();
 		nestedPrefix = qName.getPrefix();
+		modified();
 	}
 
 	/**
@@ -450,6 +458,7 @@ public class Annotation implements Comparable<Annotation>  {
 			throw new SBOLValidationException("sbol-12205");			
 		}
 		nestedURI = uri;
+		modified();
 	}
 
 	/**
@@ -481,6 +490,27 @@ public class Annotation implements Comparable<Annotation>  {
 		{
 			nestedAnnotations.add(a);
 		}
+		setOwner(owner);
+		modified();
+	}
+
+	/**
+	 * Sets the identified object holding this annotation, whose content changes whenever this annotation
+	 * or any annotation nested in it changes.
+	 */
+	void setOwner(Identified owner) {
+		this.owner = owner;
+		if (nestedAnnotations != null) {
+			for (Annotation nestedAnnotation : nestedAnnotations) {
+				nestedAnnotation.setOwner(owner);
+			}
+		}
+	}
+
+	private void modified() {
+		if (owner != null) {
+			owner.modified(SBOLDocumentChange.Type.ANNOTATION_CHANGED, owner);
+		}
 	}
 	
 	/**
@@ -54,6 +54,14 @@ public class Association extends Identified {
 		}
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(roles);
+		contentDigest.update(agent);
+		contentDigest.update(plan);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -106,7 +114,9 @@ public class Association extends Identified {
 	 * @return {@code true} if this set did not already contain the specified role, {@code false} otherwise.
 	 */
 	public boolean addRole(URI roleURI) {
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -126,7 +136,9 @@ public class Association extends Identified {
 	 * @return {@code true} if the matching role reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -170,6 +182,7 @@ public class Association extends Identified {
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 	
 	/**
@@ -220,6 +233,7 @@ public class Association extends Identified {
 			}
 		}
 		this.agent = agent;
+		modified();
 	}
 	
 	/**
@@ -276,6 +290,7 @@ public class Association extends Identified {
 			}
 		}
 		this.plan = plan;
+		modified();
 	}
 
 	@Override
@@ -84,6 +84,7 @@ public class Attachment extends TopLevel {
 			throw new SBOLValidationException("sbol-13202", this);
 		}
 		this.source = source;
+		modified();
 	}
 	
 	/**
@@ -112,6 +113,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void setFormat(URI format) {
 		this.format = format;
+		modified();
 	}
 	
 	/**
@@ -119,6 +121,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void unsetFormat() {
 		this.format = null;
+		modified();
 	}
 	
 	/**
@@ -147,6 +150,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void setSize(long size) {
 		this.size = size;
+		modified();
 	}
 	
 	/**
@@ -154,6 +158,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void unsetSize() {
 		this.size = null;
+		modified();
 	}
 	
 	/**
@@ -182,6 +187,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void setHash(String hash) {
 		this.hash = hash;
+		modified();
 	}
 	
 	/**
@@ -189,6 +195,7 @@ public class Attachment extends TopLevel {
 	 */
 	public void unsetHash() {
 		this.hash = null;
+		modified();
 	}
 
 	@Override
@@ -252,6 +259,16 @@ public class Attachment extends TopLevel {
 		//URIcompliance.isTopLevelURIformCompliant(this.getIdentity());
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(source);
+		contentDigest.update(format);
+		contentDigest.update(size != null);
+		contentDigest.update(size == null ? 0L : size);
+		contentDigest.update(hash);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
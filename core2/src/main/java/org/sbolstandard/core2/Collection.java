@@ -69,7 +69,9 @@ public class Collection extends TopLevel{
 				throw new SBOLValidationException("sbol-12103", this);
 			}
 		}
-		return members.add(memberURI);
+		boolean result = members.add(memberURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -80,7 +82,9 @@ public class Collection extends TopLevel{
 	 *         {@code false} otherwise.
 	 */
 	public boolean removeMember(URI memberURI) {
-		return members.remove(memberURI);
+		boolean result = members.remove(memberURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -157,6 +161,13 @@ public class Collection extends TopLevel{
 	 */
 	public void clearMembers() {
 		members.clear();
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(members);
 	}
 
 	/* (non-Javadoc)
@@ -409,6 +409,7 @@ public class CombinatorialDerivation extends TopLevel {
 		}
 
 		this.template = template;
+		modified();
 	}
 
 	/**
@@ -438,6 +439,7 @@ public class CombinatorialDerivation extends TopLevel {
 			}
 		}
 		this.strategy = strategy;
+		modified();
 	}
 
 	/**
@@ -445,6 +447,21 @@ public class CombinatorialDerivation extends TopLevel {
 	 */
 	public void unsetStrategy() {
 		this.strategy = null;
+		modified();
+	}
+
+	/**
+	 * Returns the design space of this combinatorial derivation, which counts its designs exactly and
+	 * derives them lazily, one index at a time, whatever its strategy.
+	 *
+	 * @return the design space of this combinatorial derivation
+	 * @throws SBOLValidationException if any of the following SBOL validation rules was violated: 12905,
+	 *             13005, 13008, 13010, 13012, 13014, 13015.
+	 * @throws ArithmeticException if a variable component with operator {@link OperatorType#ONEORMORE} or
+	 *             {@link OperatorType#ZEROORMORE} has too many subsets of choices to be counted
+	 */
+	public DesignSpace getDesignSpace() throws SBOLValidationException {
+		return new DesignSpace(this);
 	}
 
 	/**
@@ -468,6 +485,14 @@ public class CombinatorialDerivation extends TopLevel {
 		}
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(template);
+		contentDigest.update(strategy == null ? null : strategy.toString());
+		contentDigest.updateChildren(variableComponents.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -139,7 +139,9 @@ public class Component extends ComponentInstance{
 		if (!isSetRoleIntegration()) {
 			throw new SBOLValidationException("sbol-10709", this);
 		}
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -149,7 +151,9 @@ public class Component extends ComponentInstance{
 	 * @return {@code true} if the matching role reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -194,6 +198,7 @@ public class Component extends ComponentInstance{
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 	
 	/**
@@ -223,6 +228,7 @@ public class Component extends ComponentInstance{
 			throw new SBOLValidationException("sbol-10709", this);
 		}
 		this.roleIntegration = roleIntegration;
+		modified();
 	}
 
 	/**
@@ -235,6 +241,7 @@ public class Component extends ComponentInstance{
 			throw new SBOLValidationException("sbol-10709", this);
 		}
 		roleIntegration = null;
+		modified();
 	}
 
 	/**
@@ -493,6 +500,14 @@ public class Component extends ComponentInstance{
 		super.setDefinition(definition);
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(roles);
+		contentDigest.update(roleIntegration == null ? null : roleIntegration.toString());
+		contentDigest.updateChildren(mapsTos.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
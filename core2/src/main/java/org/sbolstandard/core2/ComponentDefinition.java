@@ -10,6 +10,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 
@@ -29,6 +31,18 @@ public class ComponentDefinition extends TopLevel {
 	private HashMap<URI, Component> components;
 	private HashMap<URI, SequenceAnnotation> sequenceAnnotations;
 	private HashMap<URI, SequenceConstraint> sequenceConstraints;
+	private final ModificationCache<SequenceAnnotationIndex> sequenceAnnotationIndex = new ModificationCache<SequenceAnnotationIndex>() {
+		@Override
+		SequenceAnnotationIndex compute() {
+			return new SequenceAnnotationIndex(ComponentDefinition.this);
+		}
+	};
+	private final ModificationCache<FeatureTable> featureTable = new ModificationCache<FeatureTable>() {
+		@Override
+		FeatureTable compute() {
+			return new FeatureTable(ComponentDefinition.this);
+		}
+	};
 
 	/* Types */
 	/**
@@ -187,7 +201,9 @@ public class ComponentDefinition extends TopLevel {
 				throw new SBOLValidationException("sbol-10503", this);
 			}
 		}
-		return types.add(typeURI);
+		boolean result = types.add(typeURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -201,7 +217,9 @@ public class ComponentDefinition extends TopLevel {
 		if (types.size()==1 && types.contains(typeURI)) {
 			throw new SBOLValidationException("sbol-10502", this);
 		}
-		return types.remove(typeURI);
+		boolean result = types.remove(typeURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -253,6 +271,7 @@ public class ComponentDefinition extends TopLevel {
 	 */
 	private void clearTypes() {
 		types.clear();
+		modified();
 	}
 
 	/**
@@ -262,7 +281,9 @@ public class ComponentDefinition extends TopLevel {
 	 * @return {@code true} if this set did not already contain the specified role, {@code false} otherwise.
 	 */
 	public boolean addRole(URI roleURI) {
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -272,7 +293,9 @@ public class ComponentDefinition extends TopLevel {
 	 * @return {@code true} if the matching role reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -316,6 +339,7 @@ public class ComponentDefinition extends TopLevel {
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 
 	/**
@@ -348,7 +372,9 @@ public class ComponentDefinition extends TopLevel {
 				throw new SBOLValidationException("sbol-10513",this);
 			}
 		}
-		return sequences.add(sequenceURI);
+		boolean result = sequences.add(sequenceURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -452,63 +478,18 @@ public class ComponentDefinition extends TopLevel {
 	 *  sequence annotations, and update the length with the ending locations that have a larger value than the current length. It then populates
 	 *  the elements with this length with unknown bases. This method iterates through this component defintion's sequence annotations to recursively
 	 *  search for bases implied by the hierarchically included components, and fills the elements with these known bases.
+	 *  <p>
+	 *  The implied sequences of this component definition and the component definitions below it are memoized by the SBOL document
+	 *  holding them until the document or any object in it is next modified, so each of them is only assembled once.
 	 *  
-	 *  @return the elements of a nucleic sequence implied by the hierarchically included components
+	 *  @return the elements of a nucleic sequence implied by the hierarchically included components, or {@code null} if this
+	 *  component definition is neither DNA nor RNA
 	 */
 	public String getImpliedNucleicAcidSequence() {
-		URI type = null;
-		if (this.getTypes().contains(ComponentDefinition.DNA)) {
-			type = ComponentDefinition.DNA;
-		} else if (this.getTypes().contains(ComponentDefinition.RNA)) {
-			type = ComponentDefinition.RNA;
-		} else {
-			return null;
-		}
-		String elements = "";
-		int length = 0;
-		if (this.getSequenceByEncoding(Sequence.IUPAC_DNA)!=null) {
-			length = this.getSequenceByEncoding(Sequence.IUPAC_DNA).getElements().length();
-		}
-		for (SequenceAnnotation sequenceAnnotation : this.getSequenceAnnotations()) {
-			for (Location location : sequenceAnnotation.getLocations()) {
-				if (location instanceof Range) {
-					Range range = (Range)location;
-					if (range.getEnd()>length) {
-						length = range.getEnd();
-					}
-				}
-			}
-		}
-		for (int i = 0; i < length; i++) {
-			elements += "N";
-		}
-		char[] elementsArray = elements.toCharArray();
-		for (SequenceAnnotation sequenceAnnotation : this.getSequenceAnnotations()) {
-			String subElements = null;
-			if (!sequenceAnnotation.isSetComponent()) continue;
-			if (sequenceAnnotation.getComponent().getDefinition()!=null) {
-				ComponentDefinition compDef = sequenceAnnotation.getComponent().getDefinition();
-				if (compDef.getSequenceByEncoding(Sequence.IUPAC_DNA)!=null) {
-					subElements = compDef.getSequenceByEncoding(Sequence.IUPAC_DNA).getElements();
-				} else {
-					subElements = compDef.getImpliedNucleicAcidSequence();
-				}
-				for (Location location : sequenceAnnotation.getLocations()) {
-					if (location instanceof Range) {
-						Range range = (Range)location;
-						if (range.isSetOrientation() && range.getOrientation().equals(OrientationType.REVERSECOMPLEMENT)) {
-							subElements = Sequence.reverseComplement(subElements, type);
-						}
-						for (int i = 0; i < subElements.length(); i++) {
-							// TODO: need to deal with when start index out of range
-							elementsArray[(range.getStart()+i)-1] = subElements.charAt(i);
-						}
-					}
-				}
-			}
+		if (this.getSBOLDocument()==null) {
+			return new ImpliedSequences(null).get(this);
 		}
-		elements = String.valueOf(elementsArray);
-		return elements;
+		return this.getSBOLDocument().getImpliedSequences().get(this);
 	}
 
 	/**
@@ -534,7 +515,9 @@ public class ComponentDefinition extends TopLevel {
 	 *         {@code false} otherwise.
 	 */
 	public boolean removeSequence(URI sequenceURI) {
-		return sequences.remove(sequenceURI);
+		boolean result = sequences.remove(sequenceURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -543,6 +526,7 @@ public class ComponentDefinition extends TopLevel {
 	 */
 	public void clearSequences() {
 		sequences.clear();
+		modified();
 	}
 
 	//	public boolean containsSequence(Sequence sequence) {
@@ -828,6 +812,7 @@ public class ComponentDefinition extends TopLevel {
 		}
 		addChildSafely(sequenceAnnotation, sequenceAnnotations, "sequenceAnnotation",
 				components, sequenceConstraints);
+		modified();
 	}
 
 	/**
@@ -837,7 +822,9 @@ public class ComponentDefinition extends TopLevel {
 	 * @return {@code true} if the matching sequence annotation was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeSequenceAnnotation(SequenceAnnotation sequenceAnnotation) {
-		return removeChildSafely(sequenceAnnotation, sequenceAnnotations);
+		boolean result = removeChildSafely(sequenceAnnotation, sequenceAnnotations);
+		modified();
+		return result;
 	}
 
 	/**
@@ -896,31 +883,6 @@ public class ComponentDefinition extends TopLevel {
 		return sequenceAnnotations;
 	}
 
-	/**
-	 * @param successorMap
-	 * @param component
-	 * @param visited
-	 * @throws SBOLValidationException if the following SBOL validation rule was violated: 10605.
-	 */
-	private void getSuccessorComponents(HashMap<Component,Set<Component>> successorMap,
-			Component component, Set<Component> visited) throws SBOLValidationException {
-		if (visited.contains(component)) {
-			// TODO: cycle detected.  This needs to be handled better.
-			throw new SBOLValidationException("Cycle in sequence constraints");
-			//throw new SBOLValidationException("sbol-10605", component);
-			//return;
-		}
-		visited.add(component);
-		for (SequenceConstraint sc : this.getSequenceConstraints()) {
-			if (sc.getSubject().equals(component)) {
-				successorMap.get(component).add(sc.getObject());
-				getSuccessorComponents(successorMap,sc.getObject(),visited);
-				successorMap.get(component).addAll(successorMap.get(sc.getObject()));
-			}
-		}
-		visited.remove(component);
-	}
-
 	private boolean isGenericSequenceAnnotation(SequenceAnnotation sequenceAnnotation) {
 		boolean generic = true;
 		for (Location location : sequenceAnnotation.getLocations()) {
@@ -935,63 +897,101 @@ public class ComponentDefinition extends TopLevel {
 	/**
 	 * Returns a sorted list of components owned by this component definition. The order is determined by the
 	 * order of appearance of components on a DNA strand.
+	 * <p>
+	 * A component is placed before another if its sequence annotation comes first in the order of 
+	 * {@link #getSortedSequenceAnnotations()}, ignoring sequence annotations with only generic locations, or if 
+	 * a sequence constraint with the {@link RestrictionType#PRECEDES} restriction has it as subject and the other 
+	 * as object. Components that are not ordered with respect to each other are kept in the order in which 
+	 * {@link #getComponents()} returns them. Each sequence annotation and sequence constraint is considered once, 
+	 * so this method takes time roughly linear in the number of components.
 	 *
 	 * @return a sorted list of components owned by this component definition
-	 * @throws SBOLValidationException if the following SBOL validation rule was violated: 10605.
+	 * @throws SBOLValidationException if the sequence annotations and sequence constraints order components in a 
+	 * cycle, in which case the components of one such cycle are reported.
 	 */
 	public List<Component> getSortedComponents() throws SBOLValidationException {
-		List<Component> sortedComponents = new ArrayList<Component>();
-		List<SequenceAnnotation> sortedSAs = new ArrayList<SequenceAnnotation>();
-		sortedSAs.addAll(this.getSequenceAnnotations());
-		Collections.sort(sortedSAs);
-		HashMap<Component,Set<Component>> successorMap = new HashMap<Component,Set<Component>>();
-		for (Component component : this.getComponents()) {
-			successorMap.put(component, new HashSet<Component>());
-		}
-		for (int i = 0; i < sortedSAs.size(); i++) {
-			SequenceAnnotation source = sortedSAs.get(i);
-			if (isGenericSequenceAnnotation(source)) continue;
-			if (source.isSetComponent()) {
-				Component sourceComponent = source.getComponent();
-				for (int j = i + 1; j < sortedSAs.size(); j++) {
-					SequenceAnnotation target = sortedSAs.get(j);
-					if (isGenericSequenceAnnotation(target)) continue;
-					if (target.isSetComponent()) {
-						Component targetComponent = target.getComponent();
-						successorMap.get(sourceComponent).add(targetComponent);
-					}
-				}
+		List<Component> components = new ArrayList<Component>(this.getComponents());
+		Map<URI,Integer> indices = new HashMap<URI,Integer>();
+		List<List<Integer>> successors = new ArrayList<List<Integer>>();
+		for (int i = 0; i < components.size(); i++) {
+			indices.put(components.get(i).getIdentity(), i);
+			successors.add(new ArrayList<Integer>());
+		}
+		int[] predecessorCounts = new int[components.size()];
+		// Annotations are totally ordered, so each annotated component only needs to precede the next one.
+		Integer previous = null;
+		for (SequenceAnnotation sequenceAnnotation : this.getSortedSequenceAnnotations()) {
+			if (isGenericSequenceAnnotation(sequenceAnnotation) || !sequenceAnnotation.isSetComponent()) continue;
+			Integer current = indices.get(sequenceAnnotation.getComponentURI());
+			if (current == null) continue;
+			if (previous != null) {
+				successors.get(previous).add(current);
+				predecessorCounts[current]++;
+			}
+			previous = current;
+		}
+		for (SequenceConstraint sequenceConstraint : this.getSequenceConstraints()) {
+			if (sequenceConstraint.getRestriction() != RestrictionType.PRECEDES) continue;
+			Integer subject = indices.get(sequenceConstraint.getSubjectURI());
+			Integer object = indices.get(sequenceConstraint.getObjectURI());
+			if (subject == null || object == null) continue;
+			successors.get(subject).add(object);
+			predecessorCounts[object]++;
+		}
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < components.size(); i++) {
+			if (predecessorCounts[i] == 0) {
+				ready.add(i);
 			}
 		}
-		for (Component component : this.getComponents()) {
-			getSuccessorComponents(successorMap,component,new HashSet<Component>());
-		}
-		while (true) {
-			boolean change = false;
-			for (Component component1 : this.getComponents()) {
-				if (sortedComponents.contains(component1)) continue;
-				boolean add = true;
-				for (Component component2 : this.getComponents()) {
-					if (component1 == component2) continue;
-					if (sortedComponents.contains(component2)) continue;
-					if (successorMap.get(component2).contains(component1)) {
-						add = false;
-						break;
-					}
-				}
-				if (add) {
-					sortedComponents.add(component1);
-					change = true;
-					break;
+		List<Component> sortedComponents = new ArrayList<Component>();
+		while (!ready.isEmpty()) {
+			int current = ready.poll();
+			sortedComponents.add(components.get(current));
+			for (int successor : successors.get(current)) {
+				if (--predecessorCounts[successor] == 0) {
+					ready.add(successor);
 				}
 			}
-			if (!change) {
-				break;
-			}
+		}
+		if (sortedComponents.size() < components.size()) {
+			throw new SBOLValidationException("Cycle in sequence constraints", 
+					findCycle(components, successors, predecessorCounts));
 		}
 		return sortedComponents;
 	}
 
+	/**
+	 * Returns the components of a cycle among the components left unsorted by {@link #getSortedComponents()}, 
+	 * which are those with a positive remaining predecessor count. Each of them has an unsorted predecessor, so 
+	 * following predecessors from any of them must run into a cycle.
+	 */
+	private static Component[] findCycle(List<Component> components, List<List<Integer>> successors,
+			int[] predecessorCounts) {
+		int[] predecessors = new int[components.size()];
+		int start = -1;
+		for (int i = 0; i < components.size(); i++) {
+			if (predecessorCounts[i] == 0) continue;
+			start = i;
+			for (int successor : successors.get(i)) {
+				predecessors[successor] = i;
+			}
+		}
+		boolean[] visited = new boolean[components.size()];
+		int current = start;
+		while (!visited[current]) {
+			visited[current] = true;
+			current = predecessors[current];
+		}
+		List<Component> cycle = new ArrayList<Component>();
+		int first = current;
+		do {
+			cycle.add(0, components.get(current));
+			current = predecessors[current];
+		} while (current != first);
+		return cycle.toArray(new Component[cycle.size()]);
+	}
+
 	/**
 	 * Returns a sorted list of sequence annotations owned by this
 	 * component definition. The order is determined by each 
@@ -1020,6 +1020,75 @@ public class ComponentDefinition extends TopLevel {
 		return sortedSAs;
 	}
 
+	/**
+	 * Returns the sequence annotations owned by this component definition with a range or cut that overlaps
+	 * the positions from the given start to the given end, inclusive. Ranges cover the positions from their
+	 * start to their end, and cuts the position they are at. The sequence annotations are returned in the 
+	 * order of their first overlapping location.
+	 * <p>
+	 * If this component definition has the {@link SequenceOntology#CIRCULAR} type, the given start may be 
+	 * after the given end, in which case the positions from the start to the end of the sequence and from 
+	 * the first position to the given end are queried.
+	 * <p>
+	 * The locations are looked up in an interval index built on first use, which is rebuilt after the SBOL
+	 * document holding this component definition is modified.
+	 *
+	 * @param start the first position to be queried
+	 * @param end the last position to be queried
+	 * @return the sequence annotations with a range or cut overlapping the given positions
+	 * @throws IllegalArgumentException if the given start is after the given end and this component 
+	 * definition is not circular
+	 */
+	public List<SequenceAnnotation> getOverlappingSequenceAnnotations(int start, int end) {
+		return getSequenceAnnotationIndex().getOverlapping(start, end);
+	}
+
+	/**
+	 * Returns the sequence annotations owned by this component definition that have at least one range or
+	 * cut, and whose ranges and cuts all lie within the positions from the given start to the given end, 
+	 * inclusive, in the order of their first location. Queries are interpreted as in 
+	 * {@link #getOverlappingSequenceAnnotations(int, int)}.
+	 *
+	 * @param start the first position to be queried
+	 * @param end the last position to be queried
+	 * @return the sequence annotations lying within the given positions
+	 * @throws IllegalArgumentException if the given start is after the given end and this component 
+	 * definition is not circular
+	 */
+	public List<SequenceAnnotation> getContainedSequenceAnnotations(int start, int end) {
+		return getSequenceAnnotationIndex().getContained(start, end);
+	}
+
+	/**
+	 * Returns the sequence annotation owned by this component definition with the range or cut closest to
+	 * the given position, which is one covering it if there is any. If this component definition has the
+	 * {@link SequenceOntology#CIRCULAR} type, distances are measured the shorter way around the origin.
+	 * Locations are looked up as in {@link #getOverlappingSequenceAnnotations(int, int)}.
+	 *
+	 * @param position the position to be queried
+	 * @return the sequence annotation with the range or cut closest to the given position, or {@code null} 
+	 * if no sequence annotation has a range or cut
+	 */
+	public SequenceAnnotation getNearestSequenceAnnotation(int position) {
+		return getSequenceAnnotationIndex().getNearest(position);
+	}
+
+	private SequenceAnnotationIndex getSequenceAnnotationIndex() {
+		return sequenceAnnotationIndex.get(this.getSBOLDocument());
+	}
+
+	/**
+	 * Returns a flattened, linear view of the sequence annotations of this component definition and of the
+	 * component definitions nested within it, with the coordinates and strand of each of them on the
+	 * sequence of this component definition, as described in {@link FeatureTable}. The table is cached
+	 * until the document of this component definition is next modified.
+	 *
+	 * @return the feature table of this component definition
+	 */
+	public FeatureTable getFeatureTable() {
+		return featureTable.get(this.getSBOLDocument());
+	}
+
 	class SADisplayIdComparator implements Comparator<Object> {
 
 	    public int compare(Object obj1, Object obj2) {
@@ -1742,6 +1811,17 @@ public class ComponentDefinition extends TopLevel {
 		return cloned;
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(types);
+		contentDigest.updateURIs(roles);
+		contentDigest.updateURIs(sequences);
+		contentDigest.updateChildren(components.values());
+		contentDigest.updateChildren(sequenceAnnotations.values());
+		contentDigest.updateChildren(sequenceConstraints.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -72,6 +72,7 @@ public abstract class ComponentInstance extends Identified {
 			throw new SBOLValidationException("sbol-10607", this);
 		}
 		this.access = access;
+		modified();
 	}
 
 	/**
@@ -124,11 +125,19 @@ public abstract class ComponentInstance extends Identified {
 			}
 		}
 		this.definition = definition;
+		modified();
 	}
 
 	@Override
 	abstract ComponentInstance deepCopy() throws SBOLValidationException;
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(access == null ? null : access.toString());
+		contentDigest.update(definition);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
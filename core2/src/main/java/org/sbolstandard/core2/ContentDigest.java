@@ -0,0 +1,268 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accumulates the content of an SBOL object into a SHA-256 digest, for {@link Identified#getDigest()}.
+ * <p>
+ * Every value is preceded by its length, or by a marker if it is absent, so that no two different
+ * sequences of values are fed to the digest as the same bytes. Sets of values are fed in sorted order,
+ * so the digest does not depend on the order in which they were built.
+ * <p>
+ * A structural digest, created by {@link #ContentDigest(TopLevel, Map)}, leaves out the identities and
+ * provenance of a top-level and its child objects, and feeds the identities of its child objects, and
+ * references to them, relative to it, so that copies of the same content under different URIs have the
+ * same structural digest. References to duplicates are fed as references to their canonical
+ * representatives, following chains of them.
+ *
+ * @version 2.1
+ */
+
+final class ContentDigest {
+
+	private static final Comparator<byte[]> BYTES_ORDER = new Comparator<byte[]>() {
+		@Override
+		public int compare(byte[] bytes1, byte[] bytes2) {
+			for (int i = 0; i < bytes1.length && i < bytes2.length; i++) {
+				if (bytes1[i] != bytes2[i]) {
+					return Integer.compare(bytes1[i] & 0xff, bytes2[i] & 0xff);
+				}
+			}
+			return Integer.compare(bytes1.length, bytes2.length);
+		}
+	};
+
+	private static final int CHUNK = 8192;
+
+	private final MessageDigest messageDigest;
+	private final TopLevel scope;
+	private final Map<URI, URI> canonicalURIs;
+
+	ContentDigest() {
+		this(null, null);
+	}
+
+	/**
+	 * Creates a structural digest of the given top-level, which feeds each reference to a URI in the given
+	 * map as the URI it is mapped to.
+	 */
+	ContentDigest(TopLevel scope, Map<URI, URI> canonicalURIs) {
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+		this.scope = scope;
+		this.canonicalURIs = canonicalURIs;
+	}
+
+	/**
+	 * Returns {@code true} if identities and provenance are left out of this digest.
+	 */
+	boolean isStructural() {
+		return scope != null;
+	}
+
+	/**
+	 * Returns {@code true} if the given object is the top-level this structural digest is made of.
+	 */
+	boolean isScope(Identified identified) {
+		return identified == scope;
+	}
+
+	/**
+	 * Returns the path of the given URI below the persistent identity of the given top-level, without the
+	 * version of the top-level, or {@code null} if the URI is not that of the top-level or of one of its
+	 * compliant child objects.
+	 */
+	static String relativize(URI uri, TopLevel topLevel) {
+		if (!topLevel.isSetPersistentIdentity()) {
+			return null;
+		}
+		String persistentIdentity = topLevel.getPersistentIdentity().toString();
+		String path = uri.toString();
+		if (!path.startsWith(persistentIdentity)) {
+			return null;
+		}
+		path = path.substring(persistentIdentity.length());
+		if (topLevel.isSetVersion() && path.endsWith("/" + topLevel.getVersion())) {
+			path = path.substring(0, path.length() - topLevel.getVersion().length() - 1);
+		}
+		if (!path.isEmpty() && !path.startsWith("/")) {
+			return null;
+		}
+		return path;
+	}
+
+	void update(int value) {
+		messageDigest.update((byte) (value >>> 24));
+		messageDigest.update((byte) (value >>> 16));
+		messageDigest.update((byte) (value >>> 8));
+		messageDigest.update((byte) value);
+	}
+
+	void update(long value) {
+		update((int) (value >>> 32));
+		update((int) value);
+	}
+
+	void update(boolean value) {
+		messageDigest.update((byte) (value ? 1 : 0));
+	}
+
+	void update(byte[] value) {
+		if (value == null) {
+			update(-1);
+			return;
+		}
+		update(value.length);
+		messageDigest.update(value);
+	}
+
+	void update(String value) {
+		update(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	void update(URI value) {
+		update(value == null ? null : toString(value));
+	}
+
+	private String toString(URI value) {
+		if (!isStructural()) {
+			return value.toString();
+		}
+		URI canonical = canonicalURIs.get(value);
+		while (canonical != null) {
+			value = canonical;
+			canonical = canonicalURIs.get(value);
+		}
+		String path = relativize(value, scope);
+		return path == null ? value.toString() : "#" + path;
+	}
+
+	/**
+	 * Feeds the given value, which may be too long to copy into a single string, in chunks.
+	 */
+	void update(CharSequence value) {
+		if (value == null) {
+			update(-1);
+			return;
+		}
+		update(value.length());
+		for (int start = 0; start < value.length(); start += CHUNK) {
+			int end = Math.min(value.length(), start + CHUNK);
+			messageDigest.update(value.subSequence(start, end).toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Feeds the given set of URIs in sorted order.
+	 */
+	void updateURIs(java.util.Collection<URI> values) {
+		List<String> sorted = new ArrayList<>();
+		for (URI value : values) {
+			sorted.add(toString(value));
+		}
+		Collections.sort(sorted);
+		update(sorted.size());
+		for (String value : sorted) {
+			update(value);
+		}
+	}
+
+	/**
+	 * Feeds the digests of the given child objects, ordered by identity, each of them once. The structural
+	 * digests of the child objects are ordered by themselves instead.
+	 */
+	void updateChildren(java.util.Collection<? extends Identified> children) {
+		List<Identified> sorted = new ArrayList<>();
+		Set<URI> identities = new HashSet<>();
+		for (Identified child : children) {
+			if (identities.add(child.getIdentity())) {
+				sorted.add(child);
+			}
+		}
+		if (isStructural()) {
+			List<byte[]> digests = new ArrayList<>();
+			for (Identified child : sorted) {
+				ContentDigest childDigest = new ContentDigest(scope, canonicalURIs);
+				child.updateDigest(childDigest);
+				digests.add(childDigest.digest());
+			}
+			Collections.sort(digests, BYTES_ORDER);
+			update(digests.size());
+			for (byte[] digest : digests) {
+				update(digest);
+			}
+			return;
+		}
+		Collections.sort(sorted, new Comparator<Identified>() {
+			@Override
+			public int compare(Identified child1, Identified child2) {
+				return child1.getIdentity().compareTo(child2.getIdentity());
+			}
+		});
+		update(sorted.size());
+		for (Identified child : sorted) {
+			update(child.digest());
+		}
+	}
+
+	/**
+	 * Feeds the given annotations, which are compared as a set, in the order of their own digests.
+	 */
+	void updateAnnotations(List<Annotation> annotations) {
+		List<byte[]> digests = new ArrayList<>();
+		for (Annotation annotation : annotations) {
+			ContentDigest annotationDigest = new ContentDigest(scope, canonicalURIs);
+			annotationDigest.update(annotation);
+			digests.add(annotationDigest.digest());
+		}
+		Collections.sort(digests, BYTES_ORDER);
+		update(digests.size());
+		for (byte[] digest : digests) {
+			update(digest);
+		}
+	}
+
+	private void update(Annotation annotation) {
+		update(annotation.getQName().getNamespaceURI());
+		update(annotation.getQName().getLocalPart());
+		if (annotation.isNestedAnnotations()) {
+			update("nested");
+			update(annotation.getNestedQName().getNamespaceURI());
+			update(annotation.getNestedQName().getLocalPart());
+			update(annotation.getNestedIdentity());
+			updateAnnotations(annotation.getAnnotations());
+		} else if (annotation.isBooleanValue()) {
+			update("boolean");
+			update(annotation.getBooleanValue());
+		} else if (annotation.isDoubleValue()) {
+			update("double");
+			update(Double.doubleToLongBits(annotation.getDoubleValue()));
+		} else if (annotation.isIntegerValue()) {
+			update("integer");
+			update(annotation.getIntegerValue());
+		} else if (annotation.isURIValue()) {
+			update("uri");
+			update(annotation.getURIValue());
+		} else {
+			update("string");
+			update(annotation.getStringValue());
+		}
+	}
+
+	byte[] digest() {
+		return messageDigest.digest();
+	}
+}
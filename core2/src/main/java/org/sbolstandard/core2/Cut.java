@@ -67,6 +67,7 @@ public class Cut extends Location{
 			throw new SBOLValidationException("sbol-11202", this);
 		}
 		this.at = at;
+		modified();
 	}
 
 	/* (non-Javadoc)
@@ -80,6 +81,12 @@ public class Cut extends Location{
 		return new Cut(this);
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(at);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,794 @@
+package org.sbolstandard.core2;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The designs derived from the template of a combinatorial derivation, returned by
+ * {@link CombinatorialDerivation#getDesignSpace()}.
+ * <p>
+ * Each variable component of the combinatorial derivation has a list of choices for its variable: the
+ * variants, then the component definitions that are members of the variant collections, then the designs of
+ * the variant derivations, each in the order of their URIs. Its operator decides how many of them replace the
+ * variable: exactly one for {@link OperatorType#ONE}, none or one for {@link OperatorType#ZEROORONE}, and any
+ * non-empty or any subset of them, each used at most once and in the order of the list, for
+ * {@link OperatorType#ONEORMORE} and {@link OperatorType#ZEROORMORE}, since the design space would otherwise
+ * be infinite.
+ * <p>
+ * Every design has an index, a mixed-radix number whose digits are the options chosen for the variable
+ * components in the order of the URIs of their variables, the first one varying fastest. The number of
+ * designs is computed exactly, from the number of options of each variable component, without deriving
+ * any of them. A design is derived from its index alone when it is asked for, and {@link #rank} recovers
+ * the index of a design from its choices, so the design space is never materialized: it can be sampled
+ * uniformly however large it is, and its {@link #spliterator()} splits ranges of indexes so that designs can
+ * be derived in parallel.
+ * <p>
+ * A design is a copy of the template, without its sequences, that was derived from the template and from
+ * the combinatorial derivation, in which each component was derived from the component of the template with
+ * the same display ID. A variable that is replaced by one choice refers to it as its definition; one that is
+ * replaced by none is removed together with the sequence annotations, sequence constraints, and maps-tos
+ * that refer to it, and the components it was constrained to follow and precede are constrained to precede
+ * one another instead; and one that is replaced by several choices is followed by a copy for each further
+ * choice, each constrained to follow the previous one and given a copy of each sequence constraint of the
+ * variable. Designs are not added to the document, and refer to
+ * the designs of variant derivations they use, which are returned with them.
+ * <p>
+ * A design space reads the document it was created from each time a design is derived, which must not be
+ * modified while the design space is used.
+ *
+ * @version 2.1
+ */
+
+public final class DesignSpace implements Iterable<DesignSpace.Design> {
+
+	/**
+	 * A component definition derived from the template of a combinatorial derivation.
+	 */
+	public static final class Design {
+
+		private final BigInteger index;
+		private final ComponentDefinition componentDefinition;
+		private final List<ComponentDefinition> componentDefinitions;
+
+		private Design(BigInteger index, ComponentDefinition componentDefinition,
+				List<ComponentDefinition> componentDefinitions) {
+			this.index = index;
+			this.componentDefinition = componentDefinition;
+			this.componentDefinitions = componentDefinitions;
+		}
+
+		/**
+		 * Returns the index of this design in its design space.
+		 *
+		 * @return the index of this design
+		 */
+		public BigInteger getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns the component definition of this design, which is not in any document.
+		 *
+		 * @return the component definition of this design
+		 */
+		public ComponentDefinition getComponentDefinition() {
+			return componentDefinition;
+		}
+
+		/**
+		 * Returns the component definition of this design, preceded by those of the designs of variant
+		 * derivations it refers to, directly or indirectly, each after those it refers to.
+		 *
+		 * @return the component definitions of this design
+		 */
+		public List<ComponentDefinition> getComponentDefinitions() {
+			return componentDefinitions;
+		}
+
+		/**
+		 * Adds copies of the component definitions of this design that are not yet in the given document
+		 * to it.
+		 *
+		 * @param document the document to add this design to
+		 * @return the copy of the component definition of this design in the given document
+		 * @throws SBOLValidationException if an SBOL validation rule violation occurred in
+		 *             {@link SBOLDocument#createCopy(TopLevel)}.
+		 */
+		public ComponentDefinition addTo(SBOLDocument document) throws SBOLValidationException {
+			for (ComponentDefinition cd : componentDefinitions) {
+				if (document.getComponentDefinition(cd.getIdentity()) == null) {
+					document.createCopy(cd);
+				}
+			}
+			return document.getComponentDefinition(componentDefinition.getIdentity());
+		}
+
+		@Override
+		public String toString() {
+			return "Design [index=" + index + ", identity=" + componentDefinition.getIdentity() + "]";
+		}
+	}
+
+	/**
+	 * The choices for the variable of a variable component.
+	 */
+	private static final class Variable {
+
+		private final URI identity;
+		private final String displayId;
+		private final OperatorType operator;
+		private final List<URI> variants;
+		private final List<DesignSpace> derivations;
+		private final Map<URI, Integer> variantIndexes;
+		private final BigInteger options;
+
+		/**
+		 * @throws ArithmeticException if the variable has too many subsets of choices to be counted
+		 */
+		private Variable(URI identity, String displayId, OperatorType operator, List<URI> variants,
+				List<DesignSpace> derivations) {
+			this.identity = identity;
+			this.displayId = displayId;
+			this.operator = operator;
+			this.variants = variants;
+			this.derivations = derivations;
+			variantIndexes = new HashMap<>();
+			for (int i = 0; i < variants.size(); i++) {
+				variantIndexes.put(variants.get(i), i);
+			}
+			BigInteger choices = BigInteger.valueOf(variants.size());
+			for (DesignSpace derivation : derivations) {
+				choices = choices.add(derivation.getSize());
+			}
+			switch (operator) {
+			case ONE:
+				options = choices;
+				break;
+			case ZEROORONE:
+				options = choices.add(BigInteger.ONE);
+				break;
+			default:
+				if (choices.bitLength() >= Integer.SIZE) {
+					throw new ArithmeticException("Variable " + identity + " has too many subsets of choices.");
+				}
+				BigInteger subsets = BigInteger.ONE.shiftLeft(choices.intValue());
+				options = operator == OperatorType.ONEORMORE ? subsets.subtract(BigInteger.ONE) : subsets;
+			}
+		}
+
+		/**
+		 * Returns the identities of the component definitions of the given option, adding the designs of
+		 * variant derivations they include to the given map.
+		 */
+		private List<URI> choose(BigInteger option, Map<URI, ComponentDefinition> dependencies)
+				throws SBOLValidationException {
+			List<URI> chosen = new ArrayList<>();
+			switch (operator) {
+			case ONE:
+				chosen.add(choice(option, dependencies));
+				break;
+			case ZEROORONE:
+				if (option.signum() > 0) {
+					chosen.add(choice(option.subtract(BigInteger.ONE), dependencies));
+				}
+				break;
+			default:
+				BigInteger mask = operator == OperatorType.ONEORMORE ? option.add(BigInteger.ONE) : option;
+				for (int choice = 0; choice < mask.bitLength(); choice++) {
+					if (mask.testBit(choice)) {
+						chosen.add(choice(BigInteger.valueOf(choice), dependencies));
+					}
+				}
+			}
+			return chosen;
+		}
+
+		private URI choice(BigInteger choice, Map<URI, ComponentDefinition> dependencies)
+				throws SBOLValidationException {
+			if (choice.compareTo(BigInteger.valueOf(variants.size())) < 0) {
+				return variants.get(choice.intValue());
+			}
+			choice = choice.subtract(BigInteger.valueOf(variants.size()));
+			for (DesignSpace derivation : derivations) {
+				if (choice.compareTo(derivation.getSize()) < 0) {
+					Design design = derivation.get(choice);
+					for (ComponentDefinition cd : design.getComponentDefinitions()) {
+						if (!dependencies.containsKey(cd.getIdentity())) {
+							dependencies.put(cd.getIdentity(), cd);
+						}
+					}
+					return design.getComponentDefinition().getIdentity();
+				}
+				choice = choice.subtract(derivation.getSize());
+			}
+			throw new IndexOutOfBoundsException(String.valueOf(choice));
+		}
+
+		/**
+		 * Returns the option of this variable chosen by the given component definition, which is a design of
+		 * the design space of this variable, or {@code null} if it is not one of its options.
+		 */
+		private BigInteger rank(ComponentDefinition cd) throws SBOLValidationException {
+			List<BigInteger> chosen = new ArrayList<>();
+			for (Component component : cd.getComponents()) {
+				if (component.getWasDerivedFroms().contains(identity)) {
+					BigInteger choice = rank(component.getDefinitionURI());
+					if (choice == null) {
+						return null;
+					}
+					chosen.add(choice);
+				}
+			}
+			switch (operator) {
+			case ONE:
+				return chosen.size() == 1 ? chosen.get(0) : null;
+			case ZEROORONE:
+				if (chosen.size() > 1) {
+					return null;
+				}
+				return chosen.isEmpty() ? BigInteger.ZERO : chosen.get(0).add(BigInteger.ONE);
+			default:
+				BigInteger mask = BigInteger.ZERO;
+				for (BigInteger choice : chosen) {
+					if (choice.bitLength() >= Integer.SIZE || mask.testBit(choice.intValue())) {
+						return null;
+					}
+					mask = mask.setBit(choice.intValue());
+				}
+				if (operator == OperatorType.ONEORMORE) {
+					return mask.signum() > 0 ? mask.subtract(BigInteger.ONE) : null;
+				}
+				return mask;
+			}
+		}
+
+		/**
+		 * Returns the index of the choice of this variable with the given identity, or {@code null} if there
+		 * is none.
+		 */
+		private BigInteger rank(URI definition) throws SBOLValidationException {
+			Integer variantIndex = variantIndexes.get(definition);
+			if (variantIndex != null) {
+				return BigInteger.valueOf(variantIndex);
+			}
+			BigInteger offset = BigInteger.valueOf(variants.size());
+			for (DesignSpace derivation : derivations) {
+				BigInteger index = derivation.indexOf(definition);
+				if (index != null) {
+					return offset.add(index);
+				}
+				offset = offset.add(derivation.getSize());
+			}
+			return null;
+		}
+	}
+
+	private static final Comparator<Identified> IDENTITY_ORDER = new Comparator<Identified>() {
+		@Override
+		public int compare(Identified identified1, Identified identified2) {
+			return identified1.getIdentity().compareTo(identified2.getIdentity());
+		}
+	};
+
+	private final CombinatorialDerivation derivation;
+	private final ComponentDefinition template;
+	private final String URIprefix;
+	private final String version;
+	private final List<Variable> variables;
+	private final BigInteger size;
+
+	/**
+	 * @param derivation the combinatorial derivation whose designs are enumerated
+	 * @throws SBOLValidationException if any of the following SBOL validation rules was violated: 12905,
+	 *             13005, 13008, 13010, 13012, 13014, 13015.
+	 * @throws ArithmeticException if a variable component with operator {@link OperatorType#ONEORMORE} or
+	 *             {@link OperatorType#ZEROORMORE} has too many subsets of choices to be counted
+	 */
+	DesignSpace(CombinatorialDerivation derivation) throws SBOLValidationException {
+		this(derivation, new HashSet<URI>(), new HashMap<URI, DesignSpace>());
+	}
+
+	/**
+	 * Creates the design space of the given combinatorial derivation, whose variant derivations must not
+	 * be in the given set of those being created, and reuses the design spaces of variant derivations
+	 * in the given map of those created so far.
+	 */
+	private DesignSpace(CombinatorialDerivation derivation, Set<URI> visiting, Map<URI, DesignSpace> created)
+			throws SBOLValidationException {
+		this.derivation = derivation;
+		template = derivation.getTemplate();
+		if (template == null) {
+			throw new SBOLValidationException("sbol-12905", derivation);
+		}
+		URIprefix = URIcompliance.extractURIprefix(derivation.getIdentity());
+		if (URIprefix == null) {
+			throw new IllegalArgumentException("Combinatorial derivation " + derivation.getIdentity()
+					+ " does not have a compliant URI.");
+		}
+		version = derivation.isSetVersion() ? derivation.getVersion() : "";
+		visiting.add(derivation.getIdentity());
+		List<VariableComponent> variableComponents = new ArrayList<>(derivation.getVariableComponents());
+		Collections.sort(variableComponents, new Comparator<VariableComponent>() {
+			@Override
+			public int compare(VariableComponent variableComponent1, VariableComponent variableComponent2) {
+				return variableComponent1.getVariableURI().compareTo(variableComponent2.getVariableURI());
+			}
+		});
+		variables = new ArrayList<>();
+		BigInteger size = BigInteger.ONE;
+		for (VariableComponent variableComponent : variableComponents) {
+			Variable variable = getVariable(variableComponent, visiting, created);
+			variables.add(variable);
+			size = size.multiply(variable.options);
+		}
+		visiting.remove(derivation.getIdentity());
+		created.put(derivation.getIdentity(), this);
+		this.size = size;
+	}
+
+	private Variable getVariable(VariableComponent variableComponent, Set<URI> visiting,
+			Map<URI, DesignSpace> created) throws SBOLValidationException {
+		SBOLDocument document = derivation.getSBOLDocument();
+		Component component = template.getComponent(variableComponent.getVariableURI());
+		if (component == null) {
+			throw new SBOLValidationException("sbol-13005", variableComponent);
+		}
+		List<URI> variantURIs = new ArrayList<>(variableComponent.getVariantURIs());
+		Collections.sort(variantURIs);
+		Set<URI> variants = new LinkedHashSet<>();
+		for (URI variantURI : variantURIs) {
+			if (document.getComponentDefinition(variantURI) == null) {
+				throw new SBOLValidationException("sbol-13008", variableComponent);
+			}
+			variants.add(variantURI);
+		}
+		List<URI> collectionURIs = new ArrayList<>(variableComponent.getVariantCollectionURIs());
+		Collections.sort(collectionURIs);
+		for (URI collectionURI : collectionURIs) {
+			Collection collection = document.getCollection(collectionURI);
+			if (collection == null) {
+				throw new SBOLValidationException("sbol-13010", variableComponent);
+			}
+			List<URI> memberURIs = new ArrayList<>(collection.getMemberURIs());
+			Collections.sort(memberURIs);
+			for (URI memberURI : memberURIs) {
+				if (document.getComponentDefinition(memberURI) == null) {
+					throw new SBOLValidationException("sbol-13012", variableComponent);
+				}
+				variants.add(memberURI);
+			}
+		}
+		List<URI> derivationURIs = new ArrayList<>(variableComponent.getVariantDerivationURIs());
+		Collections.sort(derivationURIs);
+		List<DesignSpace> derivations = new ArrayList<>();
+		for (URI derivationURI : derivationURIs) {
+			CombinatorialDerivation variantDerivation = document.getCombinatorialDerivation(derivationURI);
+			if (variantDerivation == null) {
+				throw new SBOLValidationException("sbol-13014", variableComponent);
+			}
+			if (visiting.contains(variantDerivation.getIdentity())) {
+				throw new SBOLValidationException("sbol-13015", variableComponent);
+			}
+			DesignSpace designSpace = created.get(variantDerivation.getIdentity());
+			if (designSpace == null) {
+				designSpace = new DesignSpace(variantDerivation, visiting, created);
+			}
+			derivations.add(designSpace);
+		}
+		return new Variable(component.getIdentity(), component.getDisplayId(), variableComponent.getOperator(),
+				new ArrayList<>(variants), derivations);
+	}
+
+	/**
+	 * Returns the combinatorial derivation of this design space.
+	 *
+	 * @return the combinatorial derivation of this design space
+	 */
+	public CombinatorialDerivation getDerivation() {
+		return derivation;
+	}
+
+	/**
+	 * Returns the number of designs in this design space.
+	 *
+	 * @return the number of designs in this design space
+	 */
+	public BigInteger getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of designs in this design space, if it fits in a {@code long}.
+	 *
+	 * @return the number of designs in this design space
+	 * @throws ArithmeticException if the design space has more than {@link Long#MAX_VALUE} designs
+	 */
+	public long size() {
+		return size.longValueExact();
+	}
+
+	/**
+	 * Returns the design with the given index.
+	 *
+	 * @param index the index of the design
+	 * @return the design with the given index
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in {@link #get(BigInteger)}.
+	 */
+	public Design get(long index) throws SBOLValidationException {
+		return get(BigInteger.valueOf(index));
+	}
+
+	/**
+	 * Returns the design with the given index, the inverse of {@link #rank(ComponentDefinition)}.
+	 * <p>
+	 * Its component definition is created with the URI prefix of the combinatorial derivation, its
+	 * display ID followed by an underscore and the index, and the version of the combinatorial derivation.
+	 *
+	 * @param index the index of the design
+	 * @return the design with the given index
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred while the template was
+	 *             copied, or while its components and sequence constraints were updated.
+	 * @throws IndexOutOfBoundsException if the index is negative, or not less than {@link #getSize()}
+	 */
+	public Design get(BigInteger index) throws SBOLValidationException {
+		if (index.signum() < 0 || index.compareTo(size) >= 0) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		ComponentDefinition cd = template.copy(URIprefix, derivation.getDisplayId() + "_" + index, version);
+		cd.clearSequences();
+		cd.addWasDerivedFrom(derivation.getIdentity());
+		for (Component component : template.getComponents()) {
+			if (component.isSetDisplayId() && cd.getComponent(component.getDisplayId()) != null) {
+				cd.getComponent(component.getDisplayId()).addWasDerivedFrom(component.getIdentity());
+			}
+		}
+		Map<URI, ComponentDefinition> dependencies = new LinkedHashMap<>();
+		BigInteger digits = index;
+		for (Variable variable : variables) {
+			BigInteger[] digit = digits.divideAndRemainder(variable.options);
+			List<URI> chosen = variable.choose(digit[1], dependencies);
+			digits = digit[0];
+			Component component = cd.getComponent(variable.displayId);
+			if (chosen.isEmpty()) {
+				remove(cd, component);
+			} else {
+				replace(cd, component, variable.identity, chosen);
+			}
+		}
+		List<ComponentDefinition> componentDefinitions = new ArrayList<>(dependencies.values());
+		componentDefinitions.add(cd);
+		return new Design(index, cd, Collections.unmodifiableList(componentDefinitions));
+	}
+
+	/**
+	 * Returns the index of the given design of this design space, the inverse of {@link #get(BigInteger)}.
+	 * <p>
+	 * The option chosen for each variable component is recovered from the components of the given
+	 * component definition derived from its variable, and the designs of variant derivations they refer to
+	 * are recognized by their identities, so the component definitions of a design need not be in a
+	 * document to be ranked.
+	 *
+	 * @param componentDefinition a design of this design space
+	 * @return the index of the given design
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred while the identity of a
+	 *             design of a variant derivation was created.
+	 * @throws IllegalArgumentException if the given component definition does not make a choice allowed by
+	 *             each variable component of this design space
+	 */
+	public BigInteger rank(ComponentDefinition componentDefinition) throws SBOLValidationException {
+		BigInteger index = BigInteger.ZERO;
+		BigInteger radix = BigInteger.ONE;
+		for (Variable variable : variables) {
+			BigInteger option = variable.rank(componentDefinition);
+			if (option == null) {
+				throw new IllegalArgumentException("Component definition " + componentDefinition.getIdentity()
+						+ " is not a design of " + derivation.getIdentity() + " for variable " + variable.identity + ".");
+			}
+			index = index.add(option.multiply(radix));
+			radix = radix.multiply(variable.options);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the index of the design of this design space with the given identity, or {@code null} if
+	 * there is none.
+	 */
+	private BigInteger indexOf(URI identity) throws SBOLValidationException {
+		String path = identity.toString();
+		if (!version.isEmpty()) {
+			if (!path.endsWith("/" + version)) {
+				return null;
+			}
+			path = path.substring(0, path.length() - version.length() - 1);
+		}
+		int start = path.lastIndexOf('_') + 1;
+		if (start == 0 || start == path.length()) {
+			return null;
+		}
+		for (int i = start; i < path.length(); i++) {
+			if (path.charAt(i) < '0' || path.charAt(i) > '9') {
+				return null;
+			}
+		}
+		BigInteger index = new BigInteger(path.substring(start));
+		if (index.compareTo(size) >= 0 || !URIcompliance.createCompliantURI(URIprefix,
+				derivation.getDisplayId() + "_" + index, version).equals(identity)) {
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns a design of this design space drawn uniformly at random.
+	 *
+	 * @param random the source of randomness
+	 * @return a random design of this design space
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in {@link #get(BigInteger)}.
+	 * @throws NoSuchElementException if this design space is empty
+	 */
+	public Design sample(Random random) throws SBOLValidationException {
+		if (size.signum() == 0) {
+			throw new NoSuchElementException();
+		}
+		return get(sampleIndex(random));
+	}
+
+	/**
+	 * Returns the given number of distinct indexes of designs of this design space, drawn uniformly at
+	 * random without replacement, in the order they were drawn. The designs are derived only when asked for
+	 * with {@link #get(BigInteger)}.
+	 *
+	 * @param count the number of indexes to be drawn
+	 * @param random the source of randomness
+	 * @return the drawn indexes
+	 * @throws IllegalArgumentException if the count is negative, or greater than {@link #getSize()}
+	 */
+	public Set<BigInteger> sampleIndexes(int count, Random random) {
+		if (count < 0 || BigInteger.valueOf(count).compareTo(size) > 0) {
+			throw new IllegalArgumentException("Unable to draw " + count + " of " + size + " designs.");
+		}
+		Set<BigInteger> indexes = new LinkedHashSet<>();
+		while (indexes.size() < count) {
+			indexes.add(sampleIndex(random));
+		}
+		return indexes;
+	}
+
+	/**
+	 * Returns an index drawn uniformly at random from those of this non-empty design space, rejecting
+	 * those beyond its size among the numbers with as many bits.
+	 */
+	private BigInteger sampleIndex(Random random) {
+		BigInteger index;
+		do {
+			index = new BigInteger(size.bitLength(), random);
+		} while (index.compareTo(size) >= 0);
+		return index;
+	}
+
+	/**
+	 * Removes the given component, and everything that refers to it, from the given component definition.
+	 */
+	private static void remove(ComponentDefinition cd, Component component) throws SBOLValidationException {
+		for (SequenceAnnotation sa : cd.getSequenceAnnotations()) {
+			if (sa.isSetComponent() && sa.getComponentURI().equals(component.getIdentity())) {
+				cd.removeSequenceAnnotation(sa);
+			}
+		}
+		List<SequenceConstraint> following = new ArrayList<>();
+		List<SequenceConstraint> preceding = new ArrayList<>();
+		for (SequenceConstraint sc : cd.getSequenceConstraints()) {
+			if (sc.getObjectURI().equals(component.getIdentity())) {
+				if (sc.getRestriction() == RestrictionType.PRECEDES) {
+					following.add(sc);
+				}
+				cd.removeSequenceConstraint(sc);
+			} else if (sc.getSubjectURI().equals(component.getIdentity())) {
+				if (sc.getRestriction() == RestrictionType.PRECEDES) {
+					preceding.add(sc);
+				}
+				cd.removeSequenceConstraint(sc);
+			}
+		}
+		Collections.sort(following, IDENTITY_ORDER);
+		Collections.sort(preceding, IDENTITY_ORDER);
+		for (SequenceConstraint before : following) {
+			for (SequenceConstraint after : preceding) {
+				if (!before.getSubjectURI().equals(after.getObjectURI())) {
+					cd.createSequenceConstraint(before.getDisplayId() + "_" + after.getDisplayId(),
+							RestrictionType.PRECEDES, before.getSubjectURI(), after.getObjectURI());
+				}
+			}
+		}
+		for (Component c : cd.getComponents()) {
+			for (MapsTo mapsTo : c.getMapsTos()) {
+				if (mapsTo.getLocalURI().equals(component.getIdentity())) {
+					c.removeMapsTo(mapsTo);
+				}
+			}
+		}
+		cd.removeComponent(component);
+	}
+
+	/**
+	 * Replaces the given component of the given component definition, which was derived from the given
+	 * variable, by components whose definitions are the given ones. Each copy of the component is given a
+	 * copy of each sequence constraint of the component, so that every component derived from the same
+	 * component of the template follows the restrictions of its sequence constraints.
+	 */
+	private static void replace(ComponentDefinition cd, Component component, URI variable, List<URI> chosen)
+			throws SBOLValidationException {
+		component.setDefinition(chosen.get(0));
+		List<SequenceConstraint> constraints = new ArrayList<>();
+		for (SequenceConstraint sc : cd.getSequenceConstraints()) {
+			if ((sc.getSubjectURI().equals(component.getIdentity()) || sc.getObjectURI().equals(component.getIdentity()))
+					&& sc.getRestriction() != null) {
+				constraints.add(sc);
+			}
+		}
+		Collections.sort(constraints, IDENTITY_ORDER);
+		Component previous = component;
+		for (int i = 1; i < chosen.size(); i++) {
+			Component copy = cd.createComponent(component.getDisplayId() + "_" + (i + 1), component.getAccess(),
+					chosen.get(i));
+			copy.setRoles(component.getRoles());
+			if (component.isSetRoleIntegration()) {
+				copy.setRoleIntegration(component.getRoleIntegration());
+			}
+			copy.addWasDerivedFrom(variable);
+			cd.createSequenceConstraint(component.getDisplayId() + "_constraint" + i, RestrictionType.PRECEDES,
+					previous.getIdentity(), copy.getIdentity());
+			for (SequenceConstraint sc : constraints) {
+				URI subject = sc.getSubjectURI().equals(component.getIdentity()) ? copy.getIdentity() : sc.getSubjectURI();
+				URI object = sc.getObjectURI().equals(component.getIdentity()) ? copy.getIdentity() : sc.getObjectURI();
+				cd.createSequenceConstraint(sc.getDisplayId() + "_" + (i + 1), sc.getRestriction(), subject, object);
+			}
+			previous = copy;
+		}
+	}
+
+	/**
+	 * Returns an iterator over the designs of this design space, in the order of their indexes.
+	 * <p>
+	 * An SBOL validation rule violation that occurs while a design is derived is thrown as an
+	 * {@link IllegalStateException} caused by it.
+	 */
+	@Override
+	public Iterator<Design> iterator() {
+		return new Iterator<Design>() {
+
+			private BigInteger index = BigInteger.ZERO;
+
+			@Override
+			public boolean hasNext() {
+				return index.compareTo(size) < 0;
+			}
+
+			@Override
+			public Design next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Design design = derive(index);
+				index = index.add(BigInteger.ONE);
+				return design;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns a spliterator over the designs of this design space, which splits the range of their indexes
+	 * in halves.
+	 * <p>
+	 * An SBOL validation rule violation that occurs while a design is derived is thrown as an
+	 * {@link IllegalStateException} caused by it.
+	 */
+	@Override
+	public Spliterator<Design> spliterator() {
+		return new DesignSpliterator(BigInteger.ZERO, size);
+	}
+
+	/**
+	 * Returns a sequential stream of the designs of this design space, in the order of their indexes.
+	 *
+	 * @return a sequential stream of the designs of this design space
+	 */
+	public Stream<Design> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the designs of this design space.
+	 *
+	 * @return a parallel stream of the designs of this design space
+	 */
+	public Stream<Design> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	private Design derive(BigInteger index) {
+		try {
+			return get(index);
+		} catch (SBOLValidationException e) {
+			throw new IllegalStateException("Unable to derive design " + index + " of "
+					+ derivation.getIdentity(), e);
+		}
+	}
+
+	private final class DesignSpliterator implements Spliterator<Design> {
+
+		private BigInteger index;
+		private final BigInteger end;
+
+		private DesignSpliterator(BigInteger index, BigInteger end) {
+			this.index = index;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Design> action) {
+			if (index.compareTo(end) >= 0) {
+				return false;
+			}
+			Design design = derive(index);
+			index = index.add(BigInteger.ONE);
+			action.accept(design);
+			return true;
+		}
+
+		@Override
+		public Spliterator<Design> trySplit() {
+			BigInteger middle = index.add(end.subtract(index).shiftRight(1));
+			if (middle.compareTo(index) <= 0) {
+				return null;
+			}
+			Spliterator<Design> prefix = new DesignSpliterator(index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		/**
+		 * Returns the number of remaining designs, or {@link Long#MAX_VALUE} if there are more.
+		 */
+		@Override
+		public long estimateSize() {
+			BigInteger remaining = end.subtract(index);
+			return remaining.bitLength() < Long.SIZE ? remaining.longValue() : Long.MAX_VALUE;
+		}
+
+		/**
+		 * Reports the designs as sized only while their number fits in a {@code long}.
+		 */
+		@Override
+		public int characteristics() {
+			int characteristics = ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+			if (end.subtract(index).bitLength() < Long.SIZE) {
+				characteristics |= SIZED | SUBSIZED;
+			}
+			return characteristics;
+		}
+	}
+}
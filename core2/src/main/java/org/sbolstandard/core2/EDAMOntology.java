@@ -30,7 +30,7 @@ public class EDAMOntology {
 	 * Namespace of the EDAM Ontology (<a href="http://identifiers.org/edam/">http://identifiers.org/edam/</a>).
 	 */
 	public static final URI NAMESPACE = URI.create(URI_PREFIX);
-	private static OBOOntology EDAMOntology = null;
+	private static volatile OBOOntology EDAMOntology = null;
 
 	/**
 	 * Construct an EDAM ontology object and read the OBO definition file, if necessary.
@@ -7,6 +7,8 @@ import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.Writer;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Methods to convert FASTA to/from SBOL Sequences
@@ -71,7 +73,27 @@ class FASTA {
 		} else {
 			w.write("> " + sequence.getDisplayId() + "\n");
 		}
-		writeFASTALine(w,sequence.getElements(),lineWidth);
+		if (sequence.isMapped()) {
+			writeFASTALines(w,sequence,lineWidth);
+		} else {
+			writeFASTALine(w,sequence.getElements(),lineWidth);
+		}
+	}
+
+	/**
+	 * Writes the elements of the given sequence a line at a time, breaking lines as
+	 * {@link #writeFASTALine(Writer, String, int)} does for elements with no spaces, so that mapped
+	 * elements are never decoded in full.
+	 */
+	private static void writeFASTALines(Writer w, Sequence sequence, int margin) throws IOException {
+		int length = sequence.getElementsLength();
+		if (length < margin) {
+			w.write(sequence.getElements()+"\n");
+			return;
+		}
+		for (int i = 0; i < length; i += margin-1) {
+			w.write(sequence.getElements(i, Math.min(length, i+margin-1))+"\n");
+		}
 	}
 
 	private static String readFASTALine(BufferedReader br) throws IOException {
@@ -127,26 +149,105 @@ class FASTA {
 	
 	/**
 	 * @param doc
-	 * @param stringBuffer
 	 * @param URIprefix
+	 * @param displayId
 	 * @param version
+	 * @param elements the elements read, in a {@link StringBuilder} or a {@link MappedElements.Builder}
 	 * @param encoding
+	 * @return
 	 * @throws SBOLValidationException if an SBOL validation rule was violated in {@link #createSequence(SBOLDocument, String, String, String, String, URI)}.
+	 * @throws IOException if mapped elements could not be written
+	 */
+	private static Sequence createSequence(SBOLDocument doc,String URIprefix,String displayId,String version,
+			Appendable elements,URI encoding) throws SBOLValidationException, IOException {
+		if (!(elements instanceof MappedElements.Builder)) {
+			return createSequence(doc,URIprefix,displayId,version,elements.toString(),encoding);
+		}
+		CharSequence mapped = ((MappedElements.Builder)elements).build();
+		Sequence sequence = createSequence(doc,URIprefix,displayId,version,"",encoding);
+		try {
+			sequence.setMappedElements(mapped);
+		} catch (SBOLValidationException e) {
+			if (encoding.equals(Sequence.IUPAC_DNA)) {
+				sequence.setEncoding(Sequence.IUPAC_PROTEIN);
+			} else {
+				sequence.setEncoding(Sequence.IUPAC_DNA);
+			}
+			try {
+				sequence.setMappedElements(mapped);
+			} catch (SBOLValidationException e1) {
+				doc.removeSequence(sequence);
+				throw new SBOLValidationException(e1.getMessage());
+			}
+		}
+		return sequence;
+	}
+
+	/**
+	 * Returns a buffer for the elements of the next sequence, which is mapped if
+	 * {@link SBOLReader#isMapSequences()} is set, and then added to the given list.
+	 */
+	private static Appendable createElementsBuffer(List<MappedElements.Builder> mappedBuffers) {
+		if (SBOLReader.isMapSequences()) {
+			MappedElements.Builder buffer = new MappedElements.Builder();
+			mappedBuffers.add(buffer);
+			return buffer;
+		}
+		return new StringBuilder();
+	}
+
+	/**
+	 * @param doc
+	 * @param stringBuffer
+	 * @param URIprefix
+	 * @param version
+	 * @param encoding
+	 * @throws SBOLValidationException if an SBOL validation rule was violated in {@link #read(SBOLDocument, BufferedReader, String, String, URI)}.
 	 * @throws IOException
 	 */
 	static void read(SBOLDocument doc,String stringBuffer,String URIprefix,String version,URI encoding) throws SBOLValidationException, IOException
+	{
+		read(doc,new BufferedReader(new StringReader(stringBuffer)),URIprefix,version,encoding);
+	}
+
+	/**
+	 * Reads FASTA from the given reader a line at a time, so that mapped sequence elements go
+	 * straight from the reader to their files.
+	 *
+	 * @param doc
+	 * @param br
+	 * @param URIprefix
+	 * @param version
+	 * @param encoding
+	 * @throws SBOLValidationException if an SBOL validation rule was violated in {@link #createSequence(SBOLDocument, String, String, String, Appendable, URI)}.
+	 * @throws IOException
+	 */
+	static void read(SBOLDocument doc,BufferedReader br,String URIprefix,String version,URI encoding) throws SBOLValidationException, IOException
+	{
+		List<MappedElements.Builder> mappedBuffers = new ArrayList<>();
+		try {
+			read(doc,br,URIprefix,version,encoding,mappedBuffers);
+		} finally {
+			// The temporary files of elements left unmapped because reading failed are deleted.
+			for (MappedElements.Builder buffer : mappedBuffers) {
+				buffer.discard();
+			}
+		}
+	}
+
+	private static void read(SBOLDocument doc,BufferedReader br,String URIprefix,String version,URI encoding,
+			List<MappedElements.Builder> mappedBuffers) throws SBOLValidationException, IOException
 	{
 		// reset the global static variables needed for parsing
 		nextLine = null;
 		//lineCounter = 0;
 
 		String strLine;
-		StringBuilder sbSequence = new StringBuilder();
+		Appendable sbSequence = createElementsBuffer(mappedBuffers);
 		String elements = null;
 		String description = "";
 		boolean sequenceMode = false;
 		String displayId;
-		BufferedReader br = new BufferedReader(new StringReader(stringBuffer));
 
 		while ((strLine = readFASTALine(br)) != null)   {
 			strLine = strLine.trim();
@@ -161,10 +262,10 @@ class FASTA {
 						displayId = description;
 					}
 					displayId = URIcompliance.fixDisplayId(displayId);
-					Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence.toString(),encoding);
+					Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence,encoding);
 					sequence.setDescription(description);
 					description = "";
-					sbSequence = new StringBuilder();
+					sbSequence = createElementsBuffer(mappedBuffers);
 				}
 				description += strLine.replaceFirst(">", "").trim();
 			} else if (strLine.startsWith(";")) {
@@ -177,10 +278,10 @@ class FASTA {
 						displayId = description;
 					}
 					displayId = URIcompliance.fixDisplayId(displayId);
-					Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence.toString(),encoding);
+					Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence,encoding);
 					sequence.setDescription(description);
 					description = "";
-					sbSequence = new StringBuilder();
+					sbSequence = createElementsBuffer(mappedBuffers);
 				}
 				description += strLine.replaceFirst(";", "").trim();
 			} else {
@@ -199,7 +300,7 @@ class FASTA {
 			displayId = description;
 		}
 		displayId = URIcompliance.fixDisplayId(displayId);
-		Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence.toString(),encoding);
+		Sequence sequence = createSequence(doc,URIprefix,displayId,version,sbSequence,encoding);
 		sequence.setDescription(description);
 		br.close();
 	}
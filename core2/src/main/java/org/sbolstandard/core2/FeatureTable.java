@@ -0,0 +1,337 @@
+package org.sbolstandard.core2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flattened, linear view of the sequence annotations of a component definition and of the component
+ * definitions nested within it, returned by {@link ComponentDefinition#getFeatureTable()}.
+ * <p>
+ * The table has a feature for every sequence annotation reachable from the component definition through
+ * the definitions of the components of sequence annotations, with its coordinates and strand on the
+ * sequence of the component definition, and the path of sequence annotations that leads to it. A nested
+ * sequence annotation is placed within the range from the start to the end of the sequence annotation whose
+ * component refers to its component definition, and reversed within that range if that sequence annotation
+ * is on the reverse complement strand. A sequence annotation with ranges or cuts on both strands is taken
+ * as lying entirely on the reverse complement strand, as in GenBank export. Features are listed depth
+ * first, with the sequence annotations of each component definition in the order of their display IDs,
+ * and each feature after the features nested within it, which is the order in which they are exported to
+ * GenBank.
+ * <p>
+ * The features of each component definition are computed only once while a table is built, however many
+ * sequence annotations refer to it, and are then placed within each of them. A table is immutable once
+ * built, and is discarded once the document is modified.
+ *
+ * @version 2.1
+ */
+
+public final class FeatureTable {
+
+	/**
+	 * A sequence annotation placed on the sequence of the component definition of a feature table.
+	 */
+	public static final class Feature {
+
+		private final SequenceAnnotation annotation;
+		private final ComponentDefinition definition;
+		private final List<SequenceAnnotation> path;
+		private final boolean leaf;
+		private final int base;
+		private final int direction;
+		private final int frameOffset;
+		private final boolean frameInline;
+		private final int frameEnd;
+
+		private Feature(SequenceAnnotation annotation, ComponentDefinition definition, List<SequenceAnnotation> path,
+				boolean leaf, int base, int direction, int frameOffset, boolean frameInline, int frameEnd) {
+			this.annotation = annotation;
+			this.definition = definition;
+			this.path = path;
+			this.leaf = leaf;
+			this.base = base;
+			this.direction = direction;
+			this.frameOffset = frameOffset;
+			this.frameInline = frameInline;
+			this.frameEnd = frameEnd;
+		}
+
+		/**
+		 * Returns this feature placed within the given sequence annotation, whose component definition
+		 * owns the sequence annotation of this feature or one leading to it.
+		 */
+		private Feature within(SequenceAnnotation outer, int outerBase, int outerDirection, int outerFrameOffset,
+				boolean outerFrameInline, int outerFrameEnd) {
+			List<SequenceAnnotation> outerPath = new ArrayList<>(path.size() + 1);
+			outerPath.add(outer);
+			outerPath.addAll(path);
+			return new Feature(annotation, definition, Collections.unmodifiableList(outerPath), leaf,
+					outerBase + outerDirection * base, outerDirection * direction, outerFrameOffset + frameOffset,
+					outerFrameInline == frameInline, frameEnd != NO_FRAME_END ? frameEnd : outerFrameEnd);
+		}
+
+		/**
+		 * Returns the sequence annotation of this feature.
+		 *
+		 * @return the sequence annotation of this feature
+		 */
+		public SequenceAnnotation getAnnotation() {
+			return annotation;
+		}
+
+		/**
+		 * Returns the component definition of the component of the sequence annotation of this feature.
+		 *
+		 * @return the component definition of the component of the sequence annotation of this feature, or
+		 *         {@code null} if it has no component, or if its component definition is not in the document
+		 */
+		public ComponentDefinition getDefinition() {
+			return definition;
+		}
+
+		/**
+		 * Returns the sequence annotations that lead from the component definition of the feature table to
+		 * this feature, starting with one owned by that component definition and ending with the sequence
+		 * annotation of this feature.
+		 *
+		 * @return the source path of this feature
+		 */
+		public List<SequenceAnnotation> getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns {@code true} if no features are nested within this feature.
+		 *
+		 * @return {@code true} if no features are nested within this feature, {@code false} otherwise
+		 */
+		public boolean isLeaf() {
+			return leaf;
+		}
+
+		/**
+		 * Returns {@code true} if the sequence annotation of this feature has a range or cut, and so this
+		 * feature has coordinates.
+		 *
+		 * @return {@code true} if this feature has coordinates, {@code false} otherwise
+		 */
+		public boolean hasCoordinates() {
+			return !annotation.getPreciseLocations().isEmpty();
+		}
+
+		/**
+		 * Returns the first position on the sequence of the component definition of the feature table
+		 * covered by a range or cut of this feature.
+		 *
+		 * @return the start of this feature, or 0 if it has no coordinates
+		 */
+		public int getStart() {
+			if (!hasCoordinates()) {
+				return 0;
+			}
+			return Math.min(place(getFeatureStart(annotation)), place(getFeatureEnd(annotation)));
+		}
+
+		/**
+		 * Returns the last position on the sequence of the component definition of the feature table
+		 * covered by a range or cut of this feature.
+		 *
+		 * @return the end of this feature, or 0 if it has no coordinates
+		 */
+		public int getEnd() {
+			if (!hasCoordinates()) {
+				return 0;
+			}
+			return Math.max(place(getFeatureStart(annotation)), place(getFeatureEnd(annotation)));
+		}
+
+		/**
+		 * Returns the strand of this feature on the sequence of the component definition of the feature
+		 * table.
+		 *
+		 * @return {@link OrientationType#REVERSECOMPLEMENT} if this feature is on the reverse complement
+		 *         strand, or {@link OrientationType#INLINE} otherwise
+		 */
+		public OrientationType getOrientation() {
+			return (direction < 0) == isInlineFeature(annotation) ? OrientationType.REVERSECOMPLEMENT
+					: OrientationType.INLINE;
+		}
+
+		/**
+		 * Returns the given position on the sequence of the component definition that owns the sequence
+		 * annotation of this feature as a position on the sequence of the component definition of the
+		 * feature table.
+		 *
+		 * @param position the position to be placed
+		 * @return the placed position
+		 */
+		public int place(int position) {
+			return base + direction * position;
+		}
+
+		/**
+		 * Returns the offset by which the GenBank writer shifts the locations of this feature.
+		 */
+		int getFrameOffset() {
+			return frameOffset;
+		}
+
+		/**
+		 * Returns {@code false} if the GenBank writer reaches this feature through an odd number of sequence
+		 * annotations on the reverse complement strand.
+		 */
+		boolean isFrameInline() {
+			return frameInline;
+		}
+
+		/**
+		 * Returns the end of the nearest sequence annotation on the reverse complement strand that leads to
+		 * this feature, as the GenBank writer uses it, or 0 if there is none.
+		 */
+		int getFrameEnd() {
+			return frameEnd == NO_FRAME_END ? 0 : frameEnd;
+		}
+
+		@Override
+		public String toString() {
+			return "Feature [annotation=" + annotation.getIdentity() + ", start=" + getStart() + ", end="
+					+ getEnd() + ", orientation=" + getOrientation() + "]";
+		}
+	}
+
+	private static final int NO_FRAME_END = -1;
+
+	private final List<Feature> features;
+
+	/**
+	 * @param componentDefinition
+	 *            the component definition whose features are listed
+	 */
+	FeatureTable(ComponentDefinition componentDefinition) {
+		this.features = Collections.unmodifiableList(getFeatures(componentDefinition,
+				new IdentityHashMap<ComponentDefinition, List<Feature>>()));
+	}
+
+	/**
+	 * Returns the features of this table, in the order described for {@link FeatureTable}.
+	 *
+	 * @return the features of this table
+	 */
+	public List<Feature> getFeatures() {
+		return features;
+	}
+
+	/**
+	 * Returns the features of this table that have no features nested within them, in the order described
+	 * for {@link FeatureTable}.
+	 *
+	 * @return the leaf features of this table
+	 */
+	public List<Feature> getLeafFeatures() {
+		List<Feature> leaves = new ArrayList<>();
+		for (Feature feature : features) {
+			if (feature.isLeaf()) {
+				leaves.add(feature);
+			}
+		}
+		return leaves;
+	}
+
+	/**
+	 * Returns the features of the given component definition, placed on its own sequence, computing them
+	 * if they are not in the given map of those computed so far.
+	 */
+	private static List<Feature> getFeatures(ComponentDefinition componentDefinition,
+			Map<ComponentDefinition, List<Feature>> computed) {
+		List<Feature> features = computed.get(componentDefinition);
+		if (features != null) {
+			return features;
+		}
+		features = new ArrayList<>();
+		for (SequenceAnnotation sa : componentDefinition.getSortedSequenceAnnotationsByDisplayId()) {
+			ComponentDefinition definition = null;
+			Component component = sa.getComponent();
+			if (component != null) {
+				definition = component.getDefinition();
+			}
+			boolean leaf = true;
+			if (definition != null) {
+				List<Feature> nested = getFeatures(definition, computed);
+				leaf = nested.isEmpty();
+				int start = getFeatureStart(sa);
+				boolean inline = isInlineFeature(sa);
+				int base = inline ? start - 1 : getFeatureEnd(sa) + 1;
+				for (Feature feature : nested) {
+					features.add(feature.within(sa, base, inline ? 1 : -1, start - 1, inline,
+							inline ? NO_FRAME_END : getFeatureEnd(sa)));
+				}
+			}
+			features.add(new Feature(sa, definition, Collections.singletonList(sa), leaf, 0, 1, 0, true,
+					NO_FRAME_END));
+		}
+		computed.put(componentDefinition, features);
+		return features;
+	}
+
+	/**
+	 * Returns the first position covered by a range or cut of the given sequence annotation, or 1 if it has
+	 * none.
+	 */
+	static int getFeatureStart(SequenceAnnotation sa) {
+		int featureStart = Integer.MAX_VALUE;
+		for (Location location : sa.getPreciseLocations()) {
+			if (location instanceof Range) {
+				Range range = (Range)location;
+				if (range.getStart() < featureStart) {
+					featureStart = range.getStart();
+				}
+			} else if (location instanceof Cut) {
+				Cut cut = (Cut)location;
+				if (cut.getAt() < featureStart) {
+					featureStart = cut.getAt();
+				}
+			}
+		}
+		if (featureStart==Integer.MAX_VALUE) return 1;
+		return featureStart;
+	}
+
+	/**
+	 * Returns the last position covered by a range or cut of the given sequence annotation, or 0 if it has
+	 * none.
+	 */
+	static int getFeatureEnd(SequenceAnnotation sa) {
+		int featureEnd = 0;
+		for (Location location : sa.getPreciseLocations()) {
+			if (location instanceof Range) {
+				Range range = (Range)location;
+				if (range.getEnd() > featureEnd) {
+					featureEnd = range.getEnd();
+				}
+			} else if (location instanceof Cut) {
+				Cut cut = (Cut)location;
+				if (cut.getAt() > featureEnd) {
+					featureEnd = cut.getAt();
+				}
+			}
+		}
+		return featureEnd;
+	}
+
+	/**
+	 * Returns {@code false} if any range or cut of the given sequence annotation is on the reverse
+	 * complement strand. A sequence annotation with locations on both strands is thus taken as lying
+	 * entirely on the reverse complement strand, as when it is exported to GenBank.
+	 */
+	static boolean isInlineFeature(SequenceAnnotation sa) {
+		boolean inlineFeature = true;
+		for (Location location : sa.getPreciseLocations()) {
+			if (location.isSetOrientation() && location.getOrientation().equals(OrientationType.REVERSECOMPLEMENT)) {
+				inlineFeature = false;
+			}
+		}
+		return inlineFeature;
+	}
+}
@@ -100,6 +100,7 @@ public class FunctionalComponent extends ComponentInstance {
 			throw new SBOLValidationException("sbol-11802",this);
 		}
 		this.direction = direction;
+		modified();
 	}
 	
 	/**
@@ -120,6 +121,13 @@ public class FunctionalComponent extends ComponentInstance {
 		super.setDefinition(definition);
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(direction == null ? null : direction.toString());
+		contentDigest.updateChildren(mapsTos.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -94,12 +94,12 @@ class GenBank {
 			throw new SBOLConversionException("ComponentDefinition " + componentDefinition.getIdentity() +
 								" does not have an IUPAC sequence.");
 		}
-		int size = seq.getElements().length();
+		int size = seq.getElementsLength();
 		writeHeader(w,componentDefinition,size);
 		writeReferences(w,componentDefinition);
 		writeComment(w,componentDefinition);
 		w.write("FEATURES             Location/Qualifiers\n");
-		recurseComponentDefinition(componentDefinition,w,0,true,0);
+		writeFeatures(w,componentDefinition.getFeatureTable());
 		w.write("ORIGIN\n");
 		writeSequence(w,seq,size);
 		w.write("//\n");
@@ -640,72 +640,21 @@ class GenBank {
 			w.write(padded);
 			for (int j = i; j < size && j < i + 60; j+=10) {
 				if (j+10 < size) {
-					w.write(" " + sequence.getElements().substring(j,j+10));
+					w.write(" " + sequence.getElements(j,j+10));
 				} else {
-					w.write(" " + sequence.getElements().substring(j));
+					w.write(" " + sequence.getElements(j,sequence.getElementsLength()));
 				}
 			}
 			w.write("\n");
 		}
 	}
 	
-	private static int getFeatureStart(SequenceAnnotation sa) {
-		int featureStart = Integer.MAX_VALUE;
-		for (Location location : sa.getPreciseLocations()) {
-			if (location instanceof Range) {
-				Range range = (Range)location;
-				if (range.getStart() < featureStart) {
-					featureStart = range.getStart();
-				} 
-			} else if (location instanceof Cut) {
-				Cut cut = (Cut)location;
-				if (cut.getAt() < featureStart) {
-					featureStart = cut.getAt();
-				}
-			}
-		}
-		if (featureStart==Integer.MAX_VALUE) return 1;
-		return featureStart;
-	}
-	
-	
-	private static int getFeatureEnd(SequenceAnnotation sa) {
-		int featureEnd = 0;
-		for (Location location : sa.getPreciseLocations()) {
-			if (location instanceof Range) {
-				Range range = (Range)location;
-				if (range.getEnd() > featureEnd) {
-					featureEnd = range.getEnd();
-				} 
-			} else if (location instanceof Cut) {
-				Cut cut = (Cut)location;
-				if (cut.getAt() < featureEnd) {
-					featureEnd = cut.getAt();
-				}
-			}
-		}
-		//if (featureEnd==Integer.MAX_VALUE) return 1;
-		return featureEnd;
-	}
-	
-	// TODO: assumes any complement then entirely complemented, need to fix
-	private static boolean isInlineFeature(SequenceAnnotation sa) {
-		boolean inlineFeature = true;
-		for (Location location : sa.getPreciseLocations()) {
-			if (location.isSetOrientation() && location.getOrientation().equals(OrientationType.REVERSECOMPLEMENT)) {
-				inlineFeature = false;
-			}
-		}
-		return inlineFeature;		
-	}
-
-	private static void recurseComponentDefinition(ComponentDefinition componentDefinition, Writer w, int offset,
-			boolean inline, int featureEnd) throws IOException, SBOLConversionException {
-		for (SequenceAnnotation sa : componentDefinition.getSortedSequenceAnnotationsByDisplayId()) {
+	private static void writeFeatures(Writer w, FeatureTable featureTable) throws IOException, SBOLConversionException {
+		for (FeatureTable.Feature feature : featureTable.getFeatures()) {
+			SequenceAnnotation sa = feature.getAnnotation();
 			String role = "misc_feature   ";
-			Component comp = sa.getComponent();
-			if (comp != null) {
-				ComponentDefinition compDef = comp.getDefinition();
+			if (sa.getComponent() != null) {
+				ComponentDefinition compDef = feature.getDefinition();
 				if (compDef != null) {
 					for (URI roleURI : compDef.getRoles()) {
 						String soRole = so.getId(roleURI);
@@ -714,12 +663,6 @@ class GenBank {
 							break;
 						}
 					}
-					int newFeatureEnd = featureEnd;
-					if (!isInlineFeature(sa)) {
-						newFeatureEnd = getFeatureEnd(sa);
-					}
-					recurseComponentDefinition(compDef, w, offset + getFeatureStart(sa)-1,
-							!(inline^isInlineFeature(sa)),newFeatureEnd);
 				}
 			} else {
 				for (URI roleURI : sa.getRoles()) {
@@ -730,11 +673,11 @@ class GenBank {
 					}
 				}				
 			}
-			if (!inline) {
-				writeFeature(w,sa,role,(featureEnd - (getFeatureEnd(sa)+getFeatureStart(sa)-1) - offset),inline);
-				
+			if (!feature.isFrameInline()) {
+				writeFeature(w,sa,role,(feature.getFrameEnd() - (FeatureTable.getFeatureEnd(sa)
+						+ FeatureTable.getFeatureStart(sa)-1) - feature.getFrameOffset()),false);
 			} else {
-				writeFeature(w,sa,role,offset,inline);
+				writeFeature(w,sa,role,feature.getFrameOffset(),true);
 			}
 		}
 	}
@@ -826,14 +769,15 @@ class GenBank {
 	 * <li>{@link ComponentDefinition#addSequence(Sequence)}.</li>
 	 * </ul>
 	 */
-	private static void createSubComponentDefinitions(SBOLDocument doc,ComponentDefinition topCD,URI type,String elements,String version) throws SBOLValidationException {
+	private static void createSubComponentDefinitions(SBOLDocument doc,ComponentDefinition topCD,URI type,CharSequence elements,String version) throws SBOLValidationException {
 		for (SequenceAnnotation sa : topCD.getSequenceAnnotations()) {
 			if (!sa.isSetComponent()) continue;
 			Range range = (Range)sa.getLocation("range");
 			if (range!=null) {
-				String subElements = elements.substring(range.getStart()-1,range.getEnd()).toLowerCase();
+				String subElements = SequenceOperations.toLowerCase(
+						SequenceOperations.slice(elements,range.getStart()-1,range.getEnd()));
 				if (range.getOrientation().equals(OrientationType.REVERSECOMPLEMENT)) {
-					subElements = Sequence.reverseComplement(subElements,type);
+					subElements = SequenceOperations.reverseComplement(subElements,type);
 				}
 				ComponentDefinition subCompDef = sa.getComponent().getDefinition();
 				String compDefId = subCompDef.getDisplayId();
@@ -870,10 +814,40 @@ class GenBank {
 	 * <li>{@link ComponentDefinition#createSequenceAnnotation(String, String, int, OrientationType)},</li>
 	 * <li>{@link SBOLDocument#createSequence(String, String, String, URI)}, </li>
 	 * <li>{@link ComponentDefinition#addSequence(Sequence)}, or </li>
-	 * <li>{@link #createSubComponentDefinitions(SBOLDocument, ComponentDefinition, URI, String, String)}.</li>
+	 * <li>{@link #createSubComponentDefinitions(SBOLDocument, ComponentDefinition, URI, CharSequence, String)}.</li>
 	 * </ul>
 	 */
 	static void read(SBOLDocument doc,String stringBuffer,String URIPrefix,String defaultVersion) throws IOException, SBOLConversionException, SBOLValidationException {
+		read(doc,new BufferedReader(new StringReader(stringBuffer)),URIPrefix,defaultVersion);
+	}
+
+	/**
+	 * Reads GenBank from the given reader a line at a time. If {@link SBOLReader#isMapSequences()} is
+	 * set, the bases of each record go straight from the reader to a mapped file.
+	 *
+	 * @param doc
+	 * @param br
+	 * @param URIPrefix
+	 * @param defaultVersion
+	 * @throws IOException
+	 * @throws SBOLConversionException
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in
+	 * {@link #read(SBOLDocument, String, String, String)}.
+	 */
+	static void read(SBOLDocument doc,BufferedReader br,String URIPrefix,String defaultVersion) throws IOException, SBOLConversionException, SBOLValidationException {
+		List<MappedElements.Builder> mappedBuffers = new ArrayList<MappedElements.Builder>();
+		try {
+			read(doc,br,URIPrefix,defaultVersion,mappedBuffers);
+		} finally {
+			// The temporary files of elements left unmapped because reading failed are deleted.
+			for (MappedElements.Builder buffer : mappedBuffers) {
+				buffer.discard();
+			}
+		}
+	}
+
+	private static void read(SBOLDocument doc,BufferedReader br,String URIPrefix,String defaultVersion,
+			List<MappedElements.Builder> mappedBuffers) throws IOException, SBOLConversionException, SBOLValidationException {
 		so = new SequenceOntology();
 
 		// reset the global static variables needed for parsing
@@ -881,7 +855,6 @@ class GenBank {
 
 		doc.addNamespace(URI.create(GBNAMESPACE), GBPREFIX);
 		doc.addNamespace(URI.create(GBCONVNAMESPACE), GBCONVPREFIX);
-		BufferedReader br = new BufferedReader(new StringReader(stringBuffer));
 		String strLine;
 		int featureCnt = 0;
 		int refCnt = 0;
@@ -895,7 +868,14 @@ class GenBank {
 			String version = defaultVersion;
 			featureMode = false;
 			originMode = false;
-			StringBuilder sbSequence = new StringBuilder();
+			Appendable sbSequence;
+			if (SBOLReader.isMapSequences()) {
+				MappedElements.Builder mappedBuffer = new MappedElements.Builder();
+				mappedBuffers.add(mappedBuffer);
+				sbSequence = mappedBuffer;
+			} else {
+				sbSequence = new StringBuilder();
+			}
 			String elements = null;
 			String description = "";
 			URI type = ComponentDefinition.DNA;
@@ -1369,9 +1349,18 @@ class GenBank {
 			}
 			if (topCD!=null) {
 				//throw new SBOLConversionException("Invalid GenBank file.");
-				Sequence sequence = doc.createSequence(id+"_seq", version, sbSequence.toString(), Sequence.IUPAC_DNA);
+				CharSequence sequenceElements;
+				Sequence sequence;
+				if (sbSequence instanceof MappedElements.Builder) {
+					sequenceElements = ((MappedElements.Builder)sbSequence).build();
+					sequence = doc.createSequence(id+"_seq", version, "", Sequence.IUPAC_DNA);
+					sequence.setMappedElements(sequenceElements);
+				} else {
+					sequenceElements = sbSequence.toString();
+					sequence = doc.createSequence(id+"_seq", version, (String)sequenceElements, Sequence.IUPAC_DNA);
+				}
 				topCD.addSequence(sequence);
-				createSubComponentDefinitions(doc,topCD,type,sbSequence.toString(),version);
+				createSubComponentDefinitions(doc,topCD,type,sequenceElements,version);
 			}
 			if (!cont) break;
 		}
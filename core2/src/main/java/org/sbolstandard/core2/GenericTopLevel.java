@@ -77,6 +77,14 @@ public class GenericTopLevel extends TopLevel{
 			throw new SBOLValidationException("sbol-12302", this);
 		}
 		this.rdfType = rdfType;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(rdfType == null ? null : rdfType.getNamespaceURI());
+		contentDigest.update(rdfType == null ? null : rdfType.getLocalPart());
 	}
 
 	@Override
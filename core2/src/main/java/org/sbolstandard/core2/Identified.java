@@ -37,6 +37,8 @@ public abstract class Identified {
 	private SBOLDocument sbolDocument = null;
 	private String name;
 	private String description;
+	private Identified parent = null;
+	private volatile byte[] digest = null;
 
 	/**
 	 * @param identity
@@ -148,6 +150,7 @@ public abstract class Identified {
 			throw new SBOLValidationException("sbol-10201", this);
 		}
 		this.identity = identity;
+		modified();
 	}
 
 	/**
@@ -177,6 +180,7 @@ public abstract class Identified {
 	 */
 	void setPersistentIdentity(URI persistentIdentity) {
 		this.persistentIdentity = persistentIdentity;
+		modified();
 	}
 
 	/**
@@ -214,12 +218,14 @@ public abstract class Identified {
 	void setVersion(String version) throws SBOLValidationException {
 		if (version==null || version.equals("")) {
 			this.version=null;
+			modified();
 			return;
 		}
 		if (!URIcompliance.isVersionValid(version)) {
 			throw new SBOLValidationException("sbol-10206",this);
 		}
 		this.version = version;
+		modified();
 	}
 
 	/**
@@ -251,6 +257,7 @@ public abstract class Identified {
 			throw new SBOLValidationException("sbol-10204",this);
 		}
 		this.displayId = displayId;
+		modified();
 	}
 	
 	/**
@@ -267,7 +274,9 @@ public abstract class Identified {
 			}
 			SBOLValidate.checkWasDerivedFromCycle(sbolDocument, this, wasDerivedFromURI, new HashSet<URI>());
 		}
-		return wasDerivedFroms.add(wasDerivedFromURI);
+		boolean result = wasDerivedFroms.add(wasDerivedFromURI);
+		modified();
+		return result;
 	}
 	
 	/**
@@ -277,7 +286,9 @@ public abstract class Identified {
 	 * @return {@code true} if the matching wasDerivedFrom reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeWasDerivedFrom(URI wasDerivedFromURI) {
-		return wasDerivedFroms.remove(wasDerivedFromURI);
+		boolean result = wasDerivedFroms.remove(wasDerivedFromURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -296,6 +307,7 @@ public abstract class Identified {
 	 */
 	public void clearWasDerivedFroms() {
 		wasDerivedFroms.clear();
+		modified();
 	}
 	
 	/**
@@ -372,7 +384,9 @@ public abstract class Identified {
 		if (sbolDocument!=null) {
 			SBOLValidate.checkWasGeneratedByCycle(sbolDocument, this, wasGeneratedByURI, new HashSet<URI>());
 		}
-		return wasGeneratedBys.add(wasGeneratedByURI);
+		boolean result = wasGeneratedBys.add(wasGeneratedByURI);
+		modified();
+		return result;
 	}
 	
 	/**
@@ -382,7 +396,9 @@ public abstract class Identified {
 	 * @return {@code true} if the matching wasGeneratedBy reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeWasGeneratedBy(URI wasGeneratedByURI) {
-		return wasGeneratedBys.remove(wasGeneratedByURI);
+		boolean result = wasGeneratedBys.remove(wasGeneratedByURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -401,6 +417,7 @@ public abstract class Identified {
 	 */
 	public void clearWasGeneratedBys() {
 		wasGeneratedBys.clear();
+		modified();
 	}
 	
 	/**
@@ -540,25 +557,15 @@ public abstract class Identified {
 	private void addNamespace(Annotation annotation) throws SBOLValidationException {
 		if (sbolDocument==null) return;
 		QName qName = annotation.getQName();
-		QName qNameInNamespace = sbolDocument.getNamespace(URI.create(qName.getNamespaceURI()));
-		if (qNameInNamespace==null) {
-			String prefix = qName.getPrefix();
-			if (sbolDocument.getNamespace(prefix)!=null) {
-				prefix = sbolDocument.getNamespacePrefix(URI.create(qName.getNamespaceURI()));
-				annotation.setQName(new QName(qName.getNamespaceURI(),qName.getLocalPart(),prefix));
-			} else {
-				sbolDocument.addNamespace(URI.create(qName.getNamespaceURI()), qName.getPrefix());
-			}
-		} else if (qName.getPrefix()!=qNameInNamespace.getPrefix()) {
-			annotation.setQName(new QName(qName.getNamespaceURI(),qName.getLocalPart(),qNameInNamespace.getPrefix()));
+		String prefix = sbolDocument.bindNamespace(URI.create(qName.getNamespaceURI()), qName.getPrefix());
+		if (!prefix.equals(qName.getPrefix())) {
+			annotation.setQName(new QName(qName.getNamespaceURI(),qName.getLocalPart(),prefix));
 		}
 		if (annotation.isNestedAnnotations()) {
 			qName = annotation.getNestedQName();
-			qNameInNamespace = sbolDocument.getNamespace(URI.create(qName.getNamespaceURI()));
-			if (qNameInNamespace==null) { 
-				sbolDocument.addNamespace(URI.create(qName.getNamespaceURI()), qName.getPrefix());
-			} else if (qName.getPrefix()!=qNameInNamespace.getPrefix()) {
-				annotation.setNestedQName(new QName(qName.getNamespaceURI(),qName.getLocalPart(),qNameInNamespace.getPrefix()));
+			prefix = sbolDocument.bindNamespace(URI.create(qName.getNamespaceURI()), qName.getPrefix());
+			if (!prefix.equals(qName.getPrefix())) {
+				annotation.setNestedQName(new QName(qName.getNamespaceURI(),qName.getLocalPart(),prefix));
 			}
 			for (Annotation nestedAnnotation : annotation.getAnnotations()) {
 				addNamespace(nestedAnnotation);
@@ -633,7 +640,9 @@ public abstract class Identified {
 			}
 		}
 		addNamespace(annotation);
+		annotation.setOwner(this);
 		annotations.add(annotation);
+		modified(SBOLDocumentChange.Type.ANNOTATION_CHANGED, this);
 		//Collections.sort(annotations);
 	}
 
@@ -645,7 +654,9 @@ public abstract class Identified {
 	 *         or {@code false} otherwise.
 	 */
 	public boolean removeAnnotation(Annotation annotation) {
-		return annotations.remove(annotation);
+		boolean result = annotations.remove(annotation);
+		modified(SBOLDocumentChange.Type.ANNOTATION_CHANGED, this);
+		return result;
 	}
 
 	/**
@@ -679,6 +690,7 @@ public abstract class Identified {
 	 */
 	public void clearAnnotations() {
 		annotations.clear();
+		modified(SBOLDocumentChange.Type.ANNOTATION_CHANGED, this);
 	}
 
 	/**
@@ -715,6 +727,95 @@ public abstract class Identified {
 		return sbolDocument;
 	}
 
+	/**
+	 * Records a modification of this instance with its associated SBOLDocument instance, if any, and
+	 * discards the cached digests of this instance and of the instances containing it.
+	 */
+	void modified() {
+		modified(SBOLDocumentChange.Type.PROPERTY_CHANGED, this);
+	}
+
+	/**
+	 * Records a change of the given type to the given instance, which is this instance or one of its
+	 * child instances, with the associated SBOLDocument instance of this instance, if any, and discards
+	 * the cached digests of this instance and of the instances containing it.
+	 */
+	void modified(SBOLDocumentChange.Type type, Identified changed) {
+		for (Identified identified = this; identified != null; identified = identified.parent) {
+			identified.digest = null;
+		}
+		if (sbolDocument!=null) {
+			sbolDocument.modified(type, changed);
+		}
+	}
+
+	/**
+	 * Returns the top-level containing this instance, which is this instance if it is a top-level, or
+	 * {@code null} if it has not been added to one.
+	 */
+	TopLevel getContainingTopLevel() {
+		Identified identified = this;
+		while (identified.parent != null) {
+			identified = identified.parent;
+		}
+		return identified instanceof TopLevel ? (TopLevel) identified : null;
+	}
+
+	/**
+	 * Returns a SHA-256 digest of the content of this instance: its type, identity, properties and
+	 * annotations, and the digests of its child instances. Two instances have the same digest exactly
+	 * when all of these are the same, barring collisions, whatever order their sets of values were
+	 * built in, so digests may be compared in place of whole instances, or used as keys for them.
+	 * <p>
+	 * The digest is cached, and recomputed only after this instance or one of its descendants has been
+	 * modified, when only the digests of the modified instances and their ancestors are recomputed.
+	 *
+	 * @return the 32-byte digest of the content of this instance
+	 */
+	public byte[] getDigest() {
+		return digest().clone();
+	}
+
+	/**
+	 * Returns the cached digest of this instance, computing it if necessary. The returned array must
+	 * not be modified.
+	 */
+	byte[] digest() {
+		byte[] result = digest;
+		if (result == null) {
+			ContentDigest contentDigest = new ContentDigest();
+			updateDigest(contentDigest);
+			result = contentDigest.digest();
+			digest = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Feeds the content of this instance to the given digest. Subclasses feed their own properties and
+	 * child instances after those of their superclass. A structural digest leaves out the identity and
+	 * provenance of this instance, except that the identity of a child instance is fed relative to its
+	 * top-level, since duplicates are merged by mapping child instances with the same relative identity.
+	 */
+	void updateDigest(ContentDigest contentDigest) {
+		contentDigest.update(getClass().getName());
+		if (!contentDigest.isStructural()) {
+			contentDigest.update(identity);
+			contentDigest.update(persistentIdentity);
+			contentDigest.update(version);
+			contentDigest.update(displayId);
+		} else if (!contentDigest.isScope(this)) {
+			contentDigest.update(identity);
+		}
+		contentDigest.update(name);
+		contentDigest.update(description);
+		if (!contentDigest.isStructural()) {
+			contentDigest.updateURIs(wasDerivedFroms);
+			contentDigest.updateURIs(wasGeneratedBys);
+		}
+		contentDigest.updateAnnotations(annotations);
+	}
+
 	/**
 	 * Provides a deep copy of this instance.
 	 * @return An identical copy of the specified object.
@@ -838,13 +939,16 @@ public abstract class Identified {
 				throw new SBOLValidationException("sbol-10202", child);
 			siblingsMap.put(child.getIdentity(), child);
 		}
-
+		((Identified) child).parent = this;
+		modified(SBOLDocumentChange.Type.CHILD_ADDED, child);
 	}
 
 	final <I extends Identified> boolean removeChildSafely(Identified identified, Map<URI, I> siblingsMap) {
 		Set<Identified> objectsToRemove = new HashSet<>();
 		objectsToRemove.add(identified);
-		return siblingsMap.values().removeAll(objectsToRemove);
+		boolean result = siblingsMap.values().removeAll(objectsToRemove);
+		modified(SBOLDocumentChange.Type.CHILD_REMOVED, identified);
+		return result;
 	}
 
 	/**
@@ -872,6 +976,7 @@ public abstract class Identified {
 	 */
 	public void setName(String name) {
 		this.name = name;
+		modified();
 	}
 
 	/**
@@ -879,6 +984,7 @@ public abstract class Identified {
 	 */
 	public void unsetName() {
 		name = null;
+		modified();
 	}
 
 	/**
@@ -906,6 +1012,7 @@ public abstract class Identified {
 	 */
 	public void setDescription(String description) {
 		this.description = description;
+		modified();
 	}
 
 	/**
@@ -914,6 +1021,7 @@ public abstract class Identified {
 	 */
 	public void unsetDescription() {
 		description = null;
+		modified();
 	}
 
 	@Override
@@ -40,56 +40,65 @@ public abstract class IdentifiedVisitor
 	{
 		for (TopLevel topLevel : sbolDocument.getTopLevels())
 		{		
-			visit(topLevel, topLevel);
-			
-			if (topLevel instanceof ComponentDefinition) {
-				for (Component c : ((ComponentDefinition) topLevel).getComponents()) {
-					visit(c, topLevel);
-					for (MapsTo m : c.getMapsTos()) {
-						visit(m, topLevel);
-					}
-				}
-				for (SequenceAnnotation sa : ((ComponentDefinition) topLevel).getSequenceAnnotations()) {
-					visit(sa,topLevel);
-					for (Location l : sa.getLocations()) {
-						visit(l,topLevel);
-					}
-				}
-				for (SequenceConstraint sc : ((ComponentDefinition) topLevel).getSequenceConstraints()) {
-					visit(sc,topLevel);
+			visitTopLevel(topLevel);
+		}
+	}
+
+	/**
+	 * Visits a top-level object and all identified objects within it
+	 * @param topLevel top-level object to visit
+	 */
+	public void visitTopLevel(TopLevel topLevel)
+	{
+		visit(topLevel, topLevel);
+		
+		if (topLevel instanceof ComponentDefinition) {
+			for (Component c : ((ComponentDefinition) topLevel).getComponents()) {
+				visit(c, topLevel);
+				for (MapsTo m : c.getMapsTos()) {
+					visit(m, topLevel);
 				}
 			}
-			else if (topLevel instanceof ModuleDefinition) {
-				for (FunctionalComponent c : ((ModuleDefinition) topLevel).getFunctionalComponents()) {
-					visit(c,topLevel);
-					for (MapsTo m : c.getMapsTos()) {
-						visit(m,topLevel);
-					}
-				}
-				for (Module mod : ((ModuleDefinition) topLevel).getModules()) {
-					visit(mod,topLevel);
-					for (MapsTo m : mod.getMapsTos()) {
-						visit(m,topLevel);
-					}
+			for (SequenceAnnotation sa : ((ComponentDefinition) topLevel).getSequenceAnnotations()) {
+				visit(sa,topLevel);
+				for (Location l : sa.getLocations()) {
+					visit(l,topLevel);
 				}
-				for (Interaction i : ((ModuleDefinition) topLevel).getInteractions()) {
-					visit(i,topLevel);
-					for (Participation p : i.getParticipations()) {
-						visit(p,topLevel);
-					}
-				}
-			} else if (topLevel instanceof Activity) {
-				for (Association a : ((Activity) topLevel).getAssociations()) {
-					visit(a,topLevel);
+			}
+			for (SequenceConstraint sc : ((ComponentDefinition) topLevel).getSequenceConstraints()) {
+				visit(sc,topLevel);
+			}
+		}
+		else if (topLevel instanceof ModuleDefinition) {
+			for (FunctionalComponent c : ((ModuleDefinition) topLevel).getFunctionalComponents()) {
+				visit(c,topLevel);
+				for (MapsTo m : c.getMapsTos()) {
+					visit(m,topLevel);
 				}
-				for (Usage u : ((Activity)topLevel).getUsages()) {
-					visit(u,topLevel);
+			}
+			for (Module mod : ((ModuleDefinition) topLevel).getModules()) {
+				visit(mod,topLevel);
+				for (MapsTo m : mod.getMapsTos()) {
+					visit(m,topLevel);
 				}
-			} else if (topLevel instanceof CombinatorialDerivation) {
-				for (VariableComponent v : ((CombinatorialDerivation)topLevel).getVariableComponents()) {
-					visit(v,topLevel);
+			}
+			for (Interaction i : ((ModuleDefinition) topLevel).getInteractions()) {
+				visit(i,topLevel);
+				for (Participation p : i.getParticipations()) {
+					visit(p,topLevel);
 				}
 			}
+		} else if (topLevel instanceof Activity) {
+			for (Association a : ((Activity) topLevel).getAssociations()) {
+				visit(a,topLevel);
+			}
+			for (Usage u : ((Activity)topLevel).getUsages()) {
+				visit(u,topLevel);
+			}
+		} else if (topLevel instanceof CombinatorialDerivation) {
+			for (VariableComponent v : ((CombinatorialDerivation)topLevel).getVariableComponents()) {
+				visit(v,topLevel);
+			}
 		}
 	}
 
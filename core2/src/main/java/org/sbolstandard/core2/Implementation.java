@@ -97,6 +97,7 @@ public class Implementation extends TopLevel {
 		}
 		
 		this.built = builtURI;
+		modified();
 	}
 	
 	/**
@@ -113,6 +114,7 @@ public class Implementation extends TopLevel {
 		}
 		
 		this.built = built.getIdentity();
+		modified();
 	}
 
 	/**
@@ -120,6 +122,7 @@ public class Implementation extends TopLevel {
 	 */
 	public void unsetBuilt() {
 		this.built = null;
+		modified();
 	}
 
 	@Override
@@ -175,6 +178,12 @@ public class Implementation extends TopLevel {
 		//URIcompliance.isTopLevelURIformCompliant(this.getIdentity());
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(built);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,213 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assembles the nucleic acid sequences implied by component definition hierarchies, as returned by
+ * {@link ComponentDefinition#getImpliedNucleicAcidSequence()}.
+ * <p>
+ * The implied sequence of each component definition is assembled once from those of its
+ * sub-definitions and memoized by definition identity, so assembling the implied sequences of every
+ * definition of a document takes time proportional to the size of the document rather than growing
+ * with the number of paths through its hierarchies. Hierarchies are walked with an explicit stack,
+ * so deep hierarchies do not exhaust the call stack. The memo of a document is discarded as soon as
+ * the document or any object in it is modified.
+ *
+ * @version 2.1
+ */
+
+final class ImpliedSequences {
+
+	/**
+	 * The implied sequences assembled since the given number of modifications of the document.
+	 */
+	private static final class Memo {
+		private final long modifications;
+		private final Map<URI, String> elements = new ConcurrentHashMap<>();
+
+		private Memo(long modifications) {
+			this.modifications = modifications;
+		}
+	}
+
+	private final SBOLDocument document;
+	private volatile Memo memo;
+
+	/**
+	 * @param document
+	 *            the document whose modifications invalidate the memo, or {@code null} for a memo that
+	 *            lasts for a single assembly
+	 */
+	ImpliedSequences(SBOLDocument document) {
+		this.document = document;
+	}
+
+	private Memo getMemo() {
+		if (document == null) {
+			return new Memo(0);
+		}
+		long modifications = document.getModifications();
+		Memo current = memo;
+		if (current == null || current.modifications != modifications) {
+			current = new Memo(modifications);
+			memo = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the elements of the nucleic acid sequence implied by the given component definition, or
+	 * {@code null} if it is neither DNA nor RNA.
+	 */
+	String get(ComponentDefinition componentDefinition) {
+		if (getType(componentDefinition) == null) {
+			return null;
+		}
+		Memo memo = getMemo();
+		String elements = memo.elements.get(componentDefinition.getIdentity());
+		if (elements != null) {
+			return elements;
+		}
+		// Implied sequences that depend on a definition still being assembled, which only happens in a
+		// cyclic hierarchy, are only valid for this assembly, so they are kept out of the memo.
+		Map<URI, String> assembled = new HashMap<>();
+		Set<URI> cyclic = new HashSet<>();
+		Set<URI> entered = new HashSet<>();
+		Deque<ComponentDefinition> stack = new ArrayDeque<>();
+		stack.push(componentDefinition);
+		while (!stack.isEmpty()) {
+			ComponentDefinition current = stack.peek();
+			URI identity = current.getIdentity();
+			if (memo.elements.containsKey(identity) || assembled.containsKey(identity)) {
+				stack.pop();
+			} else if (entered.add(identity)) {
+				for (ComponentDefinition subDefinition : getSubDefinitions(current)) {
+					if (!entered.contains(subDefinition.getIdentity())) {
+						stack.push(subDefinition);
+					}
+				}
+			} else {
+				boolean dependsOnCycle = false;
+				for (ComponentDefinition subDefinition : getSubDefinitions(current)) {
+					URI subIdentity = subDefinition.getIdentity();
+					if (!memo.elements.containsKey(subIdentity)
+							&& (!assembled.containsKey(subIdentity) || cyclic.contains(subIdentity))) {
+						dependsOnCycle = true;
+					}
+				}
+				String currentElements = assemble(current, memo.elements, assembled);
+				if (dependsOnCycle) {
+					cyclic.add(identity);
+					assembled.put(identity, currentElements);
+				} else {
+					memo.elements.put(identity, currentElements);
+				}
+				stack.pop();
+			}
+		}
+		elements = memo.elements.get(componentDefinition.getIdentity());
+		return elements != null ? elements : assembled.get(componentDefinition.getIdentity());
+	}
+
+	private static URI getType(ComponentDefinition componentDefinition) {
+		if (componentDefinition.getTypes().contains(ComponentDefinition.DNA)) {
+			return ComponentDefinition.DNA;
+		} else if (componentDefinition.getTypes().contains(ComponentDefinition.RNA)) {
+			return ComponentDefinition.RNA;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the definitions of the annotated components of the given component definition whose
+	 * implied sequences are needed to assemble its own, which are those with no sequence of their own.
+	 */
+	private static Set<ComponentDefinition> getSubDefinitions(ComponentDefinition componentDefinition) {
+		Set<ComponentDefinition> subDefinitions = new HashSet<>();
+		for (SequenceAnnotation sequenceAnnotation : componentDefinition.getSequenceAnnotations()) {
+			ComponentDefinition subDefinition = getDefinition(sequenceAnnotation);
+			if (subDefinition != null && subDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA) == null
+					&& getType(subDefinition) != null) {
+				subDefinitions.add(subDefinition);
+			}
+		}
+		return subDefinitions;
+	}
+
+	private static ComponentDefinition getDefinition(SequenceAnnotation sequenceAnnotation) {
+		if (!sequenceAnnotation.isSetComponent() || sequenceAnnotation.getComponent() == null) {
+			return null;
+		}
+		return sequenceAnnotation.getComponent().getDefinition();
+	}
+
+	/**
+	 * Assembles the implied sequence of the given component definition from the implied sequences of
+	 * its sub-definitions, which are looked up in the given maps. A sub-definition found in neither is
+	 * still being assembled further up a cyclic hierarchy, and leaves its ranges unknown.
+	 * <p>
+	 * The implied sequence is as long as the sequence of the component definition or its furthest
+	 * range, whichever is longer, and is {@code N} wherever no component is placed. The elements of each
+	 * annotated component are placed at the start of each of its ranges, and are reverse complemented
+	 * again, as by {@link Sequence#reverseComplement(String, URI)}, for each reverse complement range.
+	 * Elements that do not fit, and components that are neither DNA nor RNA, make the assembly throw a
+	 * runtime exception, which validation reports as a violation of rule 10520.
+	 */
+	private static String assemble(ComponentDefinition componentDefinition, Map<URI, String> memo,
+			Map<URI, String> assembled) {
+		URI type = getType(componentDefinition);
+		Sequence sequence = componentDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
+		int length = sequence == null ? 0 : sequence.getElementsLength();
+		for (SequenceAnnotation sequenceAnnotation : componentDefinition.getSequenceAnnotations()) {
+			for (Location location : sequenceAnnotation.getLocations()) {
+				if (location instanceof Range && ((Range) location).getEnd() > length) {
+					length = ((Range) location).getEnd();
+				}
+			}
+		}
+		char[] elements = new char[length];
+		Arrays.fill(elements, 'N');
+		for (SequenceAnnotation sequenceAnnotation : componentDefinition.getSequenceAnnotations()) {
+			ComponentDefinition subDefinition = getDefinition(sequenceAnnotation);
+			if (subDefinition == null) {
+				continue;
+			}
+			CharSequence subElements;
+			Sequence subSequence = subDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
+			if (subSequence != null) {
+				subElements = subSequence.getElementsSequence();
+			} else if (getType(subDefinition) == null) {
+				subElements = null;
+			} else {
+				subElements = memo.get(subDefinition.getIdentity());
+				if (subElements == null) {
+					subElements = assembled.get(subDefinition.getIdentity());
+				}
+				if (subElements == null) {
+					continue;
+				}
+			}
+			for (Location location : sequenceAnnotation.getLocations()) {
+				if (!(location instanceof Range)) {
+					continue;
+				}
+				Range range = (Range) location;
+				if (range.isSetOrientation() && range.getOrientation().equals(OrientationType.REVERSECOMPLEMENT)) {
+					subElements = SequenceOperations.reverseComplement(subElements, type);
+				}
+				if (subElements.length() > 0) {
+					SequenceOperations.copy(subElements, 0, subElements.length(), elements, range.getStart() - 1);
+				}
+			}
+		}
+		return new String(elements);
+	}
+}
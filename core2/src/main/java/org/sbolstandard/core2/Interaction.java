@@ -80,7 +80,9 @@ public class Interaction extends Identified {
 	 * @return {@code true} if this set did not contain the given type, {@code false} otherwise
 	 */
 	public boolean addType(URI typeURI) {
-		return types.add(typeURI);
+		boolean result = types.add(typeURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -94,7 +96,9 @@ public class Interaction extends Identified {
 		if (types.size()==1 && types.contains(typeURI)) {
 			throw new SBOLValidationException("sbol-11902", this);
 		}
-		return types.remove(typeURI);
+		boolean result = types.remove(typeURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -139,6 +143,7 @@ public class Interaction extends Identified {
 	 */
 	private void clearTypes() {
 		types.clear();
+		modified();
 	}
 
 	//	/**
@@ -400,6 +405,13 @@ public class Interaction extends Identified {
 	}
 
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(types);
+		contentDigest.updateChildren(participations.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -468,10 +480,10 @@ public class Interaction extends Identified {
 			if (!participation.isSetDisplayId()) participation.setDisplayId("participation"+ ++count);
 			participation.updateCompliantURI(this.getPersistentIdentity().toString(),
 					participation.getDisplayId(), version);
-			this.removeChildSafely(participation, this.participations);
-			this.addParticipation(participation);
 			String participantId = extractDisplayId(participation.getParticipantURI());
 			participation.setParticipant(createCompliantURI(URIprefix,participantId,version));
+			this.removeChildSafely(participation, this.participations);
+			this.addParticipation(participation);
 		}
 	}
 
@@ -78,6 +78,7 @@ public abstract class Location extends Identified implements Comparable<Location
 	 */
 	public void setOrientation(OrientationType orientation) {
 		this.orientation = orientation;
+		modified();
 	}
 
 	/**
@@ -85,6 +86,13 @@ public abstract class Location extends Identified implements Comparable<Location
 	 */
 	public void unsetOrientation() {
 		orientation = null;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(orientation == null ? null : orientation.toString());
 	}
 
 	/**
@@ -0,0 +1,179 @@
+package org.sbolstandard.core2;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Holds the elements of a sequence in a memory-mapped temporary file, one byte per character, so that
+ * they take no space on the Java heap.
+ * <p>
+ * Elements are written to the file by a {@link Builder} as they are read, and the file is then mapped
+ * read-only in chunks of at most 1 GiB. The operating system pages the mapped file in and out as it is
+ * read, and the file is deleted as soon as it is mapped where the platform allows it, or otherwise when
+ * the virtual machine exits. Instances are immutable, and decode only the characters asked for.
+ *
+ * @version 2.1
+ */
+
+final class MappedElements implements CharSequence {
+
+	private static final int CHUNK_BITS = 30;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private final MappedByteBuffer[] chunks;
+	private final int length;
+
+	private MappedElements(File file, int length) throws IOException {
+		this.length = length;
+		this.chunks = new MappedByteBuffer[(int) (((long) length + CHUNK_SIZE - 1) >> CHUNK_BITS)];
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			for (int i = 0; i < chunks.length; i++) {
+				long position = (long) i << CHUNK_BITS;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(CHUNK_SIZE, length - position));
+			}
+		}
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		return (char) (chunks[index >>> CHUNK_BITS].get(index & (CHUNK_SIZE - 1)) & 0xFF);
+	}
+
+	/**
+	 * Returns the characters between the given indices as a string, reading only those characters.
+	 */
+	@Override
+	public String subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		byte[] bytes = new byte[end - start];
+		int offset = 0;
+		while (offset < bytes.length) {
+			int index = start + offset;
+			// Positions are per buffer, so a duplicate keeps concurrent reads independent.
+			ByteBuffer chunk = chunks[index >>> CHUNK_BITS].duplicate();
+			chunk.position(index & (CHUNK_SIZE - 1));
+			int count = Math.min(bytes.length - offset, chunk.remaining());
+			chunk.get(bytes, offset, count);
+			offset += count;
+		}
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length);
+	}
+
+	/**
+	 * Writes sequence elements to a temporary file as they are appended, and maps the file once they are
+	 * all written. The file is only created when the first character is appended, and is deleted when the
+	 * builder is built or discarded.
+	 */
+	static final class Builder implements Appendable {
+
+		private File file;
+		private OutputStream out;
+		private long length;
+
+		/**
+		 * @throws IOException
+		 *             if the temporary file could not be written, if a character above code point 255
+		 *             is appended, or if more than {@link Integer#MAX_VALUE} characters are appended
+		 */
+		@Override
+		public Builder append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Builder append(CharSequence csq, int start, int end) throws IOException {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public Builder append(char c) throws IOException {
+			if (c > 0xFF) {
+				throw new IOException("Character `" + c + "' cannot be stored in mapped sequence elements.");
+			}
+			if (length == Integer.MAX_VALUE) {
+				throw new IOException("Sequence elements are longer than " + Integer.MAX_VALUE + " characters.");
+			}
+			if (out == null) {
+				file = File.createTempFile("sbol", ".elements");
+				try {
+					out = new BufferedOutputStream(new FileOutputStream(file));
+				} catch (IOException e) {
+					discard();
+					throw e;
+				}
+			}
+			out.write(c);
+			length++;
+			return this;
+		}
+
+		/**
+		 * Closes and maps the temporary file. This builder must not be used afterwards.
+		 *
+		 * @return the mapped elements, or an empty string if no characters were appended
+		 * @throws IOException
+		 *             if the temporary file could not be written or mapped
+		 */
+		CharSequence build() throws IOException {
+			if (out == null) {
+				return "";
+			}
+			try {
+				out.close();
+				out = null;
+				return new MappedElements(file, (int) length);
+			} finally {
+				discard();
+			}
+		}
+
+		/**
+		 * Closes and deletes the temporary file, if it is still there. A mapping stays valid after its file
+		 * is deleted, except on platforms that refuse to delete a mapped file, where the file is left to be
+		 * deleted when the JVM exits. Discarding a builder that was already built or discarded does nothing.
+		 */
+		void discard() {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// The file is deleted anyway.
+				}
+				out = null;
+			}
+			if (file != null) {
+				if (!file.delete()) {
+					file.deleteOnExit();
+				}
+				file = null;
+			}
+		}
+	}
+}
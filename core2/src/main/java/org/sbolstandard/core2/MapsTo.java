@@ -88,6 +88,7 @@ public class MapsTo extends Identified{
 	 */
 	public void setRefinement(RefinementType refinement) {
 		this.refinement = refinement;
+		modified();
 	}
 
 	/**
@@ -163,6 +164,7 @@ public class MapsTo extends Identified{
 			}
 		}
 		this.local = local;
+		modified();
 	}
 
 	/**
@@ -256,6 +258,15 @@ public class MapsTo extends Identified{
 			}
 		}
 		this.remote = remote;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(refinement == null ? null : refinement.toString());
+		contentDigest.update(local);
+		contentDigest.update(remote);
 	}
 
 	@Override
@@ -81,6 +81,7 @@ public class Model extends TopLevel {
 			throw new SBOLValidationException("sbol-11502", this);
 		}
 		this.source = source;
+		modified();
 	}
 
 	/**
@@ -104,6 +105,7 @@ public class Model extends TopLevel {
 			throw new SBOLValidationException("sbol-11504",this);
 		}
 		this.language = language;
+		modified();
 	}
 
 	/**
@@ -126,6 +128,15 @@ public class Model extends TopLevel {
 			throw new SBOLValidationException("sbol-11508", this);
 		}
 		this.framework = framework;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(source);
+		contentDigest.update(language);
+		contentDigest.update(framework);
 	}
 
 	@Override
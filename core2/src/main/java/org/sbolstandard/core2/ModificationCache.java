@@ -0,0 +1,54 @@
+package org.sbolstandard.core2;
+
+/**
+ * A value computed from the content of an SBOL document, cached until the document is next modified.
+ * <p>
+ * The value is recomputed by {@link #get(SBOLDocument)} whenever the number of modifications of the
+ * document differs from that it was computed for. The value and that number are replaced together, so
+ * threads reading the cache concurrently never see a value with the wrong number of modifications, though
+ * they may compute the same value more than once.
+ *
+ * @version 2.1
+ */
+
+abstract class ModificationCache<T> {
+
+	private static final class Entry<T> {
+		private final T value;
+		private final long modifications;
+
+		private Entry(T value, long modifications) {
+			this.value = value;
+			this.modifications = modifications;
+		}
+	}
+
+	private volatile Entry<T> entry;
+
+	/**
+	 * Returns the cached value, computing it again if the given document has been modified since it was
+	 * computed.
+	 *
+	 * @param document
+	 *            the document the value is computed from, or {@code null} for a value that is computed
+	 *            every time
+	 * @return the cached value
+	 */
+	T get(SBOLDocument document) {
+		if (document == null) {
+			return compute();
+		}
+		long modifications = document.getModifications();
+		Entry<T> current = entry;
+		if (current == null || current.modifications != modifications) {
+			current = new Entry<>(compute(), modifications);
+			entry = current;
+		}
+		return current.value;
+	}
+
+	/**
+	 * Computes the value from the current content of the document.
+	 */
+	abstract T compute();
+}
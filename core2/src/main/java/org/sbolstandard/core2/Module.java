@@ -132,6 +132,7 @@ public class Module extends Identified {
 			}
 		}
 		this.definition = definitionURI;
+		modified();
 	}
 
 
@@ -364,6 +365,13 @@ public class Module extends Identified {
 	}
 
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(definition);
+		contentDigest.updateChildren(mapsTos.values());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
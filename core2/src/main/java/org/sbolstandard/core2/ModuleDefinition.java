@@ -4,8 +4,12 @@ import static org.sbolstandard.core2.URIcompliance.createCompliantURI;
 import static org.sbolstandard.core2.URIcompliance.isChildURIcompliant;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -104,7 +108,9 @@ public class ModuleDefinition extends TopLevel {
 	 * @return {@code true} if this set did not already contain the specified role; {@code false} otherwise
 	 */
 	public boolean addRole(URI roleURI) {
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -115,7 +121,9 @@ public class ModuleDefinition extends TopLevel {
 	 * or {@code false} otherwise
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -160,6 +168,7 @@ public class ModuleDefinition extends TopLevel {
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 
 	/**
@@ -676,6 +685,15 @@ public class ModuleDefinition extends TopLevel {
 		}
 		addChildSafely(functionalComponent, functionalComponents, "functionalComponent",
 				interactions, modules);
+		linkMapsTos(functionalComponent);
+	}
+
+	/**
+	 * Sets this module definition as the parent of the mapsTos of the given functional component, which has
+	 * been added to it.
+	 * @throws SBOLValidationException if the following SBOL validation rule was violated: 10804.
+	 */
+	private void linkMapsTos(FunctionalComponent functionalComponent) throws SBOLValidationException {
 		for (MapsTo mapsTo : functionalComponent.getMapsTos()) {
 			if (this.getFunctionalComponent(mapsTo.getLocalURI())==null) {
 				throw new SBOLValidationException("sbol-10804", mapsTo);
@@ -911,7 +929,9 @@ public class ModuleDefinition extends TopLevel {
 				throw new SBOLValidationException("sbol-11608", this);
 			}
 		}
-		return models.add(modelURI);
+		boolean result = models.add(modelURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -922,7 +942,9 @@ public class ModuleDefinition extends TopLevel {
 	 *         or {@code false} otherwise
 	 */
 	public boolean removeModel(URI modelURI) {
-		return models.remove(modelURI);
+		boolean result = models.remove(modelURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -995,6 +1017,17 @@ public class ModuleDefinition extends TopLevel {
 	 */
 	public void clearModels() {
 		models.clear();
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(roles);
+		contentDigest.updateChildren(modules.values());
+		contentDigest.updateChildren(interactions.values());
+		contentDigest.updateChildren(functionalComponents.values());
+		contentDigest.updateURIs(models);
 	}
 
 	@Override
@@ -1082,7 +1115,8 @@ public class ModuleDefinition extends TopLevel {
 	 * <li>{@link #setIdentity(URI)},</li>
 	 * <li>{@link FunctionalComponent#setDisplayId(String)}</li>
 	 * <li>{@link FunctionalComponent#updateCompliantURI(String, String, String)},</li>
-	 * <li>{@link #addFunctionalComponent(FunctionalComponent)},</li>
+	 * <li>{@link #addFunctionalComponentNoCheck(FunctionalComponent)},</li>
+	 * <li>{@link #linkMapsTos(FunctionalComponent)},</li>
 	 * <li>{@link Module#setDisplayId(String)}</li>
 	 * <li>{@link Module#updateCompliantURI(String, String, String)},</li>
 	 * <li>{@link #addModule(Module)},</li>
@@ -1111,7 +1145,11 @@ public class ModuleDefinition extends TopLevel {
 			component.updateCompliantURI(cloned.getPersistentIdentity().toString(),
 					component.getDisplayId(), version);
 			cloned.removeChildSafely(component, cloned.functionalComponents);
-			cloned.addFunctionalComponent(component);
+			cloned.addFunctionalComponentNoCheck(component);
+		}
+		// The mapsTos are linked once every functional component they may refer to has been renamed.
+		for (FunctionalComponent component : cloned.getFunctionalComponents()) {
+			cloned.linkMapsTos(component);
 		}
 		count = 0;
 		for (Module module : cloned.getModules()) {
@@ -1206,92 +1244,146 @@ public class ModuleDefinition extends TopLevel {
 		}
 	}
 
-	// TODO: "flatten" is half-written method, needs to be changed to public once completed.
 	/**
-	 * Returns a flattened copy of the module definition matching the given arguments, which has all internal
-	 * hierarchy removed.   
-	 * 
-	 * @param URIprefix The default URI prefix for the ModuleDefinition to be flattened
-	 * @param displayId The displayId identifier for the ModuleDefinition to be flattened
-	 * @param version The version for the ModuleDefinition to be flattened
-	 * @return The flattened copy of this ModuleDefinition
-	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in either of the following method:
+	 * Returns a flattened copy of this module definition with the given URI prefix, display ID, and version,
+	 * which has all internal hierarchy removed.
+	 * <p>
+	 * Each functional component and interaction of the module definition of a module is copied into the
+	 * flattened copy, with the display ID of the module, followed by two underscores, prefixed to its own
+	 * display ID, unless it is the remote of a mapsTo of the module. A remote functional component is instead
+	 * merged into the local functional component of its mapsTo, and references to it refer to the local one:
+	 * <ul>
+	 * <li>if the refinement is {@link RefinementType#USEREMOTE}, the local functional component takes the
+	 * definition of the remote one;</li>
+	 * <li>if the refinement is {@link RefinementType#VERIFYIDENTICAL}, both must have the same definition;
+	 * and</li>
+	 * <li>if the refinement is {@link RefinementType#USELOCAL} or {@link RefinementType#MERGE}, the local
+	 * functional component keeps its definition.</li>
+	 * </ul>
+	 * Sub-modules are flattened in the same way before they are copied. Each module definition in the
+	 * hierarchy is flattened only once, however many modules instantiate it, so flattening takes time linear
+	 * in the size of the hierarchy and of the flattened copy.
+	 * <p>
+	 * The flattened copy is not added to the SBOL document; it can be added with
+	 * {@link SBOLDocument#createCopy(TopLevel)}.
+	 *
+	 * @param URIprefix the URI prefix of the flattened copy
+	 * @param displayId the display ID of the flattened copy
+	 * @param version the version of the flattened copy
+	 * @return the flattened copy of this module definition
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in either of the following
+	 * methods:
 	 * <ul>
-	 * <li>{@link #flattenRecurse()}, or</li>
-	 * <li>{@link #copy(String, String, String)}</li>
+	 * <li>{@link #flattenRecurse(Map)}, or</li>
+	 * <li>{@link #copy(String, String, String)}.</li>
 	 * </ul>
 	 */
-	ModuleDefinition flatten(String URIprefix,String displayId,String version) throws SBOLValidationException {
-		return flattenRecurse().copy(URIprefix, displayId, version);
+	public ModuleDefinition flatten(String URIprefix,String displayId,String version) throws SBOLValidationException {
+		return flattenRecurse(new HashMap<URI, ModuleDefinition>()).copy(URIprefix, displayId, version);
 	}
 
 	/**
+	 * Returns a flattened copy of this module definition, which keeps its identity, taking it from the given
+	 * map of the module definitions flattened so far, or flattening it and adding it to the map if it is not
+	 * there yet. The returned copy must not be modified.
+	 *
 	 * @return flattened ModuleDefinition
 	 * @throws SBOLValidationException if either of the following condition is satisfied:
 	 * <ul>
-	 * <li>The following SBOL validation rule was violated: 10811; or</li> 
+	 * <li>any of the following SBOL validation rules was violated: 10804, 10811, 11703; or</li> 
 	 * 
 	 * <li>if an SBOL validation rule violation occurred in any of the following methods:</li>
 	 *	 <ul>
 	 *     	<li>{@link #deepCopy()},</li>
-	 * 		<li>{@link #flattenRecurse()},</li>
+	 * 		<li>{@link #flattenRecurse(Map)},</li>
 	 * 		<li>{@link FunctionalComponent#setDefinition(URI)},</li>
 	 * 		<li>{@link FunctionalComponent#deepCopy()},</li>
 	 * 		<li>{@link FunctionalComponent#updateCompliantURI(String, String, String)},</li>
-	 * 		<li>{@link #addFunctionalComponent(FunctionalComponent)},</li>
-	 * 		<li>{@link Participation#setParticipant(URI)},</li>
-	 * 		<li>{@link #addInteraction(Interaction)}, or</li>
-	 * 		<li>{@link Interaction#deepCopy()}.</li>
+	 * 		<li>{@link MapsTo#setLocal(URI)},</li>
+	 * 		<li>{@link #addFunctionalComponentNoCheck(FunctionalComponent)},</li>
+	 * 		<li>{@link Interaction#deepCopy()},</li>
+	 * 		<li>{@link Interaction#updateCompliantURI(String, String, String)},</li>
+	 * 		<li>{@link Participation#setParticipant(URI)}, or</li>
+	 * 		<li>{@link #addInteraction(Interaction)}.</li>
 	 * 	</ul>
 	 * </ul> 
 	 */
-	private ModuleDefinition flattenRecurse() throws SBOLValidationException {
-		ModuleDefinition flatModuleDefinition = this.deepCopy();
+	private ModuleDefinition flattenRecurse(Map<URI, ModuleDefinition> flattened) throws SBOLValidationException {
+		ModuleDefinition flatModuleDefinition = flattened.get(this.getIdentity());
+		if (flatModuleDefinition != null) {
+			return flatModuleDefinition;
+		}
+		flatModuleDefinition = this.deepCopy();
+		flatModuleDefinition.clearModules();
+		List<FunctionalComponent> added = new ArrayList<>();
 		for (Module module : this.getModules()) {
-			ModuleDefinition flatModule = module.getDefinition().flattenRecurse();
+			ModuleDefinition definition = module.getDefinition();
+			if (definition == null) {
+				throw new SBOLValidationException("sbol-11703", module);
+			}
+			ModuleDefinition flatModule = definition.flattenRecurse(flattened);
+			Map<URI, MapsTo> mapsTos = new HashMap<>();
+			for (MapsTo mapsTo : module.getMapsTos()) {
+				mapsTos.put(mapsTo.getRemoteURI(), mapsTo);
+			}
+			String prefix = module.getDisplayId() + "__";
+			// Maps each functional component of the flattened sub-module to the one that replaces it.
+			Map<URI, URI> uriMap = new HashMap<>();
+			List<FunctionalComponent> copies = new ArrayList<>();
+			Map<MapsTo, URI> locals = new IdentityHashMap<>();
 			for (FunctionalComponent fc : flatModule.getFunctionalComponents()) {
-				boolean foundIt = false;
-				URI oldURI = fc.getIdentity();
-				URI newURI = null;
-				for (MapsTo mapsTo : module.getMapsTos()) {
-					if (mapsTo.getRemoteURI().equals(fc.getIdentity())) {
-						newURI = mapsTo.getLocalURI();
-						FunctionalComponent topFc = flatModuleDefinition.getFunctionalComponent(newURI);
-						if (mapsTo.getRefinement()==RefinementType.USEREMOTE) {
-							topFc.setDefinition(fc.getDefinitionURI());
-						} else if (mapsTo.getRefinement()==RefinementType.VERIFYIDENTICAL) {
-							if (!topFc.getDefinitionURI().equals(fc.getDefinitionURI())) {
-								//								throw new SBOLValidationException("Component definitions in mapsTo '" + mapsTo.getIdentity()
-								//										+ "' are not identical.");
-								throw new SBOLValidationException("sbol-10811", mapsTo);
-							}
-						} else if (mapsTo.getRefinement()==RefinementType.MERGE) {
-							// TODO: merge?
-						}
-						foundIt = true;
-						break;
-					}
-				}
-				if (!foundIt) {
+				MapsTo mapsTo = mapsTos.get(fc.getIdentity());
+				if (mapsTo == null) {
 					FunctionalComponent newFC = fc.deepCopy();
+					for (MapsTo fcMapsTo : newFC.getMapsTos()) {
+						locals.put(fcMapsTo, fcMapsTo.getLocalURI());
+					}
 					newFC.updateCompliantURI(this.getPersistentIdentity().toString(),
-							module.getDisplayId() + "__" + fc.getDisplayId(), this.getVersion());
-					newURI = newFC.getIdentity();
-					flatModuleDefinition.addFunctionalComponent(newFC);
+							prefix + fc.getDisplayId(), this.getVersion());
+					uriMap.put(fc.getIdentity(), newFC.getIdentity());
+					copies.add(newFC);
+					continue;
 				}
-				for (Interaction i : flatModule.getInteractions()) {
-					for (Participation p : i.getParticipations()) {
-						if (p.getParticipantURI().equals(oldURI)) {
-							p.setParticipant(newURI);
-						}
+				FunctionalComponent topFc = flatModuleDefinition.getFunctionalComponent(mapsTo.getLocalURI());
+				if (topFc == null) {
+					throw new SBOLValidationException("sbol-10804", mapsTo);
+				}
+				if (mapsTo.getRefinement()==RefinementType.USEREMOTE) {
+					topFc.setDefinition(fc.getDefinitionURI());
+				} else if (mapsTo.getRefinement()==RefinementType.VERIFYIDENTICAL) {
+					if (!topFc.getDefinitionURI().equals(fc.getDefinitionURI())) {
+						throw new SBOLValidationException("sbol-10811", mapsTo);
 					}
 				}
+				uriMap.put(fc.getIdentity(), topFc.getIdentity());
+			}
+			for (Map.Entry<MapsTo, URI> entry : locals.entrySet()) {
+				URI local = uriMap.get(entry.getValue());
+				entry.getKey().setLocal(local != null ? local : entry.getValue());
 			}
-			for (Interaction i : flatModule.getInteractions()) {
-				flatModuleDefinition.addInteraction(i.deepCopy());
+			for (FunctionalComponent fc : copies) {
+				flatModuleDefinition.addFunctionalComponentNoCheck(fc);
+				added.add(fc);
+			}
+			for (Interaction interaction : flatModule.getInteractions()) {
+				Interaction newInteraction = interaction.deepCopy();
+				Map<Participation, URI> participants = new IdentityHashMap<>();
+				for (Participation participation : newInteraction.getParticipations()) {
+					URI participant = uriMap.get(participation.getParticipantURI());
+					participants.put(participation, participant != null ? participant : participation.getParticipantURI());
+				}
+				newInteraction.updateCompliantURI(this.getPersistentIdentity().toString(),
+						prefix + interaction.getDisplayId(), this.getVersion());
+				for (Map.Entry<Participation, URI> entry : participants.entrySet()) {
+					entry.getKey().setParticipant(entry.getValue());
+				}
+				flatModuleDefinition.addInteraction(newInteraction);
 			}
 		}
-		flatModuleDefinition.clearModules();
+		for (FunctionalComponent fc : added) {
+			flatModuleDefinition.linkMapsTos(fc);
+		}
+		flattened.put(this.getIdentity(), flatModuleDefinition);
 		return flatModuleDefinition;
 	}
 
@@ -0,0 +1,507 @@
+package org.sbolstandard.core2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scans nucleic acid sequences for a set of IUPAC motifs, such as the recognition sites of a list of
+ * restriction enzymes, on both strands at once, and optionally annotates the component definitions
+ * they belong to with the places found.
+ * <p>
+ * Each motif is expanded into the bases it stands for, on both strands, and all expansions are compiled
+ * into a single Aho-Corasick automaton, so that each sequence is scanned in a single pass whatever the
+ * number of motifs. A motif matches where each base of the sequence, in either case and with {@code u}
+ * taken as {@code t}, is one its code at the same position stands for; characters of the sequence that
+ * are not bases never match. Motifs that are their own reverse complement are only reported on the
+ * inline strand. Several sequences are scanned in parallel.
+ * <p>
+ * Motifs are added with {@link #addMotif(String, String)} or {@link #addMotif(String, String, int)},
+ * and the automaton is built when the first scan is made, after which no more motifs can be added.
+ *
+ * @version 2.1
+ */
+
+public final class MotifScanner {
+
+	/**
+	 * An occurrence of a motif on a strand of a sequence.
+	 */
+	public static final class Match {
+
+		private final String name;
+		private final int start;
+		private final int end;
+		private final OrientationType strand;
+		private final int cut;
+
+		private Match(String name, int start, int end, OrientationType strand, int cut) {
+			this.name = name;
+			this.start = start;
+			this.end = end;
+			this.strand = strand;
+			this.cut = cut;
+		}
+
+		/**
+		 * Returns the name of the motif.
+		 *
+		 * @return the name of the motif
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the first position covered by the occurrence, counting from 1 along the inline strand.
+		 *
+		 * @return the first position covered by the occurrence
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * Returns the last position covered by the occurrence, counting from 1 along the inline strand.
+		 *
+		 * @return the last position covered by the occurrence
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		/**
+		 * Returns the strand the motif occurs on, which is {@link OrientationType#REVERSECOMPLEMENT} if the
+		 * reverse complement of the motif occurs on the inline strand.
+		 *
+		 * @return the strand the motif occurs on
+		 */
+		public OrientationType getStrand() {
+			return strand;
+		}
+
+		/**
+		 * Checks if the motif was added with a cut position.
+		 *
+		 * @return {@code true} if the motif was added with a cut position, {@code false} otherwise
+		 */
+		public boolean isSetCut() {
+			return cut >= 0;
+		}
+
+		/**
+		 * Returns the place the motif cuts the sequence at, as for the {@code at} property of a {@link Cut}:
+		 * the cut lies between this position and the next one along the inline strand.
+		 *
+		 * @return the place the motif cuts the sequence at, or -1 if the motif was added without a cut
+		 *         position
+		 */
+		public int getCut() {
+			if (cut < 0) {
+				return -1;
+			}
+			// On the reverse strand, the motif is read from its end backwards.
+			return strand == OrientationType.INLINE ? start - 1 + cut : end - cut;
+		}
+
+		@Override
+		public String toString() {
+			return name + ":" + start + ".." + end + ":" + strand;
+		}
+	}
+
+	/**
+	 * The largest number of base strings a single motif may stand for on each strand.
+	 */
+	private static final int MAX_EXPANSIONS = 1 << 16;
+
+	private final List<String> names = new ArrayList<>();
+	private final List<String> motifs = new ArrayList<>();
+	private final List<Integer> cuts = new ArrayList<>();
+	private volatile Automaton automaton;
+
+	/**
+	 * Adds the given IUPAC motif to this scanner, to be reported as a range.
+	 *
+	 * @param name
+	 *            the name the matches of the motif are reported under
+	 * @param motif
+	 *            the IUPAC nucleotide codes of the motif
+	 * @throws IllegalArgumentException
+	 *             if the motif is empty, contains characters that are not IUPAC nucleotide codes or
+	 *             stands for too many base strings, or if this scanner has already been used
+	 */
+	public void addMotif(String name, String motif) {
+		addMotif(name, motif, -1);
+	}
+
+	/**
+	 * Adds the given IUPAC motif to this scanner, to be reported as a cut at the given position of the
+	 * motif. The position counts the bases of the motif before the cut, so a cut position of 1 for the motif
+	 * {@code GAATTC} of EcoRI cuts between its first and second base. A cut position of -1 reports the motif
+	 * as a range, as {@link #addMotif(String, String)} does.
+	 *
+	 * @param name
+	 *            the name the matches of the motif are reported under
+	 * @param motif
+	 *            the IUPAC nucleotide codes of the motif
+	 * @param cut
+	 *            the number of bases of the motif before the cut, or -1
+	 * @throws IllegalArgumentException
+	 *             if the motif is empty, contains characters that are not IUPAC nucleotide codes or
+	 *             stands for too many base strings, if the cut position is less than -1 or greater than
+	 *             the length of the motif, or if this scanner has already been used
+	 */
+	public synchronized void addMotif(String name, String motif, int cut) {
+		if (automaton != null) {
+			throw new IllegalArgumentException("Motifs cannot be added to a scanner that has been used.");
+		}
+		if (motif.isEmpty()) {
+			throw new IllegalArgumentException("Motif " + name + " is empty.");
+		}
+		long expansions = 1;
+		for (int i = 0; i < motif.length(); i++) {
+			int mask = SequenceOperations.getBaseMask(motif.charAt(i));
+			if (mask == 0) {
+				throw new IllegalArgumentException(
+						"Motif " + name + " has a character that is not an IUPAC nucleotide code.");
+			}
+			expansions *= Integer.bitCount(mask);
+			if (expansions > MAX_EXPANSIONS) {
+				throw new IllegalArgumentException("Motif " + name + " stands for too many base strings.");
+			}
+		}
+		if (cut < -1 || cut > motif.length()) {
+			throw new IllegalArgumentException("Cut position " + cut + " is outside motif " + name + ".");
+		}
+		names.add(name);
+		motifs.add(SequenceOperations.toLowerCase(motif));
+		cuts.add(cut);
+	}
+
+	/**
+	 * Returns the occurrences of the motifs of this scanner in the given sequence, ordered by start.
+	 *
+	 * @param sequence
+	 *            the sequence to be scanned
+	 * @return the occurrences of the motifs of this scanner in the given sequence, or an empty list if the
+	 *         sequence does not have the {@link Sequence#IUPAC_DNA} encoding
+	 */
+	public List<Match> scan(Sequence sequence) {
+		return scan(sequence, getAutomaton());
+	}
+
+	/**
+	 * Returns the occurrences of the motifs of this scanner in each of the given sequences, which are
+	 * scanned in parallel in the common fork-join pool.
+	 *
+	 * @param sequences
+	 *            the sequences to be scanned
+	 * @return a map from each of the given sequences to the occurrences found in it, in the order of the
+	 *         given sequences
+	 */
+	public Map<Sequence, List<Match>> scan(java.util.Collection<Sequence> sequences) {
+		final Automaton automaton = getAutomaton();
+		final List<Sequence> list = new ArrayList<>(sequences);
+		@SuppressWarnings("unchecked")
+		final List<Match>[] results = new List[list.size()];
+		int shares = Math.min(Runtime.getRuntime().availableProcessors(), list.size());
+		if (shares <= 1) {
+			for (int i = 0; i < list.size(); i++) {
+				results[i] = scan(list.get(i), automaton);
+			}
+		} else {
+			final List<RecursiveAction> tasks = new ArrayList<>();
+			int share = (list.size() + shares - 1) / shares;
+			for (int start = 0; start < list.size(); start += share) {
+				final int from = start;
+				final int to = Math.min(start + share, list.size());
+				tasks.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						for (int i = from; i < to; i++) {
+							results[i] = scan(list.get(i), automaton);
+						}
+					}
+				});
+			}
+			ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+		Map<Sequence, List<Match>> matches = new LinkedHashMap<>();
+		for (int i = 0; i < list.size(); i++) {
+			matches.put(list.get(i), results[i]);
+		}
+		return matches;
+	}
+
+	/**
+	 * Scans the sequence of the given component definition with the {@link Sequence#IUPAC_DNA} encoding,
+	 * and creates a sequence annotation on the component definition for each occurrence found. Each
+	 * sequence annotation is named after its motif and has a single location: a {@link Cut} at the cut
+	 * position if the motif was added with one, or else a {@link Range} over the occurrence, either of them
+	 * oriented along the strand the motif occurs on.
+	 *
+	 * @param componentDefinition
+	 *            the component definition to be annotated
+	 * @return the created sequence annotations
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while creating a sequence annotation
+	 */
+	public List<SequenceAnnotation> annotate(ComponentDefinition componentDefinition)
+			throws SBOLValidationException {
+		Sequence sequence = componentDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
+		if (sequence == null) {
+			return new ArrayList<>();
+		}
+		return annotate(componentDefinition, scan(sequence));
+	}
+
+	/**
+	 * Annotates every component definition of the given SBOL document that has a sequence with the
+	 * {@link Sequence#IUPAC_DNA} encoding, as {@link #annotate(ComponentDefinition)} does. The sequences
+	 * are scanned in parallel, each of them once however many component definitions share it, and the
+	 * sequence annotations are then created one component definition at a time.
+	 *
+	 * @param document
+	 *            the document whose component definitions are to be annotated
+	 * @return the created sequence annotations
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while creating a sequence annotation
+	 */
+	public List<SequenceAnnotation> annotate(SBOLDocument document) throws SBOLValidationException {
+		Map<ComponentDefinition, Sequence> sequences = new IdentityHashMap<>();
+		Map<Sequence, Sequence> distinct = new IdentityHashMap<>();
+		for (ComponentDefinition componentDefinition : document.getComponentDefinitions()) {
+			Sequence sequence = componentDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
+			if (sequence != null) {
+				sequences.put(componentDefinition, sequence);
+				distinct.put(sequence, sequence);
+			}
+		}
+		Map<Sequence, List<Match>> matches = scan(distinct.keySet());
+		List<SequenceAnnotation> annotations = new ArrayList<>();
+		for (Map.Entry<ComponentDefinition, Sequence> entry : sequences.entrySet()) {
+			annotations.addAll(annotate(entry.getKey(), matches.get(entry.getValue())));
+		}
+		return annotations;
+	}
+
+	private static List<SequenceAnnotation> annotate(ComponentDefinition componentDefinition, List<Match> matches)
+			throws SBOLValidationException {
+		List<SequenceAnnotation> annotations = new ArrayList<>();
+		int count = 0;
+		for (Match match : matches) {
+			String prefix = URIcompliance.fixDisplayId(match.getName());
+			String displayId;
+			do {
+				displayId = prefix + "_" + count++;
+			} while (componentDefinition.getSequenceAnnotation(displayId) != null);
+			SequenceAnnotation annotation;
+			if (match.isSetCut()) {
+				annotation = componentDefinition.createSequenceAnnotation(displayId, "cut", match.getCut(),
+						match.getStrand());
+			} else {
+				annotation = componentDefinition.createSequenceAnnotation(displayId, "range", match.getStart(),
+						match.getEnd(), match.getStrand());
+			}
+			annotation.setName(match.getName());
+			annotations.add(annotation);
+		}
+		return annotations;
+	}
+
+	private synchronized Automaton getAutomaton() {
+		if (automaton == null) {
+			automaton = new Automaton(names, motifs, cuts);
+		}
+		return automaton;
+	}
+
+	private static List<Match> scan(Sequence sequence, Automaton automaton) {
+		if (!Sequence.IUPAC_DNA.equals(sequence.getEncoding())) {
+			return new ArrayList<>();
+		}
+		return automaton.scan(sequence.getElementsSequence());
+	}
+
+	/**
+	 * An Aho-Corasick automaton over the bases {@code acgt}, whose transitions are completed with the
+	 * failure links so that each character of a sequence takes a single step.
+	 */
+	private static final class Automaton {
+
+		private final String[] names;
+		private final int[] cuts;
+		private int[][] transitions;
+		/**
+		 * For each state, the patterns ending there, including those reached through failure links, each
+		 * encoded as twice its motif index, plus one for the reverse strand.
+		 */
+		private int[][] outputs;
+		private final int[] lengths;
+		private int states;
+
+		private Automaton(List<String> names, List<String> motifs, List<Integer> cuts) {
+			this.names = names.toArray(new String[names.size()]);
+			this.cuts = new int[cuts.size()];
+			this.lengths = new int[motifs.size()];
+			transitions = new int[16][];
+			outputs = new int[16][];
+			states = 0;
+			newState();
+			for (int i = 0; i < motifs.size(); i++) {
+				String motif = motifs.get(i);
+				this.cuts[i] = cuts.get(i);
+				lengths[i] = motif.length();
+				String reverse = SequenceOperations.reverseComplementCodes(motif);
+				addExpansions(motif, 2 * i);
+				if (!isOwnReverseComplement(motif, reverse)) {
+					addExpansions(reverse, 2 * i + 1);
+				}
+			}
+			link();
+		}
+
+		private static boolean isOwnReverseComplement(String motif, String reverse) {
+			for (int i = 0; i < motif.length(); i++) {
+				if (SequenceOperations.getBaseMask(motif.charAt(i)) != SequenceOperations
+						.getBaseMask(reverse.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int newState() {
+			if (states == transitions.length) {
+				transitions = Arrays.copyOf(transitions, 2 * states);
+				outputs = Arrays.copyOf(outputs, 2 * states);
+			}
+			transitions[states] = new int[] { -1, -1, -1, -1 };
+			outputs[states] = new int[0];
+			return states++;
+		}
+
+		/**
+		 * Adds every base string the given motif stands for, walking the trie depth first so that common
+		 * prefixes of the expansions share their states.
+		 */
+		private void addExpansions(String motif, int pattern) {
+			Deque<int[]> stack = new ArrayDeque<>();
+			stack.push(new int[] { 0, 0 });
+			while (!stack.isEmpty()) {
+				int[] entry = stack.pop();
+				int state = entry[0];
+				int depth = entry[1];
+				if (depth == motif.length()) {
+					outputs[state] = append(outputs[state], pattern);
+					continue;
+				}
+				int mask = SequenceOperations.getBaseMask(motif.charAt(depth));
+				for (int base = 0; base < 4; base++) {
+					if ((mask & (1 << base)) == 0) {
+						continue;
+					}
+					if (transitions[state][base] < 0) {
+						int child = newState();
+						transitions[state][base] = child;
+					}
+					stack.push(new int[] { transitions[state][base], depth + 1 });
+				}
+			}
+		}
+
+		private static int[] append(int[] patterns, int pattern) {
+			for (int existing : patterns) {
+				if (existing == pattern) {
+					return patterns;
+				}
+			}
+			int[] extended = Arrays.copyOf(patterns, patterns.length + 1);
+			extended[patterns.length] = pattern;
+			return extended;
+		}
+
+		/**
+		 * Computes the failure links breadth first, completing the transitions with them and merging the
+		 * outputs of each state with those of its failure state.
+		 */
+		private void link() {
+			int[] failures = new int[states];
+			Deque<Integer> queue = new ArrayDeque<>();
+			for (int base = 0; base < 4; base++) {
+				int child = transitions[0][base];
+				if (child < 0) {
+					transitions[0][base] = 0;
+				} else {
+					failures[child] = 0;
+					queue.add(child);
+				}
+			}
+			while (!queue.isEmpty()) {
+				int state = queue.poll();
+				for (int pattern : outputs[failures[state]]) {
+					outputs[state] = append(outputs[state], pattern);
+				}
+				for (int base = 0; base < 4; base++) {
+					int child = transitions[state][base];
+					if (child < 0) {
+						transitions[state][base] = transitions[failures[state]][base];
+					} else {
+						failures[child] = transitions[failures[state]][base];
+						queue.add(child);
+					}
+				}
+			}
+		}
+
+		private List<Match> scan(CharSequence elements) {
+			List<Match> matches = new ArrayList<>();
+			int state = 0;
+			for (int i = 0; i < elements.length(); i++) {
+				int base = SequenceOperations.getBaseIndex(elements.charAt(i));
+				if (base < 0) {
+					state = 0;
+					continue;
+				}
+				state = transitions[state][base];
+				for (int pattern : outputs[state]) {
+					int motif = pattern >> 1;
+					int end = i + 1;
+					matches.add(new Match(names[motif], end - lengths[motif] + 1, end,
+							(pattern & 1) == 0 ? OrientationType.INLINE : OrientationType.REVERSECOMPLEMENT,
+							cuts[motif]));
+				}
+			}
+			// Matches are found by end, and shorter motifs ending at the same place start later.
+			Collections.sort(matches, new Comparator<Match>() {
+				@Override
+				public int compare(Match match1, Match match2) {
+					if (match1.start != match2.start) {
+						return Integer.compare(match1.start, match2.start);
+					}
+					return Integer.compare(match1.end, match2.end);
+				}
+			});
+			return matches;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.sbolstandard.core2;
+
+import java.util.Arrays;
+
+/**
+ * Holds the elements of a nucleic acid sequence packed into 2 or 4 bits per base.
+ * <p>
+ * Each base is stored as its index in an alphabet of 4 or 16 characters, chosen when the elements are
+ * packed so as to use the least memory: {@code acgt} or {@code acgu} for 2 bits per base, or all IUPAC
+ * nucleotide codes and the gap character for 4 bits per base, in lower or upper case. Characters not
+ * in the chosen alphabet are kept in a sorted exception list, so any string can be packed without loss.
+ * Instances are immutable, and decode only the characters asked for.
+ *
+ * @version 2.1
+ */
+
+final class PackedElements implements CharSequence {
+
+	private static final String[] ALPHABETS = { "acgt", "acgu", "ACGT", "ACGU", "acgtryswkmbdhvn-",
+			"acguryswkmbdhvn-", "ACGTRYSWKMBDHVN-", "ACGURYSWKMBDHVN-" };
+
+	private static final byte[][] CODES = new byte[ALPHABETS.length][128];
+
+	static {
+		for (int i = 0; i < ALPHABETS.length; i++) {
+			Arrays.fill(CODES[i], (byte) -1);
+			for (int code = 0; code < ALPHABETS[i].length(); code++) {
+				CODES[i][ALPHABETS[i].charAt(code)] = (byte) code;
+			}
+		}
+	}
+
+	private final int length;
+	private final int bits;
+	private final String alphabet;
+	private final long[] codes;
+	private final int[] exceptionPositions;
+	private final char[] exceptionValues;
+
+	private PackedElements(String elements, int alphabetIndex, int exceptions) {
+		this.length = elements.length();
+		this.alphabet = ALPHABETS[alphabetIndex];
+		this.bits = alphabet.length() == 4 ? 2 : 4;
+		this.codes = new long[(int) (((long) length * bits + 63) / 64)];
+		this.exceptionPositions = new int[exceptions];
+		this.exceptionValues = new char[exceptions];
+		byte[] table = CODES[alphabetIndex];
+		int perLong = 64 / bits;
+		int exception = 0;
+		for (int i = 0; i < length; i++) {
+			char c = elements.charAt(i);
+			int code = c < 128 ? table[c] : -1;
+			if (code < 0) {
+				exceptionPositions[exception] = i;
+				exceptionValues[exception] = c;
+				exception++;
+				code = 0;
+			}
+			codes[i / perLong] |= ((long) code) << ((i % perLong) * bits);
+		}
+	}
+
+	/**
+	 * Packs the given elements using the alphabet that takes the least memory.
+	 *
+	 * @param elements
+	 *            the elements to be packed
+	 * @return the packed elements, or the given elements themselves if packing would not save memory
+	 */
+	static CharSequence pack(String elements) {
+		int best = -1;
+		int bestExceptions = 0;
+		long bestSize = elements.length();
+		for (int i = 0; i < ALPHABETS.length; i++) {
+			int exceptions = countExceptions(elements, CODES[i]);
+			int bits = ALPHABETS[i].length() == 4 ? 2 : 4;
+			long size = ((long) elements.length() * bits + 7) / 8 + (long) exceptions * 6;
+			if (size < bestSize) {
+				best = i;
+				bestExceptions = exceptions;
+				bestSize = size;
+			}
+		}
+		if (best < 0) {
+			return elements;
+		}
+		return new PackedElements(elements, best, bestExceptions);
+	}
+
+	private static int countExceptions(String elements, byte[] table) {
+		int exceptions = 0;
+		for (int i = 0; i < elements.length(); i++) {
+			char c = elements.charAt(i);
+			if (c >= 128 || table[c] < 0) {
+				exceptions++;
+			}
+		}
+		return exceptions;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		int exception = Arrays.binarySearch(exceptionPositions, index);
+		if (exception >= 0) {
+			return exceptionValues[exception];
+		}
+		return decode(index);
+	}
+
+	private char decode(int index) {
+		int perLong = 64 / bits;
+		int code = (int) (codes[index / perLong] >>> ((index % perLong) * bits)) & ((1 << bits) - 1);
+		return alphabet.charAt(code);
+	}
+
+	/**
+	 * Returns the characters between the given indices as a string, decoding only those characters.
+	 */
+	@Override
+	public String subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		char[] decoded = new char[end - start];
+		int exception = Arrays.binarySearch(exceptionPositions, start);
+		if (exception < 0) {
+			exception = -exception - 1;
+		}
+		for (int i = start; i < end; i++) {
+			if (exception < exceptionPositions.length && exceptionPositions[exception] == i) {
+				decoded[i - start] = exceptionValues[exception++];
+			} else {
+				decoded[i - start] = decode(i);
+			}
+		}
+		return new String(decoded);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length);
+	}
+}
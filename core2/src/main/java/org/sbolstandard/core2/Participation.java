@@ -112,6 +112,7 @@ public class Participation extends Identified {
 			throw new SBOLValidationException("sbol-12003",this);
 		}
 		this.participant = participant;
+		modified();
 	}
 
 	/**
@@ -122,7 +123,9 @@ public class Participation extends Identified {
 	 * or {@code false} otherwise
 	 */
 	public boolean addRole(URI roleURI) {
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -136,7 +139,9 @@ public class Participation extends Identified {
 		if (roles.size()==1 && roles.contains(roleURI)) {
 			throw new SBOLValidationException("sbol-12004", this);
 		}
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -186,6 +191,7 @@ public class Participation extends Identified {
 	 */
 	private void clearRoles() {
 		roles.clear();
+		modified();
 	}
 
 	@Override
@@ -250,6 +256,13 @@ public class Participation extends Identified {
 		return true;
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(roles);
+		contentDigest.update(participant);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
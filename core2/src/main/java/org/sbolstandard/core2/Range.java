@@ -70,6 +70,7 @@ public class Range extends Location {
 			throw new SBOLValidationException("sbol-11104", this);
 		}
 		start = value;
+		modified();
 	}
 
 	/**
@@ -104,6 +105,7 @@ public class Range extends Location {
 			throw new SBOLValidationException("sbol-11104", this);
 		}
 		end = value;
+		modified();
 	}
 
 
@@ -119,6 +121,13 @@ public class Range extends Location {
 		return new Range(this);
 	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(start);
+		contentDigest.update(end);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
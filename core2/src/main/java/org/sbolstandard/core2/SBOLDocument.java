@@ -18,12 +18,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.xml.namespace.QName;
 
@@ -44,26 +56,39 @@ import org.sbolstandard.core.datatree.NamespaceBinding;
 
 public class SBOLDocument {
 
-	private HashMap<URI, GenericTopLevel> genericTopLevels;
-	private HashMap<URI, Collection> collections;
-	private HashMap<URI, ComponentDefinition> componentDefinitions;
-	private HashMap<URI, Model> models;
-	private HashMap<URI, ModuleDefinition> moduleDefinitions;
-	private HashMap<URI, Sequence> sequences;
-	private HashMap<URI, CombinatorialDerivation> combinatorialDerivations;
-	private HashMap<URI, Implementation> implementations;
-	private HashMap<URI, Attachment> attachments;
-	private HashMap<URI, Activity> activities;
-	private HashMap<URI, Plan> plans;
-	private HashMap<URI, Agent> agents;
-	private HashMap<String, NamespaceBinding> nameSpaces;
-	private HashMap<String, SynBioHubFrontend> registries;
-	private Set<String> prefixes;
+	private Map<URI, GenericTopLevel> genericTopLevels;
+	private Map<URI, Collection> collections;
+	private Map<URI, ComponentDefinition> componentDefinitions;
+	private Map<URI, Model> models;
+	private Map<URI, ModuleDefinition> moduleDefinitions;
+	private Map<URI, Sequence> sequences;
+	private Map<URI, CombinatorialDerivation> combinatorialDerivations;
+	private Map<URI, Implementation> implementations;
+	private Map<URI, Attachment> attachments;
+	private Map<URI, Activity> activities;
+	private Map<URI, Plan> plans;
+	private Map<URI, Agent> agents;
+	private Map<String, NamespaceBinding> nameSpaces;
+	private Map<String, SynBioHubFrontend> registries;
+	private URIprefixTrie prefixes;
 	private String defaultURIprefix;
 	private boolean complete = false;
 	private boolean compliant = true;
 	private boolean typesInURIs = false;
 	private boolean createDefaults = false;
+	private boolean concurrent = false;
+	private ReentrantReadWriteLock lock;
+	private volatile SBOLDocumentSnapshot base;
+	private volatile boolean derived = false;
+	private final Set<URI> materialized = Collections.newSetFromMap(new ConcurrentHashMap<URI, Boolean>());
+	private volatile SBOLDocumentSnapshot lastSnapshot;
+	private final AtomicLong modifications = new AtomicLong();
+	private final List<SBOLDocumentListener> listeners = new CopyOnWriteArrayList<>();
+	private final Set<SBOLDocumentChange> pendingChanges = new LinkedHashSet<>();
+	private int changeBatches = 0;
+	private final ThreadLocal<ThreadState> threadState;
+	private final ThreadState singleThreadState;
+	private final ImpliedSequences impliedSequences = new ImpliedSequences(this);
 
 	/**
 	 * Constant representing TURTLE file format
@@ -98,19 +123,76 @@ public class SBOLDocument {
 	 * {@link Sbol2Terms#prov}.
 	 */
 	public SBOLDocument() {
-		genericTopLevels = new HashMap<>();
-		collections = new HashMap<>();
-		componentDefinitions = new HashMap<>();
-		models = new HashMap<>();
-		moduleDefinitions = new HashMap<>();
-		sequences = new HashMap<>();
-		activities = new HashMap<>();
-		plans = new HashMap<>();
-		agents = new HashMap<>();
-		nameSpaces = new HashMap<>();
-		combinatorialDerivations = new HashMap<>();
-		implementations = new HashMap<>();
-		attachments = new HashMap<>();
+		this(false);
+	}
+
+	/**
+	 * Creates a new SBOLDocument instance with one empty list for the namespaces
+	 * and one for each top-level instance, and then adds the following namespaces:
+	 * {@link Sbol2Terms#sbol2}, {@link Sbol1Terms#rdf}, {@link Sbol2Terms#dc}, and
+	 * {@link Sbol2Terms#prov}.
+	 * <p>
+	 * If {@code concurrent} is {@code true}, the created document may be shared by
+	 * several threads under the following contract:
+	 * <ul>
+	 * <li>top-levels may be created, copied, added and removed from any thread.
+	 * Each addition or removal, including its URI uniqueness checks, is atomic
+	 * with respect to all others;</li>
+	 * <li>lookups of a single top-level, such as {@link #getTopLevel(URI)} or
+	 * {@link #getComponentDefinition(URI)}, and the per-type sets, such as
+	 * {@link #getComponentDefinitions()}, never block and never fail, but may or
+	 * may not reflect additions and removals made concurrently with them. The
+	 * exception is a document created from a snapshot (see
+	 * {@link SBOLDocumentSnapshot#createDocument(boolean)}): the first lookup
+	 * of a top-level it still shares with the snapshot, and the first listing
+	 * of each type, copy top-levels into it under the same lock as additions
+	 * and removals, and so may wait for them;</li>
+	 * <li>{@link #getTopLevels()} and serialization through {@link SBOLWriter}
+	 * see a consistent view of the top-levels of this document, as no addition or
+	 * removal can take place while they run;</li>
+	 * <li>the contents of an individual top-level, including its child objects,
+	 * are not synchronized, so a top-level must either be modified by a single
+	 * thread at a time or be protected by the caller while it is being modified
+	 * and read; and</li>
+	 * <li>removal checks performed when this document is complete (see
+	 * {@link #setComplete(boolean)}) are not atomic with the concurrent addition
+	 * of objects referring to the removed top-level.</li>
+	 * </ul>
+	 * A document created with {@code concurrent} set to {@code false} is not
+	 * thread-safe.
+	 *
+	 * @param concurrent
+	 *            {@code true} if the created document is to be shared by several
+	 *            threads, {@code false} otherwise
+	 */
+	public SBOLDocument(boolean concurrent) {
+		this.concurrent = concurrent;
+		if (concurrent) {
+			lock = new ReentrantReadWriteLock();
+			threadState = new ThreadLocal<ThreadState>() {
+				@Override
+				protected ThreadState initialValue() {
+					return new ThreadState();
+				}
+			};
+			singleThreadState = null;
+		} else {
+			threadState = null;
+			singleThreadState = new ThreadState();
+		}
+		genericTopLevels = newMap();
+		collections = newMap();
+		componentDefinitions = newMap();
+		models = newMap();
+		moduleDefinitions = newMap();
+		sequences = newMap();
+		activities = newMap();
+		plans = newMap();
+		agents = newMap();
+		nameSpaces = newMap();
+		combinatorialDerivations = newMap();
+		implementations = newMap();
+		attachments = newMap();
 		try {
 			addNamespaceBinding(Sbol2Terms.sbol2);
 			addNamespaceBinding(Sbol1Terms.rdf);
@@ -119,8 +201,205 @@ public class SBOLDocument {
 		} catch (SBOLValidationException e) {
 			e.printStackTrace();
 		}
-		prefixes = new HashSet<>();
-		registries = new HashMap<>();
+		prefixes = new URIprefixTrie();
+		registries = newMap();
+	}
+
+	private <K, V> Map<K, V> newMap() {
+		if (concurrent) {
+			return new ConcurrentHashMap<>();
+		}
+		return new HashMap<>();
+	}
+
+	void lockRead() {
+		if (lock != null) {
+			lock.readLock().lock();
+		}
+	}
+
+	void unlockRead() {
+		if (lock != null) {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The state of a thread using this document: how many times it holds the
+	 * write lock, how many copies from the base snapshot it is making, and the
+	 * changes it made while holding the write lock, which are told to the
+	 * listeners once it releases the lock.
+	 */
+	private static final class ThreadState {
+		private int writeLocks;
+		private int materializing;
+		private List<List<SBOLDocumentChange>> deliveries;
+	}
+
+	/**
+	 * Returns the state of the calling thread. A document that is not concurrent
+	 * is used by one thread at a time, so it keeps a single state in a field
+	 * rather than looking it up per thread.
+	 */
+	private ThreadState getThreadState() {
+		return threadState == null ? singleThreadState : threadState.get();
+	}
+
+	private void lockWrite() {
+		if (lock != null) {
+			lock.writeLock().lock();
+		}
+		getThreadState().writeLocks++;
+	}
+
+	private void unlockWrite() {
+		ThreadState state = getThreadState();
+		state.writeLocks--;
+		if (lock != null) {
+			lock.writeLock().unlock();
+		}
+		if (state.writeLocks == 0 && state.deliveries != null) {
+			List<List<SBOLDocumentChange>> deliveries = state.deliveries;
+			state.deliveries = null;
+			for (List<SBOLDocumentChange> changes : deliveries) {
+				fireChanges(changes);
+			}
+		}
+	}
+
+	/**
+	 * Checks if this SBOL document may be shared by several threads.
+	 *
+	 * @return {@code true} if this document was created in concurrent mode,
+	 *         {@code false} otherwise
+	 * @see #SBOLDocument(boolean)
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Records that the given object in this document has been changed as given,
+	 * and reports the change to the listeners of this document, if there are any.
+	 * Copying top-levels from the base snapshot of this document is not a change.
+	 */
+	void modified(SBOLDocumentChange.Type type, Identified changed) {
+		modifications.incrementAndGet();
+		if (listeners.isEmpty() || getThreadState().materializing > 0) {
+			return;
+		}
+		TopLevel topLevel = changed.getContainingTopLevel();
+		SBOLDocumentChange change = new SBOLDocumentChange(type, changed.getIdentity(),
+				topLevel == null ? null : topLevel.getIdentity());
+		synchronized (pendingChanges) {
+			if (changeBatches > 0) {
+				pendingChanges.remove(change);
+				pendingChanges.add(change);
+				return;
+			}
+		}
+		fireChanges(Collections.singletonList(change));
+	}
+
+	/**
+	 * Returns the number of modifications made to this document and the objects
+	 * in it, which only ever grows, so that results derived from the document
+	 * can tell when they are stale.
+	 */
+	long getModifications() {
+		return modifications.get();
+	}
+
+	/**
+	 * Adds the given listener to this SBOL document, to be told about the changes
+	 * made to it from now on.
+	 * <p>
+	 * Changes are only recorded while this document has listeners, so a document
+	 * without listeners pays nothing for them beyond a check per change.
+	 *
+	 * @param listener the listener to be added
+	 * @see SBOLDocumentListener#documentChanged(SBOLDocument, List)
+	 */
+	public void addDocumentListener(SBOLDocumentListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("The listener must not be null.");
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes the given listener from this SBOL document.
+	 *
+	 * @param listener the listener to be removed
+	 * @return {@code true} if the given listener was removed, {@code false}
+	 *         otherwise
+	 */
+	public boolean removeDocumentListener(SBOLDocumentListener listener) {
+		return listeners.remove(listener);
+	}
+
+	/**
+	 * Starts a batch of changes to this SBOL document, whose changes are held back
+	 * until the matching call to {@link #endChangeBatch()}, and then told to the
+	 * listeners of this document together, each distinct change once. Batches may
+	 * be nested, in which case the changes are told when the outermost batch ends.
+	 * The changes made by bulk operations of this document, such as
+	 * {@link #rename(java.util.Collection, String, String, boolean)}, are batched
+	 * in this way.
+	 */
+	public void beginChangeBatch() {
+		synchronized (pendingChanges) {
+			changeBatches++;
+		}
+	}
+
+	/**
+	 * Ends a batch of changes started by {@link #beginChangeBatch()}, and tells the
+	 * changes made within it to the listeners of this document if it is the
+	 * outermost batch.
+	 *
+	 * @throws IllegalStateException if no batch of changes was started
+	 */
+	public void endChangeBatch() {
+		List<SBOLDocumentChange> changes;
+		synchronized (pendingChanges) {
+			if (changeBatches == 0) {
+				throw new IllegalStateException("No batch of changes was started.");
+			}
+			changeBatches--;
+			if (changeBatches > 0 || pendingChanges.isEmpty()) {
+				return;
+			}
+			changes = Collections.unmodifiableList(new ArrayList<>(pendingChanges));
+			pendingChanges.clear();
+		}
+		fireChanges(changes);
+	}
+
+	/**
+	 * Tells the given changes to the listeners of this document, or holds them
+	 * back until the calling thread releases the write lock if it holds it.
+	 */
+	private void fireChanges(List<SBOLDocumentChange> changes) {
+		ThreadState state = getThreadState();
+		if (state.writeLocks > 0) {
+			if (state.deliveries == null) {
+				state.deliveries = new ArrayList<>();
+			}
+			state.deliveries.add(changes);
+			return;
+		}
+		for (SBOLDocumentListener listener : listeners) {
+			listener.documentChanged(this, changes);
+		}
+	}
+
+	/**
+	 * Returns the memo of the implied sequences of the component definitions of
+	 * this document.
+	 */
+	ImpliedSequences getImpliedSequences() {
+		return impliedSequences;
 	}
 
 	/**
@@ -260,6 +539,7 @@ public class SBOLDocument {
 	 */
 	public boolean removeModuleDefinition(ModuleDefinition moduleDefinition) throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (ModuleDefinition md : moduleDefinitions.values()) {
 				for (Module m : md.getModules()) {
 					if (m.getDefinitionURI().equals(moduleDefinition.getIdentity())) {
@@ -307,6 +587,9 @@ public class SBOLDocument {
 	 */
 	public ModuleDefinition getModuleDefinition(URI moduleDefinitionURI) {
 		ModuleDefinition moduleDefinition = moduleDefinitions.get(moduleDefinitionURI);
+		if (moduleDefinition == null) {
+			moduleDefinition = materialize(moduleDefinitionURI, ModuleDefinition.class);
+		}
 		if (moduleDefinition == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -328,6 +611,7 @@ public class SBOLDocument {
 	 * @return the set of module definitions owned by this SBOLDocument object.
 	 */
 	public Set<ModuleDefinition> getModuleDefinitions() {
+		materializeAll(ModuleDefinition.class);
 		Set<ModuleDefinition> moduleDefinitions = new HashSet<>();
 		moduleDefinitions.addAll(this.moduleDefinitions.values());
 		return moduleDefinitions;
@@ -345,6 +629,7 @@ public class SBOLDocument {
 	 *             {@link #removeModuleDefinition(ModuleDefinition)}.
 	 */
 	public void clearModuleDefinitions() throws SBOLValidationException {
+		materializeAll(ModuleDefinition.class);
 		Object[] valueSetArray = moduleDefinitions.values().toArray();
 		for (Object moduleDefinition : valueSetArray) {
 			removeModuleDefinition((ModuleDefinition) moduleDefinition);
@@ -514,6 +799,9 @@ public class SBOLDocument {
 	 */
 	public Collection getCollection(URI collectionURI) {
 		Collection collection = collections.get(collectionURI);
+		if (collection == null) {
+			collection = materialize(collectionURI, Collection.class);
+		}
 		if (collection == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -536,6 +824,7 @@ public class SBOLDocument {
 	 * @return the set of {@code Collection} instances owned by this SBOL document.
 	 */
 	public Set<Collection> getCollections() {
+		materializeAll(Collection.class);
 		Set<Collection> collections = new HashSet<>();
 		collections.addAll(this.collections.values());
 		return collections;
@@ -553,6 +842,7 @@ public class SBOLDocument {
 	 *             {@link #removeCollection(Collection)}.
 	 */
 	public void clearCollections() throws SBOLValidationException {
+		materializeAll(Collection.class);
 		Object[] valueSetArray = collections.values().toArray();
 		for (Object collection : valueSetArray) {
 			removeCollection((Collection) collection);
@@ -675,6 +965,7 @@ public class SBOLDocument {
 	 */
 	public boolean removeModel(Model model) throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (ModuleDefinition md : moduleDefinitions.values()) {
 				if (md.containsModel(model.getIdentity())) {
 					throw new SBOLValidationException("sbol-11608", md);
@@ -697,6 +988,7 @@ public class SBOLDocument {
 	 */
 	public boolean removeAttachment(Attachment attachment) throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (TopLevel top : attachments.values()) {
 				if (top.containsAttachment(attachment.getIdentity())) {
 					throw new SBOLValidationException("sbol-XXXXX", top);
@@ -740,6 +1032,9 @@ public class SBOLDocument {
 	 */
 	public Model getModel(URI modelURI) {
 		Model model = models.get(modelURI);
+		if (model == null) {
+			model = materialize(modelURI, Model.class);
+		}
 		if (model == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -761,6 +1056,7 @@ public class SBOLDocument {
 	 * @return the set of models owned by this SBOL document.
 	 */
 	public Set<Model> getModels() {
+		materializeAll(Model.class);
 		// return (List<Model>) models.values();
 		Set<Model> models = new HashSet<>();
 		models.addAll(this.models.values());
@@ -779,6 +1075,7 @@ public class SBOLDocument {
 	 *             {@link #removeModel(Model)}.
 	 */
 	public void clearModels() throws SBOLValidationException {
+		materializeAll(Model.class);
 		Object[] valueSetArray = models.values().toArray();
 		for (Object model : valueSetArray) {
 			removeModel((Model) model);
@@ -908,6 +1205,9 @@ public class SBOLDocument {
 	 */
 	public Attachment getAttachment(URI attachmentURI) {
 		Attachment attachment = attachments.get(attachmentURI);
+		if (attachment == null) {
+			attachment = materialize(attachmentURI, Attachment.class);
+		}
 		if (attachment == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -930,6 +1230,7 @@ public class SBOLDocument {
 	 * @return the set of attachments owned by this SBOL document.
 	 */
 	public Set<Attachment> getAttachments() {
+		materializeAll(Attachment.class);
 		Set<Attachment> attachments = new HashSet<>();
 		attachments.addAll(this.attachments.values());
 		return attachments;
@@ -947,6 +1248,7 @@ public class SBOLDocument {
 	 *             {@link #removeAttachment(Attachment)}.
 	 */
 	public void clearAttachments() throws SBOLValidationException {
+		materializeAll(Attachment.class);
 		Object[] valueSetArray = attachments.values().toArray();
 		for (Object attachment : valueSetArray) {
 			removeAttachment((Attachment) attachment);
@@ -1131,6 +1433,10 @@ public class SBOLDocument {
 	void addComponentDefinition(ComponentDefinition componentDefinition) throws SBOLValidationException {
 		addTopLevel(componentDefinition, componentDefinitions, "componentDefinition", collections, genericTopLevels,
 				activities, plans, agents, models, moduleDefinitions, sequences, combinatorialDerivations, implementations, attachments);
+		setChildrenDocument(componentDefinition);
+	}
+
+	private void setChildrenDocument(ComponentDefinition componentDefinition) {
 		for (Component component : componentDefinition.getComponents()) {
 			component.setSBOLDocument(this);
 			for (MapsTo mapsTo : component.getMapsTos()) {
@@ -1164,6 +1470,7 @@ public class SBOLDocument {
 	 */
 	public boolean removeComponentDefinition(ComponentDefinition componentDefinition) throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (ComponentDefinition cd : componentDefinitions.values()) {
 				for (Component c : cd.getComponents()) {
 					if (c.getDefinitionURI().equals(componentDefinition.getIdentity())) {
@@ -1220,6 +1527,9 @@ public class SBOLDocument {
 	 */
 	public ComponentDefinition getComponentDefinition(URI componentDefinitionURI) {
 		ComponentDefinition componentDefinition = componentDefinitions.get(componentDefinitionURI);
+		if (componentDefinition == null) {
+			componentDefinition = materialize(componentDefinitionURI, ComponentDefinition.class);
+		}
 		if (componentDefinition == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -1275,6 +1585,9 @@ public class SBOLDocument {
 	 */
 	public CombinatorialDerivation getCombinatorialDerivation(URI combinatorialDerivationURI) {
 		CombinatorialDerivation combinatorialDerivation = combinatorialDerivations.get(combinatorialDerivationURI);
+		if (combinatorialDerivation == null) {
+			combinatorialDerivation = materialize(combinatorialDerivationURI, CombinatorialDerivation.class);
+		}
 
 		if (combinatorialDerivation == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
@@ -1325,6 +1638,7 @@ public class SBOLDocument {
 	public boolean removeCombinatorialDerivation(CombinatorialDerivation combinatorialDerivation)
 			throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (CombinatorialDerivation cd : combinatorialDerivations.values()) {
 				for (VariableComponent vc : cd.getVariableComponents()) {
 					for (URI variantURI : vc.getVariantURIs())
@@ -1461,6 +1775,7 @@ public class SBOLDocument {
 	 * @return the set of combinatorial derivation owned by this SBOL document.
 	 */
 	public Set<CombinatorialDerivation> getCombinatorialDerivations() {
+		materializeAll(CombinatorialDerivation.class);
 		Set<CombinatorialDerivation> combinatorialDerivations = new HashSet<>();
 		combinatorialDerivations.addAll(this.combinatorialDerivations.values());
 		return combinatorialDerivations;
@@ -1478,6 +1793,7 @@ public class SBOLDocument {
 	 *             {@link #removeCombinatorialDerivation(CombinatorialDerivation)}.
 	 */
 	public void clearCombinatorialDerivations() throws SBOLValidationException {
+		materializeAll(CombinatorialDerivation.class);
 		Object[] valueSetArray = combinatorialDerivations.values().toArray();
 		for (Object combinatorialDerivation : valueSetArray) {
 			removeCombinatorialDerivation((CombinatorialDerivation) combinatorialDerivation);
@@ -1524,6 +1840,9 @@ public class SBOLDocument {
 	 */
 	public Implementation getImplementation(URI implementationURI) {
 		Implementation implementation = implementations.get(implementationURI);
+		if (implementation == null) {
+			implementation = materialize(implementationURI, Implementation.class);
+		}
 
 		if (implementation == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
@@ -1652,6 +1971,7 @@ public class SBOLDocument {
 	 * @return the set of implementations owned by this SBOL document.
 	 */
 	public Set<Implementation> getImplementations() {
+		materializeAll(Implementation.class);
 		Set<Implementation> implementations = new HashSet<>();
 		implementations.addAll(this.implementations.values());
 		return implementations;
@@ -1669,6 +1989,7 @@ public class SBOLDocument {
 	 *             {@link #removeImplementation(Implementation)}.
 	 */
 	public void clearImplementations() throws SBOLValidationException {
+		materializeAll(Implementation.class);
 		Object[] valueSetArray = implementations.values().toArray();
 		for (Object implementation : valueSetArray) {
 			removeImplementation((Implementation) implementation);
@@ -1681,6 +2002,7 @@ public class SBOLDocument {
 	 * @return the set of component definitions owned by this SBOL document.
 	 */
 	public Set<ComponentDefinition> getComponentDefinitions() {
+		materializeAll(ComponentDefinition.class);
 		Set<ComponentDefinition> components = new HashSet<>();
 		components.addAll(this.componentDefinitions.values());
 		return components;
@@ -1736,6 +2058,7 @@ public class SBOLDocument {
 	 *             {@link #removeComponentDefinition(ComponentDefinition)}.
 	 */
 	public void clearComponentDefinitions() throws SBOLValidationException {
+		materializeAll(ComponentDefinition.class);
 		Object[] valueSetArray = componentDefinitions.values().toArray();
 		for (Object componentDefinition : valueSetArray) {
 			removeComponentDefinition((ComponentDefinition) componentDefinition);
@@ -2211,204 +2534,655 @@ public class SBOLDocument {
 		return document;
 	}
 
-	private void createRecursiveCopy(SBOLDocument document, Annotation annotation) throws SBOLValidationException {
-		if (annotation.isURIValue()) {
-			TopLevel gtl = getTopLevelLocalOnly(annotation.getURIValue());
-			if (gtl != null)
-				createRecursiveCopy(document, gtl);
-		} else if (annotation.isNestedAnnotations()) {
-			for (Annotation nestedAnnotation : annotation.getAnnotations()) {
-				createRecursiveCopy(document, nestedAnnotation);
-			}
-		}
+	/**
+	 * @param document
+	 *            document to copy recursively into
+	 * @param topLevel
+	 *            topLevel that is being recursively copied from
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred in
+	 *             {@link SBOLDocument#createCopy(TopLevel)}.
+	 */
+	public void createRecursiveCopy(SBOLDocument document, TopLevel topLevel) throws SBOLValidationException {
+		createRecursiveCopy(document, topLevel, false);
 	}
 
 	/**
+	 * Copies the given top-level and all top-levels it depends on, directly or
+	 * indirectly, into the given document.
+	 * <p>
+	 * The dependencies of a top-level are its provenance and attachments, the
+	 * members of a collection, the definitions and sequences of a component
+	 * definition, the template and variants of a combinatorial derivation, the
+	 * definitions and models of a module definition, the agents, plans and
+	 * entities of an activity, and the top-levels of this document referred to by
+	 * URI annotations. Top-levels already present in the given document are not
+	 * copied, and neither are their dependencies.
+	 * <p>
+	 * The closure of dependencies is first computed with a work queue, looking up
+	 * each referenced URI only once, and then copied in bulk. If {@code parallel}
+	 * is {@code true} and the given document is in concurrent mode, the copies are
+	 * made by several threads.
+	 *
 	 * @param document
 	 *            document to copy recursively into
 	 * @param topLevel
 	 *            topLevel that is being recursively copied from
+	 * @param parallel
+	 *            {@code true} to make the copies using several threads
 	 * @throws SBOLValidationException
 	 *             if an SBOL validation rule violation occurred in
 	 *             {@link SBOLDocument#createCopy(TopLevel)}.
+	 * @see #SBOLDocument(boolean)
 	 */
-	public void createRecursiveCopy(SBOLDocument document, TopLevel topLevel) throws SBOLValidationException {
+	public void createRecursiveCopy(final SBOLDocument document, TopLevel topLevel, boolean parallel)
+			throws SBOLValidationException {
 		if (topLevel == null || document.getTopLevelLocalOnly(topLevel.getIdentity()) != null)
 			return;
-		document.createCopy(topLevel);
-		for (URI wasDerivedFromURI : topLevel.getWasDerivedFroms()) {
-			TopLevel wasDerivedFrom = getTopLevel(wasDerivedFromURI);
-			if (wasDerivedFrom != null) {
-				createRecursiveCopy(document, wasDerivedFrom);
-			}
-		}
-		for (URI wasGeneratedByURI : topLevel.getWasGeneratedBys()) {
-			TopLevel wasGeneratedBy = getTopLevel(wasGeneratedByURI);
-			if (wasGeneratedBy != null) {
-				createRecursiveCopy(document, wasGeneratedBy);
+		List<TopLevel> closure = new ArrayList<>();
+		Set<URI> visited = new HashSet<>();
+		Map<URI, TopLevel> resolved = new HashMap<>();
+		ArrayDeque<TopLevel> queue = new ArrayDeque<>();
+		visited.add(topLevel.getIdentity());
+		queue.add(topLevel);
+		while (!queue.isEmpty()) {
+			TopLevel next = queue.poll();
+			closure.add(next);
+			List<URI> references = new ArrayList<>();
+			Class<?>[] types = collectDependencies(next, references);
+			// Provenance and attachments are looked up in this document, and the other references in the
+			// document of the object holding them, as their getters do.
+			int provenance = next.getWasDerivedFroms().size() + next.getWasGeneratedBys().size()
+					+ next.getAttachmentURIs().size();
+			SBOLDocument owner = next.getSBOLDocument();
+			for (int i = 0; i < references.size(); i++) {
+				URI reference = references.get(i);
+				if (reference == null) {
+					continue;
+				}
+				TopLevel dependency;
+				if (types[i] == null) {
+					dependency = getTopLevelLocalOnly(reference);
+				} else if (i >= provenance && owner != this) {
+					dependency = owner == null ? null : owner.getTopLevel(reference);
+				} else if (resolved.containsKey(reference)) {
+					dependency = resolved.get(reference);
+				} else {
+					dependency = getTopLevel(reference);
+					resolved.put(reference, dependency);
+				}
+				if (dependency == null || (types[i] != null && !types[i].isInstance(dependency))
+						|| !visited.add(dependency.getIdentity())) {
+					continue;
+				}
+				if (document.getTopLevelLocalOnly(dependency.getIdentity()) == null) {
+					queue.add(dependency);
+				}
 			}
 		}
-		for (URI attachmentURI : topLevel.getAttachmentURIs()) {
-			TopLevel attachment = getTopLevel(attachmentURI);
-			if (attachment != null) {
-				createRecursiveCopy(document, attachment);
+		if (parallel && document.isConcurrent()) {
+			forEachInParallel(closure, new TopLevelAction() {
+				@Override
+				public void apply(TopLevel copied) throws SBOLValidationException {
+					document.createCopy(copied);
+				}
+			});
+		} else {
+			for (TopLevel copied : closure) {
+				document.createCopy(copied);
 			}
 		}
-		if (topLevel instanceof GenericTopLevel || topLevel instanceof Sequence || topLevel instanceof Model
-				|| topLevel instanceof Plan || topLevel instanceof Agent || topLevel instanceof Implementation
-				|| topLevel instanceof Attachment) {
-			// Do nothing
-		} else if (topLevel instanceof Collection) {
-			for (TopLevel member : ((Collection) topLevel).getMembers()) {
-				createRecursiveCopy(document, member);
-			}
+	}
+
+	/**
+	 * Adds the URIs of the top-levels the given top-level depends on to the given
+	 * list, starting with its provenance and attachments, and returns the type each
+	 * of them must have, where {@code null} marks a URI annotation, which is only
+	 * looked up locally.
+	 */
+	static Class<?>[] collectDependencies(TopLevel topLevel, List<URI> references) {
+		List<Class<?>> types = new ArrayList<>();
+		addReferences(references, types, topLevel.getWasDerivedFroms(), TopLevel.class);
+		addReferences(references, types, topLevel.getWasGeneratedBys(), TopLevel.class);
+		addReferences(references, types, topLevel.getAttachmentURIs(), TopLevel.class);
+		if (topLevel instanceof Collection) {
+			addReferences(references, types, ((Collection) topLevel).getMemberURIs(), TopLevel.class);
 		} else if (topLevel instanceof ComponentDefinition) {
 			for (Component component : ((ComponentDefinition) topLevel).getComponents()) {
-				if (component.getDefinition() != null) {
-					createRecursiveCopy(document, component.getDefinition());
-				}
-			}
-			for (TopLevel sequence : ((ComponentDefinition) topLevel).getSequences()) {
-				createRecursiveCopy(document, sequence);
+				addReference(references, types, component.getDefinitionURI(), ComponentDefinition.class);
 			}
+			addReferences(references, types, ((ComponentDefinition) topLevel).getSequenceURIs(), Sequence.class);
 		} else if (topLevel instanceof CombinatorialDerivation) {
-			if(((CombinatorialDerivation) topLevel).getTemplate() != null) {
-				createRecursiveCopy(document, ((CombinatorialDerivation) topLevel).getTemplate());
-			}
+			addReference(references, types, ((CombinatorialDerivation) topLevel).getTemplateURI(),
+					ComponentDefinition.class);
 			for (VariableComponent variableComponent : ((CombinatorialDerivation) topLevel).getVariableComponents()) {
-				for(Collection collection: variableComponent.getVariantCollections()) {
-					createRecursiveCopy(document, collection);
-				}
-				for(ComponentDefinition componentDefinition: variableComponent.getVariants()) {
-					createRecursiveCopy(document, componentDefinition);
-				}
-				for(CombinatorialDerivation combinatorialDerivation: variableComponent.getVariantDerivations()) {
-					createRecursiveCopy(document, combinatorialDerivation);
-				}
+				addReferences(references, types, variableComponent.getVariantCollectionURIs(), Collection.class);
+				addReferences(references, types, variableComponent.getVariantURIs(), ComponentDefinition.class);
+				addReferences(references, types, variableComponent.getVariantDerivationURIs(),
+						CombinatorialDerivation.class);
 			}
-		}
-		else if (topLevel instanceof ModuleDefinition) {
+		} else if (topLevel instanceof ModuleDefinition) {
 			for (FunctionalComponent functionalComponent : ((ModuleDefinition) topLevel).getFunctionalComponents()) {
-				if (functionalComponent.getDefinition() != null) {
-					createRecursiveCopy(document, functionalComponent.getDefinition());
-				}
+				addReference(references, types, functionalComponent.getDefinitionURI(), ComponentDefinition.class);
 			}
 			for (Module module : ((ModuleDefinition) topLevel).getModules()) {
-				if (module.getDefinition() != null) {
-					createRecursiveCopy(document, module.getDefinition());
-				}
-			}
-			for (Model model : ((ModuleDefinition) topLevel).getModels()) {
-				createRecursiveCopy(document,model);
+				addReference(references, types, module.getDefinitionURI(), ModuleDefinition.class);
 			}
+			addReferences(references, types, ((ModuleDefinition) topLevel).getModelURIs(), Model.class);
 		} else if (topLevel instanceof Activity) {
 			for (Association association : ((Activity) topLevel).getAssociations()) {
-				if (association.getAgent() != null) {
-					createRecursiveCopy(document, association.getAgent());
-				}
-				if (association.isSetPlan() && association.getPlan() != null) {
-					createRecursiveCopy(document, association.getPlan());
+				addReference(references, types, association.getAgentURI(), Agent.class);
+				if (association.isSetPlan()) {
+					addReference(references, types, association.getPlanURI(), Plan.class);
 				}
 			}
 			for (Usage usage : ((Activity) topLevel).getUsages()) {
-				if (usage.getEntity() != null) {
-					createRecursiveCopy(document, usage.getEntity());
-				}
+				addReference(references, types, usage.getEntityURI(), TopLevel.class);
 			}
 		}
-		for (Annotation annotation : topLevel.getAnnotations()) {
+		addAnnotationReferences(references, types, topLevel.getAnnotations());
+		return types.toArray(new Class<?>[types.size()]);
+	}
+
+	private static void addReference(List<URI> references, List<Class<?>> types, URI reference, Class<?> type) {
+		references.add(reference);
+		types.add(type);
+	}
+
+	private static void addReferences(List<URI> references, List<Class<?>> types, Iterable<URI> uris,
+			Class<?> type) {
+		for (URI reference : uris) {
+			addReference(references, types, reference, type);
+		}
+	}
+
+	private static void addAnnotationReferences(List<URI> references, List<Class<?>> types,
+			List<Annotation> annotations) {
+		for (Annotation annotation : annotations) {
 			if (annotation.isURIValue()) {
-				TopLevel gtl = getTopLevelLocalOnly(annotation.getURIValue());
-				if (gtl != null)
-					createRecursiveCopy(document, gtl);
+				addReference(references, types, annotation.getURIValue(), null);
 			} else if (annotation.isNestedAnnotations()) {
-				for (Annotation nestedAnnotation : annotation.getAnnotations()) {
-					createRecursiveCopy(document, nestedAnnotation);
-				}
+				addAnnotationReferences(references, types, annotation.getAnnotations());
 			}
 		}
 	}
 
-	private String extractDocumentURIPrefix() {
-		String documentURIPrefix = null;
-		for (TopLevel topLevel : getTopLevels()) {
-			if (documentURIPrefix == null || documentURIPrefix.equals("")) {
-				documentURIPrefix = URIcompliance.extractURIprefix(topLevel.getIdentity());
-			} else {
-				for (int i = 0; i < documentURIPrefix.length(); i++) {
-					if (i >= topLevel.getIdentity().toString().length()
-							|| documentURIPrefix.charAt(i) != topLevel.getIdentity().toString().charAt(i)) {
-						if (i == 0) {
-							documentURIPrefix = "";
-						} else {
-							documentURIPrefix = documentURIPrefix.substring(0, i);
-						}
-						break;
-					}
-				}
-				if (documentURIPrefix.equals(""))
-					break;
-			}
+	/**
+	 * Returns the URIs of the top-levels the given top-level refers to, whether or
+	 * not they are in its document, which are those a recursive copy of it
+	 * follows, along with the top-levels an implementation is built from and
+	 * those an activity was informed by.
+	 */
+	static Set<URI> getReferences(TopLevel topLevel) {
+		List<URI> topLevelReferences = new ArrayList<>();
+		collectDependencies(topLevel, topLevelReferences);
+		if (topLevel instanceof Implementation && ((Implementation) topLevel).isSetBuilt()) {
+			topLevelReferences.add(((Implementation) topLevel).getBuiltURI());
+		} else if (topLevel instanceof Activity) {
+			topLevelReferences.addAll(((Activity) topLevel).getWasInformedByURIs());
 		}
-		return documentURIPrefix;
+		Set<URI> result = new HashSet<>(topLevelReferences);
+		result.remove(null);
+		return result;
 	}
 
-	private void fixDocumentURIPrefix() throws SBOLValidationException {
-		String documentURIPrefixAll = extractDocumentURIPrefix();
-		if (documentURIPrefixAll != null && documentURIPrefixAll.length() >= 9) {
-			setDefaultURIprefix(documentURIPrefixAll);
-		}
-		String documentURIPrefix = documentURIPrefixAll;
-		for (TopLevel topLevel : getTopLevels()) {
-			if (documentURIPrefixAll.length() < 9) {
-				documentURIPrefix = URIcompliance.extractURIprefix(topLevel.getIdentity());
-				String simpleNamespace = URIcompliance.extractSimpleNamespace(topLevel.getIdentity());
-				if (simpleNamespace != null) {
-					String documentURIPrefix2 = URIcompliance.extractURIprefix(URI.create(simpleNamespace));
-					if (documentURIPrefix2 != null) {
-						documentURIPrefix = documentURIPrefix2;
+	/**
+	 * Creates an immutable snapshot of the top-levels of this SBOL document.
+	 * <p>
+	 * The snapshot is not affected by later changes to this document. It shares
+	 * with the last snapshot of this document, or with the snapshot this document
+	 * was created from, the top-levels whose digests have not changed since, and
+	 * holds its own copy of the others, so that taking a snapshot copies only the
+	 * top-levels changed since the last one. A digest is computed once for each
+	 * top-level and kept until the top-level is changed. A shared top-level looks
+	 * up the top-levels it refers to in the snapshot it was copied into, so it is
+	 * copied again if any of those has changed. Documents created from the
+	 * snapshot with {@link SBOLDocumentSnapshot#createDocument()} are created in
+	 * constant time and copy each top-level only when it is first accessed
+	 * through them.
+	 *
+	 * @return the created snapshot
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while copying a
+	 *             top-level of this document.
+	 */
+	public SBOLDocumentSnapshot snapshot() throws SBOLValidationException {
+		SBOLDocument frozen = new SBOLDocument();
+		frozen.nameSpaces.putAll(nameSpaces);
+		frozen.defaultURIprefix = defaultURIprefix;
+		frozen.compliant = compliant;
+		frozen.typesInURIs = typesInURIs;
+		frozen.createDefaults = createDefaults;
+		Map<URI, Set<URI>> references = new HashMap<>();
+		lockRead();
+		try {
+			SBOLDocumentSnapshot previous = lastSnapshot;
+			SBOLDocumentSnapshot shared = base;
+			// The top-levels of this document, and the unchanged ones frozen by an earlier snapshot.
+			Map<URI, TopLevel> current = new HashMap<>();
+			Map<URI, TopLevel> reused = new HashMap<>();
+			for (TopLevel topLevel : getLocalTopLevels()) {
+				URI identity = topLevel.getIdentity();
+				current.put(identity, topLevel);
+				TopLevel frozenTopLevel = previous == null ? null : previous.getFrozenTopLevel(identity);
+				if (frozenTopLevel != null && frozenTopLevel.getIdentity().equals(identity)
+						&& frozenTopLevel.getClass() == topLevel.getClass()
+						&& Arrays.equals(frozenTopLevel.digest(), topLevel.digest())) {
+					reused.put(identity, frozenTopLevel);
+					references.put(identity, previous.getReferences(identity));
+				}
+			}
+			if (shared != null) {
+				for (TopLevel sharedTopLevel : shared.getTopLevelList()) {
+					URI identity = sharedTopLevel.getIdentity();
+					if (!materialized.contains(identity)) {
+						current.put(identity, sharedTopLevel);
+						reused.put(identity, sharedTopLevel);
+						references.put(identity, shared.getReferences(identity));
 					}
 				}
-				if (documentURIPrefix == null) {
-					documentURIPrefix = this.getDefaultURIprefix();
+			}
+			// A frozen top-level is only shared if the top-levels it refers to resolve, in the
+			// snapshot it was copied into, to the ones this snapshot holds.
+			Map<URI, List<URI>> referrers = new HashMap<>();
+			ArrayDeque<URI> copied = new ArrayDeque<>();
+			for (Map.Entry<URI, TopLevel> entry : reused.entrySet()) {
+				SBOLDocument owner = entry.getValue().getSBOLDocument();
+				for (URI reference : references.get(entry.getKey())) {
+					TopLevel target = findTopLevel(reference);
+					if (target == null && shared != null) {
+						target = shared.getFrozenTopLevel(reference);
+						if (target != null && materialized.contains(target.getIdentity())) {
+							target = null;
+						}
+					}
+					TopLevel frozenTarget = owner.findTopLevel(reference);
+					if (target == null ? frozenTarget != null
+							: frozenTarget == null || reused.get(target.getIdentity()) != frozenTarget) {
+						copied.add(entry.getKey());
+						break;
+					}
+					if (target != null) {
+						List<URI> targetReferrers = referrers.get(target.getIdentity());
+						if (targetReferrers == null) {
+							targetReferrers = new ArrayList<>();
+							referrers.put(target.getIdentity(), targetReferrers);
+						}
+						targetReferrers.add(entry.getKey());
+					}
 				}
 			}
-			if (!topLevel.getIdentity().equals(URIcompliance.createCompliantURI(documentURIPrefix,
-					URIcompliance.findDisplayId(topLevel), topLevel.getVersion()))) {
-				String newDisplayId = topLevel.getIdentity().toString().replaceAll(documentURIPrefix, "");
-				String newVersion = "";
-				if (topLevel.isSetVersion()) {
-					newDisplayId = newDisplayId.replace("/" + topLevel.getVersion(), "");
-					newVersion = topLevel.getVersion();
+			while (!copied.isEmpty()) {
+				URI identity = copied.poll();
+				if (reused.remove(identity) != null && referrers.containsKey(identity)) {
+					copied.addAll(referrers.get(identity));
 				}
-				newDisplayId = URIcompliance.fixDisplayId(newDisplayId);
-				while (getTopLevelLocalOnly(
-						URIcompliance.createCompliantURI(documentURIPrefix, newDisplayId, newVersion)) != null) {
-					newDisplayId = newDisplayId.replaceAll("_", "__");
+			}
+			for (TopLevel frozenTopLevel : reused.values()) {
+				frozen.putFrozen(frozenTopLevel);
+			}
+			for (TopLevel topLevel : current.values()) {
+				if (!reused.containsKey(topLevel.getIdentity())) {
+					frozen.addTopLevelCopy(topLevel);
+					references.put(topLevel.getIdentity(), getReferences(topLevel));
 				}
-				TopLevel newTopLevel = this.createCopy(topLevel, newDisplayId, newVersion);
-				removeTopLevel(topLevel);
-				updateReferences(topLevel.getIdentity(), newTopLevel.getIdentity());
-				updateReferences(topLevel.getPersistentIdentity(), newTopLevel.getPersistentIdentity());
 			}
+		} finally {
+			unlockRead();
 		}
+		frozen.complete = complete;
+		SBOLDocumentSnapshot snapshot = new SBOLDocumentSnapshot(frozen, references);
+		lastSnapshot = snapshot;
+		return snapshot;
 	}
 
-	private void updateReferences(List<Annotation> annotations, URI originalIdentity, URI newIdentity)
-			throws SBOLValidationException {
-		for (Annotation annotation : annotations) {
-			if (annotation.isURIValue()) {
-				if (annotation.getURIValue().equals(originalIdentity)) {
-					annotation.setURIValue(newIdentity);
-				}
-			} else if (annotation.isNestedAnnotations()) {
-				updateReferences(annotation.getAnnotations(), originalIdentity, newIdentity);
+	/**
+	 * Creates an index of the k-mers of the nucleic acid sequences of this SBOL
+	 * document, for finding the places where subsequences and IUPAC degenerate
+	 * motifs occur on either strand of them. The index is kept up to date with
+	 * this document as it is queried.
+	 *
+	 * @param k
+	 *            the length of the indexed k-mers, between 1 and 12; patterns
+	 *            shorter than this are found by scanning every sequence
+	 * @return the created index
+	 * @throws IllegalArgumentException
+	 *             if the given k-mer length is not between 1 and 12
+	 * @see SequenceIndex
+	 */
+	public SequenceIndex createSequenceIndex(int k) {
+		return new SequenceIndex(this, k);
+	}
+
+	/**
+	 * Returns the sequences of this SBOL document, each once, without
+	 * collecting them in a hash set. The sequences must have been copied from
+	 * the base of this document with {@link #materializeAll(Class)}, and the
+	 * caller should hold the read lock of this document.
+	 */
+	List<Sequence> listSequences() {
+		List<Sequence> result = new ArrayList<>();
+		for (Map.Entry<URI, Sequence> entry : sequences.entrySet()) {
+			if (entry.getKey().equals(entry.getValue().getIdentity())) {
+				result.add(entry.getValue());
 			}
 		}
+		return result;
 	}
 
-	private void updateReferences(Identified identified, URI originalIdentity, URI newIdentity)
-			throws SBOLValidationException {
+	/**
+	 * Creates a batch for adding many top-levels to this SBOL document at once.
+	 * <p>
+	 * Top-levels created in the returned batch are not checked for URI prefix
+	 * compliance or uniqueness when they are created. These checks are made for
+	 * all of them together when the batch is committed, which is much faster than
+	 * creating them one at a time in a large document, and all violations found
+	 * are reported at once.
+	 *
+	 * @return the created batch
+	 * @see SBOLDocumentBatch#commit()
+	 */
+	public SBOLDocumentBatch createBatch() {
+		return new SBOLDocumentBatch(this);
+	}
+
+	/**
+	 * Compares this SBOL document with the given one, and returns the top-levels
+	 * and child objects that were added, removed or modified in the given
+	 * document, together with the changes to their properties.
+	 * <p>
+	 * Objects are matched by their identity URIs, and the content of each pair
+	 * of matching objects is compared by digest before it is compared property
+	 * by property, so comparing two documents takes time linear in their size.
+	 *
+	 * @param document
+	 *            the document to be compared with this one
+	 * @return the differences from this document to the given one
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while copying an
+	 *             added or modified top-level into the returned diff.
+	 * @see SBOLDocumentDiff#apply(SBOLDocument)
+	 */
+	public SBOLDocumentDiff diff(SBOLDocument document) throws SBOLValidationException {
+		return new SBOLDocumentDiff(this, document);
+	}
+
+	/**
+	 * Removes the top-levels with the given identity URIs from this document,
+	 * without checking for references to them, and then adds copies of the given
+	 * replacement top-levels.
+	 */
+	void replaceTopLevels(java.util.Collection<URI> identities, List<TopLevel> replacements)
+			throws SBOLValidationException {
+		lockWrite();
+		beginChangeBatch();
+		try {
+			materializeAll(TopLevel.class);
+			List<TopLevel> removed = new ArrayList<>();
+			for (URI identity : identities) {
+				TopLevel topLevel = getTopLevelLocalOnly(identity);
+				if (topLevel != null) {
+					removed.add(topLevel);
+				}
+			}
+			removeTopLevels(removed);
+			for (TopLevel replacement : replacements) {
+				addTopLevelCopy(replacement);
+			}
+		} finally {
+			endChangeBatch();
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Makes this document share the top-levels of the given snapshot, and copies
+	 * its namespaces and settings.
+	 */
+	void setBase(SBOLDocumentSnapshot snapshot) {
+		SBOLDocument source = snapshot.getDocument();
+		nameSpaces.putAll(source.nameSpaces);
+		defaultURIprefix = source.defaultURIprefix;
+		complete = source.complete;
+		compliant = source.compliant;
+		typesInURIs = source.typesInURIs;
+		createDefaults = source.createDefaults;
+		lastSnapshot = snapshot;
+		if (snapshot.size() > 0) {
+			derived = true;
+			base = snapshot;
+		}
+	}
+
+	/**
+	 * Copies the top-level of the base snapshot matching the given URI, together
+	 * with its other versions, into this document, unless it has already been
+	 * copied. Only the copy itself is made under the write lock, so URIs that
+	 * do not match a top-level of the given type in the base snapshot, or whose
+	 * top-levels have already been copied, are looked up without locking. This must not be called while
+	 * holding the read lock.
+	 *
+	 * @return the top-level of this document matching the given URI if it is an
+	 *         instance of the given type, or {@code null} otherwise
+	 */
+	private <T extends TopLevel> T materialize(URI topLevelURI, Class<T> type) {
+		SBOLDocumentSnapshot shared = base;
+		if (shared == null) {
+			// Another thread may have copied the top-level since the caller looked for it.
+			return derived ? castTopLevel(findTopLevel(topLevelURI), type) : null;
+		}
+		TopLevel sharedTopLevel = shared.getFrozenTopLevel(topLevelURI);
+		if (!type.isInstance(sharedTopLevel)) {
+			return null;
+		}
+		if (!materialized.contains(sharedTopLevel.getIdentity())) {
+			lockWrite();
+			try {
+				if (base == shared && !materialized.contains(sharedTopLevel.getIdentity())) {
+					copyFromBase(shared, sharedTopLevel);
+				}
+			} finally {
+				unlockWrite();
+			}
+		}
+		return castTopLevel(findTopLevel(topLevelURI), type);
+	}
+
+	private static <T extends TopLevel> T castTopLevel(TopLevel topLevel, Class<T> type) {
+		if (type.isInstance(topLevel)) {
+			return type.cast(topLevel);
+		}
+		return null;
+	}
+
+	/**
+	 * Copies all top-levels of the given type from the base snapshot into this
+	 * document, and drops the base snapshot once all of its top-levels have been
+	 * copied. Copies are made under the write lock, so this must not be called
+	 * while holding the read lock.
+	 */
+	void materializeAll(Class<? extends TopLevel> type) {
+		if (base == null) {
+			return;
+		}
+		lockWrite();
+		try {
+			SBOLDocumentSnapshot shared = base;
+			if (shared == null) {
+				return;
+			}
+			for (TopLevel sharedTopLevel : shared.getTopLevelList()) {
+				if (type.isInstance(sharedTopLevel) && !materialized.contains(sharedTopLevel.getIdentity())) {
+					copyFromBase(shared, sharedTopLevel);
+				}
+			}
+			if (materialized.size() == shared.size()) {
+				base = null;
+				materialized.clear();
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Copies the given top-level of the given base snapshot, together with its
+	 * other versions, into this document. Must be called under the write lock.
+	 */
+	private void copyFromBase(SBOLDocumentSnapshot shared, TopLevel sharedTopLevel) {
+		List<TopLevel> versions = shared.getVersions(sharedTopLevel);
+		for (TopLevel version : versions) {
+			materialized.add(version.getIdentity());
+		}
+		ThreadState state = getThreadState();
+		state.materializing++;
+		try {
+			for (TopLevel version : versions) {
+				addTopLevelCopy(version);
+			}
+		} catch (SBOLValidationException e) {
+			throw new IllegalStateException("Unable to copy " + sharedTopLevel.getIdentity() + " from snapshot", e);
+		} finally {
+			state.materializing--;
+		}
+	}
+
+	/**
+	 * Copies the top-level of the base snapshot whose identity or persistent
+	 * identity is the URI prefix of the given persistent identity, if there is
+	 * one, so that the URI prefix checks made when adding a top-level with the
+	 * given persistent identity see it. Must be called under the write lock.
+	 */
+	private void materializeURIprefix(SBOLDocumentSnapshot shared, URI persistentId) {
+		String prefix = URIprefixTrie.getURIprefix(persistentId.toString());
+		if (prefix != null && shared.getDocument().prefixes.containsKey(prefix)) {
+			materialize(URI.create(prefix), TopLevel.class);
+		}
+	}
+
+	/**
+	 * Puts the given top-level of another snapshot into this document, which is
+	 * being built as a snapshot, without copying it or making any checks.
+	 */
+	private void putFrozen(TopLevel topLevel) {
+		@SuppressWarnings("unchecked")
+		Map<URI, TopLevel> instancesMap = (Map<URI, TopLevel>) getInstancesMap(topLevel);
+		putTopLevel(topLevel, topLevel.isSetPersistentIdentity() ? topLevel.getPersistentIdentity() : null,
+				instancesMap);
+	}
+
+	/**
+	 * Adds a copy of the given top-level, with the same identity, to this
+	 * document.
+	 */
+	private void addTopLevelCopy(TopLevel topLevel) throws SBOLValidationException {
+		TopLevel copy = (TopLevel) topLevel.deepCopy();
+		if (copy instanceof GenericTopLevel)
+			addGenericTopLevel((GenericTopLevel) copy);
+		else if (copy instanceof Activity)
+			addActivity((Activity) copy);
+		else if (copy instanceof Agent)
+			addAgent((Agent) copy);
+		else if (copy instanceof Plan)
+			addPlan((Plan) copy);
+		else if (copy instanceof Collection)
+			addCollection((Collection) copy);
+		else if (copy instanceof Sequence)
+			addSequence((Sequence) copy);
+		else if (copy instanceof ComponentDefinition)
+			addComponentDefinition((ComponentDefinition) copy);
+		else if (copy instanceof Model)
+			addModel((Model) copy);
+		else if (copy instanceof ModuleDefinition)
+			addModuleDefinition((ModuleDefinition) copy);
+		else if (copy instanceof CombinatorialDerivation)
+			addCombinatorialDerivation((CombinatorialDerivation) copy);
+		else if (copy instanceof Implementation)
+			addImplementation((Implementation) copy);
+		else if (copy instanceof Attachment)
+			addAttachment((Attachment) copy);
+	}
+
+	private String extractDocumentURIPrefix() {
+		String documentURIPrefix = null;
+		for (TopLevel topLevel : getTopLevels()) {
+			if (documentURIPrefix == null || documentURIPrefix.equals("")) {
+				documentURIPrefix = URIcompliance.extractURIprefix(topLevel.getIdentity());
+			} else {
+				for (int i = 0; i < documentURIPrefix.length(); i++) {
+					if (i >= topLevel.getIdentity().toString().length()
+							|| documentURIPrefix.charAt(i) != topLevel.getIdentity().toString().charAt(i)) {
+						if (i == 0) {
+							documentURIPrefix = "";
+						} else {
+							documentURIPrefix = documentURIPrefix.substring(0, i);
+						}
+						break;
+					}
+				}
+				if (documentURIPrefix.equals(""))
+					break;
+			}
+		}
+		return documentURIPrefix;
+	}
+
+	private void fixDocumentURIPrefix() throws SBOLValidationException {
+		String documentURIPrefixAll = extractDocumentURIPrefix();
+		if (documentURIPrefixAll != null && documentURIPrefixAll.length() >= 9) {
+			setDefaultURIprefix(documentURIPrefixAll);
+		}
+		String documentURIPrefix = documentURIPrefixAll;
+		for (TopLevel topLevel : getTopLevels()) {
+			if (documentURIPrefixAll.length() < 9) {
+				documentURIPrefix = URIcompliance.extractURIprefix(topLevel.getIdentity());
+				String simpleNamespace = URIcompliance.extractSimpleNamespace(topLevel.getIdentity());
+				if (simpleNamespace != null) {
+					String documentURIPrefix2 = URIcompliance.extractURIprefix(URI.create(simpleNamespace));
+					if (documentURIPrefix2 != null) {
+						documentURIPrefix = documentURIPrefix2;
+					}
+				}
+				if (documentURIPrefix == null) {
+					documentURIPrefix = this.getDefaultURIprefix();
+				}
+			}
+			if (!topLevel.getIdentity().equals(URIcompliance.createCompliantURI(documentURIPrefix,
+					URIcompliance.findDisplayId(topLevel), topLevel.getVersion()))) {
+				String newDisplayId = topLevel.getIdentity().toString().replaceAll(documentURIPrefix, "");
+				String newVersion = "";
+				if (topLevel.isSetVersion()) {
+					newDisplayId = newDisplayId.replace("/" + topLevel.getVersion(), "");
+					newVersion = topLevel.getVersion();
+				}
+				newDisplayId = URIcompliance.fixDisplayId(newDisplayId);
+				while (getTopLevelLocalOnly(
+						URIcompliance.createCompliantURI(documentURIPrefix, newDisplayId, newVersion)) != null) {
+					newDisplayId = newDisplayId.replaceAll("_", "__");
+				}
+				TopLevel newTopLevel = this.createCopy(topLevel, newDisplayId, newVersion);
+				removeTopLevel(topLevel);
+				updateReferences(topLevel.getIdentity(), newTopLevel.getIdentity());
+				updateReferences(topLevel.getPersistentIdentity(), newTopLevel.getPersistentIdentity());
+			}
+		}
+	}
+
+	private void updateReferences(List<Annotation> annotations, URI originalIdentity, URI newIdentity)
+			throws SBOLValidationException {
+		for (Annotation annotation : annotations) {
+			if (annotation.isURIValue()) {
+				if (annotation.getURIValue().equals(originalIdentity)) {
+					annotation.setURIValue(newIdentity);
+				}
+			} else if (annotation.isNestedAnnotations()) {
+				updateReferences(annotation.getAnnotations(), originalIdentity, newIdentity);
+			}
+		}
+	}
+
+	private void updateReferences(Identified identified, URI originalIdentity, URI newIdentity)
+			throws SBOLValidationException {
 		updateReferences(identified.getAnnotations(), originalIdentity, newIdentity);
 	}
 
@@ -2617,26 +3391,37 @@ public class SBOLDocument {
 	// TODO: need to update persistentIdentities too
 	private void updateReferences(HashMap<URI, URI> uriMap) throws SBOLValidationException {
 		for (TopLevel topLevel : getTopLevels()) {
-			for (URI wasDerivedFrom : topLevel.getWasDerivedFroms()) {
-				if (uriMap.get(wasDerivedFrom) != null) {
-					topLevel.removeWasDerivedFrom(wasDerivedFrom);
-					topLevel.addWasDerivedFrom(uriMap.get(wasDerivedFrom));	
-				}
+			updateTopLevelReferences(topLevel, uriMap);
+		}
+	}
+
+	/**
+	 * Updates the references of the given top-level and its children using the
+	 * given map from original to new URIs. Only the given top-level is modified,
+	 * so different top-levels may be updated in parallel.
+	 */
+	private void updateTopLevelReferences(TopLevel topLevel, HashMap<URI, URI> uriMap)
+			throws SBOLValidationException {
+		for (URI wasDerivedFrom : topLevel.getWasDerivedFroms()) {
+			if (uriMap.get(wasDerivedFrom) != null) {
+				topLevel.removeWasDerivedFrom(wasDerivedFrom);
+				topLevel.addWasDerivedFrom(uriMap.get(wasDerivedFrom));	
 			}
-			for (URI wasGeneratedBy : topLevel.getWasGeneratedBys()) {
-				if (uriMap.get(wasGeneratedBy) != null) {
-					topLevel.removeWasGeneratedBy(wasGeneratedBy);
-					topLevel.addWasGeneratedBy(uriMap.get(wasGeneratedBy));	
-				}
+		}
+		for (URI wasGeneratedBy : topLevel.getWasGeneratedBys()) {
+			if (uriMap.get(wasGeneratedBy) != null) {
+				topLevel.removeWasGeneratedBy(wasGeneratedBy);
+				topLevel.addWasGeneratedBy(uriMap.get(wasGeneratedBy));	
 			}
-			for (URI attachmentURI : topLevel.getAttachmentURIs()) {
-				if (uriMap.get(attachmentURI) != null) {
-					topLevel.removeAttachment(attachmentURI);
-					topLevel.addAttachment(uriMap.get(attachmentURI));	
-				}
+		}
+		for (URI attachmentURI : topLevel.getAttachmentURIs()) {
+			if (uriMap.get(attachmentURI) != null) {
+				topLevel.removeAttachment(attachmentURI);
+				topLevel.addAttachment(uriMap.get(attachmentURI));	
 			}
 		}
-		for (Collection collection : getCollections()) {
+		if (topLevel instanceof Collection) {
+			Collection collection = (Collection) topLevel;
 			for (URI memberURI : collection.getMemberURIs()) {
 				if (uriMap.get(memberURI) != null) {
 					collection.removeMember(memberURI);
@@ -2644,8 +3429,8 @@ public class SBOLDocument {
 				}
 			}
 			updateReferences(collection, uriMap);
-		}
-		for (ComponentDefinition componentDefinition : getComponentDefinitions()) {
+		} else if (topLevel instanceof ComponentDefinition) {
+			ComponentDefinition componentDefinition = (ComponentDefinition) topLevel;
 			updateReferences(componentDefinition, uriMap);
 			for (Component component : componentDefinition.getComponents()) {
 				if (uriMap.get(component.getDefinitionURI()) != null) {
@@ -2680,8 +3465,8 @@ public class SBOLDocument {
 					componentDefinition.addSequence(uriMap.get(sequenceURI));
 				}
 			}
-		}
-		for (ModuleDefinition moduleDefinition : getModuleDefinitions()) {
+		} else if (topLevel instanceof ModuleDefinition) {
+			ModuleDefinition moduleDefinition = (ModuleDefinition) topLevel;
 			updateReferences(moduleDefinition, uriMap);
 			for (FunctionalComponent functionalComponent : moduleDefinition.getFunctionalComponents()) {
 				if (uriMap.get(functionalComponent.getDefinitionURI()) != null) {
@@ -2731,20 +3516,14 @@ public class SBOLDocument {
 					moduleDefinition.addModel(uriMap.get(modelURI));
 				}
 			}
-		}
-		for (Model model : getModels()) {
+		} else if (topLevel instanceof Model) {
+			Model model = (Model) topLevel;
 			if (uriMap.get(model.getSource()) != null) {
 				model.setSource(uriMap.get(model.getSource()));
 			}
 			updateReferences(model, uriMap);
-		}
-		for (Sequence sequence : getSequences()) {
-			updateReferences(sequence, uriMap);
-		}
-		for (Attachment attachment : getAttachments()) {
-			updateReferences(attachment, uriMap);
-		}
-		for (Implementation implementation : getImplementations()) {
+		} else if (topLevel instanceof Implementation) {
+			Implementation implementation = (Implementation) topLevel;
 			if (implementation.isSetBuilt()) {
 				URI built = implementation.getBuiltURI();
 				if (uriMap.get(built) != null) {
@@ -2752,11 +3531,8 @@ public class SBOLDocument {
 				}
 			}
 			updateReferences(implementation, uriMap);
-		}
-		for (GenericTopLevel genericTopLevel : getGenericTopLevels()) {
-			updateReferences(genericTopLevel, uriMap);
-		}
-		for (CombinatorialDerivation combinatorialDerivation : getCombinatorialDerivations()) {
+		} else if (topLevel instanceof CombinatorialDerivation) {
+			CombinatorialDerivation combinatorialDerivation = (CombinatorialDerivation) topLevel;
 			updateReferences(combinatorialDerivation, uriMap);
 			if (uriMap.get(combinatorialDerivation.getTemplateURI())!=null) {
 				combinatorialDerivation.setTemplate(uriMap.get(combinatorialDerivation.getTemplateURI()));
@@ -2774,8 +3550,8 @@ public class SBOLDocument {
 			for (VariableComponent variableComponent : combinatorialDerivation.getVariableComponents()) {
 				updateReferences(variableComponent,uriMap);
 			}
-		}
-		for (Activity activity : getActivities()) {
+		} else if (topLevel instanceof Activity) {
+			Activity activity = (Activity) topLevel;
 			updateReferences(activity, uriMap);
 			for (Association association : activity.getAssociations()) {
 				if (uriMap.get(association.getAgentURI()) != null) {
@@ -2792,12 +3568,8 @@ public class SBOLDocument {
 				}
 				updateReferences(usage, uriMap);
 			}
-		}
-		for (Agent agent : getAgents()) {
-			updateReferences(agent, uriMap);
-		}
-		for (Plan plan : getPlans()) {
-			updateReferences(plan, uriMap);
+		} else {
+			updateReferences(topLevel, uriMap);
 		}
 	}
 
@@ -2932,11 +3704,388 @@ public class SBOLDocument {
 		}
 		TopLevel renamedTopLevel = createCopy(topLevel, URIprefix, displayId, version);
 		removeTopLevel(topLevel);
-		updateReferences(topLevel.getIdentity(), renamedTopLevel.getIdentity());
-		updateReferences(topLevel.getPersistentIdentity(), renamedTopLevel.getPersistentIdentity());
+		HashMap<URI, URI> uriMap = new HashMap<URI, URI>();
+		uriMap.put(topLevel.getIdentity(), renamedTopLevel.getIdentity());
+		if (!topLevel.getIdentity().equals(topLevel.getPersistentIdentity())) {
+			uriMap.put(topLevel.getPersistentIdentity(), renamedTopLevel.getPersistentIdentity());
+		}
+		updateReferences(uriMap);
 		return renamedTopLevel;
 	}
 
+	/**
+	 * Renames all of the given top-levels to the given URI prefix and version,
+	 * keeping their display IDs, and updates all references to them in this SBOL
+	 * document.
+	 * <p>
+	 * Unlike calling {@link #rename(TopLevel, String, String, String)} for each
+	 * top-level, which updates the references of the whole document once per
+	 * renamed top-level, this method first copies every top-level to its new
+	 * identity, then removes all of the original top-levels together, and then
+	 * updates the references of every top-level of this document in a single pass
+	 * using the complete map from original to new URIs. This makes migrating a
+	 * whole namespace take time linear in the size of the document.
+	 * <p>
+	 * If {@code parallel} is {@code true}, the references of different top-levels
+	 * are updated by several threads. The update is always sequential when
+	 * registries are set for this document, since looking up a referenced
+	 * component definition may then fetch and add top-levels.
+	 * <p>
+	 * The original top-levels are removed without checking for references to them,
+	 * since all such references are updated to the renamed top-levels.
+	 *
+	 * @param topLevels
+	 *            the top-levels to be renamed
+	 * @param URIprefix
+	 *            the URI prefix to rename to, or {@code null} to keep the URI
+	 *            prefix of each top-level
+	 * @param version
+	 *            the version to rename to, or {@code null} to keep the version of
+	 *            each top-level
+	 * @param parallel
+	 *            {@code true} to update references using several threads
+	 * @return a map from the identity of each given top-level to its renamed
+	 *         top-level, which is the given top-level itself if its identity did
+	 *         not change
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred in
+	 *             {@link #createCopy(TopLevel, String, String, String)}, or while
+	 *             updating references.
+	 */
+	public Map<URI, TopLevel> rename(java.util.Collection<? extends TopLevel> topLevels, String URIprefix,
+			String version, boolean parallel) throws SBOLValidationException {
+		if (URIprefix != null) {
+			URIprefix = URIcompliance.checkURIprefix(URIprefix);
+		}
+		Map<URI, TopLevel> renamed = new HashMap<>();
+		lockWrite();
+		beginChangeBatch();
+		try {
+			materializeAll(TopLevel.class);
+			final HashMap<URI, URI> uriMap = new HashMap<URI, URI>();
+			List<TopLevel> originals = new ArrayList<>();
+			for (TopLevel topLevel : topLevels) {
+				TopLevel renamedTopLevel = topLevel;
+				if ((URIprefix != null && !URIprefix.equals(URIcompliance.extractURIprefix(topLevel.getIdentity())))
+						|| (version != null && !version.equals(topLevel.getVersion()))) {
+					renamedTopLevel = createCopy(topLevel, URIprefix, null, version);
+				}
+				renamed.put(topLevel.getIdentity(), renamedTopLevel);
+				if (renamedTopLevel.getIdentity().equals(topLevel.getIdentity())) {
+					continue;
+				}
+				originals.add(topLevel);
+				uriMap.put(topLevel.getIdentity(), renamedTopLevel.getIdentity());
+				if (!topLevel.getIdentity().equals(topLevel.getPersistentIdentity())
+						&& !topLevel.getPersistentIdentity().equals(renamedTopLevel.getPersistentIdentity())) {
+					uriMap.put(topLevel.getPersistentIdentity(), renamedTopLevel.getPersistentIdentity());
+				}
+			}
+			removeTopLevels(originals);
+			if (uriMap.isEmpty()) {
+				return renamed;
+			}
+			if (parallel && getRegistries().isEmpty()) {
+				forEachInParallel(new ArrayList<>(getLocalTopLevels()), new TopLevelAction() {
+					@Override
+					public void apply(TopLevel topLevel) throws SBOLValidationException {
+						updateTopLevelReferences(topLevel, uriMap);
+					}
+				});
+			} else {
+				updateReferences(uriMap);
+			}
+		} finally {
+			endChangeBatch();
+			unlockWrite();
+		}
+		return renamed;
+	}
+
+	/**
+	 * Removes the top-levels of this SBOL document whose content duplicates that of another top-level under
+	 * a different identity, and updates all references to them in this SBOL document.
+	 * <p>
+	 * Top-levels are grouped by a structural digest of their content and that of their child objects, which
+	 * leaves out the identities, persistent identities, display IDs, versions, and provenance of top-levels,
+	 * and compares the identities of child objects, and references to them, relative to their top-level, so
+	 * only top-levels whose child objects have the same display IDs are merged. The top-level with the
+	 * smallest identity URI in each group is kept as its canonical representative, and each of its
+	 * duplicates is removed. Different versions of the same top-level are never merged. References to a
+	 * removed duplicate, and to its child objects, are updated to the canonical representative in a single
+	 * pass over this SBOL document, as in
+	 * {@link #rename(java.util.Collection, String, String, boolean)}. The canonical representative then
+	 * records the identity of each of its duplicates, and their own wasDerivedFrom properties, in its
+	 * wasDerivedFrom property.
+	 * <p>
+	 * Top-levels that differ only in references to duplicates of each other are duplicates as well, so the
+	 * grouping is repeated, with references to the duplicates already found taken as references to their
+	 * canonical representatives, until no more duplicates are found. Each round takes time linear in the
+	 * size of this SBOL document, and the number of rounds is bounded by the depth of the references between
+	 * duplicated top-levels.
+	 *
+	 * @return a map from the identity of each removed duplicate to its canonical representative
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while updating references, or in
+	 *             {@link Identified#addWasDerivedFrom(URI)}.
+	 */
+	public Map<URI, TopLevel> deduplicate() throws SBOLValidationException {
+		Map<URI, TopLevel> duplicates = new HashMap<>();
+		lockWrite();
+		beginChangeBatch();
+		try {
+			materializeAll(TopLevel.class);
+			HashMap<URI, URI> uriMap = new HashMap<URI, URI>();
+			List<TopLevel> remaining = new ArrayList<>(getLocalTopLevels());
+			Collections.sort(remaining, new Comparator<TopLevel>() {
+				@Override
+				public int compare(TopLevel topLevel1, TopLevel topLevel2) {
+					return topLevel1.getIdentity().compareTo(topLevel2.getIdentity());
+				}
+			});
+			List<TopLevel> removed = new ArrayList<>();
+			boolean found = true;
+			while (found) {
+				found = false;
+				Map<ByteBuffer, TopLevel> canonicals = new HashMap<>();
+				List<TopLevel> kept = new ArrayList<>();
+				for (TopLevel topLevel : remaining) {
+					ByteBuffer key = ByteBuffer.wrap(topLevel.structuralDigest(uriMap));
+					TopLevel canonical = canonicals.get(key);
+					if (canonical == null) {
+						canonicals.put(key, topLevel);
+					}
+					if (canonical == null || (topLevel.isSetPersistentIdentity()
+							&& topLevel.getPersistentIdentity().equals(canonical.getPersistentIdentity()))) {
+						kept.add(topLevel);
+						continue;
+					}
+					mapDuplicate(topLevel, canonical, uriMap);
+					duplicates.put(topLevel.getIdentity(), canonical);
+					removed.add(topLevel);
+					found = true;
+				}
+				remaining = kept;
+			}
+			if (removed.isEmpty()) {
+				return duplicates;
+			}
+			for (Map.Entry<URI, URI> entry : uriMap.entrySet()) {
+				URI canonical = entry.getValue();
+				while (uriMap.containsKey(canonical)) {
+					canonical = uriMap.get(canonical);
+				}
+				entry.setValue(canonical);
+			}
+			for (Map.Entry<URI, TopLevel> entry : duplicates.entrySet()) {
+				TopLevel canonical = entry.getValue();
+				while (duplicates.containsKey(canonical.getIdentity())) {
+					canonical = duplicates.get(canonical.getIdentity());
+				}
+				entry.setValue(canonical);
+			}
+			mapPersistentIdentities(remaining, removed, duplicates, uriMap);
+			removeTopLevels(removed);
+			updateReferences(uriMap);
+			for (TopLevel duplicate : removed) {
+				TopLevel canonical = duplicates.get(duplicate.getIdentity());
+				canonical.addWasDerivedFrom(duplicate.getIdentity());
+				for (URI wasDerivedFrom : duplicate.getWasDerivedFroms()) {
+					if (uriMap.containsKey(wasDerivedFrom)) {
+						wasDerivedFrom = uriMap.get(wasDerivedFrom);
+					}
+					if (!wasDerivedFrom.equals(canonical.getIdentity())) {
+						canonical.addWasDerivedFrom(wasDerivedFrom);
+					}
+				}
+			}
+		} finally {
+			endChangeBatch();
+			unlockWrite();
+		}
+		return duplicates;
+	}
+
+	/**
+	 * Maps the identity of the given duplicate, and of each of its child objects, to that of the
+	 * corresponding object of its canonical representative, matching child objects by their URIs relative
+	 * to their top-levels.
+	 */
+	private static void mapDuplicate(TopLevel duplicate, TopLevel canonical, final Map<URI, URI> uriMap) {
+		final Map<String, URI> paths = new HashMap<>();
+		new IdentifiedVisitor() {
+			@Override
+			public void visit(Identified identified, TopLevel topLevel) {
+				String path = ContentDigest.relativize(identified.getIdentity(), topLevel);
+				if (path != null) {
+					paths.put(path, identified.getIdentity());
+				}
+			}
+		}.visitTopLevel(canonical);
+		new IdentifiedVisitor() {
+			@Override
+			public void visit(Identified identified, TopLevel topLevel) {
+				String path = ContentDigest.relativize(identified.getIdentity(), topLevel);
+				if (path != null && paths.containsKey(path)) {
+					uriMap.put(identified.getIdentity(), paths.get(path));
+				}
+			}
+		}.visitTopLevel(duplicate);
+		uriMap.put(duplicate.getIdentity(), canonical.getIdentity());
+	}
+
+	/**
+	 * Maps the persistent identity of each removed duplicate to that of its canonical representative,
+	 * unless a remaining top-level still has that persistent identity, or removed duplicates with that
+	 * persistent identity have different canonical representatives.
+	 */
+	private static void mapPersistentIdentities(List<TopLevel> remaining, List<TopLevel> removed,
+			Map<URI, TopLevel> duplicates, Map<URI, URI> uriMap) {
+		Set<URI> kept = new HashSet<>();
+		for (TopLevel topLevel : remaining) {
+			if (topLevel.isSetPersistentIdentity()) {
+				kept.add(topLevel.getPersistentIdentity());
+			}
+		}
+		Map<URI, URI> persistentIdentities = new HashMap<>();
+		Set<URI> ambiguous = new HashSet<>();
+		for (TopLevel duplicate : removed) {
+			TopLevel canonical = duplicates.get(duplicate.getIdentity());
+			if (!duplicate.isSetPersistentIdentity() || !canonical.isSetPersistentIdentity()) {
+				continue;
+			}
+			URI persistentIdentity = duplicate.getPersistentIdentity();
+			if (persistentIdentity.equals(duplicate.getIdentity()) || kept.contains(persistentIdentity)) {
+				continue;
+			}
+			URI previous = persistentIdentities.put(persistentIdentity, canonical.getPersistentIdentity());
+			if (previous != null && !previous.equals(canonical.getPersistentIdentity())) {
+				ambiguous.add(persistentIdentity);
+			}
+		}
+		persistentIdentities.keySet().removeAll(ambiguous);
+		uriMap.putAll(persistentIdentities);
+	}
+
+	/**
+	 * Removes the given top-levels from this SBOL document in a single pass over
+	 * the maps of the affected types, without checking for references to them.
+	 */
+	private void removeTopLevels(List<TopLevel> topLevels) {
+		beginChangeBatch();
+		try {
+			removeTopLevelsInBatch(topLevels);
+		} finally {
+			endChangeBatch();
+		}
+	}
+
+	private void removeTopLevelsInBatch(List<TopLevel> topLevels) {
+		Map<Map<URI, ? extends TopLevel>, Set<URI>> stale = new java.util.IdentityHashMap<>();
+		for (TopLevel topLevel : topLevels) {
+			Map<URI, ? extends TopLevel> instancesMap = getInstancesMap(topLevel);
+			if (instancesMap.get(topLevel.getIdentity()) != topLevel) {
+				continue;
+			}
+			instancesMap.remove(topLevel.getIdentity());
+			modified(SBOLDocumentChange.Type.TOP_LEVEL_REMOVED, topLevel);
+			prefixes.removeKey(topLevel.getIdentity());
+			if (topLevel.isSetPersistentIdentity()) {
+				prefixes.removeKey(topLevel.getPersistentIdentity());
+				if (instancesMap.get(topLevel.getPersistentIdentity()) == topLevel) {
+					instancesMap.remove(topLevel.getPersistentIdentity());
+					Set<URI> persistentIds = stale.get(instancesMap);
+					if (persistentIds == null) {
+						persistentIds = new HashSet<>();
+						stale.put(instancesMap, persistentIds);
+					}
+					persistentIds.add(topLevel.getPersistentIdentity());
+				}
+			}
+		}
+		for (Map.Entry<Map<URI, ? extends TopLevel>, Set<URI>> entry : stale.entrySet()) {
+			@SuppressWarnings("unchecked")
+			Map<URI, TopLevel> instancesMap = (Map<URI, TopLevel>) entry.getKey();
+			Map<URI, TopLevel> latest = new HashMap<>();
+			for (TopLevel tl : instancesMap.values()) {
+				URI persistentId = tl.getPersistentIdentity();
+				if (persistentId == null || !entry.getValue().contains(persistentId)) {
+					continue;
+				}
+				TopLevel current = latest.get(persistentId);
+				if (current == null || isFirstVersionNewer(extractVersion(tl.getIdentity()),
+						extractVersion(current.getIdentity()))) {
+					latest.put(persistentId, tl);
+				}
+			}
+			instancesMap.putAll(latest);
+		}
+	}
+
+	/**
+	 * An action applied to each top-level of a list by
+	 * {@link SBOLDocument#forEachInParallel(List, TopLevelAction)}.
+	 */
+	private interface TopLevelAction {
+		void apply(TopLevel topLevel) throws SBOLValidationException;
+	}
+
+	/**
+	 * Applies the given action to each of the given top-levels in the common
+	 * fork-join pool, as validation rules are run in parallel, with a task for
+	 * each separate share of the top-levels.
+	 *
+	 * @throws SBOLValidationException
+	 *             if the action threw it for any top-level.
+	 */
+	private static void forEachInParallel(List<TopLevel> topLevels, final TopLevelAction action)
+			throws SBOLValidationException {
+		int shares = Math.min(Runtime.getRuntime().availableProcessors(), topLevels.size());
+		if (shares <= 1) {
+			for (TopLevel topLevel : topLevels) {
+				action.apply(topLevel);
+			}
+			return;
+		}
+		final List<RecursiveAction> tasks = new ArrayList<>();
+		int share = (topLevels.size() + shares - 1) / shares;
+		for (int start = 0; start < topLevels.size(); start += share) {
+			final List<TopLevel> part = topLevels.subList(start, Math.min(start + share, topLevels.size()));
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					for (TopLevel topLevel : part) {
+						try {
+							action.apply(topLevel);
+						} catch (SBOLValidationException e) {
+							throw new IllegalStateException("Unable to process " + topLevel.getIdentity(), e);
+						}
+					}
+				}
+			});
+		}
+		try {
+			ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} catch (IllegalStateException e) {
+			// The pool may rethrow a copy of the exception of a task, with the original as its cause.
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				if (cause instanceof SBOLValidationException) {
+					throw (SBOLValidationException) cause;
+				}
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * Appends the specified {@code sequence} object to the end of the list of
 	 * sequences.
@@ -2965,6 +4114,7 @@ public class SBOLDocument {
 	 */
 	public boolean removeSequence(Sequence sequence) throws SBOLValidationException {
 		if (complete) {
+			materializeAll(TopLevel.class);
 			for (ComponentDefinition cd : componentDefinitions.values()) {
 				if (cd.containsSequence(sequence.getIdentity())) {
 					throw new SBOLValidationException("sbol-10513", cd);
@@ -3010,6 +4160,9 @@ public class SBOLDocument {
 	 */
 	public Sequence getSequence(URI sequenceURI) {
 		Sequence sequence = sequences.get(sequenceURI);
+		if (sequence == null) {
+			sequence = materialize(sequenceURI, Sequence.class);
+		}
 		if (sequence == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -3031,6 +4184,7 @@ public class SBOLDocument {
 	 * @return the set of sequences owned by this SBOL document.
 	 */
 	public Set<Sequence> getSequences() {
+		materializeAll(Sequence.class);
 		// return (List<Structure>) structures.values();
 		Set<Sequence> structures = new HashSet<>();
 		structures.addAll(this.sequences.values());
@@ -3049,6 +4203,7 @@ public class SBOLDocument {
 	 *             {@link #removeSequence(Sequence)}.
 	 */
 	public void clearSequences() throws SBOLValidationException {
+		materializeAll(Sequence.class);
 		Object[] valueSetArray = sequences.values().toArray();
 		for (Object sequence : valueSetArray) {
 			removeSequence((Sequence) sequence);
@@ -3161,20 +4316,11 @@ public class SBOLDocument {
 	 *             {@link #addTopLevel(TopLevel, Map, String, Map...)}.
 	 */
 	void addGenericTopLevel(GenericTopLevel genericTopLevel) throws SBOLValidationException {
-		QName qNameInNamespace = getNamespace(URI.create(genericTopLevel.getRDFType().getNamespaceURI()));
-		if (qNameInNamespace == null) {
-			String prefix = genericTopLevel.getRDFType().getPrefix();
-			if (getNamespace(prefix) != null) {
-				prefix = getNamespacePrefix(URI.create(genericTopLevel.getRDFType().getNamespaceURI()));
-				genericTopLevel.setRDFType(new QName(genericTopLevel.getRDFType().getNamespaceURI(),
-						genericTopLevel.getRDFType().getLocalPart(), prefix));
-			} else {
-				addNamespace(URI.create(genericTopLevel.getRDFType().getNamespaceURI()),
-						genericTopLevel.getRDFType().getPrefix());
-			}
-		} else if (genericTopLevel.getRDFType().getPrefix() != qNameInNamespace.getPrefix()) {
+		String prefix = bindNamespace(URI.create(genericTopLevel.getRDFType().getNamespaceURI()),
+				genericTopLevel.getRDFType().getPrefix());
+		if (!prefix.equals(genericTopLevel.getRDFType().getPrefix())) {
 			genericTopLevel.setRDFType(new QName(genericTopLevel.getRDFType().getNamespaceURI(),
-					genericTopLevel.getRDFType().getLocalPart(), qNameInNamespace.getPrefix()));
+					genericTopLevel.getRDFType().getLocalPart(), prefix));
 		}
 		addTopLevel(genericTopLevel, genericTopLevels, "genericTopLevel", collections, componentDefinitions, models,
 				activities, plans, agents, moduleDefinitions, sequences, combinatorialDerivations, implementations, attachments);
@@ -3230,6 +4376,9 @@ public class SBOLDocument {
 	 */
 	public GenericTopLevel getGenericTopLevel(URI genericTopLevelURI) {
 		GenericTopLevel genericTopLevel = genericTopLevels.get(genericTopLevelURI);
+		if (genericTopLevel == null) {
+			genericTopLevel = materialize(genericTopLevelURI, GenericTopLevel.class);
+		}
 		if (genericTopLevel == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -3251,6 +4400,7 @@ public class SBOLDocument {
 	 * @return the set of generic top-levels owned by this SBOL document.
 	 */
 	public Set<GenericTopLevel> getGenericTopLevels() {
+		materializeAll(GenericTopLevel.class);
 		// return (List<GenericTopLevel>) topLevels.values();
 		Set<GenericTopLevel> topLevels = new HashSet<>();
 		topLevels.addAll(this.genericTopLevels.values());
@@ -3269,6 +4419,7 @@ public class SBOLDocument {
 	 *             {@link #removeGenericTopLevel(GenericTopLevel)}.
 	 */
 	public void clearGenericTopLevels() throws SBOLValidationException {
+		materializeAll(GenericTopLevel.class);
 		Object[] valueSetArray = genericTopLevels.values().toArray();
 		for (Object genericTopLevel : valueSetArray) {
 			removeGenericTopLevel((GenericTopLevel) genericTopLevel);
@@ -3413,6 +4564,9 @@ public class SBOLDocument {
 	 */
 	public Activity getActivity(URI activityURI) {
 		Activity activity = activities.get(activityURI);
+		if (activity == null) {
+			activity = materialize(activityURI, Activity.class);
+		}
 		if (activity == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -3435,6 +4589,7 @@ public class SBOLDocument {
 	 * @return the set of activities owned by this SBOL document.
 	 */
 	public Set<Activity> getActivities() {
+		materializeAll(Activity.class);
 		Set<Activity> topLevels = new HashSet<>();
 		topLevels.addAll(this.activities.values());
 		return topLevels;
@@ -3452,6 +4607,7 @@ public class SBOLDocument {
 	 *             {@link #removeActivity(Activity)}.
 	 */
 	public void clearActivitys() throws SBOLValidationException {
+		materializeAll(Activity.class);
 		Object[] valueSetArray = activities.values().toArray();
 		for (Object activity : valueSetArray) {
 			removeActivity((Activity) activity);
@@ -3586,6 +4742,9 @@ public class SBOLDocument {
 	 */
 	public Agent getAgent(URI agentURI) {
 		Agent agent = agents.get(agentURI);
+		if (agent == null) {
+			agent = materialize(agentURI, Agent.class);
+		}
 		if (agent == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -3608,6 +4767,7 @@ public class SBOLDocument {
 	 * @return the set of agents owned by this SBOL document.
 	 */
 	public Set<Agent> getAgents() {
+		materializeAll(Agent.class);
 		Set<Agent> topLevels = new HashSet<>();
 		topLevels.addAll(this.agents.values());
 		return topLevels;
@@ -3625,6 +4785,7 @@ public class SBOLDocument {
 	 *             {@link #removeAgent(Agent)}.
 	 */
 	public void clearAgents() throws SBOLValidationException {
+		materializeAll(Agent.class);
 		Object[] valueSetArray = agents.values().toArray();
 		for (Object agent : valueSetArray) {
 			removeAgent((Agent) agent);
@@ -3759,6 +4920,9 @@ public class SBOLDocument {
 	 */
 	public Plan getPlan(URI planURI) {
 		Plan plan = plans.get(planURI);
+		if (plan == null) {
+			plan = materialize(planURI, Plan.class);
+		}
 		if (plan == null) {
 			for (SynBioHubFrontend frontend : getRegistries()) {
 				try {
@@ -3780,6 +4944,7 @@ public class SBOLDocument {
 	 * @return the set of plans owned by this SBOL document.
 	 */
 	public Set<Plan> getPlans() {
+		materializeAll(Plan.class);
 		Set<Plan> topLevels = new HashSet<>();
 		topLevels.addAll(this.plans.values());
 		return topLevels;
@@ -3796,13 +4961,26 @@ public class SBOLDocument {
 	 *             {@link #removePlan(Plan)}.
 	 */
 	public void clearPlans() throws SBOLValidationException {
+		materializeAll(Plan.class);
 		Object[] valueSetArray = plans.values().toArray();
 		for (Object plan : valueSetArray) {
 			removePlan((Plan) plan);
 		}
 	}
 	
-	private TopLevel getTopLevelLocalOnly(URI topLevelURI) {
+	TopLevel getTopLevelLocalOnly(URI topLevelURI) {
+		TopLevel topLevel = findTopLevel(topLevelURI);
+		if (topLevel != null) {
+			return topLevel;
+		}
+		return materialize(topLevelURI, TopLevel.class);
+	}
+
+	/**
+	 * Returns the top-level of this document matching the given URI, without
+	 * copying it from the base snapshot.
+	 */
+	private TopLevel findTopLevel(URI topLevelURI) {
 		TopLevel topLevel = collections.get(topLevelURI);
 		if (topLevel != null) {
 			return topLevel;
@@ -3847,11 +5025,7 @@ public class SBOLDocument {
 		if(topLevel != null) {
 			return topLevel;
 		}
-		topLevel = attachments.get(topLevelURI);
-		if(topLevel != null) {
-			return topLevel;
-		}
-		return null;
+		return attachments.get(topLevelURI);
 	}
 
 	/**
@@ -3885,44 +5059,54 @@ public class SBOLDocument {
 	 * @return the set of all top-level owned by this SBOL document
 	 */
 	public Set<TopLevel> getTopLevels() {
-		Set<TopLevel> topLevels = new HashSet<>();
-		for (Collection topLevel : collections.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Sequence topLevel : sequences.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Model topLevel : models.values()) {
-			topLevels.add(topLevel);
-		}
-		for (GenericTopLevel topLevel : genericTopLevels.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Activity topLevel : activities.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Agent topLevel : agents.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Plan topLevel : plans.values()) {
-			topLevels.add(topLevel);
-		}
-		for (ComponentDefinition topLevel : componentDefinitions.values()) {
-			topLevels.add(topLevel);
-		}
-		for (ModuleDefinition topLevel : moduleDefinitions.values()) {
-			topLevels.add(topLevel);
-		}
-		for (CombinatorialDerivation topLevel : combinatorialDerivations.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Implementation topLevel : implementations.values()) {
-			topLevels.add(topLevel);
-		}
-		for (Attachment topLevel : attachments.values()) {
-			topLevels.add(topLevel);
+		materializeAll(TopLevel.class);
+		return getLocalTopLevels();
+	}
+
+	private Set<TopLevel> getLocalTopLevels() {
+		lockRead();
+		try {
+			Set<TopLevel> topLevels = new HashSet<>();
+			for (Collection topLevel : collections.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Sequence topLevel : sequences.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Model topLevel : models.values()) {
+				topLevels.add(topLevel);
+			}
+			for (GenericTopLevel topLevel : genericTopLevels.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Activity topLevel : activities.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Agent topLevel : agents.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Plan topLevel : plans.values()) {
+				topLevels.add(topLevel);
+			}
+			for (ComponentDefinition topLevel : componentDefinitions.values()) {
+				topLevels.add(topLevel);
+			}
+			for (ModuleDefinition topLevel : moduleDefinitions.values()) {
+				topLevels.add(topLevel);
+			}
+			for (CombinatorialDerivation topLevel : combinatorialDerivations.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Implementation topLevel : implementations.values()) {
+				topLevels.add(topLevel);
+			}
+			for (Attachment topLevel : attachments.values()) {
+				topLevels.add(topLevel);
+			}
+			return topLevels;
+		} finally {
+			unlockRead();
 		}
-		return topLevels;
 	}
 
 	/**
@@ -4013,7 +5197,38 @@ public class SBOLDocument {
 				&& !namespaceBinding.getNamespaceURI().endsWith("/")) {
 			throw new SBOLValidationException("sbol-10105");
 		}
-		nameSpaces.put(namespaceBinding.getPrefix(), namespaceBinding);
+		lockWrite();
+		try {
+			nameSpaces.put(namespaceBinding.getPrefix(), namespaceBinding);
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Returns the prefix of the given namespace URI in this SBOL document, first binding the namespace
+	 * to the given prefix if that prefix is free, or to a new prefix otherwise. The lookup and the binding
+	 * are made under the write lock, so that concurrent callers never bind the same namespace or the same
+	 * prefix twice.
+	 *
+	 * @throws SBOLValidationException
+	 *             if namespace URI does not end with a delimiter
+	 */
+	String bindNamespace(URI namespaceURI, String prefix) throws SBOLValidationException {
+		lockWrite();
+		try {
+			QName qName = getNamespace(namespaceURI);
+			if (qName != null) {
+				return qName.getPrefix();
+			}
+			if (getNamespace(prefix) != null) {
+				return getNamespacePrefix(namespaceURI);
+			}
+			addNamespace(namespaceURI, prefix);
+			return prefix;
+		} finally {
+			unlockWrite();
+		}
 	}
 
 	/**
@@ -4045,22 +5260,21 @@ public class SBOLDocument {
 	}
 
 	String getNamespacePrefix(URI namespaceURI) {
-		QName qName = getNamespace(namespaceURI);
-		int nsNum = 0;
-		if (qName == null) {
-			boolean foundIt;
-			do {
-				foundIt = false;
-				if (nameSpaces.keySet().contains("ns" + nsNum)) {
+		lockWrite();
+		try {
+			QName qName = getNamespace(namespaceURI);
+			int nsNum = 0;
+			if (qName == null) {
+				while (nameSpaces.containsKey("ns" + nsNum)) {
 					nsNum++;
-					foundIt = true;
-					break;
 				}
-			} while (foundIt);
-			nameSpaces.put("ns" + nsNum, NamespaceBinding(namespaceURI.toString(), "ns" + nsNum));
-			return "ns" + nsNum;
-		} else {
-			return qName.getPrefix();
+				nameSpaces.put("ns" + nsNum, NamespaceBinding(namespaceURI.toString(), "ns" + nsNum));
+				return "ns" + nsNum;
+			} else {
+				return qName.getPrefix();
+			}
+		} finally {
+			unlockWrite();
 		}
 	}
 
@@ -4191,23 +5405,46 @@ public class SBOLDocument {
 		return false;
 	}
 
+	/**
+	 * Returns the given map of this document together with the top-levels of the
+	 * given type that are still shared with the base snapshot, without copying
+	 * them into this document.
+	 */
+	private <TL extends TopLevel> Map<URI, TL> withBase(Map<URI, TL> instancesMap, Class<TL> type) {
+		SBOLDocumentSnapshot shared = base;
+		if (shared == null) {
+			return instancesMap;
+		}
+		Map<URI, TL> merged = new HashMap<>(instancesMap);
+		for (TopLevel sharedTopLevel : shared.getTopLevelList()) {
+			if (type.isInstance(sharedTopLevel) && !materialized.contains(sharedTopLevel.getIdentity())) {
+				merged.put(sharedTopLevel.getIdentity(), type.cast(sharedTopLevel));
+				if (sharedTopLevel.isSetPersistentIdentity()) {
+					URI persistentId = sharedTopLevel.getPersistentIdentity();
+					merged.put(persistentId, type.cast(shared.getFrozenTopLevel(persistentId)));
+				}
+			}
+		}
+		return merged;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((collections == null) ? 0 : collections.hashCode());
-		result = prime * result + ((componentDefinitions == null) ? 0 : componentDefinitions.hashCode());
-		result = prime * result + ((genericTopLevels == null) ? 0 : genericTopLevels.hashCode());
-		result = prime * result + ((activities == null) ? 0 : activities.hashCode());
-		result = prime * result + ((agents == null) ? 0 : agents.hashCode());
-		result = prime * result + ((plans == null) ? 0 : plans.hashCode());
-		result = prime * result + ((models == null) ? 0 : models.hashCode());
-		result = prime * result + ((moduleDefinitions == null) ? 0 : moduleDefinitions.hashCode());
+		result = prime * result + ((collections == null) ? 0 : withBase(collections, Collection.class).hashCode());
+		result = prime * result + ((componentDefinitions == null) ? 0 : withBase(componentDefinitions, ComponentDefinition.class).hashCode());
+		result = prime * result + ((genericTopLevels == null) ? 0 : withBase(genericTopLevels, GenericTopLevel.class).hashCode());
+		result = prime * result + ((activities == null) ? 0 : withBase(activities, Activity.class).hashCode());
+		result = prime * result + ((agents == null) ? 0 : withBase(agents, Agent.class).hashCode());
+		result = prime * result + ((plans == null) ? 0 : withBase(plans, Plan.class).hashCode());
+		result = prime * result + ((models == null) ? 0 : withBase(models, Model.class).hashCode());
+		result = prime * result + ((moduleDefinitions == null) ? 0 : withBase(moduleDefinitions, ModuleDefinition.class).hashCode());
 		result = prime * result + ((nameSpaces == null) ? 0 : nameSpaces.hashCode());
-		result = prime * result + ((sequences == null) ? 0 : sequences.hashCode());
-		result = prime * result + ((combinatorialDerivations == null) ? 0 : combinatorialDerivations.hashCode());
-		result = prime * result + ((implementations == null) ? 0 : implementations.hashCode());
-		result = prime * result + ((attachments == null) ? 0 : attachments.hashCode());
+		result = prime * result + ((sequences == null) ? 0 : withBase(sequences, Sequence.class).hashCode());
+		result = prime * result + ((combinatorialDerivations == null) ? 0 : withBase(combinatorialDerivations, CombinatorialDerivation.class).hashCode());
+		result = prime * result + ((implementations == null) ? 0 : withBase(implementations, Implementation.class).hashCode());
+		result = prime * result + ((attachments == null) ? 0 : withBase(attachments, Attachment.class).hashCode());
 		return result;
 	}
 
@@ -4223,42 +5460,42 @@ public class SBOLDocument {
 		if (collections == null) {
 			if (other.collections != null)
 				return false;
-		} else if (!collections.equals(other.collections))
+		} else if (!withBase(collections, Collection.class).equals(other.withBase(other.collections, Collection.class)))
 			return false;
 		if (componentDefinitions == null) {
 			if (other.componentDefinitions != null)
 				return false;
-		} else if (!componentDefinitions.equals(other.componentDefinitions))
+		} else if (!withBase(componentDefinitions, ComponentDefinition.class).equals(other.withBase(other.componentDefinitions, ComponentDefinition.class)))
 			return false;
 		if (genericTopLevels == null) {
 			if (other.genericTopLevels != null)
 				return false;
-		} else if (!genericTopLevels.equals(other.genericTopLevels))
+		} else if (!withBase(genericTopLevels, GenericTopLevel.class).equals(other.withBase(other.genericTopLevels, GenericTopLevel.class)))
 			return false;
 		if (activities == null) {
 			if (other.activities != null)
 				return false;
-		} else if (!activities.equals(other.activities))
+		} else if (!withBase(activities, Activity.class).equals(other.withBase(other.activities, Activity.class)))
 			return false;
 		if (agents == null) {
 			if (other.agents != null)
 				return false;
-		} else if (!agents.equals(other.agents))
+		} else if (!withBase(agents, Agent.class).equals(other.withBase(other.agents, Agent.class)))
 			return false;
 		if (plans == null) {
 			if (other.plans != null)
 				return false;
-		} else if (!plans.equals(other.plans))
+		} else if (!withBase(plans, Plan.class).equals(other.withBase(other.plans, Plan.class)))
 			return false;
 		if (models == null) {
 			if (other.models != null)
 				return false;
-		} else if (!models.equals(other.models))
+		} else if (!withBase(models, Model.class).equals(other.withBase(other.models, Model.class)))
 			return false;
 		if (moduleDefinitions == null) {
 			if (other.moduleDefinitions != null)
 				return false;
-		} else if (!moduleDefinitions.equals(other.moduleDefinitions))
+		} else if (!withBase(moduleDefinitions, ModuleDefinition.class).equals(other.withBase(other.moduleDefinitions, ModuleDefinition.class)))
 			return false;
 		if (nameSpaces == null) {
 			if (other.nameSpaces != null)
@@ -4268,22 +5505,22 @@ public class SBOLDocument {
 		if (sequences == null) {
 			if (other.sequences != null)
 				return false;
-		} else if (!sequences.equals(other.sequences))
+		} else if (!withBase(sequences, Sequence.class).equals(other.withBase(other.sequences, Sequence.class)))
 			return false;
 		if (combinatorialDerivations == null) {
 			if (other.combinatorialDerivations != null)
 				return false;
-		} else if (!combinatorialDerivations.equals(other.combinatorialDerivations))
+		} else if (!withBase(combinatorialDerivations, CombinatorialDerivation.class).equals(other.withBase(other.combinatorialDerivations, CombinatorialDerivation.class)))
 			return false;
 		if (attachments == null) {
 			if (other.attachments != null)
 				return false;
-		} else if (!attachments.equals(other.attachments))
+		} else if (!withBase(attachments, Attachment.class).equals(other.withBase(other.attachments, Attachment.class)))
 			return false;
 		if (implementations == null) {
 			if (other.implementations != null)
 				return false;
-		} else if (!implementations.equals(other.implementations))
+		} else if (!withBase(implementations, Implementation.class).equals(other.withBase(other.implementations, Implementation.class)))
 			return false;
 		return true;
 	}
@@ -4300,65 +5537,192 @@ public class SBOLDocument {
 	@SafeVarargs
 	private final <TL extends TopLevel> void addTopLevel(TL newTopLevel, Map<URI, TL> instancesMap, String typeName,
 			Map<URI, ? extends Identified>... maps) throws SBOLValidationException {
-		boolean childrenCompliant = true;
+		lockWrite();
 		try {
-			URIcompliance.isURIcompliant(newTopLevel);
-			// newTopLevel.checkDescendantsURIcompliance();
-		} catch (SBOLValidationException e) {
-			childrenCompliant = false;
-		}
-		if (compliant && childrenCompliant) {
-			URI persistentId = URI.create(extractPersistentId(newTopLevel.getIdentity()));
-			if (keyExistsInAnyMap(persistentId, maps))
-				throw new SBOLValidationException("sbol-10220", newTopLevel);
-			if (instancesMap.containsKey(newTopLevel.getIdentity()))
-				throw new SBOLValidationException("sbol-10202", newTopLevel);
-			String prefix = extractURIprefix(persistentId);
-			while (prefix != null) {
-				if (keyExistsInAnyMap(URI.create(prefix), maps))
+			SBOLDocumentSnapshot shared = base;
+			if (shared != null) {
+				materialize(newTopLevel.getIdentity(), TopLevel.class);
+				if (newTopLevel.isSetPersistentIdentity()) {
+					materialize(newTopLevel.getPersistentIdentity(), TopLevel.class);
+					materializeURIprefix(shared, newTopLevel.getPersistentIdentity());
+				}
+			}
+			boolean childrenCompliant = true;
+			try {
+				URIcompliance.isURIcompliant(newTopLevel);
+				// newTopLevel.checkDescendantsURIcompliance();
+			} catch (SBOLValidationException e) {
+				childrenCompliant = false;
+			}
+			if (compliant && childrenCompliant) {
+				URI persistentId = URI.create(extractPersistentId(newTopLevel.getIdentity()));
+				if (keyExistsInAnyMap(persistentId, maps))
+					throw new SBOLValidationException("sbol-10220", newTopLevel);
+				if (instancesMap.containsKey(newTopLevel.getIdentity()))
+					throw new SBOLValidationException("sbol-10202", newTopLevel);
+				prefixes.addPrefixes(newTopLevel, persistentId.toString());
+				putTopLevel(newTopLevel, persistentId, instancesMap);
+			} else { // Only check if URI exists in all maps.
+				if (keyExistsInAnyMap(newTopLevel.getIdentity()))
 					throw new SBOLValidationException("sbol-10202", newTopLevel);
-				if (instancesMap.containsKey(URI.create(prefix)))
+				if (instancesMap.containsKey(newTopLevel.getIdentity()))
 					throw new SBOLValidationException("sbol-10202", newTopLevel);
-				prefix = extractURIprefix(URI.create(prefix));
+				putTopLevel(newTopLevel,
+						newTopLevel.isSetPersistentIdentity() ? newTopLevel.getPersistentIdentity() : null, instancesMap);
 			}
-			if (prefixes.contains(persistentId.toString())) {
-				throw new IllegalArgumentException(
-						"Persistent identity `" + persistentId.toString() + "' matches URI prefix in document.");
+			newTopLevel.setSBOLDocument(this);
+			modified(SBOLDocumentChange.Type.TOP_LEVEL_ADDED, newTopLevel);
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Puts the given top-level into the given map under its identity, and under
+	 * the given persistent identity if it is the latest version, and records both
+	 * keys in the URI prefix trie. No checks are made.
+	 */
+	private <TL extends TopLevel> void putTopLevel(TL newTopLevel, URI persistentId, Map<URI, TL> instancesMap) {
+		instancesMap.put(newTopLevel.getIdentity(), newTopLevel);
+		prefixes.addKey(newTopLevel.getIdentity());
+		if (persistentId == null) {
+			return;
+		}
+		prefixes.addKey(persistentId);
+		Identified latest = instancesMap.get(persistentId);
+		if (latest == null) {
+			instancesMap.put(persistentId, newTopLevel);
+		} else {
+			if (isFirstVersionNewer(extractVersion(newTopLevel.getIdentity()),
+					extractVersion(latest.getIdentity()))) {
+				instancesMap.put(persistentId, newTopLevel);
 			}
-			prefix = extractURIprefix(persistentId);
-			while (prefix != null) {
-				prefixes.add(prefix);
-				prefix = extractURIprefix(URI.create(prefix));
+		}
+	}
+
+	/**
+	 * Adds the given top-levels to this SBOL document, checking them against each
+	 * other and against this document in a single pass. Each top-level must have
+	 * been created with a compliant identity and persistent identity, and must not
+	 * belong to a document yet. Either all of the given top-levels are added, or,
+	 * if any of them violates a validation rule, none of them are.
+	 *
+	 * @param topLevels
+	 *            the top-levels to be added
+	 * @return the validation rule violations found, one per offending top-level,
+	 *         which is empty if the top-levels were added
+	 */
+	List<SBOLValidationException> addTopLevels(List<? extends TopLevel> topLevels) {
+		List<SBOLValidationException> violations = new ArrayList<>();
+		lockWrite();
+		try {
+			SBOLDocumentSnapshot shared = base;
+			if (shared != null) {
+				for (TopLevel topLevel : topLevels) {
+					materialize(topLevel.getIdentity(), TopLevel.class);
+					materialize(topLevel.getPersistentIdentity(), TopLevel.class);
+					materializeURIprefix(shared, topLevel.getPersistentIdentity());
+				}
 			}
-			instancesMap.put(newTopLevel.getIdentity(), newTopLevel);
-			Identified latest = instancesMap.get(persistentId);
-			if (latest == null) {
-				instancesMap.put(persistentId, newTopLevel);
-			} else {
-				if (isFirstVersionNewer(extractVersion(newTopLevel.getIdentity()),
-						extractVersion(latest.getIdentity()))) {
-					instancesMap.put(persistentId, newTopLevel);
+			Set<URI> identities = new HashSet<>();
+			Map<URI, Class<?>> persistentIds = new HashMap<>();
+			for (TopLevel topLevel : topLevels) {
+				Map<URI, ? extends TopLevel> instancesMap = getInstancesMap(topLevel);
+				URI identity = topLevel.getIdentity();
+				if (!identities.add(identity) || instancesMap.containsKey(identity)) {
+					violations.add(new SBOLValidationException("sbol-10202", topLevel));
+					continue;
+				}
+				if (!compliant) {
+					continue;
+				}
+				URI persistentId = topLevel.getPersistentIdentity();
+				Class<?> sibling = persistentIds.put(persistentId, topLevel.getClass());
+				if ((sibling != null && sibling != topLevel.getClass())
+						|| keyExistsInOtherMap(persistentId, instancesMap)) {
+					violations.add(new SBOLValidationException("sbol-10220", topLevel));
+					continue;
+				}
+				try {
+					prefixes.checkPrefixes(topLevel, persistentId.toString());
+				} catch (SBOLValidationException e) {
+					violations.add(e);
+				} catch (IllegalArgumentException e) {
+					// The persistent identity is the URI prefix of a top-level of this document.
+					violations.add(new SBOLValidationException("sbol-10202", e, topLevel));
 				}
 			}
-		} else { // Only check if URI exists in all maps.
-			if (keyExistsInAnyMap(newTopLevel.getIdentity()))
-				throw new SBOLValidationException("sbol-10202", newTopLevel);
-			if (instancesMap.containsKey(newTopLevel.getIdentity()))
-				throw new SBOLValidationException("sbol-10202", newTopLevel);
-			instancesMap.put(newTopLevel.getIdentity(), newTopLevel);
-			if (newTopLevel.isSetPersistentIdentity()) {
-				Identified latest = instancesMap.get(newTopLevel.getPersistentIdentity());
-				if (latest == null) {
-					instancesMap.put(newTopLevel.getPersistentIdentity(), newTopLevel);
-				} else {
-					if (isFirstVersionNewer(extractVersion(newTopLevel.getIdentity()),
-							extractVersion(latest.getIdentity()))) {
-						instancesMap.put(newTopLevel.getPersistentIdentity(), newTopLevel);
+			if (!violations.isEmpty()) {
+				return violations;
+			}
+			beginChangeBatch();
+			try {
+				for (TopLevel topLevel : topLevels) {
+					@SuppressWarnings("unchecked")
+					Map<URI, TopLevel> instancesMap = (Map<URI, TopLevel>) getInstancesMap(topLevel);
+					if (compliant) {
+						prefixes.addPrefix(topLevel.getPersistentIdentity().toString());
 					}
+					putTopLevel(topLevel, topLevel.getPersistentIdentity(), instancesMap);
+					topLevel.setSBOLDocument(this);
+					if (topLevel instanceof ComponentDefinition) {
+						setChildrenDocument((ComponentDefinition) topLevel);
+					}
+					modified(SBOLDocumentChange.Type.TOP_LEVEL_ADDED, topLevel);
 				}
+			} finally {
+				endChangeBatch();
 			}
+		} finally {
+			unlockWrite();
 		}
-		newTopLevel.setSBOLDocument(this);
+		return violations;
+	}
+
+	/**
+	 * Returns the map of this document holding top-levels of the same type as the
+	 * given top-level.
+	 */
+	private Map<URI, ? extends TopLevel> getInstancesMap(TopLevel topLevel) {
+		if (topLevel instanceof GenericTopLevel)
+			return genericTopLevels;
+		else if (topLevel instanceof Activity)
+			return activities;
+		else if (topLevel instanceof Agent)
+			return agents;
+		else if (topLevel instanceof Plan)
+			return plans;
+		else if (topLevel instanceof Collection)
+			return collections;
+		else if (topLevel instanceof Sequence)
+			return sequences;
+		else if (topLevel instanceof ComponentDefinition)
+			return componentDefinitions;
+		else if (topLevel instanceof Model)
+			return models;
+		else if (topLevel instanceof ModuleDefinition)
+			return moduleDefinitions;
+		else if (topLevel instanceof CombinatorialDerivation)
+			return combinatorialDerivations;
+		else if (topLevel instanceof Implementation)
+			return implementations;
+		else
+			return attachments;
+	}
+
+	/**
+	 * Checks if the given key is used by a top-level in any map of this document
+	 * other than the given one.
+	 */
+	private boolean keyExistsInOtherMap(URI key, Map<URI, ? extends TopLevel> instancesMap) {
+		for (Map<URI, ? extends TopLevel> map : new Map[] { genericTopLevels, activities, agents, plans, collections,
+				sequences, componentDefinitions, models, moduleDefinitions, combinatorialDerivations, implementations,
+				attachments }) {
+			if (map != instancesMap && map.containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -4375,30 +5739,45 @@ public class SBOLDocument {
 	 */
 	private final <TL extends TopLevel> boolean removeTopLevel(TopLevel topLevel, Map<URI, TL> instancesMap)
 			throws SBOLValidationException {
-		if (complete) {
-			for (Collection c : collections.values()) {
-				if (c.containsMember(topLevel.getIdentity())) {
-					throw new SBOLValidationException("sbol-12103", c);
+		lockWrite();
+		try {
+			if (complete) {
+				materializeAll(TopLevel.class);
+				for (Collection c : collections.values()) {
+					if (c.containsMember(topLevel.getIdentity())) {
+						throw new SBOLValidationException("sbol-12103", c);
+					}
 				}
 			}
-		}
-		Set<TopLevel> setToRemove = new HashSet<>();
-		setToRemove.add(topLevel);
-		boolean changed = instancesMap.values().removeAll(setToRemove);
-		URI latestVersion = null;
-		for (TL tl : instancesMap.values()) {
-			if (topLevel.getPersistentIdentity().toString().equals(tl.getPersistentIdentity().toString())) {
-				if (latestVersion == null) {
-					latestVersion = tl.getIdentity();
-				} else if (isFirstVersionNewer(extractVersion(tl.getIdentity()), extractVersion(latestVersion))) {
-					latestVersion = tl.getIdentity();
+			Set<TopLevel> setToRemove = new HashSet<>();
+			setToRemove.add(topLevel);
+			boolean changed = instancesMap.values().removeAll(setToRemove);
+			if (changed) {
+				prefixes.removeKey(topLevel.getIdentity());
+				if (topLevel.isSetPersistentIdentity()) {
+					prefixes.removeKey(topLevel.getPersistentIdentity());
 				}
 			}
+			URI latestVersion = null;
+			for (TL tl : instancesMap.values()) {
+				if (topLevel.getPersistentIdentity().toString().equals(tl.getPersistentIdentity().toString())) {
+					if (latestVersion == null) {
+						latestVersion = tl.getIdentity();
+					} else if (isFirstVersionNewer(extractVersion(tl.getIdentity()), extractVersion(latestVersion))) {
+						latestVersion = tl.getIdentity();
+					}
+				}
+			}
+			if (latestVersion != null) {
+				instancesMap.put(topLevel.getPersistentIdentity(), instancesMap.get(latestVersion));
+			}
+			if (changed) {
+				modified(SBOLDocumentChange.Type.TOP_LEVEL_REMOVED, topLevel);
+			}
+			return changed;
+		} finally {
+			unlockWrite();
 		}
-		if (latestVersion != null) {
-			instancesMap.put(topLevel.getPersistentIdentity(), instancesMap.get(latestVersion));
-		}
-		return changed;
 	}
 
 	/**
@@ -0,0 +1,304 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a batch of top-levels to be added to an SBOL document together, created by
+ * {@link SBOLDocument#createBatch()}.
+ * <p>
+ * The create methods of a batch check only the arguments of the top-level being created, such as its
+ * display ID, version and types. The URI prefix compliance and uniqueness checks that the create
+ * methods of {@link SBOLDocument} make for every new top-level are deferred to {@link #commit()},
+ * which checks each distinct URI prefix once, and checks all identities of the batch against each
+ * other and against the document with hash lookups, so adding a large number of top-levels takes time
+ * proportional to the size of the batch rather than the size of the document.
+ * <p>
+ * The top-levels of a batch belong to no document until the batch is committed.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLDocumentBatch {
+
+	private final SBOLDocument document;
+	private final List<TopLevel> topLevels;
+	private final Map<String, List<TopLevel>> URIprefixes;
+	private boolean committed;
+
+	SBOLDocumentBatch(SBOLDocument document) {
+		this.document = document;
+		this.topLevels = new ArrayList<>();
+		this.URIprefixes = new HashMap<>();
+		this.committed = false;
+	}
+
+	/**
+	 * Creates a component definition in this batch, using the default URI prefix of the document.
+	 * <p>
+	 * This method calls {@link #createComponentDefinition(String, String, String, Set)} with the
+	 * default URI prefix of the document, and the given display ID, version and types.
+	 *
+	 * @param displayId
+	 *            the display ID of the component definition to be created
+	 * @param version
+	 *            the version of the component definition to be created
+	 * @param types
+	 *            the types of the component definition to be created
+	 * @return the created component definition
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred in
+	 *             {@link #createComponentDefinition(String, String, String, Set)}.
+	 */
+	public ComponentDefinition createComponentDefinition(String displayId, String version, Set<URI> types)
+			throws SBOLValidationException {
+		return createComponentDefinition(document.getDefaultURIprefix(), displayId, version, types);
+	}
+
+	/**
+	 * Creates a component definition in this batch, to be added to the document when this batch is
+	 * committed.
+	 *
+	 * @param URIprefix
+	 *            the URI prefix used to construct the compliant URI for the component definition to be
+	 *            created
+	 * @param displayId
+	 *            the display ID of the component definition to be created
+	 * @param version
+	 *            the version of the component definition to be created
+	 * @param types
+	 *            the types of the component definition to be created
+	 * @return the created component definition
+	 * @throws SBOLValidationException
+	 *             if any of the following SBOL validation rules was violated: 10201, 10204, 10206,
+	 *             10502, 10503.
+	 */
+	public ComponentDefinition createComponentDefinition(String URIprefix, String displayId, String version,
+			Set<URI> types) throws SBOLValidationException {
+		URIprefix = normalizeURIprefix(URIprefix);
+		checkIdVersion(displayId, version);
+		ComponentDefinition cd = new ComponentDefinition(
+				createIdentity(URIprefix, TopLevel.COMPONENT_DEFINITION, displayId, version), types);
+		cd.setDisplayId(displayId);
+		cd.setPersistentIdentity(createIdentity(URIprefix, TopLevel.COMPONENT_DEFINITION, displayId, ""));
+		cd.setVersion(version);
+		add(URIprefix, cd);
+		return cd;
+	}
+
+	/**
+	 * Creates a sequence in this batch, using the default URI prefix of the document.
+	 * <p>
+	 * This method calls {@link #createSequence(String, String, String, String, URI)} with the default
+	 * URI prefix of the document, and the given display ID, version, elements and encoding.
+	 *
+	 * @param displayId
+	 *            the display ID of the sequence to be created
+	 * @param version
+	 *            the version of the sequence to be created
+	 * @param elements
+	 *            the elements of the sequence to be created
+	 * @param encoding
+	 *            the encoding of the sequence to be created
+	 * @return the created sequence
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred in
+	 *             {@link #createSequence(String, String, String, String, URI)}.
+	 */
+	public Sequence createSequence(String displayId, String version, String elements, URI encoding)
+			throws SBOLValidationException {
+		return createSequence(document.getDefaultURIprefix(), displayId, version, elements, encoding);
+	}
+
+	/**
+	 * Creates a sequence in this batch, to be added to the document when this batch is committed.
+	 *
+	 * @param URIprefix
+	 *            the URI prefix used to construct the compliant URI for the sequence to be created
+	 * @param displayId
+	 *            the display ID of the sequence to be created
+	 * @param version
+	 *            the version of the sequence to be created
+	 * @param elements
+	 *            the elements of the sequence to be created
+	 * @param encoding
+	 *            the encoding of the sequence to be created
+	 * @return the created sequence
+	 * @throws SBOLValidationException
+	 *             if any of the following SBOL validation rules was violated: 10201, 10204, 10206,
+	 *             10402, 10403, 10405.
+	 */
+	public Sequence createSequence(String URIprefix, String displayId, String version, String elements,
+			URI encoding) throws SBOLValidationException {
+		URIprefix = normalizeURIprefix(URIprefix);
+		checkIdVersion(displayId, version);
+		Sequence s = new Sequence(createIdentity(URIprefix, TopLevel.SEQUENCE, displayId, version), elements,
+				encoding);
+		s.setPersistentIdentity(createIdentity(URIprefix, TopLevel.SEQUENCE, displayId, ""));
+		s.setDisplayId(displayId);
+		s.setVersion(version);
+		add(URIprefix, s);
+		return s;
+	}
+
+	/**
+	 * Creates a collection in this batch, using the default URI prefix of the document.
+	 * <p>
+	 * This method calls {@link #createCollection(String, String, String)} with the default URI prefix
+	 * of the document, and the given display ID and version.
+	 *
+	 * @param displayId
+	 *            the display ID of the collection to be created
+	 * @param version
+	 *            the version of the collection to be created
+	 * @return the created collection
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred in
+	 *             {@link #createCollection(String, String, String)}.
+	 */
+	public Collection createCollection(String displayId, String version) throws SBOLValidationException {
+		return createCollection(document.getDefaultURIprefix(), displayId, version);
+	}
+
+	/**
+	 * Creates a collection in this batch, to be added to the document when this batch is committed.
+	 *
+	 * @param URIprefix
+	 *            the URI prefix used to construct the compliant URI for the collection to be created
+	 * @param displayId
+	 *            the display ID of the collection to be created
+	 * @param version
+	 *            the version of the collection to be created
+	 * @return the created collection
+	 * @throws SBOLValidationException
+	 *             if any of the following SBOL validation rules was violated: 10201, 10204, 10206.
+	 */
+	public Collection createCollection(String URIprefix, String displayId, String version)
+			throws SBOLValidationException {
+		URIprefix = normalizeURIprefix(URIprefix);
+		checkIdVersion(displayId, version);
+		Collection c = new Collection(createIdentity(URIprefix, TopLevel.COLLECTION, displayId, version));
+		c.setDisplayId(displayId);
+		c.setPersistentIdentity(createIdentity(URIprefix, TopLevel.COLLECTION, displayId, ""));
+		c.setVersion(version);
+		add(URIprefix, c);
+		return c;
+	}
+
+	/**
+	 * Returns the number of top-levels created in this batch.
+	 *
+	 * @return the number of top-levels created in this batch
+	 */
+	public int size() {
+		return topLevels.size();
+	}
+
+	/**
+	 * Adds all top-levels created in this batch to the document.
+	 * <p>
+	 * Each distinct URI prefix used in this batch is checked once, and the identities of all
+	 * top-levels are checked against each other and against the document. Either all top-levels are
+	 * added, or, if any violation is found, none of them are. Each violation is reported with its rule
+	 * and the offending top-level: the first one found is thrown, and every other one is attached to it
+	 * as a suppressed exception. A batch may only be committed once.
+	 *
+	 * @throws SBOLValidationException
+	 *             if any of the following SBOL validation rules was violated by any top-level of this
+	 *             batch: 10201, 10202, 10220. The exception is the first violation found, and the others
+	 *             are its suppressed exceptions.
+	 * @throws IllegalStateException
+	 *             if this batch has already been committed
+	 */
+	public void commit() throws SBOLValidationException {
+		if (committed) {
+			throw new IllegalStateException("Batch has already been committed.");
+		}
+		List<SBOLValidationException> violations = new ArrayList<>();
+		for (Map.Entry<String, List<TopLevel>> entry : URIprefixes.entrySet()) {
+			if (!URIcompliance.isURIprefixCompliant(entry.getKey())) {
+				violations.add(new SBOLValidationException("sbol-10201", entry.getValue()
+						.toArray(new Identified[entry.getValue().size()])));
+			}
+		}
+		if (violations.isEmpty()) {
+			violations.addAll(document.addTopLevels(topLevels));
+		}
+		if (!violations.isEmpty()) {
+			SBOLValidationException e = violations.get(0);
+			for (SBOLValidationException violation : violations.subList(1, violations.size())) {
+				e.addSuppressed(violation);
+			}
+			throw e;
+		}
+		committed = true;
+	}
+
+	private void add(String URIprefix, TopLevel topLevel) {
+		if (committed) {
+			throw new IllegalStateException("Batch has already been committed.");
+		}
+		topLevels.add(topLevel);
+		List<TopLevel> sharing = URIprefixes.get(URIprefix);
+		if (sharing == null) {
+			sharing = new ArrayList<>();
+			URIprefixes.put(URIprefix, sharing);
+		}
+		sharing.add(topLevel);
+	}
+
+	/**
+	 * Appends a delimiter to the given URI prefix if needed, leaving its compliance to be checked on
+	 * commit.
+	 */
+	private static String normalizeURIprefix(String URIprefix) {
+		if (URIprefix == null) {
+			throw new IllegalArgumentException("The defaultURIprefix is not set. Please set it to a non-null value");
+		}
+		if (!URIprefix.endsWith("/") && !URIprefix.endsWith(":") && !URIprefix.endsWith("#")) {
+			URIprefix += "/";
+		}
+		return URIprefix;
+	}
+
+	/**
+	 * @throws SBOLValidationException
+	 *             if either of the following SBOL validation rules was violated: 10204, 10206.
+	 */
+	private static void checkIdVersion(String displayId, String version) throws SBOLValidationException {
+		if (!URIcompliance.isDisplayIdValid(displayId)) {
+			throw new SBOLValidationException("sbol-10204");
+		}
+		if (version != null && !URIcompliance.isVersionValid(version)) {
+			throw new SBOLValidationException("sbol-10206");
+		}
+	}
+
+	/**
+	 * Creates the identity of a top-level from a normalized URI prefix and a checked display ID and
+	 * version. A URI prefix that is a valid URI is only checked for compliance on commit.
+	 *
+	 * @throws SBOLValidationException
+	 *             if the following SBOL validation rule was violated: 10201.
+	 */
+	private URI createIdentity(String URIprefix, String type, String displayId, String version)
+			throws SBOLValidationException {
+		StringBuilder identity = new StringBuilder(URIprefix);
+		if (document.isTypesInURIs()) {
+			identity.append(type).append('/');
+		}
+		identity.append(displayId);
+		if (version != null && !version.equals("")) {
+			identity.append('/').append(version);
+		}
+		try {
+			return URI.create(identity.toString());
+		} catch (IllegalArgumentException e) {
+			throw new SBOLValidationException("sbol-10201");
+		}
+	}
+}
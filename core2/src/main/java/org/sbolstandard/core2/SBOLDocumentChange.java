@@ -0,0 +1,128 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+
+/**
+ * Represents a change made to an SBOL document or to an object in it, delivered to the
+ * {@link SBOLDocumentListener}s of the document.
+ * <p>
+ * A change records its type, the identity of the object it affected, and the identity of the
+ * top-level containing that object, so that a listener can tell which top-levels to revisit without
+ * rescanning the document. Changes to an object that is not in a document are not recorded, so adding a
+ * top-level to a document is a single change, whatever child objects it already has.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLDocumentChange {
+
+	/**
+	 * The types of changes made to an SBOL document.
+	 */
+	public enum Type {
+		/**
+		 * A top-level was added to the document.
+		 */
+		TOP_LEVEL_ADDED,
+		/**
+		 * A top-level was removed from the document.
+		 */
+		TOP_LEVEL_REMOVED,
+		/**
+		 * A child object was added to an object in the document.
+		 */
+		CHILD_ADDED,
+		/**
+		 * A child object was removed from an object in the document.
+		 */
+		CHILD_REMOVED,
+		/**
+		 * A property of an object in the document was set or unset.
+		 */
+		PROPERTY_CHANGED,
+		/**
+		 * An annotation of an object in the document was added, removed, or changed.
+		 */
+		ANNOTATION_CHANGED
+	}
+
+	private final Type type;
+	private final URI identity;
+	private final URI topLevelIdentity;
+
+	SBOLDocumentChange(Type type, URI identity, URI topLevelIdentity) {
+		this.type = type;
+		this.identity = identity;
+		this.topLevelIdentity = topLevelIdentity;
+	}
+
+	/**
+	 * Returns the type of this change.
+	 *
+	 * @return the type of this change
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the identity of the object affected by this change: the top-level added or removed, the
+	 * child object added or removed, or the object whose property or annotation changed.
+	 *
+	 * @return the identity of the object affected by this change
+	 */
+	public URI getIdentity() {
+		return identity;
+	}
+
+	/**
+	 * Returns the identity of the top-level containing the object affected by this change, which is that
+	 * object itself if it is a top-level.
+	 *
+	 * @return the identity of the top-level containing the object affected by this change, or {@code null}
+	 *         if that object is not contained by a top-level
+	 */
+	public URI getTopLevelIdentity() {
+		return topLevelIdentity;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + type.hashCode();
+		result = prime * result + ((identity == null) ? 0 : identity.hashCode());
+		result = prime * result + ((topLevelIdentity == null) ? 0 : topLevelIdentity.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SBOLDocumentChange other = (SBOLDocumentChange) obj;
+		if (type != other.type)
+			return false;
+		if (identity == null) {
+			if (other.identity != null)
+				return false;
+		} else if (!identity.equals(other.identity))
+			return false;
+		if (topLevelIdentity == null) {
+			if (other.topLevelIdentity != null)
+				return false;
+		} else if (!topLevelIdentity.equals(other.topLevelIdentity))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "SBOLDocumentChange [type=" + type + ", identity=" + identity + ", topLevelIdentity="
+				+ topLevelIdentity + "]";
+	}
+}
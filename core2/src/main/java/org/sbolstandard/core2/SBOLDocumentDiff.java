@@ -0,0 +1,487 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.namespace.QName;
+
+import org.sbolstandard.core.datatree.IdentifiableDocument;
+import org.sbolstandard.core.datatree.Literal;
+import org.sbolstandard.core.datatree.NamedProperty;
+import org.sbolstandard.core.datatree.NestedDocument;
+import org.sbolstandard.core.datatree.PropertyValue;
+
+/**
+ * Represents the structural differences between two SBOL documents, created by
+ * {@link SBOLDocument#diff(SBOLDocument)}.
+ * <p>
+ * Top-levels, and the child objects within them, are matched by their identity URIs. Each object is
+ * reduced to its type and the values of its properties, as they are serialized, and the properties of
+ * each child object refer to it by its identity rather than holding it. The cached content digests of
+ * the top-levels are compared first, so that unchanged top-levels are not flattened at all. A digest of
+ * the properties of every remaining object, and of every top-level together with its children, is then
+ * compared, so that only the objects whose digests differ are compared property by property.
+ * <p>
+ * A diff records a copy of every top-level that was added or modified, and can be applied as a patch to
+ * any document holding the same versions of the removed and modified top-levels as the document it was
+ * compared from, with {@link #apply(SBOLDocument)}.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLDocumentDiff {
+
+	/**
+	 * The kinds of change made to an object.
+	 */
+	public enum ChangeType {
+		/**
+		 * The object is only in the second document.
+		 */
+		ADDED,
+		/**
+		 * The object is only in the first document.
+		 */
+		REMOVED,
+		/**
+		 * The object is in both documents, with different property values.
+		 */
+		MODIFIED
+	}
+
+	/**
+	 * Represents the values of a single property that were removed and added by a change.
+	 */
+	public static final class PropertyChange {
+
+		private final URI property;
+		private final List<String> removedValues;
+		private final List<String> addedValues;
+
+		PropertyChange(URI property, List<String> removedValues, List<String> addedValues) {
+			this.property = property;
+			this.removedValues = Collections.unmodifiableList(removedValues);
+			this.addedValues = Collections.unmodifiableList(addedValues);
+		}
+
+		/**
+		 * Returns the URI of the changed property.
+		 *
+		 * @return the URI of the changed property
+		 */
+		public URI getProperty() {
+			return property;
+		}
+
+		/**
+		 * Returns the values of the changed property that are only in the first document, in sorted
+		 * order. Values that are child objects are given as their identity URIs.
+		 *
+		 * @return the removed values of the changed property
+		 */
+		public List<String> getRemovedValues() {
+			return removedValues;
+		}
+
+		/**
+		 * Returns the values of the changed property that are only in the second document, in sorted
+		 * order. Values that are child objects are given as their identity URIs.
+		 *
+		 * @return the added values of the changed property
+		 */
+		public List<String> getAddedValues() {
+			return addedValues;
+		}
+
+		@Override
+		public String toString() {
+			return property + " -" + removedValues + " +" + addedValues;
+		}
+	}
+
+	/**
+	 * Represents a change to a single top-level or child object.
+	 */
+	public static final class Change {
+
+		private final URI identity;
+		private final URI topLevel;
+		private final URI type;
+		private final ChangeType changeType;
+		private final List<PropertyChange> propertyChanges;
+
+		Change(URI identity, URI topLevel, URI type, ChangeType changeType, List<PropertyChange> propertyChanges) {
+			this.identity = identity;
+			this.topLevel = topLevel;
+			this.type = type;
+			this.changeType = changeType;
+			this.propertyChanges = Collections.unmodifiableList(propertyChanges);
+		}
+
+		/**
+		 * Returns the identity URI of the changed object.
+		 *
+		 * @return the identity URI of the changed object
+		 */
+		public URI getIdentity() {
+			return identity;
+		}
+
+		/**
+		 * Returns the identity URI of the top-level containing the changed object, which is its own
+		 * identity URI if it is a top-level.
+		 *
+		 * @return the identity URI of the top-level containing the changed object
+		 */
+		public URI getTopLevel() {
+			return topLevel;
+		}
+
+		/**
+		 * Returns the URI of the SBOL class of the changed object, such as
+		 * {@code http://sbols.org/v2#Range}.
+		 *
+		 * @return the URI of the SBOL class of the changed object
+		 */
+		public URI getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the kind of this change.
+		 *
+		 * @return the kind of this change
+		 */
+		public ChangeType getChangeType() {
+			return changeType;
+		}
+
+		/**
+		 * Returns the changes to the properties of the changed object, ordered by property URI. An added
+		 * object has all of its values added, and a removed object has all of its values removed.
+		 *
+		 * @return the changes to the properties of the changed object
+		 */
+		public List<PropertyChange> getPropertyChanges() {
+			return propertyChanges;
+		}
+
+		@Override
+		public String toString() {
+			return changeType + " " + identity + " " + propertyChanges;
+		}
+	}
+
+	/**
+	 * The type and sorted property values of a single object, and their digest.
+	 */
+	private static final class Content {
+
+		private final URI type;
+		private final TreeMap<URI, List<String>> properties = new TreeMap<>();
+		private byte[] digest;
+
+		Content(URI type) {
+			this.type = type;
+		}
+	}
+
+	private final List<Change> changes = new ArrayList<>();
+	private final Set<URI> addedTopLevels = new LinkedHashSet<>();
+	private final Set<URI> removedTopLevels = new LinkedHashSet<>();
+	private final Set<URI> modifiedTopLevels = new LinkedHashSet<>();
+	private final Map<URI, byte[]> baseDigests = new HashMap<>();
+	private final List<TopLevel> replacements = new ArrayList<>();
+
+	/**
+	 * @param from
+	 *            the document compared from
+	 * @param to
+	 *            the document compared to
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while copying an added or modified
+	 *             top-level
+	 */
+	SBOLDocumentDiff(SBOLDocument from, SBOLDocument to) throws SBOLValidationException {
+		MessageDigest messageDigest = createMessageDigest();
+		Map<URI, TopLevel> fromTopLevels = getTopLevelsByIdentity(from);
+		Map<URI, TopLevel> toTopLevels = getTopLevelsByIdentity(to);
+		for (URI identity : sorted(fromTopLevels.keySet())) {
+			TopLevel fromTopLevel = fromTopLevels.get(identity);
+			TopLevel toTopLevel = toTopLevels.get(identity);
+			if (toTopLevel != null && Arrays.equals(fromTopLevel.digest(), toTopLevel.digest())) {
+				continue;
+			}
+			Map<URI, Content> fromContents = flatten(fromTopLevel, messageDigest);
+			if (toTopLevel == null) {
+				removedTopLevels.add(identity);
+				baseDigests.put(identity, fromTopLevel.digest());
+				addChanges(identity, fromContents, Collections.<URI, Content>emptyMap());
+				continue;
+			}
+			Map<URI, Content> toContents = flatten(toTopLevel, messageDigest);
+			if (Arrays.equals(digest(fromContents, messageDigest), digest(toContents, messageDigest))) {
+				continue;
+			}
+			modifiedTopLevels.add(identity);
+			baseDigests.put(identity, fromTopLevel.digest());
+			replacements.add((TopLevel) toTopLevel.deepCopy());
+			addChanges(identity, fromContents, toContents);
+		}
+		for (URI identity : sorted(toTopLevels.keySet())) {
+			if (fromTopLevels.containsKey(identity)) {
+				continue;
+			}
+			TopLevel toTopLevel = toTopLevels.get(identity);
+			addedTopLevels.add(identity);
+			replacements.add((TopLevel) toTopLevel.deepCopy());
+			addChanges(identity, Collections.<URI, Content>emptyMap(), flatten(toTopLevel, messageDigest));
+		}
+	}
+
+	/**
+	 * Returns the changes to objects, grouped by top-level: first those of removed and modified
+	 * top-levels in the order of their identity URIs, and then those of added top-levels. The changes
+	 * within each top-level are ordered by the identity URIs of the changed objects.
+	 *
+	 * @return the changes to objects
+	 */
+	public List<Change> getChanges() {
+		return Collections.unmodifiableList(changes);
+	}
+
+	/**
+	 * Returns the identity URIs of the top-levels that are only in the second document.
+	 *
+	 * @return the identity URIs of the added top-levels
+	 */
+	public Set<URI> getAddedTopLevels() {
+		return Collections.unmodifiableSet(addedTopLevels);
+	}
+
+	/**
+	 * Returns the identity URIs of the top-levels that are only in the first document.
+	 *
+	 * @return the identity URIs of the removed top-levels
+	 */
+	public Set<URI> getRemovedTopLevels() {
+		return Collections.unmodifiableSet(removedTopLevels);
+	}
+
+	/**
+	 * Returns the identity URIs of the top-levels that are in both documents, with a difference in
+	 * themselves or in any of their child objects.
+	 *
+	 * @return the identity URIs of the modified top-levels
+	 */
+	public Set<URI> getModifiedTopLevels() {
+		return Collections.unmodifiableSet(modifiedTopLevels);
+	}
+
+	/**
+	 * Returns {@code true} if the two compared documents hold the same top-levels with the same content.
+	 *
+	 * @return {@code true} if there are no changes, {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * Applies this diff to the given SBOL document, removing the removed top-levels, replacing the
+	 * modified top-levels with copies of their versions in the second document, and adding copies of the
+	 * added top-levels. References to removed top-levels are not checked.
+	 *
+	 * @param document
+	 *            the document to be patched
+	 * @throws IllegalArgumentException
+	 *             if the given document lacks a removed or modified top-level, holds one with content
+	 *             different from that in the first document, or already holds an added top-level, in
+	 *             which case the document is left unchanged
+	 * @throws SBOLValidationException
+	 *             if an SBOL validation rule violation occurred while adding a top-level
+	 */
+	public void apply(SBOLDocument document) throws SBOLValidationException {
+		for (Map.Entry<URI, byte[]> entry : baseDigests.entrySet()) {
+			TopLevel topLevel = document.getTopLevel(entry.getKey());
+			if (topLevel == null || !topLevel.getIdentity().equals(entry.getKey())) {
+				throw new IllegalArgumentException("Top-level " + entry.getKey() + " is not in the document.");
+			}
+			if (!Arrays.equals(entry.getValue(), topLevel.digest())) {
+				throw new IllegalArgumentException(
+						"Top-level " + entry.getKey() + " differs from the one this diff was computed from.");
+			}
+		}
+		for (URI identity : addedTopLevels) {
+			TopLevel topLevel = document.getTopLevel(identity);
+			if (topLevel != null && topLevel.getIdentity().equals(identity)) {
+				throw new IllegalArgumentException("Top-level " + identity + " is already in the document.");
+			}
+		}
+		document.replaceTopLevels(baseDigests.keySet(), replacements);
+	}
+
+	@Override
+	public String toString() {
+		return "SBOLDocumentDiff [added=" + addedTopLevels + ", removed=" + removedTopLevels + ", modified="
+				+ modifiedTopLevels + "]";
+	}
+
+	private void addChanges(URI topLevel, Map<URI, Content> fromContents, Map<URI, Content> toContents) {
+		Set<URI> identities = new LinkedHashSet<>(fromContents.keySet());
+		identities.addAll(toContents.keySet());
+		for (URI identity : sorted(identities)) {
+			Content fromContent = fromContents.get(identity);
+			Content toContent = toContents.get(identity);
+			if (fromContent == null) {
+				changes.add(new Change(identity, topLevel, toContent.type, ChangeType.ADDED,
+						getPropertyChanges(new Content(toContent.type), toContent)));
+			} else if (toContent == null) {
+				changes.add(new Change(identity, topLevel, fromContent.type, ChangeType.REMOVED,
+						getPropertyChanges(fromContent, new Content(fromContent.type))));
+			} else if (!Arrays.equals(fromContent.digest, toContent.digest)) {
+				changes.add(new Change(identity, topLevel, toContent.type, ChangeType.MODIFIED,
+						getPropertyChanges(fromContent, toContent)));
+			}
+		}
+	}
+
+	private static List<PropertyChange> getPropertyChanges(Content fromContent, Content toContent) {
+		TreeMap<URI, List<String>> properties = new TreeMap<>(fromContent.properties);
+		properties.putAll(toContent.properties);
+		List<PropertyChange> propertyChanges = new ArrayList<>();
+		for (URI property : properties.keySet()) {
+			List<String> fromValues = fromContent.properties.get(property);
+			List<String> toValues = toContent.properties.get(property);
+			if (fromValues == null) {
+				fromValues = Collections.emptyList();
+			}
+			if (toValues == null) {
+				toValues = Collections.emptyList();
+			}
+			if (fromValues.equals(toValues)) {
+				continue;
+			}
+			// Both lists are sorted, so the values only in one of them are found by merging.
+			List<String> removedValues = new ArrayList<>();
+			List<String> addedValues = new ArrayList<>();
+			int i = 0;
+			int j = 0;
+			while (i < fromValues.size() || j < toValues.size()) {
+				int comparison = i == fromValues.size() ? 1
+						: j == toValues.size() ? -1 : fromValues.get(i).compareTo(toValues.get(j));
+				if (comparison < 0) {
+					removedValues.add(fromValues.get(i++));
+				} else if (comparison > 0) {
+					addedValues.add(toValues.get(j++));
+				} else {
+					i++;
+					j++;
+				}
+			}
+			propertyChanges.add(new PropertyChange(property, removedValues, addedValues));
+		}
+		return propertyChanges;
+	}
+
+	private static Map<URI, TopLevel> getTopLevelsByIdentity(SBOLDocument document) {
+		Map<URI, TopLevel> topLevels = new HashMap<>();
+		for (TopLevel topLevel : document.getTopLevels()) {
+			topLevels.put(topLevel.getIdentity(), topLevel);
+		}
+		return topLevels;
+	}
+
+	/**
+	 * Returns the content of the given top-level and of each of its child objects, by identity.
+	 */
+	private static Map<URI, Content> flatten(TopLevel topLevel, MessageDigest messageDigest) {
+		Map<URI, Content> contents = new HashMap<>();
+		flatten(SBOLWriter.getTopLevelDocument(topLevel), contents, messageDigest);
+		return contents;
+	}
+
+	private static void flatten(IdentifiableDocument<QName> document, Map<URI, Content> contents,
+			MessageDigest messageDigest) {
+		Content content = new Content(toURI(document.getType()));
+		for (NamedProperty<QName> namedProperty : document.getProperties()) {
+			URI property = toURI(namedProperty.getName());
+			List<String> values = content.properties.get(property);
+			if (values == null) {
+				values = new ArrayList<>();
+				content.properties.put(property, values);
+			}
+			PropertyValue<QName> value = namedProperty.getValue();
+			if (value instanceof NestedDocument) {
+				NestedDocument<QName> nested = (NestedDocument<QName>) value;
+				values.add(nested.getIdentity().toString());
+				flatten(nested, contents, messageDigest);
+			} else if (value instanceof Literal) {
+				values.add(String.valueOf(((Literal<QName>) value).getValue()));
+			} else {
+				values.add(String.valueOf(value));
+			}
+		}
+		update(messageDigest, content.type.toString());
+		for (Map.Entry<URI, List<String>> entry : content.properties.entrySet()) {
+			Collections.sort(entry.getValue());
+			update(messageDigest, entry.getKey().toString());
+			messageDigest.update(toBytes(entry.getValue().size()));
+			for (String value : entry.getValue()) {
+				update(messageDigest, value);
+			}
+		}
+		content.digest = messageDigest.digest();
+		contents.put(document.getIdentity(), content);
+	}
+
+	/**
+	 * Returns the digest of a top-level together with its child objects.
+	 */
+	private static byte[] digest(Map<URI, Content> contents, MessageDigest messageDigest) {
+		for (URI identity : sorted(contents.keySet())) {
+			update(messageDigest, identity.toString());
+			messageDigest.update(contents.get(identity).digest);
+		}
+		return messageDigest.digest();
+	}
+
+	private static void update(MessageDigest messageDigest, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		messageDigest.update(toBytes(bytes.length));
+		messageDigest.update(bytes);
+	}
+
+	private static byte[] toBytes(int value) {
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+	private static URI toURI(QName name) {
+		return URI.create(name.getNamespaceURI() + name.getLocalPart());
+	}
+
+	private static List<URI> sorted(Set<URI> identities) {
+		List<URI> sorted = new ArrayList<>(identities);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
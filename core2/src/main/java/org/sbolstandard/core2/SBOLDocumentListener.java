@@ -0,0 +1,28 @@
+package org.sbolstandard.core2;
+
+import java.util.List;
+
+/**
+ * Listens for changes made to an SBOL document, registered with
+ * {@link SBOLDocument#addDocumentListener(SBOLDocumentListener)}.
+ *
+ * @version 2.1
+ */
+
+public interface SBOLDocumentListener {
+
+	/**
+	 * Called after changes were made to the given document, on the thread that made them: after each change,
+	 * or once for all the changes made within the outermost {@link SBOLDocument#beginChangeBatch()} and
+	 * {@link SBOLDocument#endChangeBatch()}, coalesced so that each distinct change is listed once, at the
+	 * position of its last occurrence. Changes made while the thread holds the write lock of a concurrent
+	 * document are held back until it releases the lock, so other threads may read the document while a
+	 * listener is called.
+	 * <p>
+	 * A listener must not modify the document it listens to while it is called.
+	 *
+	 * @param document the document that was changed
+	 * @param changes the changes, in the order they were made
+	 */
+	void documentChanged(SBOLDocument document, List<SBOLDocumentChange> changes);
+}
@@ -0,0 +1,200 @@
+package org.sbolstandard.core2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents an immutable snapshot of the top-levels of an SBOL document, created by
+ * {@link SBOLDocument#snapshot()}.
+ * <p>
+ * A snapshot never changes after it has been created, so it may be read by any number of threads
+ * without locking. Taking a snapshot copies only the top-levels changed since the last snapshot of the
+ * same document, and shares the others with it. The top-levels of a snapshot are never handed out:
+ * {@link #getTopLevel(URI)} and {@link #getTopLevels()} return copies of them, and documents created
+ * from it with {@link #createDocument()} reach them only to copy them.
+ * <p>
+ * A created document is copy-on-access rather than copy-on-write: it initially shares all top-levels
+ * with the snapshot, and copies a top-level into itself when it is first looked up through it, whether
+ * or not it is then modified. Operations that list top-levels, such as
+ * {@link SBOLDocument#getComponentDefinitions()}, {@link SBOLDocument#getTopLevels()}, validation,
+ * serialization and renaming, copy all top-levels of the types they list. Creating such a document
+ * therefore takes constant time, and only documents that are looked up sparingly save the cost of a
+ * full copy. Edits made to a created document never affect the snapshot or other documents created
+ * from it.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLDocumentSnapshot {
+
+	private final SBOLDocument document;
+	private final Map<URI, List<TopLevel>> versions;
+	private final List<TopLevel> topLevels;
+	private final Map<URI, Set<URI>> references;
+
+	/**
+	 * @param document
+	 *            the private document holding the top-levels of this snapshot, which must not be
+	 *            modified once this snapshot has been created
+	 * @param references
+	 *            the URIs each top-level of this snapshot refers to, keyed by its identity
+	 */
+	SBOLDocumentSnapshot(SBOLDocument document, Map<URI, Set<URI>> references) {
+		this.document = document;
+		this.references = references;
+		this.versions = new HashMap<>();
+		this.topLevels = new ArrayList<>(document.getTopLevels());
+		for (TopLevel topLevel : topLevels) {
+			URI key = topLevel.isSetPersistentIdentity() ? topLevel.getPersistentIdentity() : topLevel.getIdentity();
+			List<TopLevel> sameIdentity = versions.get(key);
+			if (sameIdentity == null) {
+				sameIdentity = new ArrayList<>();
+				versions.put(key, sameIdentity);
+			}
+			sameIdentity.add(topLevel);
+		}
+	}
+
+	SBOLDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * Returns all versions of the given top-level held by this snapshot, including the given one.
+	 */
+	List<TopLevel> getVersions(TopLevel topLevel) {
+		URI key = topLevel.isSetPersistentIdentity() ? topLevel.getPersistentIdentity() : topLevel.getIdentity();
+		List<TopLevel> sameIdentity = versions.get(key);
+		if (sameIdentity == null) {
+			return Collections.singletonList(topLevel);
+		}
+		return sameIdentity;
+	}
+
+	List<TopLevel> getTopLevelList() {
+		return topLevels;
+	}
+
+	/**
+	 * Returns the URIs the top-level of this snapshot with the given identity refers to, as found by
+	 * {@link SBOLDocument#getReferences(TopLevel)} when it was frozen.
+	 */
+	Set<URI> getReferences(URI identity) {
+		Set<URI> topLevelReferences = references.get(identity);
+		if (topLevelReferences == null) {
+			return Collections.emptySet();
+		}
+		return topLevelReferences;
+	}
+
+	/**
+	 * Creates a new SBOL document holding the top-levels of this snapshot.
+	 * <p>
+	 * The created document has the namespaces, default URI prefix and settings of the document this
+	 * snapshot was taken from. It initially shares all top-levels with this snapshot, and copies a
+	 * top-level, together with its other versions, when it is first looked up, listed or replaced in
+	 * the created document.
+	 *
+	 * @return the created SBOL document
+	 */
+	public SBOLDocument createDocument() {
+		return createDocument(false);
+	}
+
+	/**
+	 * Creates a new SBOL document holding the top-levels of this snapshot, as
+	 * {@link #createDocument()} does, in concurrent mode if so requested. In a concurrent document, the
+	 * lookups and listings that copy top-levels from this snapshot take the write lock of the document
+	 * while they copy them, as described in {@link SBOLDocument#SBOLDocument(boolean)}.
+	 *
+	 * @param concurrent
+	 *            {@code true} if the created document is to be shared by several threads,
+	 *            {@code false} otherwise
+	 * @return the created SBOL document
+	 * @see SBOLDocument#SBOLDocument(boolean)
+	 */
+	public SBOLDocument createDocument(boolean concurrent) {
+		SBOLDocument created = new SBOLDocument(concurrent);
+		created.setBase(this);
+		return created;
+	}
+
+	/**
+	 * Returns the top-level held by this snapshot matching the given identity or persistent identity URI,
+	 * without copying it. It must not be modified.
+	 */
+	TopLevel getFrozenTopLevel(URI topLevelURI) {
+		return document.getTopLevelLocalOnly(topLevelURI);
+	}
+
+	/**
+	 * Returns a copy of the top-level matching the given identity or persistent identity URI in this
+	 * snapshot. The copy does not belong to any document, so it may be modified without affecting this
+	 * snapshot, but the objects it refers to cannot be looked up through it; a document created with
+	 * {@link #createDocument()} should be used for that.
+	 *
+	 * @param topLevelURI
+	 *            the identity URI of the top-level to be retrieved
+	 * @return a copy of the matching top-level if present, or {@code null} otherwise
+	 */
+	public TopLevel getTopLevel(URI topLevelURI) {
+		TopLevel topLevel = getFrozenTopLevel(topLevelURI);
+		return topLevel == null ? null : copy(topLevel);
+	}
+
+	/**
+	 * Returns copies of all top-levels in this snapshot, which do not belong to any document, as
+	 * described for {@link #getTopLevel(URI)}.
+	 *
+	 * @return the set of copies of all top-levels in this snapshot
+	 */
+	public Set<TopLevel> getTopLevels() {
+		Set<TopLevel> copies = new HashSet<>();
+		for (TopLevel topLevel : topLevels) {
+			copies.add(copy(topLevel));
+		}
+		return copies;
+	}
+
+	private static TopLevel copy(TopLevel topLevel) {
+		try {
+			return (TopLevel) topLevel.deepCopy();
+		} catch (SBOLValidationException e) {
+			throw new IllegalStateException("Unable to copy " + topLevel.getIdentity() + " from snapshot", e);
+		}
+	}
+
+	/**
+	 * Returns the number of top-levels in this snapshot.
+	 *
+	 * @return the number of top-levels in this snapshot
+	 */
+	public int size() {
+		return topLevels.size();
+	}
+
+	/**
+	 * Outputs this snapshot's data from the serialization in the given serialization format to the
+	 * given output stream.
+	 *
+	 * @param out
+	 *            the given output stream
+	 * @param fileType
+	 *            the serialization format
+	 * @throws SBOLConversionException
+	 *             see {@link SBOLConversionException}
+	 * @throws IOException
+	 *             see {@link IOException}
+	 */
+	public void write(OutputStream out, String fileType) throws SBOLConversionException, IOException {
+		SBOLWriter.write(document, out, fileType);
+	}
+}
@@ -0,0 +1,308 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Validates an SBOL document again and again as it is edited, checking each time only the top-levels
+ * whose issues the edits since the last validation may have changed.
+ * <p>
+ * An incremental validator listens to the changes made to its document, and keeps the issues found in
+ * each top-level by each group of validation rules. The first validation checks the whole document.
+ * Each later one checks again the top-levels that were added or changed, and those whose issues
+ * depend on them: the top-levels referring to them, directly or through other top-levels, by identity
+ * or by the persistent identity that refers to the latest of their versions, for the rules that follow
+ * references, such as the completeness, circular reference and MapsTo rules, and the top-levels with
+ * objects sharing an identity or persistent identity with theirs, for the uniqueness rules. The issues
+ * of all the other top-levels are reused, so the cost of a validation after an edit depends on the
+ * number of top-levels it affects, not on the size of the document.
+ * <p>
+ * Each validation reports the same issues, in the same order, as
+ * {@link SBOLValidator#validate(SBOLDocument)} would for the document as it is, provided that the
+ * document is only changed through its methods and those of its objects, which tell its listeners about
+ * the changes. The document must not be changed while it is validated, and an incremental validator
+ * should be closed once it is no longer needed, so that it stops listening to the document.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLIncrementalValidator implements AutoCloseable {
+
+	private final SBOLDocument sbolDocument;
+	private final SBOLValidator validator;
+	private final List<SBOLValidate.RuleGroup> ruleGroups;
+	private final SBOLDocumentListener listener;
+
+	/**
+	 * The identities of the top-levels changed since the last validation, guarded by itself so that
+	 * recording changes never waits for a validation.
+	 */
+	private final Set<URI> changed = new HashSet<>();
+
+	private boolean validated;
+	private boolean closed;
+	private final Map<URI, Set<URI>> references = new HashMap<>();
+	private final Map<URI, Set<URI>> referrers = new HashMap<>();
+	private final Map<URI, URI> persistentIdentities = new HashMap<>();
+	private final SBOLValidate.IdentityIndex identityIndex = new SBOLValidate.IdentityIndex();
+	private final List<SortedMap<URI, SBOLValidationReport>> results = new ArrayList<>();
+
+	/**
+	 * Creates an incremental validator of the given SBOL document, which checks the rules that the given
+	 * validator checks, in parallel if the given validator is parallel.
+	 *
+	 * @param sbolDocument
+	 *            the SBOL document to be validated
+	 * @param validator
+	 *            the validator whose options are to be used
+	 * @throws IllegalArgumentException
+	 *             if the given document or validator is {@code null}
+	 */
+	public SBOLIncrementalValidator(SBOLDocument sbolDocument, SBOLValidator validator) {
+		if (sbolDocument == null) {
+			throw new IllegalArgumentException("The SBOL document must not be null.");
+		}
+		if (validator == null) {
+			throw new IllegalArgumentException("The validator must not be null.");
+		}
+		this.sbolDocument = sbolDocument;
+		this.validator = validator;
+		this.ruleGroups = SBOLValidate.getRuleGroups(validator.isComplete(), validator.isCompliant(),
+				validator.isBestPractice());
+		for (int i = 0; i < ruleGroups.size(); i++) {
+			results.add(new TreeMap<URI, SBOLValidationReport>());
+		}
+		this.listener = new SBOLDocumentListener() {
+			@Override
+			public void documentChanged(SBOLDocument document, List<SBOLDocumentChange> changes) {
+				synchronized (changed) {
+					for (SBOLDocumentChange change : changes) {
+						if (change.getTopLevelIdentity() != null) {
+							changed.add(change.getTopLevelIdentity());
+						}
+					}
+				}
+			}
+		};
+		sbolDocument.addDocumentListener(listener);
+	}
+
+	/**
+	 * Returns the SBOL document validated by this incremental validator.
+	 *
+	 * @return the SBOL document validated by this incremental validator
+	 */
+	public SBOLDocument getDocument() {
+		return sbolDocument;
+	}
+
+	/**
+	 * Returns the validator whose options this incremental validator uses.
+	 *
+	 * @return the validator whose options this incremental validator uses
+	 */
+	public SBOLValidator getValidator() {
+		return validator;
+	}
+
+	/**
+	 * Validates the SBOL document of this incremental validator, checking only the top-levels affected
+	 * by the changes made to it since the last validation.
+	 *
+	 * @return a report of the issues found in the document
+	 * @throws IllegalStateException
+	 *             if this incremental validator was closed
+	 */
+	public synchronized SBOLValidationReport validate() {
+		if (closed) {
+			throw new IllegalStateException("The incremental validator was closed.");
+		}
+		Set<URI> changedTopLevels;
+		synchronized (changed) {
+			changedTopLevels = new HashSet<>(changed);
+			changed.clear();
+		}
+		if (!validated) {
+			validateAll();
+			validated = true;
+		} else if (!changedTopLevels.isEmpty()) {
+			validateChanged(changedTopLevels);
+		}
+		SBOLValidationReport report = new SBOLValidationReport();
+		for (SortedMap<URI, SBOLValidationReport> groupResults : results) {
+			for (SBOLValidationReport topLevelReport : groupResults.values()) {
+				report.addAll(topLevelReport);
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Stops this incremental validator from listening to the changes made to its document, and drops
+	 * the issues it keeps.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		sbolDocument.removeDocumentListener(listener);
+		references.clear();
+		referrers.clear();
+		persistentIdentities.clear();
+		results.clear();
+	}
+
+	private void validateAll() {
+		List<TopLevel> topLevels = SBOLValidate.getSortedTopLevels(sbolDocument);
+		for (TopLevel topLevel : topLevels) {
+			index(topLevel);
+		}
+		List<SBOLValidate.RuleTask> tasks = new ArrayList<>();
+		for (SBOLValidate.RuleGroup ruleGroup : ruleGroups) {
+			tasks.addAll(SBOLValidate.createTasks(sbolDocument, ruleGroup, topLevels, identityIndex));
+		}
+		runTasks(tasks);
+	}
+
+	private void validateChanged(Set<URI> changedTopLevels) {
+		// The top-levels sharing identities with a changed top-level before and after the change.
+		Set<URI> sharing = new HashSet<>(changedTopLevels);
+		// The identities and persistent identities of the changed top-levels before and after the change.
+		// The persistent identity of a top-level refers to the latest version sharing it, so adding,
+		// changing or removing any version may change what the references to it resolve to.
+		ArrayDeque<URI> queue = new ArrayDeque<>(changedTopLevels);
+		for (URI changedTopLevel : changedTopLevels) {
+			identityIndex.collectSharingTopLevels(changedTopLevel, sharing);
+			URI persistentIdentity = persistentIdentities.get(changedTopLevel);
+			if (persistentIdentity != null) {
+				queue.add(persistentIdentity);
+			}
+			unindex(changedTopLevel);
+			TopLevel topLevel = sbolDocument.getTopLevelLocalOnly(changedTopLevel);
+			if (topLevel != null) {
+				index(topLevel);
+				identityIndex.collectSharingTopLevels(changedTopLevel, sharing);
+				if (topLevel.getPersistentIdentity() != null) {
+					queue.add(topLevel.getPersistentIdentity());
+				}
+			}
+		}
+		// The top-levels referring to a changed top-level, directly or through other top-levels, by
+		// identity or by persistent identity.
+		Set<URI> referring = new HashSet<>(changedTopLevels);
+		while (!queue.isEmpty()) {
+			Set<URI> topLevelReferrers = referrers.get(queue.poll());
+			if (topLevelReferrers == null) {
+				continue;
+			}
+			for (URI referrer : topLevelReferrers) {
+				if (referring.add(referrer)) {
+					queue.add(referrer);
+					URI persistentIdentity = persistentIdentities.get(referrer);
+					if (persistentIdentity != null) {
+						queue.add(persistentIdentity);
+					}
+				}
+			}
+		}
+		List<SBOLValidate.RuleTask> tasks = new ArrayList<>();
+		for (int i = 0; i < ruleGroups.size(); i++) {
+			SBOLValidate.RuleGroup ruleGroup = ruleGroups.get(i);
+			Set<URI> affected;
+			switch (ruleGroup.getDependency()) {
+			case REFERENCES:
+				affected = referring;
+				break;
+			case IDENTITIES:
+				affected = sharing;
+				break;
+			default:
+				affected = changedTopLevels;
+				break;
+			}
+			SortedMap<URI, SBOLValidationReport> groupResults = results.get(i);
+			for (URI topLevel : affected) {
+				groupResults.remove(topLevel);
+			}
+			tasks.addAll(SBOLValidate.createTasks(sbolDocument, ruleGroup, getSortedTopLevels(affected),
+					identityIndex));
+		}
+		runTasks(tasks);
+	}
+
+	private void runTasks(List<SBOLValidate.RuleTask> tasks) {
+		SBOLValidate.runTasks(sbolDocument, tasks, validator.isParallel());
+		for (SBOLValidate.RuleTask task : tasks) {
+			results.get(ruleGroups.indexOf(task.getRuleGroup())).putAll(task.getReports());
+		}
+	}
+
+	/**
+	 * Returns the top-levels of the document with the given identities, in the order of their identities.
+	 */
+	private List<TopLevel> getSortedTopLevels(Set<URI> identities) {
+		List<URI> sortedIdentities = new ArrayList<>(identities);
+		Collections.sort(sortedIdentities);
+		List<TopLevel> topLevels = new ArrayList<>();
+		for (URI identity : sortedIdentities) {
+			TopLevel topLevel = sbolDocument.getTopLevelLocalOnly(identity);
+			if (topLevel != null) {
+				topLevels.add(topLevel);
+			}
+		}
+		return topLevels;
+	}
+
+	/**
+	 * Records the persistent identity, the references and the objects of the given top-level.
+	 */
+	private void index(TopLevel topLevel) {
+		if (topLevel.getPersistentIdentity() != null) {
+			persistentIdentities.put(topLevel.getIdentity(), topLevel.getPersistentIdentity());
+		}
+		Set<URI> topLevelReferences = SBOLDocument.getReferences(topLevel);
+		references.put(topLevel.getIdentity(), topLevelReferences);
+		for (URI reference : topLevelReferences) {
+			Set<URI> referenceReferrers = referrers.get(reference);
+			if (referenceReferrers == null) {
+				referenceReferrers = new HashSet<>();
+				referrers.put(reference, referenceReferrers);
+			}
+			referenceReferrers.add(topLevel.getIdentity());
+		}
+		identityIndex.add(topLevel);
+	}
+
+	/**
+	 * Forgets the persistent identity, the references and the objects of the top-level with the given
+	 * identity.
+	 */
+	private void unindex(URI topLevelIdentity) {
+		persistentIdentities.remove(topLevelIdentity);
+		Set<URI> topLevelReferences = references.remove(topLevelIdentity);
+		if (topLevelReferences != null) {
+			for (URI reference : topLevelReferences) {
+				Set<URI> referenceReferrers = referrers.get(reference);
+				if (referenceReferrers != null) {
+					referenceReferrers.remove(topLevelIdentity);
+					if (referenceReferrers.isEmpty()) {
+						referrers.remove(reference);
+					}
+				}
+			}
+		}
+		identityIndex.remove(topLevelIdentity);
+	}
+
+}
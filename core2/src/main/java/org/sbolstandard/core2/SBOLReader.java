@@ -169,6 +169,7 @@ public class SBOLReader
 	private static boolean dropObjectsWithDuplicateURIs = false;
 	private static boolean compliant = true;
 	private static URI defaultSequenceEncoding = Sequence.IUPAC_DNA;
+	private static boolean mapSequences = false;
 
 	/**
 	 * Check if document is to be read as being compliant.
@@ -274,6 +275,32 @@ public class SBOLReader
 		SBOLReader.defaultSequenceEncoding = defaultSequenceEncoding;
 	}
 
+	/**
+	 * Check if the elements of sequences read from FASTA or GenBank are to be held in memory-mapped
+	 * files.
+	 *
+	 * @return {@code true} if sequence elements are to be mapped, {@code false} otherwise
+	 */
+	public static boolean isMapSequences() {
+		return mapSequences;
+	}
+
+	/**
+	 * Sets the mapSequences flag to the given value.
+	 * <p>
+	 * A {@code true} value means that FASTA and GenBank input is read a line at a time, and the
+	 * elements of each sequence are written to a temporary file that is then memory-mapped, so that
+	 * very large sequences are read and held without being loaded onto the heap. Such sequences are
+	 * read through {@link Sequence#getElements(int, int)} and {@link Sequence#getElementsLength()}
+	 * without being decoded in full. A {@code false} value means that sequence elements are held as
+	 * strings.
+	 *
+	 * @param mapSequences the boolean value for the mapSequences flag
+	 */
+	public static void setMapSequences(boolean mapSequences) {
+		SBOLReader.mapSequences = mapSequences;
+	}
+
 	/**
 	 * @param document
 	 * @return
@@ -601,6 +628,12 @@ public class SBOLReader
 	static void read(SBOLDocument SBOLDoc,InputStream in,String fileType) throws SBOLValidationException, IOException, SBOLConversionException
 	{
 		compliant = SBOLDoc.isCompliant();
+		if (mapSequences) {
+			in = new BufferedInputStream(in);
+			if (readSequences(SBOLDoc,(BufferedInputStream)in)) {
+				return;
+			}
+		}
 		Scanner scanner = new Scanner(in, "UTF-8");
 		String inputStreamString;
 		try {
@@ -672,13 +705,65 @@ public class SBOLReader
 
 		readTopLevelDocs(SBOLDoc, document);
 		scanner.close();
-		SBOLValidate.clearErrors();
-		SBOLValidate.validateCompliance(SBOLDoc);
-		if (SBOLValidate.getNumErrors()>0) {
+		SBOLValidationReport report = new SBOLValidationReport();
+		SBOLValidate.validateCompliance(SBOLDoc, report);
+		if (!report.isEmpty()) {
 			SBOLDoc.setCompliant(false);
 		}
 	}
 
+	/**
+	 * Reads the given stream a line at a time if it starts as FASTA or GenBank does, without loading
+	 * the whole stream into memory, so that sequence elements go straight to their mapped files.
+	 *
+	 * @param SBOLDoc the SBOL document to read into
+	 * @param in the given input stream, which is reset to its start if it is not FASTA or GenBank
+	 * @return {@code true} if the stream was read, {@code false} if it is not FASTA or GenBank
+	 * @throws SBOLValidationException if an SBOL validation rule violation occurred in
+	 * {@link FASTA#read(SBOLDocument, BufferedReader, String, String, URI)} or
+	 * {@link GenBank#read(SBOLDocument, BufferedReader, String, String)}.
+	 * @throws SBOLConversionException if no URI prefix has been provided
+	 * @throws IOException see {@link IOException}
+	 */
+	private static boolean readSequences(SBOLDocument SBOLDoc,BufferedInputStream in) throws SBOLValidationException, IOException, SBOLConversionException
+	{
+		byte[] start = new byte[5];
+		in.mark(start.length);
+		int length = 0;
+		int count;
+		while (length < start.length && (count = in.read(start, length, start.length - length)) > 0) {
+			length += count;
+		}
+		in.reset();
+		String startString = new String(start, 0, length, "UTF-8");
+		boolean fasta = isFastaString(startString);
+		if (!fasta && !isGenBankString(startString)) {
+			return false;
+		}
+		clearErrors();
+		SBOLDoc.setCreateDefaults(true);
+		SBOLDoc.setCompliant(true);
+		if (URIPrefix==null) {
+			throw new SBOLConversionException("No URI prefix has been provided.");
+		}
+		SBOLDoc.setDefaultURIprefix(URIPrefix);
+		BufferedReader br = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		try {
+			if (fasta) {
+				FASTA.read(SBOLDoc, br, URIPrefix, version, defaultSequenceEncoding);
+			} else {
+				GenBank.read(SBOLDoc, br, URIPrefix, version);
+			}
+		} catch (SBOLValidationException e) {
+			if (keepGoing) {
+				errors.add(e.getMessage());
+			} else {
+				throw new SBOLValidationException(e);
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Takes in a given RDF input stream and returns the SBOL version of the file.
 	 *
@@ -720,9 +805,9 @@ public class SBOLReader
 		SBOLDoc.addNamespaceBinding(NamespaceBinding(Sbol2Terms.prov.getNamespaceURI(),
 				Sbol2Terms.prov.getPrefix()));
 		readTopLevelDocsV1(SBOLDoc, document);
-		SBOLValidate.clearErrors();
-		SBOLValidate.validateCompliance(SBOLDoc);
-		if (SBOLValidate.getNumErrors()>0) {
+		SBOLValidationReport report = new SBOLValidationReport();
+		SBOLValidate.validateCompliance(SBOLDoc, report);
+		if (!report.isEmpty()) {
 			SBOLDoc.setCompliant(false);
 		}
 		return SBOLDoc;
@@ -5,12 +5,17 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.xml.namespace.QName;
 
@@ -35,7 +40,7 @@ public class SBOLValidate {
 	 */
 	private static final String SBOLVersion = "2.2.0";
 	private static final String libSBOLj_Version = "2.3.0";
-	private static List<String> errors = null;
+	private static volatile List<String> errors = null;
 
 	/**
 	 * Empties the error list that is used to store SBOL validation exceptions.
@@ -46,6 +51,9 @@ public class SBOLValidate {
 
 	/**
 	 * Returns the error list used to store SBOL validation exceptions.
+	 * <p>
+	 * This list is shared by all threads, and holds the messages of the last validation or comparison
+	 * completed by any of them. Use an {@link SBOLValidator} to validate documents on several threads.
 	 * 
 	 * @return the error list used to store SBOL validation exceptions
 	 */
@@ -67,66 +75,84 @@ public class SBOLValidate {
 	 *
 	 * @param sbolDocument
 	 *            the SBOL document to be validated
+	 * @param report
+	 *            the report to add the violations found to
 	 */
-	static void validateCompliance(SBOLDocument sbolDocument) {
-		for (TopLevel topLevel : sbolDocument.getTopLevels()) {
+	static void validateCompliance(SBOLDocument sbolDocument, SBOLValidationReport report) {
+		validateCompliance(sbolDocument, new Scope(sbolDocument.getTopLevels()), report);
+	}
+
+	/**
+	 * Validates if the SBOL instances in the given scope are compliant.
+	 *
+	 * @param sbolDocument
+	 *            the SBOL document to be validated
+	 * @param scope
+	 *            the top-levels of the document to be validated
+	 * @param report
+	 *            the report to add the violations found to
+	 */
+	private static void validateCompliance(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+		for (TopLevel topLevel : scope.getTopLevels()) {
 			try {
 				topLevel.isURIcompliant();
 			} catch (SBOLValidationException e) {
-				errors.add(e.getMessage());
+				report.add(e);
 			}
 		}
 	}
 	
 	private static void checkIdentifiedCompleteness(SBOLDocument sbolDocument,
-			Identified identified) {
+			Identified identified, SBOLValidationReport report) {
 		for (URI wasGeneratedBy : identified.getWasGeneratedBys()) {
 			if (sbolDocument.getActivity(wasGeneratedBy) == null) {
-				errors.add(new SBOLValidationException("sbol-10222", identified).getMessage());
+				report.add(new SBOLValidationException("sbol-10222", identified));
 			}
 		}
 	}
 
-	private static void checkCollectionCompleteness(SBOLDocument sbolDocument, Collection collection) {
+	private static void checkCollectionCompleteness(SBOLDocument sbolDocument, Collection collection,
+			SBOLValidationReport report) {
 		for (URI member : collection.getMemberURIs()) {
 			if (sbolDocument.getTopLevel(member) == null) {
 				SBOLValidationException e = new SBOLValidationException("sbol-12103", collection);
-				errors.add(e.getMessage());
+				report.add(e);
 			}
 		}
 	}
 
 	private static void checkImplementationCompleteness(SBOLDocument sbolDocument,
-			Implementation implementation) {
+			Implementation implementation, SBOLValidationReport report) {
 		URI builtURI = implementation.getBuiltURI();
 		if (builtURI != null && sbolDocument.getComponentDefinition(builtURI) == null &&
 				sbolDocument.getModuleDefinition(builtURI) == null) {
-			errors.add(new SBOLValidationException("sbol-13103", implementation).getMessage());
+			report.add(new SBOLValidationException("sbol-13103", implementation));
 		}
 	}
 
 	private static void checkActivityCompleteness(SBOLDocument sbolDocument,
-			Activity activity) {
+			Activity activity, SBOLValidationReport report) {
 		for (URI wasInformedByURI : activity.getWasInformedByURIs()) {
 			if (sbolDocument.getActivity(wasInformedByURI) == null) {
-				errors.add(new SBOLValidationException("sbol-12407", activity).getMessage());
+				report.add(new SBOLValidationException("sbol-12407", activity));
 			}
 		}
 		for (Association association : activity.getAssociations()) {
 			URI planURI = association.getPlanURI();
 			if (planURI != null && sbolDocument.getPlan(planURI) == null) {
-				errors.add(new SBOLValidationException("sbol-12604", activity).getMessage());
+				report.add(new SBOLValidationException("sbol-12604", activity));
 			}
 			URI agentURI = association.getAgentURI();
 			if (agentURI != null && sbolDocument.getAgent(agentURI) == null) {
-				errors.add(new SBOLValidationException("sbol-12606", activity).getMessage());
+				report.add(new SBOLValidationException("sbol-12606", activity));
 			}
 		}
 	}
 	
 	// TODO: change get...URI with get...Identity, here and all validation checks
-	private static void validateDerivedComponentDefinitions(SBOLDocument sbolDocument) {
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+	private static void validateDerivedComponentDefinitions(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			for (URI wasDerivedFrom : componentDefinition.getWasDerivedFroms()) {
 				TopLevel topLevel = sbolDocument.getTopLevel(wasDerivedFrom);
 				if (topLevel instanceof CombinatorialDerivation) {
@@ -170,13 +196,13 @@ public class SBOLValidate {
 											}
 										}
 										if (!foundIt) {
-											errors.add(new SBOLValidationException("sbol-13016", componentDefinition).getMessage());
+											report.add(new SBOLValidationException("sbol-13016", componentDefinition));
 										}
 									}
 								}
 								if (!replaced) {
 									if (!component.getDefinitionURI().equals(template.getComponent(templateComponentURI).getDefinitionURI())) {
-										errors.add(new SBOLValidationException("sbol-13017", componentDefinition).getMessage());
+										report.add(new SBOLValidationException("sbol-13017", componentDefinition));
 									}
 								}
 							}
@@ -206,7 +232,7 @@ public class SBOLValidate {
 								}
 							}
 							if (!foundIt) {
-								errors.add(new SBOLValidationException("sbol-12908", componentDefinition).getMessage());
+								report.add(new SBOLValidationException("sbol-12908", componentDefinition));
 							}
 						}
 					}
@@ -216,69 +242,69 @@ public class SBOLValidate {
 	}
 
 	private static void checkCombinatorialDerivationCompleteness(SBOLDocument sbolDocument,
-			CombinatorialDerivation combinatorialDerivation) {
+			CombinatorialDerivation combinatorialDerivation, SBOLValidationReport report) {
 		URI templateURI = combinatorialDerivation.getTemplateURI();
 		if (templateURI == null) {
-			errors.add(new SBOLValidationException("sbol-12905", combinatorialDerivation).getMessage());
+			report.add(new SBOLValidationException("sbol-12905", combinatorialDerivation));
 		}
 		if (sbolDocument.getComponentDefinition(templateURI) == null) {
-			errors.add(new SBOLValidationException("sbol-12905", combinatorialDerivation).getMessage());
+			report.add(new SBOLValidationException("sbol-12905", combinatorialDerivation));
 		}
 		for (VariableComponent variableComponent : combinatorialDerivation.getVariableComponents()) {
 			if (combinatorialDerivation.getTemplate() != null &&
 					combinatorialDerivation.getTemplate().getComponent(variableComponent.getVariableURI())==null) {
-				errors.add(new SBOLValidationException("sbol-13005",combinatorialDerivation).getMessage());
+				report.add(new SBOLValidationException("sbol-13005",combinatorialDerivation));
 			}
 			for (URI variantURI : variableComponent.getVariantURIs()) {
 				if (sbolDocument.getComponentDefinition(variantURI)==null) {
-					errors.add(new SBOLValidationException("sbol-13008",combinatorialDerivation).getMessage());
+					report.add(new SBOLValidationException("sbol-13008",combinatorialDerivation));
 				}
 			}
 			for (URI variantCollectionURI : variableComponent.getVariantCollectionURIs()) {
 				Collection variantCollection = sbolDocument.getCollection(variantCollectionURI);
 				if (variantCollection==null) {
-					errors.add(new SBOLValidationException("sbol-13010",combinatorialDerivation).getMessage());
+					report.add(new SBOLValidationException("sbol-13010",combinatorialDerivation));
 				} else {
 					if (variantCollection.getMemberURIs().size()==0) {
-						errors.add(new SBOLValidationException("sbol-13011",combinatorialDerivation).getMessage());
+						report.add(new SBOLValidationException("sbol-13011",combinatorialDerivation));
 					}
 					for (URI memberURI : variantCollection.getMemberURIs()) {
 						if (sbolDocument.getComponentDefinition(memberURI)==null) {
-							errors.add(new SBOLValidationException("sbol-13012",combinatorialDerivation).getMessage());
+							report.add(new SBOLValidationException("sbol-13012",combinatorialDerivation));
 						}
 					}
 				}
 			}
 			for (URI variantDerivationURI : variableComponent.getVariantDerivationURIs()) {
 				if (sbolDocument.getCombinatorialDerivation(variantDerivationURI)==null) {
-					errors.add(new SBOLValidationException("sbol-13014",combinatorialDerivation).getMessage());
+					report.add(new SBOLValidationException("sbol-13014",combinatorialDerivation));
 				}
 			}
 		}
 	}
 
 	private static void checkComponentDefinitionCompleteness(SBOLDocument sbolDocument,
-			ComponentDefinition componentDefinition) {
+			ComponentDefinition componentDefinition, SBOLValidationReport report) {
 		for (URI sequenceURI : componentDefinition.getSequenceURIs()) {
 			if (sbolDocument.getSequence(sequenceURI) == null) {
-				errors.add(new SBOLValidationException("sbol-10513", componentDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-10513", componentDefinition));
 			}
 		}
 		for (Component component : componentDefinition.getComponents()) {
 			if (component.getDefinition() == null) {
-				errors.add(new SBOLValidationException("sbol-10604", component).getMessage());
+				report.add(new SBOLValidationException("sbol-10604", component));
 			}
 			for (MapsTo mapsTo : component.getMapsTos()) {
 				if (mapsTo.getRemote() == null) {
-					errors.add(new SBOLValidationException("sbol-10808", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10808", mapsTo));
 					continue;
 				}
 				if (mapsTo.getRemote().getAccess().equals(AccessType.PRIVATE)) {
-					errors.add(new SBOLValidationException("sbol-10807", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10807", mapsTo));
 				}
 				if (mapsTo.getRefinement().equals(RefinementType.VERIFYIDENTICAL)) {
 					if (!mapsTo.getLocal().getDefinitionURI().equals(mapsTo.getRemote().getDefinitionURI())) {
-						errors.add(new SBOLValidationException("sbol-10811", mapsTo).getMessage());
+						report.add(new SBOLValidationException("sbol-10811", mapsTo));
 					}
 				}
 			}
@@ -338,25 +364,25 @@ public class SBOLValidate {
 		}
 	}
 
-	private static void validateMapsTos(SBOLDocument sbolDocument) {
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+	private static void validateMapsTos(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			for (Component component : componentDefinition.getComponents()) {
 				for (MapsTo mapsTo : component.getMapsTos()) {
 					try {
 						checkComponentDefinitionMapsTos(componentDefinition, mapsTo);
 					} catch (SBOLValidationException e) {
-						errors.add(e.getMessage());
+						report.add(e);
 					}
 				}
 			}
 		}
-		for (ModuleDefinition moduleDefinition : sbolDocument.getModuleDefinitions()) {
+		for (ModuleDefinition moduleDefinition : scope.getModuleDefinitions()) {
 			for (Module module : moduleDefinition.getModules()) {
 				for (MapsTo mapsTo : module.getMapsTos()) {
 					try {
 						checkModuleDefinitionMapsTos(moduleDefinition, mapsTo);
 					} catch (SBOLValidationException e) {
-						errors.add(e.getMessage());
+						report.add(e);
 					}
 				}
 			}
@@ -365,7 +391,7 @@ public class SBOLValidate {
 					try {
 						checkModuleDefinitionMapsTos(moduleDefinition, mapsTo);
 					} catch (SBOLValidationException e) {
-						errors.add(e.getMessage());
+						report.add(e);
 					}
 				}
 			}
@@ -373,46 +399,46 @@ public class SBOLValidate {
 	}
 
 	private static void checkModuleDefinitionCompleteness(SBOLDocument sbolDocument,
-			ModuleDefinition moduleDefinition) {
+			ModuleDefinition moduleDefinition, SBOLValidationReport report) {
 		for (URI modelURI : moduleDefinition.getModelURIs()) {
 			if (sbolDocument.getModel(modelURI) == null) {
-				errors.add(new SBOLValidationException("sbol-11608", moduleDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-11608", moduleDefinition));
 			}
 		}
 		for (FunctionalComponent functionalComponent : moduleDefinition.getFunctionalComponents()) {
 			if (functionalComponent.getDefinition() == null) {
-				errors.add(new SBOLValidationException("sbol-10604", functionalComponent).getMessage());
+				report.add(new SBOLValidationException("sbol-10604", functionalComponent));
 			}
 			for (MapsTo mapsTo : functionalComponent.getMapsTos()) {
 				if (mapsTo.getRemote() == null) {
-					errors.add(new SBOLValidationException("sbol-10808", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10808", mapsTo));
 					continue;
 				}
 				if (mapsTo.getRemote().getAccess().equals(AccessType.PRIVATE)) {
-					errors.add(new SBOLValidationException("sbol-10807", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10807", mapsTo));
 				}
 				if (mapsTo.getRefinement().equals(RefinementType.VERIFYIDENTICAL)) {
 					if (!mapsTo.getLocal().getDefinitionURI().equals(mapsTo.getRemote().getDefinitionURI())) {
-						errors.add(new SBOLValidationException("sbol-10811", mapsTo).getMessage());
+						report.add(new SBOLValidationException("sbol-10811", mapsTo));
 					}
 				}
 			}
 		}
 		for (Module module : moduleDefinition.getModules()) {
 			if (module.getDefinition() == null) {
-				errors.add(new SBOLValidationException("sbol-11703", module).getMessage());
+				report.add(new SBOLValidationException("sbol-11703", module));
 			}
 			for (MapsTo mapsTo : module.getMapsTos()) {
 				if (mapsTo.getRemote() == null) {
-					errors.add(new SBOLValidationException("sbol-10809", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10809", mapsTo));
 					continue;
 				}
 				if (mapsTo.getRemote().getAccess().equals(AccessType.PRIVATE)) {
-					errors.add(new SBOLValidationException("sbol-10807", mapsTo).getMessage());
+					report.add(new SBOLValidationException("sbol-10807", mapsTo));
 				}
 				if (mapsTo.getRefinement().equals(RefinementType.VERIFYIDENTICAL)) {
 					if (!mapsTo.getLocal().getDefinitionURI().equals(mapsTo.getRemote().getDefinitionURI())) {
-						errors.add(new SBOLValidationException("sbol-10811", mapsTo).getMessage());
+						report.add(new SBOLValidationException("sbol-10811", mapsTo));
 					}
 				}
 			}
@@ -425,28 +451,32 @@ public class SBOLValidate {
 	 *
 	 * @param sbolDocument
 	 *            the given SBOL document to be validated for completeness
+	 * @param scope
+	 *            the top-levels of the document to be validated
+	 * @param report
+	 *            the report to add the violations found to
 	 */
-	private static void validateCompleteness(SBOLDocument sbolDocument) {
-		for (Identified identified : sbolDocument.getTopLevels()) {
-			checkIdentifiedCompleteness(sbolDocument, identified);
+	private static void validateCompleteness(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+		for (Identified identified : scope.getTopLevels()) {
+			checkIdentifiedCompleteness(sbolDocument, identified, report);
 		}
-		for (Collection collection : sbolDocument.getCollections()) {
-			checkCollectionCompleteness(sbolDocument, collection);
+		for (Collection collection : scope.getCollections()) {
+			checkCollectionCompleteness(sbolDocument, collection, report);
 		}
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
-			checkComponentDefinitionCompleteness(sbolDocument, componentDefinition);
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
+			checkComponentDefinitionCompleteness(sbolDocument, componentDefinition, report);
 		}
-		for (ModuleDefinition moduleDefinition : sbolDocument.getModuleDefinitions()) {
-			checkModuleDefinitionCompleteness(sbolDocument, moduleDefinition);
+		for (ModuleDefinition moduleDefinition : scope.getModuleDefinitions()) {
+			checkModuleDefinitionCompleteness(sbolDocument, moduleDefinition, report);
 		}
-		for (CombinatorialDerivation combinatorialDerivation : sbolDocument.getCombinatorialDerivations()) {
-			checkCombinatorialDerivationCompleteness(sbolDocument, combinatorialDerivation);
+		for (CombinatorialDerivation combinatorialDerivation : scope.getCombinatorialDerivations()) {
+			checkCombinatorialDerivationCompleteness(sbolDocument, combinatorialDerivation, report);
 		}
-		for (Implementation implementation : sbolDocument.getImplementations()) {
-			checkImplementationCompleteness(sbolDocument, implementation);
+		for (Implementation implementation : scope.getImplementations()) {
+			checkImplementationCompleteness(sbolDocument, implementation, report);
 		}
-		for (Activity activity : sbolDocument.getActivities()) {
-			checkActivityCompleteness(sbolDocument, activity);
+		for (Activity activity : scope.getActivities()) {
+			checkActivityCompleteness(sbolDocument, activity, report);
 		}
 	}
 
@@ -550,11 +580,12 @@ public class SBOLValidate {
 		return true;
 	}
 
-	private static void validateWasDerivedFromVersion(SBOLDocument sbolDocument) {
-		for (TopLevel topLevel : sbolDocument.getTopLevels()) {
+	private static void validateWasDerivedFromVersion(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (TopLevel topLevel : scope.getTopLevels()) {
 			for (URI wasDerivedFrom : topLevel.getWasDerivedFroms()) {
 				if (!checkWasDerivedFromVersion(sbolDocument, topLevel, wasDerivedFrom)) {
-					errors.add(new SBOLValidationException("sbol-10302", topLevel).getMessage());
+					report.add(new SBOLValidationException("sbol-10302", topLevel));
 				}
 			}
 		}
@@ -635,43 +666,48 @@ public class SBOLValidate {
 	 *
 	 * @param sbolDocument
 	 *            the given SBOL document to be validated for circular references
+	 * @param scope
+	 *            the top-levels of the document to be validated
+	 * @param report
+	 *            the report to add the violations found to
 	 */
-	private static void validateCircularReferences(SBOLDocument sbolDocument) {
-		for (TopLevel topLevel : sbolDocument.getTopLevels()) {
+	private static void validateCircularReferences(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (TopLevel topLevel : scope.getTopLevels()) {
 			for (URI wasDerivedFrom : topLevel.getWasDerivedFroms()) {
 				try {
 					checkWasDerivedFromCycle(sbolDocument, topLevel, wasDerivedFrom, new HashSet<URI>());
 				} catch (SBOLValidationException e) {
-					errors.add(e.getMessage());
+					report.add(e);
 				}
 			}
 			for (URI wasGeneratedBy : topLevel.getWasGeneratedBys()) {
 				try {
 					checkWasGeneratedByCycle(sbolDocument, topLevel, wasGeneratedBy, new HashSet<URI>());
 				} catch (SBOLValidationException e) {
-					errors.add(e.getMessage());
+					report.add(e);
 				}
 			}
 		}
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			try {
 				checkComponentDefinitionCycle(sbolDocument, componentDefinition, new HashSet<URI>());
 			} catch (SBOLValidationException e) {
-				errors.add(e.getMessage());
+				report.add(e);
 			}
 		}
-		for (ModuleDefinition moduleDefinition : sbolDocument.getModuleDefinitions()) {
+		for (ModuleDefinition moduleDefinition : scope.getModuleDefinitions()) {
 			try {
 				checkModuleDefinitionCycle(sbolDocument, moduleDefinition, new HashSet<URI>());
 			} catch (SBOLValidationException e) {
-				errors.add(e.getMessage());
+				report.add(e);
 			}
 		}
-		for (CombinatorialDerivation combinatorialDerivation : sbolDocument.getCombinatorialDerivations()) {
+		for (CombinatorialDerivation combinatorialDerivation : scope.getCombinatorialDerivations()) {
 			try {
 				checkCombinatorialDerivationCycle(sbolDocument, combinatorialDerivation, new HashSet<URI>());
 			} catch (SBOLValidationException e) {
-				errors.add(e.getMessage());
+				report.add(e);
 			}
 		}
 	}
@@ -721,44 +757,46 @@ public class SBOLValidate {
 		} 
 	}
 
-	private static void checkInteractionTypeParticipationRole(Interaction interaction, URI type, URI role) {
+	private static void checkInteractionTypeParticipationRole(Interaction interaction, URI type, URI role,
+			SBOLValidationReport report) {
 		if (type.equals(SystemsBiologyOntology.INHIBITION)) {
 			if (!role.equals(SystemsBiologyOntology.INHIBITOR) && !role.equals(SystemsBiologyOntology.INHIBITED)
 					&& !role.equals(SystemsBiologyOntology.PROMOTER)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.STIMULATION)) {
 			if (!role.equals(SystemsBiologyOntology.STIMULATOR) && !role.equals(SystemsBiologyOntology.STIMULATED)
 					&& !role.equals(SystemsBiologyOntology.PROMOTER)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.NON_COVALENT_BINDING)) {
 			if (!role.equals(SystemsBiologyOntology.REACTANT) && !role.equals(SystemsBiologyOntology.PRODUCT)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.DEGRADATION)) {
 			if (!role.equals(SystemsBiologyOntology.REACTANT)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.BIOCHEMICAL_REACTION)) {
 			if (!role.equals(SystemsBiologyOntology.REACTANT) && !role.equals(SystemsBiologyOntology.PRODUCT)
 					&& !role.equals(SystemsBiologyOntology.MODIFIER)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.GENETIC_PRODUCTION)) {
 			if (!role.equals(SystemsBiologyOntology.PROMOTER) && !role.equals(SystemsBiologyOntology.TEMPLATE)
 					&& !role.equals(SystemsBiologyOntology.PRODUCT)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		} else if (type.equals(SystemsBiologyOntology.CONTROL)) {
 			if (!role.equals(SystemsBiologyOntology.MODIFIER) && !role.equals(SystemsBiologyOntology.MODIFIED)) {
-				errors.add(new SBOLValidationException("sbol-11907", interaction).getMessage());
+				report.add(new SBOLValidationException("sbol-11907", interaction));
 			}
 		}
 	}
 	
-	private static void validateActivityRoleTypeUsage(SBOLDocument sbolDocument) {
-		for (TopLevel topLevel : sbolDocument.getTopLevels()) {
+	private static void validateActivityRoleTypeUsage(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (TopLevel topLevel : scope.getTopLevels()) {
 			for (URI wasGeneratedBy : topLevel.getWasGeneratedBys()) {
 				Activity activity = sbolDocument.getActivity(wasGeneratedBy);
 				if (activity != null) {
@@ -766,22 +804,22 @@ public class SBOLValidate {
 						for (URI role : association.getRoles()) {
 							if (role.equals(ActivityRoleType.convertToURI(ActivityRoleType.DESIGN))) {
 								if (topLevel instanceof Implementation) {
-									errors.add(new SBOLValidationException("sbol-10224", topLevel).getMessage());
+									report.add(new SBOLValidationException("sbol-10224", topLevel));
 								}
 							}
 							if (role.equals(ActivityRoleType.convertToURI(ActivityRoleType.BUILD))) {
 								if (!(topLevel instanceof Implementation)) {
-									errors.add(new SBOLValidationException("sbol-10225", topLevel).getMessage());
+									report.add(new SBOLValidationException("sbol-10225", topLevel));
 								}
 							}
 							if (role.equals(ActivityRoleType.convertToURI(ActivityRoleType.TEST))) {
 								if (!(topLevel instanceof Attachment) && !(topLevel instanceof Collection)) {
-									errors.add(new SBOLValidationException("sbol-10226", topLevel).getMessage());
+									report.add(new SBOLValidationException("sbol-10226", topLevel));
 								} else if (topLevel instanceof Collection) {
 									Collection collection = (Collection)topLevel;
 									for (TopLevel member : collection.getMembers()) {
 										if (!(member instanceof Attachment)) {
-											errors.add(new SBOLValidationException("sbol-10226", topLevel).getMessage());
+											report.add(new SBOLValidationException("sbol-10226", topLevel));
 											break;
 										}
 									}
@@ -789,7 +827,7 @@ public class SBOLValidate {
 							}
 							if (role.equals(ActivityRoleType.convertToURI(ActivityRoleType.LEARN))) {
 								if (topLevel instanceof Implementation) {
-									errors.add(new SBOLValidationException("sbol-10227", topLevel).getMessage());
+									report.add(new SBOLValidationException("sbol-10227", topLevel));
 								}
 							}
 						}
@@ -797,33 +835,33 @@ public class SBOLValidate {
 				}
 			}
 		}
-		for (Activity activity : sbolDocument.getActivities()) {
+		for (Activity activity : scope.getActivities()) {
 			for (Usage usage : activity.getUsages()) {
 				if (usage.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.DESIGN))) {
 					TopLevel topLevel = usage.getEntity();
 					if (topLevel != null && topLevel instanceof Implementation) {
-						errors.add(new SBOLValidationException("sbol-12504", activity).getMessage());
+						report.add(new SBOLValidationException("sbol-12504", activity));
 					}
 					for (Association association : activity.getAssociations()) {
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.TEST))) {
-							errors.add(new SBOLValidationException("sbol-12410", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12410", activity));
 						}
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.LEARN))) {
-							errors.add(new SBOLValidationException("sbol-12411", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12411", activity));
 						}
 					}
 				}
 				if (usage.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.BUILD))) {
 					TopLevel topLevel = usage.getEntity();
 					if (topLevel != null && !(topLevel instanceof Implementation)) {
-						errors.add(new SBOLValidationException("sbol-12505", activity).getMessage());
+						report.add(new SBOLValidationException("sbol-12505", activity));
 					}
 					for (Association association : activity.getAssociations()) {
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.DESIGN))) {
-							errors.add(new SBOLValidationException("sbol-12408", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12408", activity));
 						}
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.LEARN))) {
-							errors.add(new SBOLValidationException("sbol-12411", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12411", activity));
 						}
 					}
 				}
@@ -831,28 +869,28 @@ public class SBOLValidate {
 					TopLevel topLevel = usage.getEntity();
 					if (topLevel != null && !(topLevel instanceof Attachment) &&
 							!(topLevel instanceof Collection)) {
-						errors.add(new SBOLValidationException("sbol-12506", activity).getMessage());
+						report.add(new SBOLValidationException("sbol-12506", activity));
 					}
 					for (Association association : activity.getAssociations()) {
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.DESIGN))) {
-							errors.add(new SBOLValidationException("sbol-12408", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12408", activity));
 						}
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.BUILD))) {
-							errors.add(new SBOLValidationException("sbol-12409", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12409", activity));
 						}
 					}
 				}
 				if (usage.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.LEARN))) {
 					TopLevel topLevel = usage.getEntity();
 					if (topLevel != null && topLevel instanceof Implementation) {
-						errors.add(new SBOLValidationException("sbol-12507", activity).getMessage());
+						report.add(new SBOLValidationException("sbol-12507", activity));
 					}
 					for (Association association : activity.getAssociations()) {
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.TEST))) {
-							errors.add(new SBOLValidationException("sbol-12410", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12410", activity));
 						}
 						if (association.getRoles().contains(ActivityRoleType.convertToURI(ActivityRoleType.BUILD))) {
-							errors.add(new SBOLValidationException("sbol-12409", activity).getMessage());
+							report.add(new SBOLValidationException("sbol-12409", activity));
 						}
 					}
 				}
@@ -860,21 +898,22 @@ public class SBOLValidate {
 		}
 	}
 	
-	private static void validateCombinatorialBestPractices(SBOLDocument sbolDocument) {
-		for (CombinatorialDerivation combinatorialDerivation : sbolDocument.getCombinatorialDerivations()) {
+	private static void validateCombinatorialBestPractices(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (CombinatorialDerivation combinatorialDerivation : scope.getCombinatorialDerivations()) {
 			ComponentDefinition template = combinatorialDerivation.getTemplate();
 			if (template != null && template.getComponents().size() == 0) {
-				errors.add(new SBOLValidationException("sbol-12909", combinatorialDerivation).getMessage());
+				report.add(new SBOLValidationException("sbol-12909", combinatorialDerivation));
 			}
 			for (VariableComponent variableComponent : combinatorialDerivation.getVariableComponents()) {
 				if (variableComponent.getVariants().size()==0 &&
 						variableComponent.getVariantCollections().size()==0 &&
 						variableComponent.getVariantDerivations().size()==0) {
-					errors.add(new SBOLValidationException("sbol-13006", variableComponent).getMessage());
+					report.add(new SBOLValidationException("sbol-13006", variableComponent));
 				}
 			}
 		}
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			for (URI wasDerivedFrom : componentDefinition.getWasDerivedFroms()) {
 				TopLevel topLevel = sbolDocument.getTopLevel(wasDerivedFrom);
 				if (topLevel instanceof CombinatorialDerivation) {
@@ -882,10 +921,10 @@ public class SBOLValidate {
 					ComponentDefinition template = combinatorialDerivation.getTemplate();										
 					if (template != null) {
 						if (!componentDefinition.getTypes().equals(template.getTypes())) {
-							errors.add(new SBOLValidationException("sbol-12910", componentDefinition).getMessage());
+							report.add(new SBOLValidationException("sbol-12910", componentDefinition));
 						}
 						if (!componentDefinition.getRoles().equals(template.getRoles())) {
-							errors.add(new SBOLValidationException("sbol-12911", componentDefinition).getMessage());
+							report.add(new SBOLValidationException("sbol-12911", componentDefinition));
 						}
 						
 						for (Component component : componentDefinition.getComponents()) {
@@ -893,7 +932,7 @@ public class SBOLValidate {
 								Component templateComponent = template.getComponent(templateComponentURI);
 								if (templateComponent != null) {
 									if (!component.getRoles().equals(templateComponent.getRoles())) {
-										errors.add(new SBOLValidationException("sbol-13018", componentDefinition).getMessage());
+										report.add(new SBOLValidationException("sbol-13018", componentDefinition));
 									}
 								}
 							}
@@ -910,14 +949,14 @@ public class SBOLValidate {
 								for (Component component : componentDefinition.getComponents()) {
 									if (component.getWasDerivedFroms().contains(templateComponent.getIdentity())) {
 										if (foundIt) {
-											errors.add(new SBOLValidationException("sbol-13022", componentDefinition).getMessage());
+											report.add(new SBOLValidationException("sbol-13022", componentDefinition));
 										} else {
 											foundIt = true;
 										}
 									}
 								}
 								if (!foundIt) {
-									errors.add(new SBOLValidationException("sbol-13022", componentDefinition).getMessage());
+									report.add(new SBOLValidationException("sbol-13022", componentDefinition));
 								}
 							}
 						}
@@ -927,7 +966,7 @@ public class SBOLValidate {
 								for (Component component : componentDefinition.getComponents()) {
 									if (component.getWasDerivedFroms().contains(variableComponent.getVariableURI())) {
 										if (foundIt) {
-											errors.add(new SBOLValidationException("sbol-13019", componentDefinition).getMessage());
+											report.add(new SBOLValidationException("sbol-13019", componentDefinition));
 											break;
 										} else {
 											foundIt = true;
@@ -939,7 +978,7 @@ public class SBOLValidate {
 								for (Component component : componentDefinition.getComponents()) {
 									if (component.getWasDerivedFroms().contains(variableComponent.getVariableURI())) {
 										if (foundIt) {
-											errors.add(new SBOLValidationException("sbol-13020", componentDefinition).getMessage());
+											report.add(new SBOLValidationException("sbol-13020", componentDefinition));
 											break;
 										} else {
 											foundIt = true;
@@ -947,7 +986,7 @@ public class SBOLValidate {
 									}
 								}
 								if (!foundIt) {
-									errors.add(new SBOLValidationException("sbol-13020", componentDefinition).getMessage());
+									report.add(new SBOLValidationException("sbol-13020", componentDefinition));
 								}
 							} else if  (variableComponent.getOperator().equals(OperatorType.ONEORMORE)) {
 								boolean foundIt = false;
@@ -958,7 +997,7 @@ public class SBOLValidate {
 									}
 								}
 								if (!foundIt) {
-									errors.add(new SBOLValidationException("sbol-13021", componentDefinition).getMessage());
+									report.add(new SBOLValidationException("sbol-13021", componentDefinition));
 								}
 							} 
 						}
@@ -966,13 +1005,13 @@ public class SBOLValidate {
 				}
 			}
 		}
-		for (Collection collection : sbolDocument.getCollections()) {
+		for (Collection collection : scope.getCollections()) {
 			for (URI wasDerivedFrom : collection.getWasDerivedFroms()) {
 				TopLevel topLevel = sbolDocument.getTopLevel(wasDerivedFrom);
 				if (topLevel instanceof CombinatorialDerivation) {
 					for (TopLevel member : collection.getMembers()) {
 						if (!member.getWasDerivedFroms().contains(wasDerivedFrom)) {
-							errors.add(new SBOLValidationException("sbol-12913", collection).getMessage());
+							report.add(new SBOLValidationException("sbol-12913", collection));
 						}
 					}
 				}
@@ -982,7 +1021,7 @@ public class SBOLValidate {
 					TopLevel topLevel = sbolDocument.getTopLevel(wasDerivedFrom);
 					if (topLevel instanceof CombinatorialDerivation) {
 						if (!collection.getWasDerivedFroms().contains(wasDerivedFrom)) {
-							errors.add(new SBOLValidationException("sbol-12912", collection).getMessage());
+							report.add(new SBOLValidationException("sbol-12912", collection));
 						}
 					}
 				}
@@ -990,19 +1029,19 @@ public class SBOLValidate {
 		}
 	}
 
-	private static void validateOntologyUsage(SBOLDocument sbolDocument) {
+	private static void validateOntologyUsage(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
 		SequenceOntology so = new SequenceOntology();
 		SystemsBiologyOntology sbo = new SystemsBiologyOntology();
 		EDAMOntology edam = new EDAMOntology();
-		for (Sequence sequence : sbolDocument.getSequences()) {
+		for (Sequence sequence : scope.getSequences()) {
 			if (!sequence.getEncoding().equals(Sequence.IUPAC_DNA) && !sequence.getEncoding().equals(Sequence.IUPAC_RNA)
 					&& !sequence.getEncoding().equals(Sequence.IUPAC_PROTEIN)
 					&& !sequence.getEncoding().equals(Sequence.SMILES)) {
-				errors.add(new SBOLValidationException("sbol-10407", sequence).getMessage());
+				report.add(new SBOLValidationException("sbol-10407", sequence));
 
 			}
 		}
-		for (ComponentDefinition compDef : sbolDocument.getComponentDefinitions()) {
+		for (ComponentDefinition compDef : scope.getComponentDefinitions()) {
 			int numBioPAXtypes = 0;
 			for (URI type : compDef.getTypes()) {
 				if (type.equals(ComponentDefinition.DNA) || type.equals(ComponentDefinition.RNA)
@@ -1012,9 +1051,9 @@ public class SBOLValidate {
 				}
 			}
 			if (numBioPAXtypes == 0) {
-				errors.add(new SBOLValidationException("sbol-10525", compDef).getMessage());
+				report.add(new SBOLValidationException("sbol-10525", compDef));
 			} else if (numBioPAXtypes > 1) {
-				errors.add(new SBOLValidationException("sbol-10503", compDef).getMessage());
+				report.add(new SBOLValidationException("sbol-10503", compDef));
 			}
 			int numSO = 0;
 			;
@@ -1050,17 +1089,17 @@ public class SBOLValidate {
 			if (compDef.getTypes().contains(ComponentDefinition.DNA)
 					|| compDef.getTypes().contains(ComponentDefinition.RNA)) {
 				if (numSO != 1) {
-					errors.add(new SBOLValidationException("sbol-10527", compDef).getMessage());
+					report.add(new SBOLValidationException("sbol-10527", compDef));
 				}
 				if (numTopo > 1) {
-					errors.add(new SBOLValidationException("sbol-10528", compDef).getMessage());
+					report.add(new SBOLValidationException("sbol-10528", compDef));
 				}
 			} else if (!compDef.getTypes().contains(ComponentDefinition.RNA)) {
 				if (numSO != 0) {
-					errors.add(new SBOLValidationException("sbol-10511", compDef).getMessage());
+					report.add(new SBOLValidationException("sbol-10511", compDef));
 				}
 				if ((numTopo != 0) || (numStrand != 0)) {
-					errors.add(new SBOLValidationException("sbol-10529", compDef).getMessage());
+					report.add(new SBOLValidationException("sbol-10529", compDef));
 				}
 			}
 			for (Component c : compDef.getComponents()) {
@@ -1081,11 +1120,11 @@ public class SBOLValidate {
 				if (!def.getTypes().contains(ComponentDefinition.DNA)
 						&& !def.getTypes().contains(ComponentDefinition.RNA)) {
 					if (numSO != 0) {
-						errors.add(new SBOLValidationException("sbol-10706", compDef).getMessage());
+						report.add(new SBOLValidationException("sbol-10706", compDef));
 					}
 				} else {
 					if (numSO > 1) {
-						errors.add(new SBOLValidationException("sbol-10707", compDef).getMessage());
+						report.add(new SBOLValidationException("sbol-10707", compDef));
 					}
 				}
 
@@ -1094,27 +1133,27 @@ public class SBOLValidate {
 				try {
 					RestrictionType.convertToRestrictionType(sc.getRestrictionURI());
 				} catch (Exception e) {
-					errors.add(new SBOLValidationException("sbol-11412", sc).getMessage());
+					report.add(new SBOLValidationException("sbol-11412", sc));
 				}
 			}
 		}
-		for (Model model : sbolDocument.getModels()) {
+		for (Model model : scope.getModels()) {
 			try {
 				if (!edam.isDescendantOf(model.getLanguage(), EDAMOntology.FORMAT)) {
-					errors.add(new SBOLValidationException("sbol-11507", model).getMessage());
+					report.add(new SBOLValidationException("sbol-11507", model));
 				}
 			} catch (Exception e) {
-				errors.add(new SBOLValidationException("sbol-11507", model).getMessage());
+				report.add(new SBOLValidationException("sbol-11507", model));
 			}
 			try {
 				if (!sbo.isDescendantOf(model.getFramework(), SystemsBiologyOntology.MODELING_FRAMEWORK)) {
-					errors.add(new SBOLValidationException("sbol-11511", model).getMessage());
+					report.add(new SBOLValidationException("sbol-11511", model));
 				}
 			} catch (Exception e) {
-				errors.add(new SBOLValidationException("sbol-11511", model).getMessage());
+				report.add(new SBOLValidationException("sbol-11511", model));
 			}
 		}
-		for (ModuleDefinition modDef : sbolDocument.getModuleDefinitions()) {
+		for (ModuleDefinition modDef : scope.getModuleDefinitions()) {
 			for (Interaction interaction : modDef.getInteractions()) {
 				int numSBOtype = 0;
 				URI SBOtype = null;
@@ -1128,7 +1167,7 @@ public class SBOLValidate {
 					}
 				}
 				if (numSBOtype != 1) {
-					errors.add(new SBOLValidationException("sbol-11905", interaction).getMessage());
+					report.add(new SBOLValidationException("sbol-11905", interaction));
 				}
 				for (Participation participation : interaction.getParticipations()) {
 					int numSBOrole = 0;
@@ -1143,26 +1182,27 @@ public class SBOLValidate {
 						}
 					}
 					if (numSBOrole != 1) {
-						errors.add(new SBOLValidationException("sbol-12007", participation).getMessage());
+						report.add(new SBOLValidationException("sbol-12007", participation));
 					} else {
-						checkInteractionTypeParticipationRole(interaction, SBOtype, SBOrole);
+						checkInteractionTypeParticipationRole(interaction, SBOtype, SBOrole, report);
 					}
 				}
 			}
 		}
-		for (Attachment attachment : sbolDocument.getAttachments()) {
+		for (Attachment attachment : scope.getAttachments()) {
 			try {
 				if (attachment.isSetFormat() && !edam.isDescendantOf(attachment.getFormat(), EDAMOntology.FORMAT)) {
-					errors.add(new SBOLValidationException("sbol-13206", attachment).getMessage());
+					report.add(new SBOLValidationException("sbol-13206", attachment));
 				}
 			} catch (Exception e) {
-				errors.add(new SBOLValidationException("sbol-13206", attachment).getMessage());
+				report.add(new SBOLValidationException("sbol-13206", attachment));
 			}
 		}
 	}
 
-	private static void validateComponentDefinitionSequences(SBOLDocument sbolDocument) {
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+	private static void validateComponentDefinitionSequences(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			if (componentDefinition.getSequences().size() < 1)
 				continue;
 			boolean foundNucleic = false;
@@ -1175,58 +1215,56 @@ public class SBOLValidate {
 				if (sequence.getEncoding().equals(Sequence.IUPAC_DNA)
 						|| sequence.getEncoding().equals(Sequence.IUPAC_RNA)) {
 					if (foundNucleic) {
-						if (nucleicLength != sequence.getElements().length()) {
-							errors.add(new SBOLValidationException("sbol-10518", componentDefinition).getMessage());
+						if (nucleicLength != sequence.getElementsLength()) {
+							report.add(new SBOLValidationException("sbol-10518", componentDefinition));
 						}
 					} else {
 						foundNucleic = true;
-						nucleicLength = sequence.getElements().length();
+						nucleicLength = sequence.getElementsLength();
 					}
 					for (SequenceAnnotation sa : componentDefinition.getSequenceAnnotations()) {
 						for (Location location : sa.getLocations()) {
 							if (location instanceof Range) {
 								Range range = (Range) location;
 								if (range.getStart() <= 0 || range.getEnd() > nucleicLength) {
-									errors.add(new SBOLValidationException("sbol-10523", componentDefinition)
-											.getMessage());
+									report.add(new SBOLValidationException("sbol-10523", componentDefinition));
 								}
 							} else if (location instanceof Cut) {
 								Cut cut = (Cut) location;
 								if (cut.getAt() < 0 || cut.getAt() > nucleicLength) {
-									errors.add(new SBOLValidationException("sbol-10523", componentDefinition)
-											.getMessage());
+									report.add(new SBOLValidationException("sbol-10523", componentDefinition));
 								}
 							}
 						}
 					}
 				} else if (sequence.getEncoding().equals(Sequence.IUPAC_PROTEIN)) {
 					if (foundProtein) {
-						if (proteinLength != sequence.getElements().length()) {
-							errors.add(new SBOLValidationException("sbol-10518", componentDefinition).getMessage());
+						if (proteinLength != sequence.getElementsLength()) {
+							report.add(new SBOLValidationException("sbol-10518", componentDefinition));
 						}
 					} else {
 						foundProtein = true;
-						proteinLength = sequence.getElements().length();
+						proteinLength = sequence.getElementsLength();
 					}
 				} else if (sequence.getEncoding().equals(Sequence.SMILES)) {
 					if (foundSmiles) {
-						if (smilesLength != sequence.getElements().length()) {
-							errors.add(new SBOLValidationException("sbol-10518", componentDefinition).getMessage());
+						if (smilesLength != sequence.getElementsLength()) {
+							report.add(new SBOLValidationException("sbol-10518", componentDefinition));
 						}
 					} else {
 						foundSmiles = true;
-						smilesLength = sequence.getElements().length();
+						smilesLength = sequence.getElementsLength();
 					}
 				}
 			}
 			if (componentDefinition.getTypes().contains(ComponentDefinition.DNA) && !foundNucleic) {
-				errors.add(new SBOLValidationException("sbol-10516", componentDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-10516", componentDefinition));
 			} else if (componentDefinition.getTypes().contains(ComponentDefinition.RNA) && !foundNucleic) {
-				errors.add(new SBOLValidationException("sbol-10516", componentDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-10516", componentDefinition));
 			} else if (componentDefinition.getTypes().contains(ComponentDefinition.PROTEIN) && !foundProtein) {
-				errors.add(new SBOLValidationException("sbol-10516", componentDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-10516", componentDefinition));
 			} else if (componentDefinition.getTypes().contains(ComponentDefinition.SMALL_MOLECULE) && !foundSmiles) {
-				errors.add(new SBOLValidationException("sbol-10516", componentDefinition).getMessage());
+				report.add(new SBOLValidationException("sbol-10516", componentDefinition));
 			}
 			if (foundNucleic) {
 				if (componentDefinition.getSequenceAnnotations().size() > 0) {
@@ -1234,11 +1272,11 @@ public class SBOLValidate {
 					try {
 						String impliedElements = componentDefinition.getImpliedNucleicAcidSequence();
 						Sequence dnaSequence = componentDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
-						if (!includesSequence(dnaSequence.getElements(), impliedElements)) {
-							errors.add(new SBOLValidationException("sbol-10520", componentDefinition).getMessage());
+						if (!SequenceOperations.isCompatible(dnaSequence.getElementsSequence(), impliedElements)) {
+							report.add(new SBOLValidationException("sbol-10520", componentDefinition));
 						}
 					} catch (Exception e) {
-						errors.add(new SBOLValidationException("sbol-10520", componentDefinition).getMessage());
+						report.add(new SBOLValidationException("sbol-10520", componentDefinition));
 					}
 				}
 			}
@@ -1260,102 +1298,9 @@ public class SBOLValidate {
 		}
 	}
 
-	private static boolean includesSequence(String specificSequence, String generalSequence) {
-		// if (specificSequence.length()!=generalSequence.length()) return false;
-		specificSequence = specificSequence.toLowerCase();
-		generalSequence = generalSequence.toLowerCase();
-		for (int i = 0; i < specificSequence.length(); i++) {
-			switch (generalSequence.charAt(i)) {
-			case 'a':
-			case 'c':
-			case 'g':
-			case 't':
-			case 'u':
-				if (specificSequence.charAt(i) != generalSequence.charAt(i)) {
-					return false;
-				}
-				break;
-			case '.':
-				if (specificSequence.charAt(i) != '.' && specificSequence.charAt(i) != '-') {
-					return false;
-				}
-				break;
-			case '-':
-				if (specificSequence.charAt(i) != '.' && specificSequence.charAt(i) != '-') {
-					return false;
-				}
-				break;
-			case 'r':
-				if (specificSequence.charAt(i) != 'r' && specificSequence.charAt(i) != 'a'
-						&& specificSequence.charAt(i) != 'g') {
-					return false;
-				}
-				break;
-			case 'y':
-				if (specificSequence.charAt(i) != 'y' && specificSequence.charAt(i) != 'c'
-						&& specificSequence.charAt(i) != 't') {
-					return false;
-				}
-				break;
-			case 's':
-				if (specificSequence.charAt(i) != 's' && specificSequence.charAt(i) != 'c'
-						&& specificSequence.charAt(i) != 'g') {
-					return false;
-				}
-				break;
-			case 'w':
-				if (specificSequence.charAt(i) != 'w' && specificSequence.charAt(i) != 'a'
-						&& specificSequence.charAt(i) != 't') {
-					return false;
-				}
-				break;
-			case 'k':
-				if (specificSequence.charAt(i) != 'k' && specificSequence.charAt(i) != 'g'
-						&& specificSequence.charAt(i) != 't') {
-					return false;
-				}
-				break;
-			case 'm':
-				if (specificSequence.charAt(i) != 'm' && specificSequence.charAt(i) != 'a'
-						&& specificSequence.charAt(i) != 'c') {
-					return false;
-				}
-				break;
-			case 'b':
-				if (specificSequence.charAt(i) != 'k' && specificSequence.charAt(i) != 'g'
-						&& specificSequence.charAt(i) != 't' && specificSequence.charAt(i) != 'c') {
-					return false;
-				}
-				break;
-			case 'd':
-				if (specificSequence.charAt(i) != 'd' && specificSequence.charAt(i) != 'g'
-						&& specificSequence.charAt(i) != 't' && specificSequence.charAt(i) != 'a') {
-					return false;
-				}
-				break;
-			case 'h':
-				if (specificSequence.charAt(i) != 'h' && specificSequence.charAt(i) != 'c'
-						&& specificSequence.charAt(i) != 't' && specificSequence.charAt(i) != 'a') {
-					return false;
-				}
-				break;
-			case 'v':
-				if (specificSequence.charAt(i) != 'v' && specificSequence.charAt(i) != 'g'
-						&& specificSequence.charAt(i) != 'c' && specificSequence.charAt(i) != 'a') {
-					return false;
-				}
-				break;
-			case 'n':
-				break;
-			default:
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private static void validateSequenceAnnotations(SBOLDocument sbolDocument) {
-		for (ComponentDefinition componentDefinition : sbolDocument.getComponentDefinitions()) {
+	private static void validateSequenceAnnotations(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		for (ComponentDefinition componentDefinition : scope.getComponentDefinitions()) {
 			for (SequenceAnnotation sequenceAnnotation : componentDefinition.getSequenceAnnotations()) {
 				Object[] locations = sequenceAnnotation.getLocations().toArray();
 				for (int i = 0; i < locations.length - 1; i++) {
@@ -1369,25 +1314,21 @@ public class SBOLValidate {
 									&& (((Range) location1).getStart() <= ((Range) location2).getEnd()))
 									|| ((((Range) location2).getStart() >= ((Range) location1).getStart())
 											&& (((Range) location2).getStart() <= ((Range) location1).getEnd()))) {
-								errors.add(
-										new SBOLValidationException("sbol-10903", location1, location2).getMessage());
+								report.add(new SBOLValidationException("sbol-10903", location1, location2));
 							}
 						} else if (location1 instanceof Range && location2 instanceof Cut) {
 							if ((((Range) location1).getEnd() > ((Cut) location2).getAt())
 									&& (((Cut) location2).getAt() >= ((Range) location1).getStart())) {
-								errors.add(
-										new SBOLValidationException("sbol-10903", location1, location2).getMessage());
+								report.add(new SBOLValidationException("sbol-10903", location1, location2));
 							}
 						} else if (location2 instanceof Range && location1 instanceof Cut) {
 							if ((((Range) location2).getEnd() > ((Cut) location1).getAt())
 									&& (((Cut) location1).getAt() >= ((Range) location2).getStart())) {
-								errors.add(
-										new SBOLValidationException("sbol-10903", location1, location2).getMessage());
+								report.add(new SBOLValidationException("sbol-10903", location1, location2));
 							}
 						} else if (location2 instanceof Cut && location1 instanceof Cut) {
 							if (((Cut) location2).getAt() == ((Cut) location1).getAt()) {
-								errors.add(
-										new SBOLValidationException("sbol-10903", location1, location2).getMessage());
+								report.add(new SBOLValidationException("sbol-10903", location1, location2));
 							}
 						}
 					}
@@ -1396,16 +1337,17 @@ public class SBOLValidate {
 		}
 	}
 
-	private static final String IUPAC_DNA_PATTERN = "([ACGTURYSWKMBDHVN\\-\\.]*)";
-	private static final Pattern iupacDNAparser = Pattern.compile(IUPAC_DNA_PATTERN);
-	private static final String IUPAC_PROTEIN_PATTERN = "([ABCDEFGHIJKLMNOPQRSTUVWXYZ]*)";
-	private static final Pattern iupacProteinParser = Pattern.compile(IUPAC_PROTEIN_PATTERN);
 	// private static OpenSmilesParser openSmilesParser = new OpenSmilesParser();
-	private static SmilesParser smilesParser = new SmilesParser(DefaultChemObjectBuilder.getInstance());
+	private static final ThreadLocal<SmilesParser> smilesParser = new ThreadLocal<SmilesParser>() {
+		@Override
+		protected SmilesParser initialValue() {
+			return new SmilesParser(DefaultChemObjectBuilder.getInstance());
+		}
+	};
 
 	static boolean checkSmilesEncoding(String sequence) {
 		try {
-			smilesParser.parseSmiles(sequence);
+			smilesParser.get().parseSmiles(sequence);
 			// IAtomContainer molecule = smilesParser.parseSmiles(sequence);
 		} catch (InvalidSmilesException e) {
 			return false;
@@ -1415,36 +1357,41 @@ public class SBOLValidate {
 
 	static boolean checkSequenceEncoding(Sequence sequence) {
 		if (sequence.getEncoding().equals(Sequence.IUPAC_DNA) || (sequence.getEncoding().equals(Sequence.IUPAC_RNA))) {
-			Matcher m = iupacDNAparser.matcher(sequence.getElements().toUpperCase());
-			return m.matches();
+			return SequenceOperations.isIupacNucleicAcid(sequence.getElementsSequence());
 		} else if (sequence.getEncoding().equals(Sequence.IUPAC_PROTEIN)) {
-			Matcher m = iupacProteinParser.matcher(sequence.getElements().toUpperCase());
-			return m.matches();
+			return SequenceOperations.isIupacProtein(sequence.getElementsSequence());
 		} else if (sequence.getEncoding().equals(Sequence.SMILES)) {
 			return checkSmilesEncoding(sequence.getElements());
 		}
 		return true;
 	}
 	
-	private static void validatePersistentIdentityUniqueness(SBOLDocument sbolDocument) {
-		HashMap<URI, Identified> elements = new HashMap<>();
-		(new IdentifiedVisitor() {
-
-            @Override
-            public void visit(Identified identified,TopLevel topLevel) {
+	private static void validatePersistentIdentityUniqueness(SBOLDocument sbolDocument, Scope scope,
+			SBOLValidationReport report) {
+		final IdentityIndex identityIndex = scope.getIdentityIndex();
+		for (TopLevel topLevel : scope.getTopLevels()) {
+			final HashMap<URI, Identified> elements = new HashMap<>();
+			IdentifiedVisitor visitor = new IdentifiedVisitor() {
+
+				@Override
+				public void visit(Identified identified, TopLevel topLevel) {
+
+					if (!identified.isSetPersistentIdentity()) return;
+					Identified identified2 = elements.get(identified.getPersistentIdentity());
+					if (identified2 == null) {
+						identified2 = identityIndex.getPreviousWithPersistentIdentity(
+								identified.getPersistentIdentity(), topLevel.getIdentity());
+					}
+					if (identified2 != null && !identified.getClass().equals(identified2.getClass())) {
+						report.add(new SBOLValidationException("sbol-10220", topLevel));
+					}
+					elements.put(identified.getPersistentIdentity(), identified);
 
-            	if (!identified.isSetPersistentIdentity()) return;
-            	if (elements.get(identified.getPersistentIdentity()) != null) {
-    				Identified identified2 = elements.get(identified.getPersistentIdentity());
-    				if (!identified.getClass().equals(identified2.getClass())) {
-    					errors.add(new SBOLValidationException("sbol-10220", topLevel).getMessage());
-    				}
-    			}
-    			elements.put(identified.getPersistentIdentity(), identified);
-            
-            }
+				}
 
-        }).visitDocument(sbolDocument);
+			};
+			visitor.visitTopLevel(topLevel);
+		}
 	}
 
 //	private static void validatePersistentIdentityUniqueness2(SBOLDocument sbolDocument) {
@@ -1587,24 +1534,30 @@ public class SBOLValidate {
 //		}
 //	}
 
-	private static void validateURIuniqueness(SBOLDocument sbolDocument) {
-		HashMap<URI, Identified> elements = new HashMap<>();
-		(new IdentifiedVisitor() {
+	private static void validateURIuniqueness(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+		final IdentityIndex identityIndex = scope.getIdentityIndex();
+		for (TopLevel topLevel : scope.getTopLevels()) {
+			final HashMap<URI, Identified> elements = new HashMap<>();
+			IdentifiedVisitor visitor = new IdentifiedVisitor() {
 
-            @Override
-            public void visit(Identified identified,TopLevel topLevel) {
+				@Override
+				public void visit(Identified identified, TopLevel topLevel) {
+
+					Identified identified2 = elements.get(identified.getIdentity());
+					if (identified2 == null) {
+						identified2 = identityIndex.getPreviousWithIdentity(identified.getIdentity(),
+								topLevel.getIdentity());
+					}
+					if (identified2 != null && !identified.equals(identified2)) {
+						report.add(new SBOLValidationException("sbol-10202", identified));
+					}
+					elements.put(identified.getIdentity(), identified);
 
-            	if (elements.get(identified.getIdentity()) != null) {
-    				Identified identified2 = elements.get(identified.getIdentity());
-    				if (!identified.equals(identified2)) {
-    					errors.add(new SBOLValidationException("sbol-10202", identified).getMessage());
-    				}
-    			}
-    			elements.put(identified.getIdentity(), identified);
-            
-            }
+				}
 
-        }).visitDocument(sbolDocument);
+			};
+			visitor.visitTopLevel(topLevel);
+		}
 	}
 	
 //	private static void validateURIuniqueness(SBOLDocument sbolDocument) {
@@ -1726,7 +1679,9 @@ public class SBOLValidate {
 	/**
 	 * Validates the given SBOL document. Errors encountered either throw exceptions
 	 * or, if not fatal, are added to the list of errors that can be accessed using
-	 * the {@link #getErrors()} method. Interpretations of the complete, compliant,
+	 * the {@link #getErrors()} method, which is replaced once the validation completes.
+	 * {@link SBOLValidator#validate(SBOLDocument)} returns them in a report of its own
+	 * instead. Interpretations of the complete, compliant,
 	 * and bestPractice parameters are as follows:
 	 * <ul>
 	 * <li>complete: A {@code true} value means that all identity URI references in
@@ -1750,106 +1705,583 @@ public class SBOLValidate {
 	 */
 	public static void validateSBOL(SBOLDocument sbolDocument, boolean complete, boolean compliant,
 			boolean bestPractice) {
-		clearErrors();
+		errors = new SBOLValidator(complete, compliant, bestPractice).validate(sbolDocument).getMessages();
+	}
+
+	/**
+	 * Validates the given SBOL document as {@link #validateSBOL(SBOLDocument, boolean, boolean, boolean)}
+	 * does, adding the violations found to the given report.
+	 * <p>
+	 * Each group of rules checks each top-level separately, over consecutive shares of
+	 * {@link #TOP_LEVELS_PER_TASK} top-levels in the order of their identities. If {@code parallel} is
+	 * {@code true}, these tasks are run in the common fork-join pool, unless the document has registries
+	 * that looking up a missing reference would copy top-levels from. The issues found are added to the
+	 * report group by group, and top-level by top-level, so the report is the same whether or not the
+	 * tasks are run in parallel.
+	 */
+	static void validateSBOL(SBOLDocument sbolDocument, boolean complete, boolean compliant,
+			boolean bestPractice, boolean parallel, SBOLValidationReport report) {
 		// validateSequenceEncodings(sbolDocument);
 		// validateSequenceConstraints(sbolDocument);
-		validateWasDerivedFromVersion(sbolDocument);
-		validateCircularReferences(sbolDocument);
-		validateURIuniqueness(sbolDocument);
-		validatePersistentIdentityUniqueness(sbolDocument);
-		validateMapsTos(sbolDocument);
+		// Listing the top-levels materializes those shared with a snapshot, so the rules only read the document.
+		List<TopLevel> topLevels = getSortedTopLevels(sbolDocument);
+		IdentityIndex identityIndex = new IdentityIndex();
+		for (TopLevel topLevel : topLevels) {
+			identityIndex.add(topLevel);
+		}
+		List<RuleTask> tasks = new ArrayList<>();
+		for (RuleGroup ruleGroup : getRuleGroups(complete, compliant, bestPractice)) {
+			tasks.addAll(createTasks(sbolDocument, ruleGroup, topLevels, identityIndex));
+		}
+		runTasks(sbolDocument, tasks, parallel);
+		for (RuleTask task : tasks) {
+			for (SBOLValidationReport topLevelReport : task.getReports().values()) {
+				report.addAll(topLevelReport);
+			}
+		}
+	}
+
+	/**
+	 * Returns the groups of rules checked by a validation with the given options, in the order in which
+	 * their issues are reported.
+	 */
+	static List<RuleGroup> getRuleGroups(boolean complete, boolean compliant, boolean bestPractice) {
+		List<RuleGroup> ruleGroups = new ArrayList<>();
+		ruleGroups.add(RuleGroup.WAS_DERIVED_FROM_VERSION);
+		ruleGroups.add(RuleGroup.CIRCULAR_REFERENCES);
+		ruleGroups.add(RuleGroup.URI_UNIQUENESS);
+		ruleGroups.add(RuleGroup.PERSISTENT_IDENTITY_UNIQUENESS);
+		ruleGroups.add(RuleGroup.MAPS_TOS);
 		if (compliant)
-			validateCompliance(sbolDocument);
+			ruleGroups.add(RuleGroup.COMPLIANCE);
 		if (complete) {
-			validateCompleteness(sbolDocument);
-			validateDerivedComponentDefinitions(sbolDocument);
+			ruleGroups.add(RuleGroup.COMPLETENESS);
+			ruleGroups.add(RuleGroup.DERIVED_COMPONENT_DEFINITIONS);
 		}
 		if (bestPractice) {
-			validateOntologyUsage(sbolDocument);
-			validateSequenceAnnotations(sbolDocument);
-			validateComponentDefinitionSequences(sbolDocument);
-			validateActivityRoleTypeUsage(sbolDocument);
-			validateCombinatorialBestPractices(sbolDocument);
+			ruleGroups.add(RuleGroup.ONTOLOGY_USAGE);
+			ruleGroups.add(RuleGroup.SEQUENCE_ANNOTATIONS);
+			ruleGroups.add(RuleGroup.COMPONENT_DEFINITION_SEQUENCES);
+			ruleGroups.add(RuleGroup.ACTIVITY_ROLE_TYPE_USAGE);
+			ruleGroups.add(RuleGroup.COMBINATORIAL_BEST_PRACTICES);
+		}
+		return ruleGroups;
+	}
+
+	/**
+	 * Returns the tasks checking the given group of rules on the given top-levels, which must be in the
+	 * order of their identities, each over a consecutive share of them.
+	 */
+	static List<RuleTask> createTasks(SBOLDocument sbolDocument, RuleGroup ruleGroup, List<TopLevel> topLevels,
+			IdentityIndex identityIndex) {
+		List<RuleTask> tasks = new ArrayList<>();
+		for (int start = 0; start < topLevels.size(); start += TOP_LEVELS_PER_TASK) {
+			tasks.add(new RuleTask(ruleGroup, sbolDocument,
+					topLevels.subList(start, Math.min(start + TOP_LEVELS_PER_TASK, topLevels.size())),
+					identityIndex));
 		}
+		return tasks;
 	}
 
-	private static void compareNamespaces(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	/**
+	 * Runs the given tasks on the given SBOL document, in the common fork-join pool if {@code parallel}
+	 * is {@code true} and the document has no registries, or one after the other otherwise.
+	 */
+	static void runTasks(SBOLDocument sbolDocument, final List<RuleTask> tasks, boolean parallel) {
+		if (parallel && tasks.size() > 1 && sbolDocument.getRegistries().isEmpty()) {
+			ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} else {
+			for (RuleTask task : tasks) {
+				task.compute();
+			}
+		}
+	}
+
+	/**
+	 * The number of top-levels checked by each task of a validation, which does not depend on the number
+	 * of threads, so that neither does the order of the issues reported.
+	 */
+	private static final int TOP_LEVELS_PER_TASK = 1024;
+
+	/**
+	 * Returns the top-levels of the given SBOL document, in the order of their identities.
+	 */
+	static List<TopLevel> getSortedTopLevels(SBOLDocument sbolDocument) {
+		List<TopLevel> topLevels = new ArrayList<>(sbolDocument.getTopLevels());
+		Collections.sort(topLevels, new Comparator<TopLevel>() {
+			@Override
+			public int compare(TopLevel topLevel1, TopLevel topLevel2) {
+				return topLevel1.getIdentity().compareTo(topLevel2.getIdentity());
+			}
+		});
+		return topLevels;
+	}
+
+	/**
+	 * The top-levels checked by a run of validation rules, which look up the objects these top-levels
+	 * refer to in the whole document, and the objects sharing their identities in an identity index.
+	 */
+	static final class Scope {
+
+		private final List<TopLevel> topLevels;
+		private final IdentityIndex identityIndex;
+
+		Scope(java.util.Collection<TopLevel> topLevels) {
+			this(topLevels, null);
+		}
+
+		Scope(java.util.Collection<TopLevel> topLevels, IdentityIndex identityIndex) {
+			this.topLevels = new ArrayList<>(topLevels);
+			this.identityIndex = identityIndex;
+		}
+
+		List<TopLevel> getTopLevels() {
+			return topLevels;
+		}
+
+		IdentityIndex getIdentityIndex() {
+			return identityIndex;
+		}
+
+		private <T extends TopLevel> List<T> getTopLevels(Class<T> type) {
+			List<T> result = new ArrayList<>();
+			for (TopLevel topLevel : topLevels) {
+				if (type.isInstance(topLevel)) {
+					result.add(type.cast(topLevel));
+				}
+			}
+			return result;
+		}
+
+		List<Collection> getCollections() {
+			return getTopLevels(Collection.class);
+		}
+
+		List<Sequence> getSequences() {
+			return getTopLevels(Sequence.class);
+		}
+
+		List<ComponentDefinition> getComponentDefinitions() {
+			return getTopLevels(ComponentDefinition.class);
+		}
+
+		List<ModuleDefinition> getModuleDefinitions() {
+			return getTopLevels(ModuleDefinition.class);
+		}
+
+		List<Model> getModels() {
+			return getTopLevels(Model.class);
+		}
+
+		List<CombinatorialDerivation> getCombinatorialDerivations() {
+			return getTopLevels(CombinatorialDerivation.class);
+		}
+
+		List<Implementation> getImplementations() {
+			return getTopLevels(Implementation.class);
+		}
+
+		List<Attachment> getAttachments() {
+			return getTopLevels(Attachment.class);
+		}
+
+		List<Activity> getActivities() {
+			return getTopLevels(Activity.class);
+		}
+	}
+
+	/**
+	 * The objects of the top-levels of a document, indexed by their identities and persistent
+	 * identities, so that the uniqueness rules can check each top-level separately against the
+	 * top-levels before it in the order of their identities.
+	 */
+	static final class IdentityIndex {
+
+		private final Map<URI, Map<URI, Identified>> identities = new HashMap<>();
+		private final Map<URI, Map<URI, Identified>> persistentIdentities = new HashMap<>();
+		private final Map<URI, List<URI>> identityOwners = new HashMap<>();
+		private final Map<URI, List<URI>> persistentIdentityOwners = new HashMap<>();
+
+		/**
+		 * Adds the objects of the given top-level, which must not be in this index, to this index.
+		 */
+		void add(TopLevel topLevel) {
+			final Map<URI, Identified> topLevelIdentities = new HashMap<>();
+			final Map<URI, Identified> topLevelPersistentIdentities = new HashMap<>();
+			IdentifiedVisitor visitor = new IdentifiedVisitor() {
+
+				@Override
+				public void visit(Identified identified, TopLevel topLevel) {
+					topLevelIdentities.put(identified.getIdentity(), identified);
+					if (identified.isSetPersistentIdentity()) {
+						topLevelPersistentIdentities.put(identified.getPersistentIdentity(), identified);
+					}
+				}
+
+			};
+			visitor.visitTopLevel(topLevel);
+			identities.put(topLevel.getIdentity(), topLevelIdentities);
+			persistentIdentities.put(topLevel.getIdentity(), topLevelPersistentIdentities);
+			addOwner(identityOwners, topLevelIdentities.keySet(), topLevel.getIdentity());
+			addOwner(persistentIdentityOwners, topLevelPersistentIdentities.keySet(), topLevel.getIdentity());
+		}
+
+		/**
+		 * Removes the objects of the top-level with the given identity from this index.
+		 */
+		void remove(URI topLevelIdentity) {
+			Map<URI, Identified> topLevelIdentities = identities.remove(topLevelIdentity);
+			if (topLevelIdentities != null) {
+				removeOwner(identityOwners, topLevelIdentities.keySet(), topLevelIdentity);
+			}
+			Map<URI, Identified> topLevelPersistentIdentities = persistentIdentities.remove(topLevelIdentity);
+			if (topLevelPersistentIdentities != null) {
+				removeOwner(persistentIdentityOwners, topLevelPersistentIdentities.keySet(), topLevelIdentity);
+			}
+		}
+
+		/**
+		 * Adds the identities of the top-levels in this index that have objects with the same identity or
+		 * persistent identity as an object of the top-level with the given identity to the given set.
+		 */
+		void collectSharingTopLevels(URI topLevelIdentity, Set<URI> sharingTopLevels) {
+			collectOwners(identityOwners, identities.get(topLevelIdentity), sharingTopLevels);
+			collectOwners(persistentIdentityOwners, persistentIdentities.get(topLevelIdentity), sharingTopLevels);
+		}
+
+		/**
+		 * Returns the last object with the given identity in the last top-level before the top-level with
+		 * the given identity that has one, or {@code null} if there is none.
+		 */
+		Identified getPreviousWithIdentity(URI identity, URI topLevelIdentity) {
+			return getPrevious(identityOwners, identities, identity, topLevelIdentity);
+		}
+
+		/**
+		 * Returns the last object with the given persistent identity in the last top-level before the
+		 * top-level with the given identity that has one, or {@code null} if there is none.
+		 */
+		Identified getPreviousWithPersistentIdentity(URI persistentIdentity, URI topLevelIdentity) {
+			return getPrevious(persistentIdentityOwners, persistentIdentities, persistentIdentity,
+					topLevelIdentity);
+		}
+
+		private static void addOwner(Map<URI, List<URI>> owners, Set<URI> uris, URI topLevelIdentity) {
+			for (URI uri : uris) {
+				List<URI> uriOwners = owners.get(uri);
+				if (uriOwners == null) {
+					uriOwners = new ArrayList<>(1);
+					owners.put(uri, uriOwners);
+				}
+				int index = Collections.binarySearch(uriOwners, topLevelIdentity);
+				if (index < 0) {
+					uriOwners.add(-index - 1, topLevelIdentity);
+				}
+			}
+		}
+
+		private static void removeOwner(Map<URI, List<URI>> owners, Set<URI> uris, URI topLevelIdentity) {
+			for (URI uri : uris) {
+				List<URI> uriOwners = owners.get(uri);
+				if (uriOwners == null) {
+					continue;
+				}
+				uriOwners.remove(topLevelIdentity);
+				if (uriOwners.isEmpty()) {
+					owners.remove(uri);
+				}
+			}
+		}
+
+		private static void collectOwners(Map<URI, List<URI>> owners, Map<URI, Identified> occurrences,
+				Set<URI> sharingTopLevels) {
+			if (occurrences == null) {
+				return;
+			}
+			for (URI uri : occurrences.keySet()) {
+				List<URI> uriOwners = owners.get(uri);
+				if (uriOwners != null && uriOwners.size() > 1) {
+					sharingTopLevels.addAll(uriOwners);
+				}
+			}
+		}
+
+		private static Identified getPrevious(Map<URI, List<URI>> owners,
+				Map<URI, Map<URI, Identified>> occurrences, URI uri, URI topLevelIdentity) {
+			List<URI> uriOwners = owners.get(uri);
+			if (uriOwners == null) {
+				return null;
+			}
+			int index = Collections.binarySearch(uriOwners, topLevelIdentity);
+			int previous = (index >= 0 ? index : -index - 1) - 1;
+			if (previous < 0) {
+				return null;
+			}
+			return occurrences.get(uriOwners.get(previous)).get(uri);
+		}
+	}
+
+	/**
+	 * The groups of validation rules, each run by one method of this class.
+	 */
+	enum RuleGroup {
+		WAS_DERIVED_FROM_VERSION(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateWasDerivedFromVersion(sbolDocument, scope, report);
+			}
+		},
+		CIRCULAR_REFERENCES(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateCircularReferences(sbolDocument, scope, report);
+			}
+		},
+		URI_UNIQUENESS(Dependency.IDENTITIES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateURIuniqueness(sbolDocument, scope, report);
+			}
+		},
+		PERSISTENT_IDENTITY_UNIQUENESS(Dependency.IDENTITIES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validatePersistentIdentityUniqueness(sbolDocument, scope, report);
+			}
+		},
+		MAPS_TOS(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateMapsTos(sbolDocument, scope, report);
+			}
+		},
+		COMPLIANCE(Dependency.NONE) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateCompliance(sbolDocument, scope, report);
+			}
+		},
+		COMPLETENESS(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateCompleteness(sbolDocument, scope, report);
+			}
+		},
+		DERIVED_COMPONENT_DEFINITIONS(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateDerivedComponentDefinitions(sbolDocument, scope, report);
+			}
+		},
+		ONTOLOGY_USAGE(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateOntologyUsage(sbolDocument, scope, report);
+			}
+		},
+		SEQUENCE_ANNOTATIONS(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateSequenceAnnotations(sbolDocument, scope, report);
+			}
+		},
+		COMPONENT_DEFINITION_SEQUENCES(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateComponentDefinitionSequences(sbolDocument, scope, report);
+			}
+		},
+		ACTIVITY_ROLE_TYPE_USAGE(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateActivityRoleTypeUsage(sbolDocument, scope, report);
+			}
+		},
+		COMBINATORIAL_BEST_PRACTICES(Dependency.REFERENCES) {
+			@Override
+			void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report) {
+				validateCombinatorialBestPractices(sbolDocument, scope, report);
+			}
+		};
+
+		/**
+		 * What the issues a group of rules finds in a top-level depend on besides the top-level itself.
+		 */
+		enum Dependency {
+			/**
+			 * Nothing else.
+			 */
+			NONE,
+			/**
+			 * The top-levels it refers to, directly or through other top-levels.
+			 */
+			REFERENCES,
+			/**
+			 * The top-levels with objects sharing an identity or persistent identity with its objects.
+			 */
+			IDENTITIES
+		}
+
+		private final Dependency dependency;
+
+		RuleGroup(Dependency dependency) {
+			this.dependency = dependency;
+		}
+
+		/**
+		 * Returns what the issues the rules of this group find in a top-level depend on besides the
+		 * top-level itself, and so which top-levels must be checked again after others change.
+		 */
+		Dependency getDependency() {
+			return dependency;
+		}
+
+		abstract void validate(SBOLDocument sbolDocument, Scope scope, SBOLValidationReport report);
+	}
+
+	/**
+	 * Runs a group of validation rules over each of a list of top-levels, keeping the issues found in
+	 * each top-level in a report of its own.
+	 */
+	static final class RuleTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RuleGroup ruleGroup;
+		private final SBOLDocument sbolDocument;
+		private final List<TopLevel> topLevels;
+		private final IdentityIndex identityIndex;
+		private final SortedMap<URI, SBOLValidationReport> reports;
+
+		RuleTask(RuleGroup ruleGroup, SBOLDocument sbolDocument, List<TopLevel> topLevels,
+				IdentityIndex identityIndex) {
+			this.ruleGroup = ruleGroup;
+			this.sbolDocument = sbolDocument;
+			this.topLevels = topLevels;
+			this.identityIndex = identityIndex;
+			this.reports = new TreeMap<>();
+		}
+
+		@Override
+		protected void compute() {
+			for (TopLevel topLevel : topLevels) {
+				SBOLValidationReport report = new SBOLValidationReport();
+				ruleGroup.validate(sbolDocument, new Scope(Collections.singletonList(topLevel), identityIndex),
+						report);
+				if (!report.isEmpty()) {
+					reports.put(topLevel.getIdentity(), report);
+				}
+			}
+		}
+
+		RuleGroup getRuleGroup() {
+			return ruleGroup;
+		}
+
+		/**
+		 * Returns the reports of the issues found in the top-levels of this task that have any, by the
+		 * identities of these top-levels.
+		 */
+		SortedMap<URI, SBOLValidationReport> getReports() {
+			return reports;
+		}
+	}
+
+	private static void compareNamespaces(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (QName namespace : doc1.getNamespaces()) {
 			if (doc2.getNamespaces().contains(namespace))
 				continue;
-			errors.add("Namespace " + namespace.toString() + " not found in " + file2);
+			report.add(URI.create(namespace.getNamespaceURI()),
+					"Namespace " + namespace.toString() + " not found in " + file2);
 		}
 		for (QName namespace : doc2.getNamespaces()) {
 			if (doc1.getNamespaces().contains(namespace))
 				continue;
-			errors.add("Namespace " + namespace.toString() + " not found in " + file1);
+			report.add(URI.create(namespace.getNamespaceURI()),
+					"Namespace " + namespace.toString() + " not found in " + file1);
 		}
 	}
 
-	private static void compareCollections(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareCollections(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Collection collection1 : doc1.getCollections()) {
 			Collection collection2 = doc2.getCollection(collection1.getIdentity());
 			if (collection2 == null) {
-				errors.add("Collection " + collection1.getIdentity() + " not found in " + file2);
+				report.add(collection1.getIdentity(),
+						"Collection " + collection1.getIdentity() + " not found in " + file2);
 			} else if (!collection1.equals(collection2)) {
-				errors.add("Collection " + collection1.getIdentity() + " differ.");
+				report.add(collection1.getIdentity(), "Collection " + collection1.getIdentity() + " differ.");
 			}
 		}
 		for (Collection collection2 : doc2.getCollections()) {
 			Collection collection1 = doc1.getCollection(collection2.getIdentity());
 			if (collection1 == null) {
-				errors.add("Collection " + collection2.getIdentity() + " not found in " + file1);
+				report.add(collection2.getIdentity(),
+						"Collection " + collection2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareMapsTos(String file1, Component component1, String file2, Component component2) {
+	private static void compareMapsTos(String file1, Component component1, String file2, Component component2,
+			SBOLValidationReport report) {
 		for (MapsTo mapsTo1 : component1.getMapsTos()) {
 			MapsTo mapsTo2 = component2.getMapsTo(mapsTo1.getIdentity());
 			if (mapsTo2 == null) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
 			} else if (!mapsTo1.equals(mapsTo2)) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " differ.");
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " differ.");
 			}
 		}
 		for (MapsTo mapsTo2 : component2.getMapsTos()) {
 			MapsTo mapsTo1 = component1.getMapsTo(mapsTo2.getIdentity());
 			if (mapsTo1 == null) {
-				errors.add("--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
+				report.add(mapsTo2.getIdentity(), "--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareComponents(String file1, ComponentDefinition componentDefinition1, String file2,
-			ComponentDefinition componentDefinition2) {
+			ComponentDefinition componentDefinition2, SBOLValidationReport report) {
 		for (Component component1 : componentDefinition1.getComponents()) {
 			Component component2 = componentDefinition2.getComponent(component1.getIdentity());
 			if (component2 == null) {
-				errors.add("->Component " + component1.getIdentity() + " not found in " + file2);
+				report.add(component1.getIdentity(),
+						"->Component " + component1.getIdentity() + " not found in " + file2);
 			} else if (!component1.equals(component2)) {
-				errors.add("->Component " + component1.getIdentity() + " differ.");
-				compareMapsTos(file1, component1, file2, component2);
+				report.add(component1.getIdentity(), "->Component " + component1.getIdentity() + " differ.");
+				compareMapsTos(file1, component1, file2, component2, report);
 			}
 		}
 		for (Component component2 : componentDefinition2.getComponents()) {
 			Component component1 = componentDefinition1.getComponent(component2.getIdentity());
 			if (component1 == null) {
-				errors.add("->Component " + component2.getIdentity() + " not found in " + file1);
+				report.add(component2.getIdentity(),
+						"->Component " + component2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareVariableComponents(String file1, CombinatorialDerivation combinatorialDerivation1,
-			String file2, CombinatorialDerivation combinatorialDerivation2) {
+			String file2, CombinatorialDerivation combinatorialDerivation2, SBOLValidationReport report) {
 
 		for (VariableComponent variableComponent1 : combinatorialDerivation1.getVariableComponents()) {
 			VariableComponent variableComponent2 = combinatorialDerivation2
 					.getVariableComponent(variableComponent1.getIdentity());
 
 			if (variableComponent2 == null) {
-				errors.add("->VariableComponent " + variableComponent1.getIdentity() + " not found in " + file2);
+				report.add(variableComponent1.getIdentity(),
+						"->VariableComponent " + variableComponent1.getIdentity() + " not found in " + file2);
 			} else if (!variableComponent1.equals(variableComponent2)) {
-				errors.add("->VariableComponent " + variableComponent1.getIdentity() + " differ.");
+				report.add(variableComponent1.getIdentity(),
+						"->VariableComponent " + variableComponent1.getIdentity() + " differ.");
 			}
 		}
 
@@ -1858,102 +2290,116 @@ public class SBOLValidate {
 					.getVariableComponent(variableComponent2.getIdentity());
 
 			if (variableComponent1 == null) {
-				errors.add("->VariableComponent " + variableComponent2.getIdentity() + " not found in " + file1);
+				report.add(variableComponent2.getIdentity(),
+						"->VariableComponent " + variableComponent2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareLocations(String file1, SequenceAnnotation sequenceAnnotation1, String file2,
-			SequenceAnnotation sequenceAnnotation2) {
+			SequenceAnnotation sequenceAnnotation2, SBOLValidationReport report) {
 		for (Location location1 : sequenceAnnotation1.getLocations()) {
 			Location location2 = sequenceAnnotation2.getLocation(location1.getIdentity());
 			if (location2 == null) {
-				errors.add("--->Location " + location1.getIdentity() + " not found in " + file2);
+				report.add(location1.getIdentity(),
+						"--->Location " + location1.getIdentity() + " not found in " + file2);
 			} else if (!location1.equals(location2)) {
-				errors.add("--->Location " + location1.getIdentity() + " differ.");
+				report.add(location1.getIdentity(), "--->Location " + location1.getIdentity() + " differ.");
 			}
 		}
 		for (Location location2 : sequenceAnnotation2.getLocations()) {
 			Location location1 = sequenceAnnotation1.getLocation(location2.getIdentity());
 			if (location1 == null) {
-				errors.add("--->Location " + location2.getIdentity() + " not found in " + file1);
+				report.add(location2.getIdentity(),
+						"--->Location " + location2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareSequenceAnnotations(String file1, ComponentDefinition componentDefinition1, String file2,
-			ComponentDefinition componentDefinition2) {
+			ComponentDefinition componentDefinition2, SBOLValidationReport report) {
 		for (SequenceAnnotation sequenceAnnotation1 : componentDefinition1.getSequenceAnnotations()) {
 			SequenceAnnotation sequenceAnnotation2 = componentDefinition2
 					.getSequenceAnnotation(sequenceAnnotation1.getIdentity());
 			if (sequenceAnnotation2 == null) {
-				errors.add("->SequenceAnnotation " + sequenceAnnotation1.getIdentity() + " not found in " + file2);
+				report.add(sequenceAnnotation1.getIdentity(),
+						"->SequenceAnnotation " + sequenceAnnotation1.getIdentity() + " not found in " + file2);
 			} else if (!sequenceAnnotation1.equals(sequenceAnnotation2)) {
-				errors.add("->SequenceAnnotation " + sequenceAnnotation1.getIdentity() + " differ.");
-				compareLocations(file1, sequenceAnnotation1, file2, sequenceAnnotation2);
+				report.add(sequenceAnnotation1.getIdentity(),
+						"->SequenceAnnotation " + sequenceAnnotation1.getIdentity() + " differ.");
+				compareLocations(file1, sequenceAnnotation1, file2, sequenceAnnotation2, report);
 			}
 		}
 		for (SequenceAnnotation sequenceAnnotation2 : componentDefinition2.getSequenceAnnotations()) {
 			SequenceAnnotation sequenceAnnotation1 = componentDefinition1
 					.getSequenceAnnotation(sequenceAnnotation2.getIdentity());
 			if (sequenceAnnotation1 == null) {
-				errors.add("->SequenceAnnotation " + sequenceAnnotation2.getIdentity() + " not found in " + file1);
+				report.add(sequenceAnnotation2.getIdentity(),
+						"->SequenceAnnotation " + sequenceAnnotation2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareSequenceConstraints(String file1, ComponentDefinition componentDefinition1, String file2,
-			ComponentDefinition componentDefinition2) {
+			ComponentDefinition componentDefinition2, SBOLValidationReport report) {
 		for (SequenceConstraint sequenceConstraint1 : componentDefinition1.getSequenceConstraints()) {
 			SequenceConstraint sequenceConstraint2 = componentDefinition2
 					.getSequenceConstraint(sequenceConstraint1.getIdentity());
 			if (sequenceConstraint2 == null) {
-				errors.add("->SequenceConstraint " + sequenceConstraint1.getIdentity() + " not found in " + file2);
+				report.add(sequenceConstraint1.getIdentity(),
+						"->SequenceConstraint " + sequenceConstraint1.getIdentity() + " not found in " + file2);
 			} else if (!sequenceConstraint1.equals(sequenceConstraint2)) {
-				errors.add("->SequenceConstraint " + sequenceConstraint1.getIdentity() + " differ.");
+				report.add(sequenceConstraint1.getIdentity(),
+						"->SequenceConstraint " + sequenceConstraint1.getIdentity() + " differ.");
 			}
 		}
 		for (SequenceConstraint sequenceConstraint2 : componentDefinition2.getSequenceConstraints()) {
 			SequenceConstraint sequenceConstraint1 = componentDefinition1
 					.getSequenceConstraint(sequenceConstraint2.getIdentity());
 			if (sequenceConstraint1 == null) {
-				errors.add("->SequenceConstraint " + sequenceConstraint2.getIdentity() + " not found in " + file1);
+				report.add(sequenceConstraint2.getIdentity(),
+						"->SequenceConstraint " + sequenceConstraint2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareComponentDefinitions(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareComponentDefinitions(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (ComponentDefinition componentDefinition1 : doc1.getComponentDefinitions()) {
 			ComponentDefinition componentDefinition2 = doc2.getComponentDefinition(componentDefinition1.getIdentity());
 			if (componentDefinition2 == null) {
-				errors.add("ComponentDefinition " + componentDefinition1.getIdentity() + " not found in " + file2);
+				report.add(componentDefinition1.getIdentity(),
+						"ComponentDefinition " + componentDefinition1.getIdentity() + " not found in " + file2);
 			} else if (!componentDefinition1.equals(componentDefinition2)) {
-				errors.add("ComponentDefinition " + componentDefinition1.getIdentity() + " differ.");
-				compareComponents(file1, componentDefinition1, file2, componentDefinition2);
-				compareSequenceAnnotations(file1, componentDefinition1, file2, componentDefinition2);
-				compareSequenceConstraints(file1, componentDefinition1, file2, componentDefinition2);
+				report.add(componentDefinition1.getIdentity(),
+						"ComponentDefinition " + componentDefinition1.getIdentity() + " differ.");
+				compareComponents(file1, componentDefinition1, file2, componentDefinition2, report);
+				compareSequenceAnnotations(file1, componentDefinition1, file2, componentDefinition2, report);
+				compareSequenceConstraints(file1, componentDefinition1, file2, componentDefinition2, report);
 			}
 		}
 		for (ComponentDefinition componentDefinition2 : doc2.getComponentDefinitions()) {
 			ComponentDefinition componentDefinition1 = doc1.getComponentDefinition(componentDefinition2.getIdentity());
 			if (componentDefinition1 == null) {
-				errors.add("ComponentDefinition " + componentDefinition2.getIdentity() + " not found in " + file1);
+				report.add(componentDefinition2.getIdentity(),
+						"ComponentDefinition " + componentDefinition2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareCombinatorialDerivations(String file1, SBOLDocument doc1, String file2,
-			SBOLDocument doc2) {
+			SBOLDocument doc2, SBOLValidationReport report) {
 		for (CombinatorialDerivation combinatorialDerivation1 : doc1.getCombinatorialDerivations()) {
 			CombinatorialDerivation combinatorialDerivation2 = doc2
 					.getCombinatorialDerivation(combinatorialDerivation1.getIdentity());
 
 			if (combinatorialDerivation2 == null) {
-				errors.add(
+				report.add(combinatorialDerivation1.getIdentity(),
 						"CombinatorialDerivation " + combinatorialDerivation1.getIdentity() + " not found in " + file2);
 			} else if (!combinatorialDerivation1.equals(combinatorialDerivation2)) {
-				errors.add("CombinatorialDerivation " + combinatorialDerivation1.getIdentity() + " differ.");
-				compareVariableComponents(file1, combinatorialDerivation1, file2, combinatorialDerivation2);
+				report.add(combinatorialDerivation1.getIdentity(),
+						"CombinatorialDerivation " + combinatorialDerivation1.getIdentity() + " differ.");
+				compareVariableComponents(file1, combinatorialDerivation1, file2, combinatorialDerivation2, report);
 			}
 		}
 
@@ -1962,306 +2408,338 @@ public class SBOLValidate {
 					.getCombinatorialDerivation(combinatorialDerivation2.getIdentity());
 
 			if (combinatorialDerivation1 == null) {
-				errors.add(
+				report.add(combinatorialDerivation2.getIdentity(),
 						"CombinatorialDerivation " + combinatorialDerivation2.getIdentity() + " not found in " + file2);
 			}
 		}
 	}
 
-	private static void compareActivities(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareActivities(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Activity activity1 : doc1.getActivities()) {
 			Activity activity2 = doc2.getActivity(activity1.getIdentity());
 			if (activity2 == null) {
-				errors.add("Activity " + activity1.getIdentity() + " not found in " + file2);
+				report.add(activity1.getIdentity(), "Activity " + activity1.getIdentity() + " not found in " + file2);
 			} else if (!activity1.equals(activity2)) {
-				errors.add("Activity " + activity1.getIdentity() + " differ.");
-				compareAssociations(file1, activity1, file2, activity2);
-				compareUsages(file1, activity1, file2, activity2);
+				report.add(activity1.getIdentity(), "Activity " + activity1.getIdentity() + " differ.");
+				compareAssociations(file1, activity1, file2, activity2, report);
+				compareUsages(file1, activity1, file2, activity2, report);
 			}
 		}
 		for (Activity activity2 : doc2.getActivities()) {
 			Activity activity1 = doc1.getActivity(activity2.getIdentity());
 			if (activity1 == null) {
-				errors.add("Activity " + activity2.getIdentity() + " not found in " + file1);
+				report.add(activity2.getIdentity(), "Activity " + activity2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareAssociations(String file1, Activity activity1, String file2, Activity activity2) {
+	private static void compareAssociations(String file1, Activity activity1, String file2, Activity activity2,
+			SBOLValidationReport report) {
 		for (Association association1 : activity1.getAssociations()) {
 			Association association2 = activity2.getAssociation(association1.getIdentity());
 			if (association2 == null) {
-				errors.add("Association " + association1.getIdentity() + " not found in " + file2);
+				report.add(association1.getIdentity(),
+						"Association " + association1.getIdentity() + " not found in " + file2);
 			} else if (!association1.equals(association2)) {
-				errors.add("Association " + association1.getIdentity() + " differ.");
+				report.add(association1.getIdentity(), "Association " + association1.getIdentity() + " differ.");
 			}
 		}
 		for (Association association2 : activity2.getAssociations()) {
 			Association association1 = activity1.getAssociation(association2.getIdentity());
 			if (association1 == null) {
-				errors.add("Association " + association2.getIdentity() + " not found in " + file1);
+				report.add(association2.getIdentity(),
+						"Association " + association2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareUsages(String file1, Activity activity1, String file2, Activity activity2) {
+	private static void compareUsages(String file1, Activity activity1, String file2, Activity activity2,
+			SBOLValidationReport report) {
 		for (Usage usage1 : activity1.getUsages()) {
 			Usage usage2 = activity2.getUsage(usage1.getIdentity());
 			if (usage2 == null) {
-				errors.add("Usage " + usage1.getIdentity() + " not found in " + file2);
+				report.add(usage1.getIdentity(), "Usage " + usage1.getIdentity() + " not found in " + file2);
 			} else if (!usage1.equals(usage2)) {
-				errors.add("Usage " + usage1.getIdentity() + " differ.");
+				report.add(usage1.getIdentity(), "Usage " + usage1.getIdentity() + " differ.");
 			}
 		}
 		for (Usage usage2 : activity2.getUsages()) {
 			Usage usage1 = activity1.getUsage(usage2.getIdentity());
 			if (usage1 == null) {
-				errors.add("Usage " + usage2.getIdentity() + " not found in " + file1);
+				report.add(usage2.getIdentity(), "Usage " + usage2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void comparePlans(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void comparePlans(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Plan plan1 : doc1.getPlans()) {
 			Plan plan2 = doc2.getPlan(plan1.getIdentity());
 			if (plan2 == null) {
-				errors.add("Plan " + plan1.getIdentity() + " not found in " + file2);
+				report.add(plan1.getIdentity(), "Plan " + plan1.getIdentity() + " not found in " + file2);
 			} else if (!plan1.equals(plan2)) {
-				errors.add("Plan " + plan1.getIdentity() + " differ.");
+				report.add(plan1.getIdentity(), "Plan " + plan1.getIdentity() + " differ.");
 			}
 		}
 		for (Plan plan2 : doc2.getPlans()) {
 			Plan plan1 = doc1.getPlan(plan2.getIdentity());
 			if (plan1 == null) {
-				errors.add("Plan " + plan2.getIdentity() + " not found in " + file1);
+				report.add(plan2.getIdentity(), "Plan " + plan2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareAgents(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareAgents(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Agent plan1 : doc1.getAgents()) {
 			Agent plan2 = doc2.getAgent(plan1.getIdentity());
 			if (plan2 == null) {
-				errors.add("Agent " + plan1.getIdentity() + " not found in " + file2);
+				report.add(plan1.getIdentity(), "Agent " + plan1.getIdentity() + " not found in " + file2);
 			} else if (!plan1.equals(plan2)) {
-				errors.add("Agent " + plan1.getIdentity() + " differ.");
+				report.add(plan1.getIdentity(), "Agent " + plan1.getIdentity() + " differ.");
 			}
 		}
 		for (Agent activity2 : doc2.getAgents()) {
 			Agent activity1 = doc1.getAgent(activity2.getIdentity());
 			if (activity1 == null) {
-				errors.add("Agent " + activity2.getIdentity() + " not found in " + file1);
+				report.add(activity2.getIdentity(), "Agent " + activity2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareSequences(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareSequences(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Sequence sequence1 : doc1.getSequences()) {
 			Sequence sequence2 = doc2.getSequence(sequence1.getIdentity());
 			if (sequence2 == null) {
-				errors.add("Sequence " + sequence1.getIdentity() + " not found in " + file2);
+				report.add(sequence1.getIdentity(), "Sequence " + sequence1.getIdentity() + " not found in " + file2);
 			} else if (!sequence1.equals(sequence2)) {
-				errors.add("Sequence " + sequence1.getIdentity() + " differ.");
+				report.add(sequence1.getIdentity(), "Sequence " + sequence1.getIdentity() + " differ.");
 			}
 		}
 		for (Sequence sequence2 : doc2.getSequences()) {
 			Sequence sequence1 = doc1.getSequence(sequence2.getIdentity());
 			if (sequence1 == null) {
-				errors.add("Sequence " + sequence2.getIdentity() + " not found in " + file1);
+				report.add(sequence2.getIdentity(), "Sequence " + sequence2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareMapsTos(String file1, FunctionalComponent functionalComponent1, String file2,
-			FunctionalComponent functionalComponent2) {
+			FunctionalComponent functionalComponent2, SBOLValidationReport report) {
 		for (MapsTo mapsTo1 : functionalComponent1.getMapsTos()) {
 			MapsTo mapsTo2 = functionalComponent2.getMapsTo(mapsTo1.getIdentity());
 			if (mapsTo2 == null) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
 			} else if (!mapsTo1.equals(mapsTo2)) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " differ.");
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " differ.");
 			}
 		}
 		for (MapsTo mapsTo2 : functionalComponent2.getMapsTos()) {
 			MapsTo mapsTo1 = functionalComponent1.getMapsTo(mapsTo2.getIdentity());
 			if (mapsTo1 == null) {
-				errors.add("--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
+				report.add(mapsTo2.getIdentity(), "--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareFunctionalComponents(String file1, ModuleDefinition moduleDefinition1, String file2,
-			ModuleDefinition moduleDefinition2) {
+			ModuleDefinition moduleDefinition2, SBOLValidationReport report) {
 		for (FunctionalComponent functionalComponent1 : moduleDefinition1.getFunctionalComponents()) {
 			FunctionalComponent functionalComponent2 = moduleDefinition2
 					.getFunctionalComponent(functionalComponent1.getIdentity());
 			if (functionalComponent2 == null) {
-				errors.add("->FunctionalComponent " + functionalComponent1.getIdentity() + " not found in " + file2);
+				report.add(functionalComponent1.getIdentity(),
+						"->FunctionalComponent " + functionalComponent1.getIdentity() + " not found in " + file2);
 			} else if (!functionalComponent1.equals(functionalComponent2)) {
-				errors.add("->FunctionalComponent " + functionalComponent1.getIdentity() + " differ.");
-				compareMapsTos(file1, functionalComponent1, file2, functionalComponent2);
+				report.add(functionalComponent1.getIdentity(),
+						"->FunctionalComponent " + functionalComponent1.getIdentity() + " differ.");
+				compareMapsTos(file1, functionalComponent1, file2, functionalComponent2, report);
 			}
 		}
 		for (FunctionalComponent functionalComponent2 : moduleDefinition2.getFunctionalComponents()) {
 			FunctionalComponent functionalComponent1 = moduleDefinition1
 					.getFunctionalComponent(functionalComponent2.getIdentity());
 			if (functionalComponent1 == null) {
-				errors.add("->FunctionalComponent " + functionalComponent2.getIdentity() + " not found in " + file1);
+				report.add(functionalComponent2.getIdentity(),
+						"->FunctionalComponent " + functionalComponent2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareMapsTos(String file1, Module module1, String file2, Module module2) {
+	private static void compareMapsTos(String file1, Module module1, String file2, Module module2,
+			SBOLValidationReport report) {
 		for (MapsTo mapsTo1 : module1.getMapsTos()) {
 			MapsTo mapsTo2 = module2.getMapsTo(mapsTo1.getIdentity());
 			if (mapsTo2 == null) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " not found in " + file2);
 			} else if (!mapsTo1.equals(mapsTo2)) {
-				errors.add("--->MapsTo " + mapsTo1.getIdentity() + " differ.");
+				report.add(mapsTo1.getIdentity(), "--->MapsTo " + mapsTo1.getIdentity() + " differ.");
 			}
 		}
 		for (MapsTo mapsTo2 : module2.getMapsTos()) {
 			MapsTo mapsTo1 = module1.getMapsTo(mapsTo2.getIdentity());
 			if (mapsTo1 == null) {
-				errors.add("--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
+				report.add(mapsTo2.getIdentity(), "--->MapsTo " + mapsTo2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareModules(String file1, ModuleDefinition moduleDefinition1, String file2,
-			ModuleDefinition moduleDefinition2) {
+			ModuleDefinition moduleDefinition2, SBOLValidationReport report) {
 		for (Module module1 : moduleDefinition1.getModules()) {
 			Module module2 = moduleDefinition2.getModule(module1.getIdentity());
 			if (module2 == null) {
-				errors.add("->Module " + module1.getIdentity() + " not found in " + file2);
+				report.add(module1.getIdentity(), "->Module " + module1.getIdentity() + " not found in " + file2);
 			} else if (!module1.equals(module2)) {
-				errors.add("->Module " + module1.getIdentity() + " differ.");
-				compareMapsTos(file1, module1, file2, module2);
+				report.add(module1.getIdentity(), "->Module " + module1.getIdentity() + " differ.");
+				compareMapsTos(file1, module1, file2, module2, report);
 			}
 		}
 		for (Module module2 : moduleDefinition2.getModules()) {
 			Module module1 = moduleDefinition1.getModule(module2.getIdentity());
 			if (module1 == null) {
-				errors.add("->Module " + module2.getIdentity() + " not found in " + file1);
+				report.add(module2.getIdentity(), "->Module " + module2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareParticipations(String file1, Interaction interaction1, String file2,
-			Interaction interaction2) {
+			Interaction interaction2, SBOLValidationReport report) {
 		for (Participation participation1 : interaction1.getParticipations()) {
 			Participation participation2 = interaction2.getParticipation(participation1.getIdentity());
 			if (participation2 == null) {
-				errors.add("--->Participation " + participation1.getIdentity() + " not found in " + file2);
+				report.add(participation1.getIdentity(),
+						"--->Participation " + participation1.getIdentity() + " not found in " + file2);
 			} else if (!participation1.equals(participation2)) {
-				errors.add("--->Participation " + participation1.getIdentity() + " differ.");
+				report.add(participation1.getIdentity(),
+						"--->Participation " + participation1.getIdentity() + " differ.");
 			}
 		}
 		for (Participation participation2 : interaction2.getParticipations()) {
 			Participation participation1 = interaction1.getParticipation(participation2.getIdentity());
 			if (participation1 == null) {
-				errors.add("--->Participation " + participation2.getIdentity() + " not found in " + file1);
+				report.add(participation2.getIdentity(),
+						"--->Participation " + participation2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	private static void compareInteractions(String file1, ModuleDefinition moduleDefinition1, String file2,
-			ModuleDefinition moduleDefinition2) {
+			ModuleDefinition moduleDefinition2, SBOLValidationReport report) {
 		for (Interaction interaction1 : moduleDefinition1.getInteractions()) {
 			Interaction interaction2 = moduleDefinition2.getInteraction(interaction1.getIdentity());
 			if (interaction2 == null) {
-				errors.add("->Interaction " + interaction1.getIdentity() + " not found in " + file2);
+				report.add(interaction1.getIdentity(),
+						"->Interaction " + interaction1.getIdentity() + " not found in " + file2);
 			} else if (!interaction1.equals(interaction2)) {
-				errors.add("->Interaction " + interaction1.getIdentity() + " differ.");
-				compareParticipations(file1, interaction1, file1, interaction2);
+				report.add(interaction1.getIdentity(), "->Interaction " + interaction1.getIdentity() + " differ.");
+				compareParticipations(file1, interaction1, file1, interaction2, report);
 			}
 		}
 		for (Interaction interaction2 : moduleDefinition2.getInteractions()) {
 			Interaction interaction1 = moduleDefinition1.getInteraction(interaction2.getIdentity());
 			if (interaction1 == null) {
-				errors.add("->Interaction " + interaction2.getIdentity() + " not found in " + file1);
+				report.add(interaction2.getIdentity(),
+						"->Interaction " + interaction2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareModuleDefinitions(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareModuleDefinitions(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (ModuleDefinition moduleDefinition1 : doc1.getModuleDefinitions()) {
 			ModuleDefinition moduleDefinition2 = doc2.getModuleDefinition(moduleDefinition1.getIdentity());
 			if (moduleDefinition2 == null) {
-				errors.add("ModuleDefinition " + moduleDefinition1.getIdentity() + " not found in " + file2);
+				report.add(moduleDefinition1.getIdentity(),
+						"ModuleDefinition " + moduleDefinition1.getIdentity() + " not found in " + file2);
 			} else if (!moduleDefinition1.equals(moduleDefinition2)) {
-				errors.add("ModuleDefinition " + moduleDefinition1.getIdentity() + " differ.");
-				compareFunctionalComponents(file1, moduleDefinition1, file2, moduleDefinition2);
-				compareModules(file1, moduleDefinition1, file2, moduleDefinition2);
-				compareInteractions(file1, moduleDefinition1, file2, moduleDefinition2);
+				report.add(moduleDefinition1.getIdentity(),
+						"ModuleDefinition " + moduleDefinition1.getIdentity() + " differ.");
+				compareFunctionalComponents(file1, moduleDefinition1, file2, moduleDefinition2, report);
+				compareModules(file1, moduleDefinition1, file2, moduleDefinition2, report);
+				compareInteractions(file1, moduleDefinition1, file2, moduleDefinition2, report);
 			}
 		}
 		for (ModuleDefinition moduleDefinition2 : doc2.getModuleDefinitions()) {
 			ModuleDefinition moduleDefinition1 = doc1.getModuleDefinition(moduleDefinition2.getIdentity());
 			if (moduleDefinition1 == null) {
-				errors.add("ModuleDefinition " + moduleDefinition2.getIdentity() + " not found in " + file1);
+				report.add(moduleDefinition2.getIdentity(),
+						"ModuleDefinition " + moduleDefinition2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareModels(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareModels(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Model model1 : doc1.getModels()) {
 			Model model2 = doc2.getModel(model1.getIdentity());
 			if (model2 == null) {
-				errors.add("Model " + model1.getIdentity() + " not found in " + file2);
+				report.add(model1.getIdentity(), "Model " + model1.getIdentity() + " not found in " + file2);
 			} else if (!model1.equals(model2)) {
-				errors.add("Model " + model1.getIdentity() + " differ.");
+				report.add(model1.getIdentity(), "Model " + model1.getIdentity() + " differ.");
 			}
 		}
 		for (Model model2 : doc2.getModels()) {
 			Model model1 = doc1.getModel(model2.getIdentity());
 			if (model1 == null) {
-				errors.add("Model " + model2.getIdentity() + " not found in " + file1);
+				report.add(model2.getIdentity(), "Model " + model2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareAttachments(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareAttachments(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Attachment attachment1 : doc1.getAttachments()) {
 			Attachment attachment2 = doc2.getAttachment(attachment1.getIdentity());
 			if (attachment2 == null) {
-				errors.add("Attachment " + attachment1.getIdentity() + " not found in " + file2);
+				report.add(attachment1.getIdentity(),
+						"Attachment " + attachment1.getIdentity() + " not found in " + file2);
 			} else if (!attachment1.equals(attachment2)) {
-				errors.add("Attachment " + attachment1.getIdentity() + " differ.");
+				report.add(attachment1.getIdentity(), "Attachment " + attachment1.getIdentity() + " differ.");
 			}
 		}
 		for (Attachment attachment2 : doc2.getAttachments()) {
 			Attachment attachment1 = doc1.getAttachment(attachment2.getIdentity());
 			if (attachment1 == null) {
-				errors.add("Attachment " + attachment2.getIdentity() + " not found in " + file1);
+				report.add(attachment2.getIdentity(),
+						"Attachment " + attachment2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareImplementations(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareImplementations(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (Implementation implementation1 : doc1.getImplementations()) {
 			Implementation implementation2 = doc2.getImplementation(implementation1.getIdentity());
 			if (implementation2 == null) {
-				errors.add("Implementation " + implementation1.getIdentity() + " not found in " + file2);
+				report.add(implementation1.getIdentity(),
+						"Implementation " + implementation1.getIdentity() + " not found in " + file2);
 			} else if (!implementation1.equals(implementation2)) {
-				errors.add("Implementation " + implementation1.getIdentity() + " differ.");
+				report.add(implementation1.getIdentity(),
+						"Implementation " + implementation1.getIdentity() + " differ.");
 			}
 		}
 		for (Implementation implementation2 : doc2.getImplementations()) {
 			Implementation implementation1 = doc1.getImplementation(implementation2.getIdentity());
 			if (implementation1 == null) {
-				errors.add("Implementation " + implementation2.getIdentity() + " not found in " + file1);
+				report.add(implementation2.getIdentity(),
+						"Implementation " + implementation2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
-	private static void compareGenericTopLevels(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+	private static void compareGenericTopLevels(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
 		for (GenericTopLevel genericTopLevel1 : doc1.getGenericTopLevels()) {
 			GenericTopLevel genericTopLevel2 = doc2.getGenericTopLevel(genericTopLevel1.getIdentity());
 			if (genericTopLevel2 == null) {
-				errors.add("GenericTopLevel " + genericTopLevel1.getIdentity() + " not found in " + file2);
+				report.add(genericTopLevel1.getIdentity(),
+						"GenericTopLevel " + genericTopLevel1.getIdentity() + " not found in " + file2);
 			} else if (!genericTopLevel1.equals(genericTopLevel2)) {
-				errors.add("GenericTopLevel " + genericTopLevel1.getIdentity() + " differ.");
+				report.add(genericTopLevel1.getIdentity(),
+						"GenericTopLevel " + genericTopLevel1.getIdentity() + " differ.");
 				// errors.add(genericTopLevel1.toString());
 				// errors.add(genericTopLevel2.toString());
 			}
@@ -2269,14 +2747,15 @@ public class SBOLValidate {
 		for (GenericTopLevel genericTopLevel2 : doc2.getGenericTopLevels()) {
 			GenericTopLevel genericTopLevel1 = doc1.getGenericTopLevel(genericTopLevel2.getIdentity());
 			if (genericTopLevel1 == null) {
-				errors.add("GenericTopLevel " + genericTopLevel2.getIdentity() + " not found in " + file1);
+				report.add(genericTopLevel2.getIdentity(),
+						"GenericTopLevel " + genericTopLevel2.getIdentity() + " not found in " + file1);
 			}
 		}
 	}
 
 	/**
 	 * Compares the given two SBOL documents and outputs the difference into the
-	 * list of errors.
+	 * list of errors, which is replaced once the comparison completes.
 	 * 
 	 * @param file1
 	 *            the file name associated with {@code doc1}
@@ -2288,20 +2767,29 @@ public class SBOLValidate {
 	 *            the second SBOL document
 	 */
 	public static void compareDocuments(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
-		clearErrors();
-		compareNamespaces(file1, doc1, file2, doc2);
-		compareCollections(file1, doc1, file2, doc2);
-		compareComponentDefinitions(file1, doc1, file2, doc2);
-		compareSequences(file1, doc1, file2, doc2);
-		compareModuleDefinitions(file1, doc1, file2, doc2);
-		compareModels(file1, doc1, file2, doc2);
-		compareActivities(file1, doc1, file2, doc2);
-		comparePlans(file1, doc1, file2, doc2);
-		compareAgents(file1, doc1, file2, doc2);
-		compareGenericTopLevels(file1, doc1, file2, doc2);
-		compareCombinatorialDerivations(file1, doc1, file2, doc2);
-		compareImplementations(file1, doc1, file2, doc2);
-		compareAttachments(file1, doc1, file2, doc2);
+		errors = new SBOLValidator().compare(file1, doc1, file2, doc2).getMessages();
+	}
+
+	/**
+	 * Compares the given two SBOL documents as
+	 * {@link #compareDocuments(String, SBOLDocument, String, SBOLDocument)} does, adding the differences
+	 * found to the given report.
+	 */
+	static void compareDocuments(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2,
+			SBOLValidationReport report) {
+		compareNamespaces(file1, doc1, file2, doc2, report);
+		compareCollections(file1, doc1, file2, doc2, report);
+		compareComponentDefinitions(file1, doc1, file2, doc2, report);
+		compareSequences(file1, doc1, file2, doc2, report);
+		compareModuleDefinitions(file1, doc1, file2, doc2, report);
+		compareModels(file1, doc1, file2, doc2, report);
+		compareActivities(file1, doc1, file2, doc2, report);
+		comparePlans(file1, doc1, file2, doc2, report);
+		compareAgents(file1, doc1, file2, doc2, report);
+		compareGenericTopLevels(file1, doc1, file2, doc2, report);
+		compareCombinatorialDerivations(file1, doc1, file2, doc2, report);
+		compareImplementations(file1, doc1, file2, doc2, report);
+		compareAttachments(file1, doc1, file2, doc2, report);
 	}
 
 	private static void usage() {
@@ -37,8 +37,28 @@ public class SBOLValidationException extends Exception {
 	//	character and not followed by one, or a position that's followed by a word character and not 
 	//	preceded by one.
 	private static String ruleReference = "^\\breference\\b:\\s(.+)";
-	private static SBOLValidationRule currentRule;
-	private static Map<String, SBOLValidationRule> validationRules;
+
+	/**
+	 * Holds the validation rules, which are loaded when first needed, once for all threads.
+	 */
+	private static final class ValidationRules {
+		private static final Map<String, SBOLValidationRule> rules = load();
+
+		private static Map<String, SBOLValidationRule> load() {
+			Map<String, SBOLValidationRule> rules = new LinkedHashMap<String, SBOLValidationRule>();
+			InputStreamReader f = new InputStreamReader(SBOLValidationRule.class.
+					getResourceAsStream("/validation/rules2p2p0.txt"));
+			try {
+				parse(new BufferedReader(f), rules);
+				//writeRulesToXML("rules.xml");
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return rules;
+		}
+	}
+
+	private final URI identity;
 
 	/**
 	 * Creates a new exception instance with the given message and objects causing the problem.
@@ -56,6 +76,7 @@ public class SBOLValidationException extends Exception {
 	 */
 	SBOLValidationException(String message, URI identity) {
 		super(formatMessage(message, identity));
+		this.identity = identity;
 	}
 
 	/**
@@ -66,6 +87,7 @@ public class SBOLValidationException extends Exception {
 	 */
 	private SBOLValidationException(String message, java.util.Collection<? extends Identified> objects) {
 		super(formatMessage(message, objects));
+		this.identity = getIdentity(objects);
 	}
 
 	/**
@@ -81,6 +103,7 @@ public class SBOLValidationException extends Exception {
 	
 	private SBOLValidationException(String message, Throwable cause, java.util.Collection<? extends Identified> objects) {
 		super(formatMessage(message, objects),cause);
+		this.identity = getIdentity(objects);
 	}
 
 	/**
@@ -90,25 +113,34 @@ public class SBOLValidationException extends Exception {
 	 */	
 	SBOLValidationException(Throwable cause) {
 		super(cause);
+		this.identity = null;
+	}
+
+	private static URI getIdentity(java.util.Collection<? extends Identified> objects) {
+		for (Identified obj : objects) {
+			if (obj.getIdentity() != null) {
+				return obj.getIdentity();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the validation rule with the given ID.
+	 *
+	 * @param id the ID of the rule, such as {@code sbol-10101}
+	 * @return the validation rule with the given ID, or {@code null} if there is none
+	 */
+	static SBOLValidationRule getValidationRule(String id) {
+		return ValidationRules.rules.get(id);
 	}
 	
 	private static String formatMessage(String message, URI identity) {
 		final StringBuilder sb = new StringBuilder(message);
 		if (message.startsWith("sbol-")) {
-			if (validationRules == null) {
-				validationRules = new LinkedHashMap<String, SBOLValidationRule>();
-				InputStreamReader f = new InputStreamReader(SBOLValidationRule.class.
-						getResourceAsStream("/validation/rules2p2p0.txt"));
-				try {					
-					parse(new BufferedReader(f));
-					//writeRulesToXML("rules.xml");
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
 			//printAllRules();
 			String key = message.trim();
-			SBOLValidationRule rule = validationRules.get(key);
+			SBOLValidationRule rule = getValidationRule(key);
 			if (rule == null) {
 				throw new RuntimeException("Rule ID does not exist.");
 			}
@@ -125,20 +157,9 @@ public class SBOLValidationException extends Exception {
 	private static String formatMessage(String message, java.util.Collection<? extends Identified> objects) {
 		final StringBuilder sb = new StringBuilder(message);
 		if (message.startsWith("sbol-")) {
-			if (validationRules == null) {
-				validationRules = new LinkedHashMap<String, SBOLValidationRule>();
-				InputStreamReader f = new InputStreamReader(SBOLValidationRule.class.
-						getResourceAsStream("/validation/rules2p2p0.txt"));
-				try {					
-					parse(new BufferedReader(f));
-					//writeRulesToXML("rules.xml");
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
 			//printAllRules();
 			String key = message.trim();
-			SBOLValidationRule rule = validationRules.get(key);
+			SBOLValidationRule rule = getValidationRule(key);
 			sb.append(": ");
 			if (rule != null) {
 				sb.append(rule.getDescription());
@@ -207,12 +228,12 @@ public class SBOLValidationException extends Exception {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		for (String key : validationRules.keySet()) {
+		for (String key : ValidationRules.rules.keySet()) {
 			rule = rule + "<id>"+ key +"</id>" + eol;
-			rule = rule + "<category>" + validationRules.get(key).getRuleClass() +"</category>" + eol;
-			rule = rule + "<condition>" + validationRules.get(key).getCondition() +"</condition>" + eol;
-			rule = rule + "<description>" + validationRules.get(key).getDescription() +"</description>" + eol;
-			rule = rule + "<reference>" + validationRules.get(key).getReference() +"</reference>" + eol;
+			rule = rule + "<category>" + ValidationRules.rules.get(key).getRuleClass() +"</category>" + eol;
+			rule = rule + "<condition>" + ValidationRules.rules.get(key).getCondition() +"</condition>" + eol;
+			rule = rule + "<description>" + ValidationRules.rules.get(key).getDescription() +"</description>" + eol;
+			rule = rule + "<reference>" + ValidationRules.rules.get(key).getReference() +"</reference>" + eol;
 			
 		}
 		rule = rule + "</rules>";
@@ -229,9 +250,11 @@ public class SBOLValidationException extends Exception {
 
 	/**
 	 * @param br
+	 * @param validationRules
 	 * @throws IOException
 	 */
-	private static void parse(BufferedReader br) throws IOException {		
+	private static void parse(BufferedReader br, Map<String, SBOLValidationRule> validationRules) throws IOException {
+		SBOLValidationRule currentRule = null;
 		String line;
 		String ruleDescription = "";
 		while((line = br.readLine())!= null) {
@@ -292,14 +315,22 @@ public class SBOLValidationException extends Exception {
 	 * @return the validation rule number of the exception
 	 */
 	String getRule() {
-		if (!getMessage().startsWith("sbol-")) return "";
+		if (getMessage() == null || !getMessage().startsWith("sbol-")) return "";
 		return getMessage().split(":")[0];
 	}
 
+	/*
+	 * Return the identity of the first object causing the problem
+	 * @return the identity of the first object causing the problem, or null if it is not known
+	 */
+	URI getIdentity() {
+		return identity;
+	}
+
 	// TODO: unfinished
 	static void printAllRules() {
-		for (String key : validationRules.keySet()) {
-			System.out.println(validationRules.get(key));
+		for (String key : ValidationRules.rules.keySet()) {
+			System.out.println(ValidationRules.rules.get(key));
 		}
 	}
 
@@ -0,0 +1,239 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the issues found by an {@link SBOLValidator} while validating or comparing SBOL documents.
+ * <p>
+ * Each issue records the ID of the validation rule it violates, its severity, the identity of the
+ * object causing it, and its message, which is the message that {@link SBOLValidate#getErrors()} lists
+ * for it. A report is filled only by the thread running the validation that creates it, and is not
+ * modified once returned, so separate validations never share state through their reports.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLValidationReport {
+
+	/**
+	 * The severities of the issues found while validating SBOL documents.
+	 */
+	public enum Severity {
+		/**
+		 * The issue violates a validation rule that is required by the SBOL specification, or is a
+		 * difference between compared documents.
+		 */
+		ERROR,
+		/**
+		 * The issue violates a validation rule that is recommended by the SBOL specification.
+		 */
+		WARNING
+	}
+
+	/**
+	 * An issue found while validating or comparing SBOL documents.
+	 */
+	public static final class Issue {
+
+		private final String ruleId;
+		private final Severity severity;
+		private final URI identity;
+		private final String message;
+
+		Issue(String ruleId, Severity severity, URI identity, String message) {
+			this.ruleId = ruleId;
+			this.severity = severity;
+			this.identity = identity;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the ID of the validation rule violated by this issue.
+		 *
+		 * @return the ID of the validation rule violated by this issue, such as {@code sbol-10202}, or
+		 *         {@code null} if this issue is a difference between compared documents
+		 */
+		public String getRuleId() {
+			return ruleId;
+		}
+
+		/**
+		 * Returns the severity of this issue.
+		 *
+		 * @return the severity of this issue
+		 */
+		public Severity getSeverity() {
+			return severity;
+		}
+
+		/**
+		 * Returns the identity of the object causing this issue, which is the first of them if there are
+		 * several.
+		 *
+		 * @return the identity of the object causing this issue, or {@code null} if it is not known
+		 */
+		public URI getIdentity() {
+			return identity;
+		}
+
+		/**
+		 * Returns the message of this issue.
+		 *
+		 * @return the message of this issue
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((ruleId == null) ? 0 : ruleId.hashCode());
+			result = prime * result + severity.hashCode();
+			result = prime * result + ((identity == null) ? 0 : identity.hashCode());
+			result = prime * result + ((message == null) ? 0 : message.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Issue other = (Issue) obj;
+			if (ruleId == null) {
+				if (other.ruleId != null)
+					return false;
+			} else if (!ruleId.equals(other.ruleId))
+				return false;
+			if (severity != other.severity)
+				return false;
+			if (identity == null) {
+				if (other.identity != null)
+					return false;
+			} else if (!identity.equals(other.identity))
+				return false;
+			if (message == null) {
+				if (other.message != null)
+					return false;
+			} else if (!message.equals(other.message))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Issue [ruleId=" + ruleId + ", severity=" + severity + ", identity=" + identity + "]";
+		}
+	}
+
+	private final List<Issue> issues;
+
+	SBOLValidationReport() {
+		this.issues = new ArrayList<>();
+	}
+
+	/**
+	 * Adds the violation of a validation rule signaled by the given exception to this report.
+	 */
+	void add(SBOLValidationException e) {
+		String ruleId = e.getRule();
+		Severity severity = Severity.ERROR;
+		if (ruleId.isEmpty()) {
+			ruleId = null;
+		} else {
+			SBOLValidationRule rule = SBOLValidationException.getValidationRule(ruleId);
+			if (rule != null && "recommended".equals(rule.getCondition())) {
+				severity = Severity.WARNING;
+			}
+		}
+		issues.add(new Issue(ruleId, severity, e.getIdentity(), e.getMessage()));
+	}
+
+	/**
+	 * Adds a difference between compared documents to this report.
+	 */
+	void add(URI identity, String message) {
+		issues.add(new Issue(null, Severity.ERROR, identity, message));
+	}
+
+	/**
+	 * Adds the issues of the given report to this report.
+	 */
+	void addAll(SBOLValidationReport report) {
+		issues.addAll(report.issues);
+	}
+
+	/**
+	 * Returns the issues of this report, in the order in which they were found.
+	 *
+	 * @return the issues of this report
+	 */
+	public List<Issue> getIssues() {
+		return Collections.unmodifiableList(issues);
+	}
+
+	/**
+	 * Returns the issues of this report with the given severity, in the order in which they were found.
+	 *
+	 * @param severity the severity of the issues to be returned
+	 * @return the issues of this report with the given severity
+	 */
+	public List<Issue> getIssues(Severity severity) {
+		List<Issue> result = new ArrayList<>();
+		for (Issue issue : issues) {
+			if (issue.getSeverity() == severity) {
+				result.add(issue);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the messages of the issues of this report, in the order in which they were found.
+	 *
+	 * @return the messages of the issues of this report
+	 */
+	public List<String> getMessages() {
+		List<String> messages = new ArrayList<>(issues.size());
+		for (Issue issue : issues) {
+			messages.add(issue.getMessage());
+		}
+		return messages;
+	}
+
+	/**
+	 * Checks if this report has no issues.
+	 *
+	 * @return {@code true} if this report has no issues, {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return issues.isEmpty();
+	}
+
+	/**
+	 * Checks if this report has an issue with severity {@link Severity#ERROR}.
+	 *
+	 * @return {@code true} if this report has an error, {@code false} otherwise
+	 */
+	public boolean hasErrors() {
+		for (Issue issue : issues) {
+			if (issue.getSeverity() == Severity.ERROR) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "SBOLValidationReport [issues=" + issues.size() + "]";
+	}
+}
@@ -0,0 +1,146 @@
+package org.sbolstandard.core2;
+
+/**
+ * Validates SBOL documents, returning the issues found in a report of each validation's own.
+ * <p>
+ * Unlike the static methods of {@link SBOLValidate}, which keep the messages of the last validation in
+ * a list shared by all threads, a validator keeps no state but its options, so a single validator can
+ * validate any number of documents on any number of threads at the same time. A document must not be
+ * modified while it is validated.
+ * <p>
+ * A parallel validator also spreads the validation of each document over the threads of the common
+ * fork-join pool, running the groups of validation rules at the same time, each over shares of the
+ * top-levels at the same time. Either way, each group checks each top-level separately, and the issues
+ * are reported group by group and top-level by top-level in the order of their identities, so a
+ * parallel validator reports the same issues in the same order as a sequential one.
+ * <p>
+ * A document that is validated again after each of many small edits can be validated by an
+ * {@link SBOLIncrementalValidator} instead, which only checks the top-levels affected by the edits.
+ *
+ * @version 2.1
+ */
+
+public final class SBOLValidator {
+
+	private final boolean complete;
+	private final boolean compliant;
+	private final boolean bestPractice;
+	private final boolean parallel;
+
+	/**
+	 * Creates a validator that checks that documents are complete and compliant, and follow best
+	 * practices.
+	 */
+	public SBOLValidator() {
+		this(true, true, true);
+	}
+
+	/**
+	 * Creates a sequential validator with the given options, which are interpreted as by
+	 * {@link SBOLValidate#validateSBOL(SBOLDocument, boolean, boolean, boolean)}.
+	 *
+	 * @param complete
+	 *            {@code true} if all identity URI references in validated documents must dereference to
+	 *            objects in the same document
+	 * @param compliant
+	 *            {@code true} if all URIs in validated documents must be compliant
+	 * @param bestPractice
+	 *            {@code true} if the validation rules with the RECOMMENDED condition in the SBOL
+	 *            specification are to be checked
+	 */
+	public SBOLValidator(boolean complete, boolean compliant, boolean bestPractice) {
+		this(complete, compliant, bestPractice, false);
+	}
+
+	/**
+	 * Creates a validator with the given options, which are interpreted as by
+	 * {@link SBOLValidate#validateSBOL(SBOLDocument, boolean, boolean, boolean)}, and which validates
+	 * each document in parallel if {@code parallel} is {@code true}.
+	 *
+	 * @param complete
+	 *            {@code true} if all identity URI references in validated documents must dereference to
+	 *            objects in the same document
+	 * @param compliant
+	 *            {@code true} if all URIs in validated documents must be compliant
+	 * @param bestPractice
+	 *            {@code true} if the validation rules with the RECOMMENDED condition in the SBOL
+	 *            specification are to be checked
+	 * @param parallel
+	 *            {@code true} if each document is to be validated by several threads
+	 */
+	public SBOLValidator(boolean complete, boolean compliant, boolean bestPractice, boolean parallel) {
+		this.complete = complete;
+		this.compliant = compliant;
+		this.bestPractice = bestPractice;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Checks if this validator checks that documents are complete.
+	 *
+	 * @return {@code true} if this validator checks that documents are complete, {@code false} otherwise
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Checks if this validator checks that documents are compliant.
+	 *
+	 * @return {@code true} if this validator checks that documents are compliant, {@code false} otherwise
+	 */
+	public boolean isCompliant() {
+		return compliant;
+	}
+
+	/**
+	 * Checks if this validator checks that documents follow best practices.
+	 *
+	 * @return {@code true} if this validator checks that documents follow best practices, {@code false}
+	 *         otherwise
+	 */
+	public boolean isBestPractice() {
+		return bestPractice;
+	}
+
+	/**
+	 * Checks if this validator validates each document in parallel.
+	 *
+	 * @return {@code true} if this validator validates each document in parallel, {@code false} otherwise
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Validates the given SBOL document.
+	 *
+	 * @param sbolDocument
+	 *            the SBOL document to be validated
+	 * @return a report of the issues found in the given document
+	 */
+	public SBOLValidationReport validate(SBOLDocument sbolDocument) {
+		SBOLValidationReport report = new SBOLValidationReport();
+		SBOLValidate.validateSBOL(sbolDocument, complete, compliant, bestPractice, parallel, report);
+		return report;
+	}
+
+	/**
+	 * Compares the given two SBOL documents.
+	 *
+	 * @param file1
+	 *            the file name associated with {@code doc1}
+	 * @param doc1
+	 *            the first SBOL document
+	 * @param file2
+	 *            the file name associated with {@code doc2}
+	 * @param doc2
+	 *            the second SBOL document
+	 * @return a report of the differences found between the given documents
+	 */
+	public SBOLValidationReport compare(String file1, SBOLDocument doc1, String file2, SBOLDocument doc2) {
+		SBOLValidationReport report = new SBOLValidationReport();
+		SBOLValidate.compareDocuments(file1, doc1, file2, doc2, report);
+		return report;
+	}
+}
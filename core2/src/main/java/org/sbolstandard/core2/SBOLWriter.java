@@ -19,6 +19,7 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
@@ -1140,20 +1141,59 @@ public class SBOLWriter
 
 	private static List<TopLevelDocument<QName>> getTopLevelDocument(SBOLDocument doc) {
 		List<TopLevelDocument<QName>> topLevelDoc = new ArrayList<>();
-		formatCollections(doc.getCollections(), topLevelDoc);
-		formatModuleDefinitions(doc.getModuleDefinitions(), topLevelDoc);
-		formatModels(doc.getModels(), topLevelDoc);
-		formatComponentDefinitions(doc.getComponentDefinitions(), topLevelDoc);
-		formatSequences(doc.getSequences(), topLevelDoc);
-		formatActivities(doc.getActivities(), topLevelDoc);
-		formatAgents(doc.getAgents(), topLevelDoc);
-		formatPlans(doc.getPlans(), topLevelDoc);
-		formatGenericTopLevel(doc.getGenericTopLevels(), topLevelDoc);
-		formatCombinatorialDerivation(doc.getCombinatorialDerivations(), topLevelDoc);
-		formatImplementation(doc.getImplementations(), topLevelDoc);
-		formatAttachments(doc.getAttachments(), topLevelDoc);
+		// Copying top-levels from a base snapshot takes the write lock, which cannot be taken under the read lock.
+		doc.materializeAll(TopLevel.class);
+		doc.lockRead();
+		try {
+			formatCollections(doc.getCollections(), topLevelDoc);
+			formatModuleDefinitions(doc.getModuleDefinitions(), topLevelDoc);
+			formatModels(doc.getModels(), topLevelDoc);
+			formatComponentDefinitions(doc.getComponentDefinitions(), topLevelDoc);
+			formatSequences(doc.getSequences(), topLevelDoc);
+			formatActivities(doc.getActivities(), topLevelDoc);
+			formatAgents(doc.getAgents(), topLevelDoc);
+			formatPlans(doc.getPlans(), topLevelDoc);
+			formatGenericTopLevel(doc.getGenericTopLevels(), topLevelDoc);
+			formatCombinatorialDerivation(doc.getCombinatorialDerivations(), topLevelDoc);
+			formatImplementation(doc.getImplementations(), topLevelDoc);
+			formatAttachments(doc.getAttachments(), topLevelDoc);
+		} finally {
+			doc.unlockRead();
+		}
 		return topLevelDoc;
 	}
 
+	/**
+	 * Returns the document of properties that the given top-level is serialized as.
+	 */
+	static TopLevelDocument<QName> getTopLevelDocument(TopLevel topLevel) {
+		List<TopLevelDocument<QName>> topLevelDoc = new ArrayList<>();
+		if (topLevel instanceof Collection)
+			formatCollections(Collections.singleton((Collection) topLevel), topLevelDoc);
+		else if (topLevel instanceof ModuleDefinition)
+			formatModuleDefinitions(Collections.singleton((ModuleDefinition) topLevel), topLevelDoc);
+		else if (topLevel instanceof Model)
+			formatModels(Collections.singleton((Model) topLevel), topLevelDoc);
+		else if (topLevel instanceof ComponentDefinition)
+			formatComponentDefinitions(Collections.singleton((ComponentDefinition) topLevel), topLevelDoc);
+		else if (topLevel instanceof Sequence)
+			formatSequences(Collections.singleton((Sequence) topLevel), topLevelDoc);
+		else if (topLevel instanceof Activity)
+			formatActivities(Collections.singleton((Activity) topLevel), topLevelDoc);
+		else if (topLevel instanceof Agent)
+			formatAgents(Collections.singleton((Agent) topLevel), topLevelDoc);
+		else if (topLevel instanceof Plan)
+			formatPlans(Collections.singleton((Plan) topLevel), topLevelDoc);
+		else if (topLevel instanceof GenericTopLevel)
+			formatGenericTopLevel(Collections.singleton((GenericTopLevel) topLevel), topLevelDoc);
+		else if (topLevel instanceof CombinatorialDerivation)
+			formatCombinatorialDerivation(Collections.singleton((CombinatorialDerivation) topLevel), topLevelDoc);
+		else if (topLevel instanceof Implementation)
+			formatImplementation(Collections.singleton((Implementation) topLevel), topLevelDoc);
+		else if (topLevel instanceof Attachment)
+			formatAttachments(Collections.singleton((Attachment) topLevel), topLevelDoc);
+		return topLevelDoc.get(0);
+	}
+
 }
 
@@ -14,7 +14,7 @@ import java.net.URI;
  */
 public class Sequence extends TopLevel{
 
-	private String elements;
+	private CharSequence elements;
 	private URI encoding;
 
 	/**
@@ -77,11 +77,20 @@ public class Sequence extends TopLevel{
 		//super(sequence.getIdentity());
 		super(sequence);
 		this.setEncoding(sequence.getEncoding());
-		this.setElements(sequence.getElements());
+		if (!(sequence.elements instanceof String)) {
+			// Packed and mapped elements are immutable, so they are shared rather than decoded and checked again.
+			this.elements = sequence.elements;
+		} else {
+			this.setElements(sequence.getElements());
+		}
 	}
 	
 	void copy(Sequence sequence) throws SBOLValidationException {
 		((TopLevel)this).copy((Identified)sequence);
+		if (!(sequence.elements instanceof String)) {
+			// Share the packed or mapped elements of the given sequence instead of the decoded copy.
+			this.elements = sequence.elements;
+		}
 	}
 
 	//	public Sequence(String authority, String Id, String elements, URI encoding) {
@@ -91,13 +100,97 @@ public class Sequence extends TopLevel{
 	//	}
 
 	/**
-	 * Returns the elements property of this sequence.
+	 * Returns the elements property of this sequence. If the elements are packed, they are
+	 * decoded on each call.
 	 * 
 	 * @return the elements property of this sequence.
 	 */
 	public String getElements() {
+		return elements == null ? null : elements.toString();
+	}
+
+	/**
+	 * Returns the number of characters in the elements property of this sequence, without
+	 * decoding packed elements.
+	 *
+	 * @return the number of characters in the elements property of this sequence
+	 */
+	public int getElementsLength() {
+		return elements.length();
+	}
+
+	/**
+	 * Returns the characters of the elements property of this sequence from the given start
+	 * index, inclusive, to the given end index, exclusive, counting from 0. If the elements are
+	 * packed, only these characters are decoded.
+	 *
+	 * @param start the index of the first character to be returned
+	 * @param end the index after the last character to be returned
+	 * @return the characters of the elements property between the given indices
+	 * @throws IndexOutOfBoundsException if the given indices are out of range
+	 */
+	public String getElements(int start, int end) {
+		return elements.subSequence(start, end).toString();
+	}
+
+	/**
+	 * Returns a read-only view of the characters of the elements property of this sequence from
+	 * the given start index, inclusive, to the given end index, exclusive, counting from 0. The
+	 * view reads the characters in place, so it takes constant time to create however long it
+	 * is, and packed or mapped elements are decoded only as its characters are read.
+	 *
+	 * @param start the index of the first character of the view
+	 * @param end the index after the last character of the view
+	 * @return a view of the characters of the elements property between the given indices
+	 * @throws IndexOutOfBoundsException if the given indices are out of range
+	 */
+	public CharSequence getElementsView(int start, int end) {
+		return SequenceOperations.slice(elements, start, end);
+	}
+
+	/**
+	 * Returns the elements property of this sequence as held, without decoding packed or mapped
+	 * elements.
+	 */
+	CharSequence getElementsSequence() {
 		return elements;
 	}
+
+	/**
+	 * Packs the elements property of this sequence into 2 or 4 bits per base if it is encoded
+	 * using {@link #IUPAC_DNA} or {@link #IUPAC_RNA} and packing saves memory. Packed elements
+	 * are decoded by {@link #getElements()}, so this trades time for memory, and should be used
+	 * for large sequences that are rarely read in full. Setting the elements again unpacks them.
+	 *
+	 * @return {@code true} if the elements of this sequence are packed, {@code false} otherwise
+	 */
+	public boolean pack() {
+		if (elements instanceof String && encoding.equals(IUPAC_DNA)) {
+			elements = PackedElements.pack((String) elements);
+		}
+		return isPacked();
+	}
+
+	/**
+	 * Checks if the elements property of this sequence is packed.
+	 *
+	 * @return {@code true} if the elements of this sequence are packed, {@code false} otherwise
+	 * @see #pack()
+	 */
+	public boolean isPacked() {
+		return elements instanceof PackedElements;
+	}
+
+	/**
+	 * Checks if the elements property of this sequence is held in a memory-mapped file rather
+	 * than on the heap. Elements are mapped by {@link SBOLReader} when it reads FASTA or GenBank
+	 * with {@link SBOLReader#setMapSequences(boolean)} set.
+	 *
+	 * @return {@code true} if the elements of this sequence are mapped, {@code false} otherwise
+	 */
+	public boolean isMapped() {
+		return elements instanceof MappedElements;
+	}
 	
 	/**
 	 * Sets the elements property to the given argument.  
@@ -111,9 +204,26 @@ public class Sequence extends TopLevel{
 			throw new SBOLValidationException("sbol-10402",this);
 		}
 		this.elements = elements;
+		modified();
+		if (!SBOLValidate.checkSequenceEncoding(this)) {
+			throw new SBOLValidationException("sbol-10405", this);
+		}
+	}
+
+	/**
+	 * Sets the elements property to the given mapped elements, keeping them off the heap.
+	 *
+	 * @param elements the given elements property
+	 * @throws SBOLValidationException if the following SBOL validation rule was violated: 10405.
+	 */
+	void setMappedElements(CharSequence elements) throws SBOLValidationException {
+		CharSequence previous = this.elements;
+		this.elements = elements;
 		if (!SBOLValidate.checkSequenceEncoding(this)) {
+			this.elements = previous;
 			throw new SBOLValidationException("sbol-10405", this);
 		}
+		modified();
 	}
 	
 	/**
@@ -136,13 +246,21 @@ public class Sequence extends TopLevel{
 			throw new SBOLValidationException("sbol-10403",this);
 		}
 		this.encoding = encoding;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(elements);
+		contentDigest.update(encoding);
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
-		result = prime * result + ((elements == null) ? 0 : elements.hashCode());
+		result = prime * result + ((elements == null) ? 0 : SequenceOperations.hashCode(elements));
 		result = prime * result + ((encoding == null) ? 0 : encoding.hashCode());
 		return result;
 	}
@@ -159,7 +277,7 @@ public class Sequence extends TopLevel{
 		if (elements == null) {
 			if (other.elements != null)
 				return false;
-		} else if (!elements.equals(other.elements))
+		} else if (other.elements == null || !SequenceOperations.contentEquals(elements, other.elements))
 			return false;
 		if (encoding == null) {
 			if (other.encoding != null)
@@ -229,49 +347,7 @@ public class Sequence extends TopLevel{
 	 * @return the reverse complement of a sequence encoded using IUPAC_DNA
 	 */
 	public static String reverseComplement(String elements,URI type) {
-		String reverse = "";
-		for (int i = elements.length()-1; i >= 0; i--) {
-			if (elements.charAt(i)=='a') {
-				if (type.equals(ComponentDefinition.DNA)) {
-					reverse += 't';
-				} else {
-					reverse += 'u';
-				}
-			} else if ((elements.charAt(i)=='t')||(elements.charAt(i)=='u')) {
-				reverse += 'a';
-			} else if (elements.charAt(i)=='g') {
-				reverse += 'c';
-			} else if (elements.charAt(i)=='c') {
-				reverse += 'g';
-			} else if (elements.charAt(i)=='r') {
-				reverse += 'y';
-			} else if (elements.charAt(i)=='y') {
-				reverse += 'r';
-			} else if (elements.charAt(i)=='s') {
-				reverse += 'w';
-			} else if (elements.charAt(i)=='w') {
-				reverse += 's';
-			} else if (elements.charAt(i)=='k') {
-				reverse += 'm';
-			} else if (elements.charAt(i)=='m') {
-				reverse += 'k';
-			} else if (elements.charAt(i)=='b') {
-				reverse += 'v';
-			} else if (elements.charAt(i)=='v') {
-				reverse += 'b';
-			} else if (elements.charAt(i)=='d') {
-				reverse += 'h';
-			} else if (elements.charAt(i)=='h') {
-				reverse += 'd';
-			} else if (elements.charAt(i)=='n') {
-				reverse += 'n';
-			} else if (elements.charAt(i)=='.') {
-				reverse += '.';
-			} else if (elements.charAt(i)=='-') {
-				reverse += '-';
-			}
-		}
-		return reverse;
+		return SequenceOperations.reverseComplement(elements, type);
 	}
 
 	@Override
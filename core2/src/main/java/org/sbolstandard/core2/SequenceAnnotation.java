@@ -277,6 +277,7 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 	void addLocation(Location location) throws SBOLValidationException {
 		addChildSafely(location, locations, "location");
 		location.setSBOLDocument(this.getSBOLDocument());
+		modified();
 	}
 	
 	/**
@@ -290,7 +291,9 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 		if (locations.size()==1 && locations.containsValue(location)) {
 			throw new SBOLValidationException("sbol-10902", this);
 		}
-		return removeChildSafely(location,locations);
+		boolean result = removeChildSafely(location,locations);
+		modified();
+		return result;
 	}
 	
 	/**
@@ -552,6 +555,7 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 			}
 		}
 		this.component = componentURI;
+		modified();
 	}
 	
 	/**
@@ -559,6 +563,7 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 	 */
 	public void unsetComponent() {
 		component = null;
+		modified();
 	}
 	
 	/**
@@ -572,7 +577,9 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 		if (isSetComponent()) {
 			throw new SBOLValidationException("sbol-10909", this);
 		}
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -582,7 +589,9 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 	 * @return {@code true} if the matching role was removed successfully, {@code false} otherwise
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -627,6 +636,7 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 	
 //	/**
@@ -665,6 +675,14 @@ public class SequenceAnnotation extends Identified implements Comparable<Sequenc
 //		roleIntegration = null;
 //	}
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateChildren(locations.values());
+		contentDigest.update(component);
+		contentDigest.updateURIs(roles);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
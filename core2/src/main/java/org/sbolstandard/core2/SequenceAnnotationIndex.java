@@ -0,0 +1,251 @@
+package org.sbolstandard.core2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An interval index of the locations of the sequence annotations of a component definition, used by
+ * {@link ComponentDefinition#getOverlappingSequenceAnnotations(int, int)},
+ * {@link ComponentDefinition#getContainedSequenceAnnotations(int, int)} and
+ * {@link ComponentDefinition#getNearestSequenceAnnotation(int)}.
+ * <p>
+ * Each range is indexed as the positions from its start to its end, and each cut as the single position
+ * it is at. Generic locations are not indexed. The intervals are sorted by start and kept in an implicit
+ * balanced tree over the sorted arrays, where each node records the largest end in its subtree, so that
+ * overlap queries take time logarithmic in the number of locations plus the number of matches. An index
+ * is immutable once built, and is discarded once the document is modified.
+ * <p>
+ * Queries on a circular component definition, one with the {@link SequenceOntology#CIRCULAR} type, may
+ * wrap around the origin: a query whose start is after its end covers the positions from its start to
+ * the end of the sequence and from the first position to its end, and distances are measured the shorter
+ * way around. Features that straddle the origin are imported from GenBank as two ranges, one on each side
+ * of it, which the index holds separately.
+ *
+ * @version 2.1
+ */
+
+final class SequenceAnnotationIndex {
+
+	private final boolean circular;
+	private final int length;
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] maxEnds;
+	private final int[] prefixMaxEnds;
+	private final SequenceAnnotation[] annotations;
+	private final Map<SequenceAnnotation, Integer> locationCounts;
+
+	/**
+	 * @param componentDefinition
+	 *            the component definition whose sequence annotations are indexed
+	 */
+	SequenceAnnotationIndex(ComponentDefinition componentDefinition) {
+		this.circular = componentDefinition.containsType(SequenceOntology.CIRCULAR);
+		final List<int[]> intervals = new ArrayList<>();
+		final List<SequenceAnnotation> owners = new ArrayList<>();
+		locationCounts = new IdentityHashMap<>();
+		for (SequenceAnnotation sequenceAnnotation : componentDefinition.getSequenceAnnotations()) {
+			int count = 0;
+			for (Location location : sequenceAnnotation.getLocations()) {
+				if (location instanceof Range) {
+					intervals.add(new int[] { ((Range) location).getStart(), ((Range) location).getEnd(), owners.size() });
+				} else if (location instanceof Cut) {
+					intervals.add(new int[] { ((Cut) location).getAt(), ((Cut) location).getAt(), owners.size() });
+				} else {
+					continue;
+				}
+				owners.add(sequenceAnnotation);
+				count++;
+			}
+			if (count > 0) {
+				locationCounts.put(sequenceAnnotation, count);
+			}
+		}
+		Collections.sort(intervals, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] interval1, int[] interval2) {
+				if (interval1[0] != interval2[0]) {
+					return Integer.compare(interval1[0], interval2[0]);
+				}
+				return Integer.compare(interval1[1], interval2[1]);
+			}
+		});
+		int size = intervals.size();
+		starts = new int[size];
+		ends = new int[size];
+		maxEnds = new int[size];
+		prefixMaxEnds = new int[size];
+		annotations = new SequenceAnnotation[size];
+		int maxEnd = 0;
+		for (int i = 0; i < size; i++) {
+			int[] interval = intervals.get(i);
+			starts[i] = interval[0];
+			ends[i] = interval[1];
+			annotations[i] = owners.get(interval[2]);
+			// Holds the index of the interval with the largest end among the first i + 1.
+			prefixMaxEnds[i] = i == 0 || ends[i] > ends[prefixMaxEnds[i - 1]] ? i : prefixMaxEnds[i - 1];
+			maxEnd = Math.max(maxEnd, interval[1]);
+		}
+		buildMaxEnds(0, size);
+		Sequence sequence = componentDefinition.getSequenceByEncoding(Sequence.IUPAC_DNA);
+		this.length = Math.max(maxEnd, sequence == null ? 0 : sequence.getElementsLength());
+	}
+
+	private int buildMaxEnds(int lo, int hi) {
+		if (lo >= hi) {
+			return Integer.MIN_VALUE;
+		}
+		int mid = (lo + hi) >>> 1;
+		maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+		return maxEnds[mid];
+	}
+
+	/**
+	 * Returns the sequence annotations with a location that overlaps the positions from the given start to
+	 * the given end, in the order of their first overlapping location.
+	 */
+	List<SequenceAnnotation> getOverlapping(int start, int end) {
+		List<Integer> hits = new ArrayList<>();
+		if (start <= end) {
+			collectOverlapping(0, starts.length, start, end, hits);
+		} else {
+			checkWrapping(start, end);
+			collectOverlapping(0, starts.length, start, length, hits);
+			collectOverlapping(0, starts.length, 1, end, hits);
+		}
+		List<SequenceAnnotation> result = new ArrayList<>();
+		Set<SequenceAnnotation> seen = Collections.newSetFromMap(new IdentityHashMap<SequenceAnnotation, Boolean>());
+		for (int hit : hits) {
+			if (seen.add(annotations[hit])) {
+				result.add(annotations[hit]);
+			}
+		}
+		return result;
+	}
+
+	private void collectOverlapping(int lo, int hi, int start, int end, List<Integer> hits) {
+		if (lo >= hi) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (maxEnds[mid] < start) {
+			return;
+		}
+		collectOverlapping(lo, mid, start, end, hits);
+		if (starts[mid] > end) {
+			// Every interval of the right subtree starts after this one.
+			return;
+		}
+		if (ends[mid] >= start) {
+			hits.add(mid);
+		}
+		collectOverlapping(mid + 1, hi, start, end, hits);
+	}
+
+	/**
+	 * Returns the sequence annotations all of whose ranges and cuts lie within the positions from the given
+	 * start to the given end, in the order of their first location.
+	 */
+	List<SequenceAnnotation> getContained(int start, int end) {
+		Map<SequenceAnnotation, Integer> counts = new IdentityHashMap<>();
+		List<SequenceAnnotation> candidates = new ArrayList<>();
+		if (start <= end) {
+			countContained(start, end, counts, candidates);
+		} else {
+			checkWrapping(start, end);
+			countContained(start, length, counts, candidates);
+			countContained(1, end, counts, candidates);
+		}
+		List<SequenceAnnotation> result = new ArrayList<>();
+		for (SequenceAnnotation candidate : candidates) {
+			if (counts.get(candidate).equals(locationCounts.get(candidate))) {
+				result.add(candidate);
+			}
+		}
+		return result;
+	}
+
+	private void countContained(int start, int end, Map<SequenceAnnotation, Integer> counts,
+			List<SequenceAnnotation> candidates) {
+		for (int i = firstStartingAtOrAfter(start); i < starts.length && starts[i] <= end; i++) {
+			if (ends[i] > end) {
+				continue;
+			}
+			Integer count = counts.get(annotations[i]);
+			if (count == null) {
+				candidates.add(annotations[i]);
+				count = 0;
+			}
+			counts.put(annotations[i], count + 1);
+		}
+	}
+
+	/**
+	 * Returns the sequence annotation with the location closest to the given position, which is one that
+	 * covers it if there is any, or {@code null} if no sequence annotation has a range or cut. Of equally
+	 * close locations, any one may be chosen.
+	 */
+	SequenceAnnotation getNearest(int position) {
+		if (starts.length == 0) {
+			return null;
+		}
+		int best = -1;
+		long bestDistance = Long.MAX_VALUE;
+		int[] shifts = circular && length > 0 ? new int[] { 0, -length, length } : new int[] { 0 };
+		for (int shift : shifts) {
+			long shifted = (long) position + shift;
+			// The interval reaching furthest among those starting at or before the position.
+			int left = firstStartingAtOrAfter(shifted + 1) - 1;
+			if (left >= 0) {
+				int candidate = prefixMaxEnds[left];
+				long distance = Math.max(0, shifted - ends[candidate]);
+				if (distance < bestDistance || (distance == bestDistance && candidate < best)) {
+					best = candidate;
+					bestDistance = distance;
+				}
+			}
+			// The interval starting first among those starting after the position.
+			int right = left + 1;
+			if (right < starts.length) {
+				long distance = starts[right] - shifted;
+				if (distance < bestDistance || (distance == bestDistance && right < best)) {
+					best = right;
+					bestDistance = distance;
+				}
+			}
+		}
+		return annotations[best];
+	}
+
+	private int firstStartingAtOrAfter(long position) {
+		if (position > Integer.MAX_VALUE) {
+			return starts.length;
+		}
+		if (position < Integer.MIN_VALUE) {
+			return 0;
+		}
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] < position) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private void checkWrapping(int start, int end) {
+		if (!circular) {
+			throw new IllegalArgumentException(
+					"Start " + start + " is after end " + end + " on a component definition that is not circular.");
+		}
+	}
+}
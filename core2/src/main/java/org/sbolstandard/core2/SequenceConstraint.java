@@ -131,6 +131,7 @@ public class SequenceConstraint extends Identified {
 		}
 
 		this.restriction = RestrictionType.convertToURI(restriction);
+		modified();
 	}
 	
 	/**
@@ -144,6 +145,7 @@ public class SequenceConstraint extends Identified {
 			throw new SBOLValidationException("sbol-11407",this);
 		}
 		this.restriction = restrictionURI;
+		modified();
 	}
 
 	/**
@@ -222,6 +224,7 @@ public class SequenceConstraint extends Identified {
 			}
 		}
 		this.subject = subjectURI;
+		modified();
 	}
 
 	/**
@@ -302,6 +305,15 @@ public class SequenceConstraint extends Identified {
 			}
 		}
 		this.object = objectURI;
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(restriction);
+		contentDigest.update(subject);
+		contentDigest.update(object);
 	}
 
 	@Override
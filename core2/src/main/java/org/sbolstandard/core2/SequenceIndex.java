@@ -0,0 +1,560 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents an index of the k-mers of the nucleic acid sequences of an SBOL document, created by
+ * {@link SBOLDocument#createSequenceIndex(int)}, for finding the places where a subsequence or an IUPAC
+ * degenerate motif occurs on either strand of any of them.
+ * <p>
+ * Every run of {@code k} bases ({@code a}, {@code c}, {@code g}, {@code t} or {@code u}, in either case)
+ * of every sequence with the {@link Sequence#IUPAC_DNA} encoding is indexed by position. A query looks
+ * up the positions of the k-mer of the pattern, or of its expansions if the pattern is degenerate, with
+ * the fewest occurrences, and checks the rest of the pattern only there. Queries shorter than {@code k},
+ * and degenerate queries that would expand to too many k-mers, are answered by scanning every sequence.
+ * <p>
+ * The positions are kept in a hash table of the k-mers that occur in the sequences, so an index takes
+ * space in proportion to the total length of the sequences, whatever {@code k} is.
+ * <p>
+ * The index is brought up to date before each query once the document has been modified since the
+ * previous one. The update lists the sequences of the document under its read lock and compares each
+ * with the one indexed under its identity, which takes time in proportion to the number of sequences
+ * after any modification of the document, even one that does not change a sequence. Only the sequences
+ * that have been added, removed or changed since then are indexed or dropped, and the space taken by
+ * dropped sequences is reclaimed once it exceeds that of the indexed ones. Indexes are safe to query
+ * from several threads.
+ *
+ * @version 2.1
+ */
+
+public final class SequenceIndex {
+
+	/**
+	 * An occurrence of a pattern on a strand of a sequence.
+	 */
+	public static final class Hit {
+
+		private final Sequence sequence;
+		private final int position;
+		private final OrientationType strand;
+
+		private Hit(Sequence sequence, int position, OrientationType strand) {
+			this.sequence = sequence;
+			this.position = position;
+			this.strand = strand;
+		}
+
+		/**
+		 * Returns the sequence the pattern occurs in.
+		 *
+		 * @return the sequence the pattern occurs in
+		 */
+		public Sequence getSequence() {
+			return sequence;
+		}
+
+		/**
+		 * Returns the first position of the sequence covered by the occurrence, counting from 1 along the
+		 * inline strand, as for the start of a {@link Range}. The occurrence covers as many positions as
+		 * the pattern has characters.
+		 *
+		 * @return the first position of the sequence covered by the occurrence
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * Returns the strand the pattern occurs on, which is {@link OrientationType#REVERSECOMPLEMENT} if
+		 * the reverse complement of the pattern occurs on the inline strand.
+		 *
+		 * @return the strand the pattern occurs on
+		 */
+		public OrientationType getStrand() {
+			return strand;
+		}
+
+		@Override
+		public int hashCode() {
+			return (sequence.getIdentity().hashCode() * 31 + position) * 31 + strand.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Hit))
+				return false;
+			Hit other = (Hit) obj;
+			return sequence == other.sequence && position == other.position && strand == other.strand;
+		}
+
+		@Override
+		public String toString() {
+			return sequence.getIdentity() + ":" + position + ":" + strand;
+		}
+	}
+
+	/**
+	 * The largest number of k-mers a degenerate pattern may be expanded into for a lookup.
+	 */
+	private static final int MAX_EXPANSIONS = 1024;
+
+	private static final int NO_ENTRY = -1;
+
+	/**
+	 * An open addressing hash table from the k-mers that occur in the indexed sequences to the first of
+	 * their entries and to their number of entries.
+	 */
+	private static final class KmerTable {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		// Each k-mer is stored plus one, so that 0 marks an empty bucket.
+		private int[] keys;
+		private int[] heads;
+		private int[] counts;
+		private int size;
+
+		private KmerTable() {
+			allocate(INITIAL_CAPACITY);
+		}
+
+		private void allocate(int capacity) {
+			keys = new int[capacity];
+			heads = new int[capacity];
+			counts = new int[capacity];
+			size = 0;
+		}
+
+		/**
+		 * Returns the bucket holding the given k-mer, or the empty bucket where it would be added.
+		 */
+		private int bucket(int kmer) {
+			int mask = keys.length - 1;
+			int hash = kmer * 0x9E3779B9;
+			int bucket = (hash ^ (hash >>> 16)) & mask;
+			while (keys[bucket] != 0 && keys[bucket] != kmer + 1) {
+				bucket = (bucket + 1) & mask;
+			}
+			return bucket;
+		}
+
+		private int getHead(int kmer) {
+			int bucket = bucket(kmer);
+			return keys[bucket] == 0 ? NO_ENTRY : heads[bucket];
+		}
+
+		private int getCount(int kmer) {
+			return counts[bucket(kmer)];
+		}
+
+		/**
+		 * Makes the given entry the first one of the given k-mer, and returns the previous first one.
+		 */
+		private int push(int kmer, int entry) {
+			int bucket = bucket(kmer);
+			if (keys[bucket] == 0) {
+				if (4 * (size + 1) > 3 * keys.length) {
+					grow();
+					bucket = bucket(kmer);
+				}
+				keys[bucket] = kmer + 1;
+				heads[bucket] = NO_ENTRY;
+				size++;
+			}
+			int previous = heads[bucket];
+			heads[bucket] = entry;
+			counts[bucket]++;
+			return previous;
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			int[] oldHeads = heads;
+			int[] oldCounts = counts;
+			int oldSize = size;
+			allocate(2 * oldKeys.length);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					int bucket = bucket(oldKeys[i] - 1);
+					keys[bucket] = oldKeys[i];
+					heads[bucket] = oldHeads[i];
+					counts[bucket] = oldCounts[i];
+				}
+			}
+			size = oldSize;
+		}
+
+		private void clear() {
+			allocate(INITIAL_CAPACITY);
+		}
+	}
+
+	private final SBOLDocument document;
+	private final int k;
+	private final int kmerMask;
+	private final KmerTable kmers;
+	private int[] next;
+	private int[] entrySlots;
+	private int[] entryPositions;
+	private int size;
+	private final Map<URI, Integer> slots;
+	private final List<Sequence> slotSequences;
+	private final List<CharSequence> slotElements;
+	private int deadSlots;
+	private long modifications;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the given k-mer length is not between 1 and 12
+	 */
+	SequenceIndex(SBOLDocument document, int k) {
+		if (k < 1 || k > 12) {
+			throw new IllegalArgumentException("K-mer length " + k + " is not between 1 and 12.");
+		}
+		this.document = document;
+		this.k = k;
+		this.kmerMask = (1 << (2 * k)) - 1;
+		this.kmers = new KmerTable();
+		this.slots = new HashMap<>();
+		this.slotSequences = new ArrayList<>();
+		this.slotElements = new ArrayList<>();
+		this.modifications = -1;
+		clear();
+	}
+
+	/**
+	 * Returns the length of the k-mers of this index.
+	 *
+	 * @return the length of the k-mers of this index
+	 */
+	public int getK() {
+		return k;
+	}
+
+	/**
+	 * Returns the occurrences of the given subsequence on either strand of the nucleic acid sequences of
+	 * the document. Characters are compared ignoring case, and {@code u} is taken as {@code t}; other
+	 * characters, such as {@code n}, only match themselves. A subsequence that is its own reverse
+	 * complement is only reported on the inline strand.
+	 *
+	 * @param subsequence
+	 *            the subsequence to be found
+	 * @return the occurrences of the given subsequence, ordered by sequence identity, position and strand
+	 * @throws IllegalArgumentException
+	 *             if the given subsequence is empty or contains characters that are not IUPAC nucleotide
+	 *             codes
+	 */
+	public synchronized List<Hit> find(String subsequence) {
+		return search(subsequence, false);
+	}
+
+	/**
+	 * Returns the occurrences of the given IUPAC degenerate motif on either strand of the nucleic acid
+	 * sequences of the document. Each character of the motif matches the bases it stands for, in either
+	 * case, with {@code u} taken as {@code t}, and {@code n} matches any character. A motif that is its own
+	 * reverse complement is only reported on the inline strand.
+	 *
+	 * @param motif
+	 *            the motif to be found
+	 * @return the occurrences of the given motif, ordered by sequence identity, position and strand
+	 * @throws IllegalArgumentException
+	 *             if the given motif is empty or contains characters that are not IUPAC nucleotide
+	 *             codes, or are gaps or dots
+	 */
+	public synchronized List<Hit> findDegenerate(String motif) {
+		for (int i = 0; i < motif.length(); i++) {
+			if (SequenceOperations.getBaseMask(motif.charAt(i)) == 0) {
+				throw new IllegalArgumentException("Motif " + motif + " has a character that is not an IUPAC nucleotide code.");
+			}
+		}
+		return search(motif, true);
+	}
+
+	private List<Hit> search(String pattern, boolean degenerate) {
+		if (pattern.isEmpty() || !SequenceOperations.isIupacNucleicAcid(pattern)) {
+			throw new IllegalArgumentException("Pattern " + pattern + " is not an IUPAC nucleotide sequence.");
+		}
+		update();
+		String lowerPattern = SequenceOperations.toLowerCase(pattern);
+		String reverse = SequenceOperations.reverseComplementCodes(lowerPattern);
+		List<Hit> hits = new ArrayList<>();
+		search(lowerPattern, degenerate, OrientationType.INLINE, hits);
+		if (!equivalent(lowerPattern, reverse, degenerate)) {
+			search(reverse, degenerate, OrientationType.REVERSECOMPLEMENT, hits);
+		}
+		Collections.sort(hits, new Comparator<Hit>() {
+			@Override
+			public int compare(Hit hit1, Hit hit2) {
+				int result = hit1.sequence.getIdentity().compareTo(hit2.sequence.getIdentity());
+				if (result == 0) {
+					result = Integer.compare(hit1.position, hit2.position);
+				}
+				if (result == 0) {
+					result = hit1.strand.compareTo(hit2.strand);
+				}
+				return result;
+			}
+		});
+		return hits;
+	}
+
+	private static boolean equivalent(String pattern, String reverse, boolean degenerate) {
+		if (pattern.length() != reverse.length()) {
+			return false;
+		}
+		for (int i = 0; i < pattern.length(); i++) {
+			if (degenerate ? SequenceOperations.getBaseMask(pattern.charAt(i)) != SequenceOperations
+					.getBaseMask(reverse.charAt(i)) : !sameBase(pattern.charAt(i), reverse.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void search(String pattern, boolean degenerate, OrientationType strand, List<Hit> hits) {
+		int seedOffset = -1;
+		long seedCost = Long.MAX_VALUE;
+		List<Integer> seedKmers = null;
+		for (int offset = 0; offset + k <= pattern.length(); offset++) {
+			List<Integer> offsetKmers = expand(pattern, offset, degenerate);
+			if (offsetKmers == null) {
+				continue;
+			}
+			long cost = 0;
+			for (int kmer : offsetKmers) {
+				cost += kmers.getCount(kmer);
+			}
+			if (cost < seedCost) {
+				seedOffset = offset;
+				seedCost = cost;
+				seedKmers = offsetKmers;
+			}
+		}
+		if (seedKmers == null) {
+			scan(pattern, degenerate, strand, hits);
+			return;
+		}
+		// Each place of a sequence holds a single k-mer, so it is found through at most one expansion.
+		for (int kmer : seedKmers) {
+			for (int entry = kmers.getHead(kmer); entry != NO_ENTRY; entry = next[entry]) {
+				Sequence sequence = slotSequences.get(entrySlots[entry]);
+				if (sequence == null) {
+					continue;
+				}
+				int start = entryPositions[entry] - seedOffset;
+				CharSequence elements = slotElements.get(entrySlots[entry]);
+				if (start >= 0 && matches(pattern, elements, start, degenerate)) {
+					hits.add(new Hit(sequence, start + 1, strand));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the k-mers the characters of the given pattern from the given offset stand for, or
+	 * {@code null} if they include a character that is not a base, or a degenerate code that stands for
+	 * all bases, or would expand to too many k-mers.
+	 */
+	private List<Integer> expand(String pattern, int offset, boolean degenerate) {
+		List<Integer> kmers = new ArrayList<>();
+		kmers.add(0);
+		for (int i = offset; i < offset + k; i++) {
+			char c = pattern.charAt(i);
+			int mask = degenerate ? SequenceOperations.getBaseMask(c) : 0;
+			if (!degenerate) {
+				int base = SequenceOperations.getBaseIndex(c);
+				mask = base < 0 ? 0 : 1 << base;
+			}
+			if (mask == 0 || mask == 0xF || kmers.size() * Integer.bitCount(mask) > MAX_EXPANSIONS) {
+				return null;
+			}
+			List<Integer> extended = new ArrayList<>(kmers.size() * Integer.bitCount(mask));
+			for (int kmer : kmers) {
+				for (int base = 0; base < 4; base++) {
+					if ((mask & (1 << base)) != 0) {
+						extended.add((kmer << 2) | base);
+					}
+				}
+			}
+			kmers = extended;
+		}
+		return kmers;
+	}
+
+	private void scan(String pattern, boolean degenerate, OrientationType strand, List<Hit> hits) {
+		for (int slot = 0; slot < slotSequences.size(); slot++) {
+			Sequence sequence = slotSequences.get(slot);
+			if (sequence == null) {
+				continue;
+			}
+			CharSequence elements = slotElements.get(slot);
+			for (int start = 0; start + pattern.length() <= elements.length(); start++) {
+				if (matches(pattern, elements, start, degenerate)) {
+					hits.add(new Hit(sequence, start + 1, strand));
+				}
+			}
+		}
+	}
+
+	private static boolean matches(String pattern, CharSequence elements, int start, boolean degenerate) {
+		if (start + pattern.length() > elements.length()) {
+			return false;
+		}
+		for (int i = 0; i < pattern.length(); i++) {
+			char code = pattern.charAt(i);
+			char c = elements.charAt(start + i);
+			if (degenerate) {
+				if (code != 'n' && (SequenceOperations.getBaseMask(code) & baseBit(c)) == 0) {
+					return false;
+				}
+			} else if (!sameBase(code, c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int baseBit(char c) {
+		int base = SequenceOperations.getBaseIndex(c);
+		return base < 0 ? 0 : 1 << base;
+	}
+
+	private static boolean sameBase(char c1, char c2) {
+		int base = SequenceOperations.getBaseIndex(c1);
+		if (base >= 0) {
+			return base == SequenceOperations.getBaseIndex(c2);
+		}
+		return Character.toLowerCase(c1) == Character.toLowerCase(c2);
+	}
+
+	/**
+	 * Indexes the sequences added to or changed in the document since the last update, and drops those
+	 * removed from it or changed.
+	 */
+	private void update() {
+		if (document.getModifications() == modifications) {
+			return;
+		}
+		long current;
+		List<Sequence> sequences;
+		document.materializeAll(Sequence.class);
+		document.lockRead();
+		try {
+			current = document.getModifications();
+			sequences = document.listSequences();
+		} finally {
+			document.unlockRead();
+		}
+		Set<URI> seen = new HashSet<>();
+		for (Sequence sequence : sequences) {
+			URI identity = sequence.getIdentity();
+			seen.add(identity);
+			Integer slot = slots.get(identity);
+			boolean nucleicAcid = Sequence.IUPAC_DNA.equals(sequence.getEncoding());
+			if (slot != null && (!nucleicAcid || slotSequences.get(slot) != sequence
+					|| slotElements.get(slot) != sequence.getElementsSequence())) {
+				drop(identity);
+				slot = null;
+			}
+			if (slot == null && nucleicAcid) {
+				add(sequence);
+			}
+		}
+		for (URI identity : new ArrayList<>(slots.keySet())) {
+			if (!seen.contains(identity)) {
+				drop(identity);
+			}
+		}
+		if (deadSlots > slots.size()) {
+			compact();
+		}
+		modifications = current;
+	}
+
+	private void add(Sequence sequence) {
+		int slot = slotSequences.size();
+		CharSequence elements = sequence.getElementsSequence();
+		slots.put(sequence.getIdentity(), slot);
+		slotSequences.add(sequence);
+		slotElements.add(elements);
+		int kmer = 0;
+		int run = 0;
+		for (int i = 0; i < elements.length(); i++) {
+			int base = SequenceOperations.getBaseIndex(elements.charAt(i));
+			if (base < 0) {
+				run = 0;
+				continue;
+			}
+			kmer = ((kmer << 2) | base) & kmerMask;
+			if (++run >= k) {
+				addEntry(kmer, slot, i - k + 1);
+			}
+		}
+	}
+
+	private void addEntry(int kmer, int slot, int position) {
+		if (size == next.length) {
+			int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16L, 2L * size));
+			if (capacity == size) {
+				throw new IllegalStateException("Sequence index is full.");
+			}
+			next = Arrays.copyOf(next, capacity);
+			entrySlots = Arrays.copyOf(entrySlots, capacity);
+			entryPositions = Arrays.copyOf(entryPositions, capacity);
+		}
+		next[size] = kmers.push(kmer, size);
+		entrySlots[size] = slot;
+		entryPositions[size] = position;
+		size++;
+	}
+
+	/**
+	 * Drops the sequence with the given identity. Its entries stay in the index until it is compacted,
+	 * and are skipped by queries.
+	 */
+	private void drop(URI identity) {
+		int slot = slots.remove(identity);
+		slotSequences.set(slot, null);
+		slotElements.set(slot, null);
+		deadSlots++;
+	}
+
+	/**
+	 * Rebuilds the index from the sequences it holds, reclaiming the space of dropped ones.
+	 */
+	private void compact() {
+		List<Sequence> live = new ArrayList<>();
+		for (Sequence sequence : slotSequences) {
+			if (sequence != null) {
+				live.add(sequence);
+			}
+		}
+		clear();
+		for (Sequence sequence : live) {
+			add(sequence);
+		}
+	}
+
+	private void clear() {
+		kmers.clear();
+		next = new int[0];
+		entrySlots = new int[0];
+		entryPositions = new int[0];
+		size = 0;
+		slots.clear();
+		slotSequences.clear();
+		slotElements.clear();
+		deadSlots = 0;
+	}
+}
@@ -41,7 +41,7 @@ public class SequenceOntology {
 	 */
 	public static final URI NAMESPACE = URI.create(URI_PREFIX);
 
-	private static OBOOntology sequenceOntology = null;
+	private static volatile OBOOntology sequenceOntology = null;
 	
 	/**
 	 * Construct an SO ontology and reads the OBO definition file, if it has not been read in before.
@@ -0,0 +1,394 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+
+/**
+ * Table-driven operations on sequence elements: reverse complement, case normalization, IUPAC encoding
+ * checks and IUPAC compatibility checks, and views of subsequences.
+ * <p>
+ * Each operation makes a single pass over its input through lookup tables indexed by character, and
+ * writes its result into an array allocated once, so that it takes time linear in the length of the
+ * elements. Elements are taken as character sequences, so packed and mapped elements are read in place
+ * rather than decoded into a string first.
+ *
+ * @version 2.1
+ */
+
+final class SequenceOperations {
+
+	private static final int TABLE_SIZE = 128;
+
+	/**
+	 * Complements of the lower case IUPAC nucleotide codes, where 0 marks a character that is dropped
+	 * from a reverse complement.
+	 */
+	private static final char[] DNA_COMPLEMENTS = new char[TABLE_SIZE];
+	private static final char[] RNA_COMPLEMENTS = new char[TABLE_SIZE];
+
+	/**
+	 * Complements of the IUPAC nucleotide codes in either case, where every other character is its own
+	 * complement. Unlike in the tables above, which keep the complements that
+	 * {@link Sequence#reverseComplement(String, URI)} has always produced, {@code s} and {@code w} are their
+	 * own complements, so that motifs are searched for on the reverse strand by their IUPAC complements.
+	 */
+	private static final char[] DNA_CASE_COMPLEMENTS = new char[TABLE_SIZE];
+	private static final char[] RNA_CASE_COMPLEMENTS = new char[TABLE_SIZE];
+
+	/**
+	 * For each IUPAC nucleotide code in either case, the set of bases it stands for, with bit 0 standing
+	 * for {@code a}, bit 1 for {@code c}, bit 2 for {@code g} and bit 3 for {@code t} or {@code u}. Other
+	 * characters stand for no base.
+	 */
+	private static final byte[] BASE_MASKS = new byte[TABLE_SIZE];
+
+	private static final boolean[] IUPAC_NUCLEIC_ACID = new boolean[TABLE_SIZE];
+	private static final boolean[] IUPAC_PROTEIN = new boolean[TABLE_SIZE];
+
+	/**
+	 * For each lower case IUPAC nucleotide code of a general sequence, the lower case codes a more
+	 * specific sequence may have at the same position, in either case. Other codes admit nothing, except
+	 * {@code n}, which admits any character.
+	 */
+	private static final boolean[][] COMPATIBLE = new boolean[TABLE_SIZE][];
+
+	static {
+		String codes = "atugcryswkmbvdhn.-";
+		String complements = "taacgyrwsmkvbhdn.-";
+		for (int i = 0; i < codes.length(); i++) {
+			DNA_COMPLEMENTS[codes.charAt(i)] = complements.charAt(i);
+			RNA_COMPLEMENTS[codes.charAt(i)] = complements.charAt(i);
+		}
+		RNA_COMPLEMENTS['a'] = 'u';
+		for (char c = 0; c < TABLE_SIZE; c++) {
+			DNA_CASE_COMPLEMENTS[c] = c;
+		}
+		String caseComplements = "taacgyrswmkvbhdn.-";
+		for (int i = 0; i < codes.length(); i++) {
+			DNA_CASE_COMPLEMENTS[codes.charAt(i)] = caseComplements.charAt(i);
+			DNA_CASE_COMPLEMENTS[Character.toUpperCase(codes.charAt(i))] = Character.toUpperCase(caseComplements.charAt(i));
+		}
+		System.arraycopy(DNA_CASE_COMPLEMENTS, 0, RNA_CASE_COMPLEMENTS, 0, TABLE_SIZE);
+		RNA_CASE_COMPLEMENTS['a'] = 'u';
+		RNA_CASE_COMPLEMENTS['A'] = 'U';
+		for (char c : "ACGTURYSWKMBDHVN-.".toCharArray()) {
+			IUPAC_NUCLEIC_ACID[c] = true;
+			IUPAC_NUCLEIC_ACID[Character.toLowerCase(c)] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			IUPAC_PROTEIN[c] = true;
+			IUPAC_PROTEIN[Character.toLowerCase(c)] = true;
+		}
+		String[] compatible = { "aa", "cc", "gg", "tt", "uu", ".-.", "--.", "rrag", "yyct", "sscg", "wwat",
+				"kkgt", "mmac", "bkgtc", "ddgta", "hhcta", "vvgca" };
+		for (String codeAndSpecific : compatible) {
+			boolean[] allowed = new boolean[TABLE_SIZE];
+			for (int i = 1; i < codeAndSpecific.length(); i++) {
+				allowed[codeAndSpecific.charAt(i)] = true;
+				allowed[Character.toUpperCase(codeAndSpecific.charAt(i))] = true;
+			}
+			COMPATIBLE[codeAndSpecific.charAt(0)] = allowed;
+			COMPATIBLE[Character.toUpperCase(codeAndSpecific.charAt(0))] = allowed;
+		}
+		String[] bases = { "aa", "cc", "gg", "tt", "ut", "rag", "yct", "scg", "wat", "kgt", "mac", "bcgt", "dagt",
+				"hact", "vacg", "nacgt" };
+		for (String codeAndBases : bases) {
+			byte mask = 0;
+			for (int i = 1; i < codeAndBases.length(); i++) {
+				mask |= 1 << "acgt".indexOf(codeAndBases.charAt(i));
+			}
+			BASE_MASKS[codeAndBases.charAt(0)] = mask;
+			BASE_MASKS[Character.toUpperCase(codeAndBases.charAt(0))] = mask;
+		}
+	}
+
+	private SequenceOperations() {
+	}
+
+	/**
+	 * Returns the reverse complement of the given lower case IUPAC nucleotide elements. Characters that
+	 * are not lower case IUPAC nucleotide codes are dropped.
+	 *
+	 * @param elements
+	 *            the elements to reverse complement
+	 * @param type
+	 *            {@link ComponentDefinition#DNA} or {@link ComponentDefinition#RNA}, which decides
+	 *            whether {@code a} is complemented to {@code t} or {@code u}
+	 * @return the reverse complement of the given elements
+	 */
+	static String reverseComplement(CharSequence elements, URI type) {
+		char[] reverse = new char[elements.length()];
+		int length = reverseComplement(elements, type, reverse, 0);
+		return new String(reverse, 0, length);
+	}
+
+	/**
+	 * Writes the reverse complement of the given lower case IUPAC nucleotide elements into the given
+	 * array, dropping characters that are not lower case IUPAC nucleotide codes.
+	 *
+	 * @return the number of characters written
+	 */
+	private static int reverseComplement(CharSequence elements, URI type, char[] target, int offset) {
+		char[] complements = ComponentDefinition.DNA.equals(type) ? DNA_COMPLEMENTS : RNA_COMPLEMENTS;
+		int position = offset;
+		for (int i = elements.length() - 1; i >= 0; i--) {
+			char c = elements.charAt(i);
+			char complement = c < TABLE_SIZE ? complements[c] : 0;
+			if (complement != 0) {
+				target[position++] = complement;
+			}
+		}
+		return position - offset;
+	}
+
+	/**
+	 * Writes the reverse complement of the characters of the given elements between the given indices
+	 * into the given array. Unlike {@link #reverseComplement(CharSequence, URI)}, the case of IUPAC
+	 * nucleotide codes is kept and other characters are kept as they are, so exactly
+	 * {@code end - start} characters are written.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the given indices are out of range, or the reverse complement does not fit in the
+	 *             array from the given offset
+	 */
+	static void writeReverseComplement(CharSequence elements, int start, int end, URI type, char[] target,
+			int offset) {
+		char[] complements = ComponentDefinition.DNA.equals(type) ? DNA_CASE_COMPLEMENTS : RNA_CASE_COMPLEMENTS;
+		if (end - start > target.length - offset) {
+			throw new IndexOutOfBoundsException("length " + (end - start) + ", offset " + offset
+					+ ", target length " + target.length);
+		}
+		int position = offset;
+		for (int i = end - 1; i >= start; i--) {
+			char c = elements.charAt(i);
+			target[position++] = c < TABLE_SIZE ? complements[c] : c;
+		}
+	}
+
+	/**
+	 * Returns the reverse complement of the given IUPAC nucleotide codes, such as those of a motif, as
+	 * {@link #writeReverseComplement(CharSequence, int, int, URI, char[], int)} writes it for DNA.
+	 */
+	static String reverseComplementCodes(CharSequence codes) {
+		char[] reverse = new char[codes.length()];
+		writeReverseComplement(codes, 0, codes.length(), ComponentDefinition.DNA, reverse, 0);
+		return new String(reverse);
+	}
+
+	/**
+	 * Copies the characters of the given elements between the given indices into the given array.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the given indices are out of range, or the characters do not fit in the array from
+	 *             the given offset
+	 */
+	static void copy(CharSequence elements, int start, int end, char[] target, int offset) {
+		if (elements instanceof String) {
+			((String) elements).getChars(start, end, target, offset);
+			return;
+		}
+		if (end - start > target.length - offset) {
+			throw new IndexOutOfBoundsException("length " + (end - start) + ", offset " + offset
+					+ ", target length " + target.length);
+		}
+		for (int i = start; i < end; i++) {
+			target[offset + i - start] = elements.charAt(i);
+		}
+	}
+
+	/**
+	 * Returns the set of bases the given IUPAC nucleotide code stands for, in either case, as a mask with
+	 * bit 0 standing for {@code a}, bit 1 for {@code c}, bit 2 for {@code g} and bit 3 for {@code t} or
+	 * {@code u}.
+	 *
+	 * @return the mask of bases, which is 0 for characters that are not IUPAC nucleotide codes, or are
+	 *         gaps or dots
+	 */
+	static int getBaseMask(char code) {
+		return code < TABLE_SIZE ? BASE_MASKS[code] : 0;
+	}
+
+	/**
+	 * Returns the index of the given base in {@code acgt}, in either case and with {@code u} standing for
+	 * {@code t}, or -1 if the given character is not one of these bases.
+	 */
+	static int getBaseIndex(char base) {
+		switch (getBaseMask(base)) {
+		case 1:
+			return 0;
+		case 2:
+			return 1;
+		case 4:
+			return 2;
+		case 8:
+			return 3;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the given elements with ASCII upper case letters converted to lower case. Other characters,
+	 * which never occur in IUPAC encoded elements, are left unchanged.
+	 */
+	static String toLowerCase(CharSequence elements) {
+		char[] lower = new char[elements.length()];
+		for (int i = 0; i < lower.length; i++) {
+			char c = elements.charAt(i);
+			lower[i] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+		}
+		return new String(lower);
+	}
+
+	/**
+	 * Returns the given elements with ASCII lower case letters converted to upper case. Other characters,
+	 * which never occur in IUPAC encoded elements, are left unchanged.
+	 */
+	static String toUpperCase(CharSequence elements) {
+		char[] upper = new char[elements.length()];
+		for (int i = 0; i < upper.length; i++) {
+			char c = elements.charAt(i);
+			upper[i] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+		}
+		return new String(upper);
+	}
+
+	/**
+	 * Checks if the given elements consist of IUPAC nucleotide codes, gaps and dots, in either case.
+	 */
+	static boolean isIupacNucleicAcid(CharSequence elements) {
+		return containsOnly(elements, IUPAC_NUCLEIC_ACID);
+	}
+
+	/**
+	 * Checks if the given elements consist of IUPAC amino acid codes, in either case.
+	 */
+	static boolean isIupacProtein(CharSequence elements) {
+		return containsOnly(elements, IUPAC_PROTEIN);
+	}
+
+	private static boolean containsOnly(CharSequence elements, boolean[] allowed) {
+		for (int i = 0; i < elements.length(); i++) {
+			char c = elements.charAt(i);
+			if (c >= TABLE_SIZE || !allowed[c]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if each character of the given specific elements is admitted, ignoring case, by the IUPAC
+	 * nucleotide code at the same position of the given general elements.
+	 *
+	 * @param specific
+	 *            the specific elements
+	 * @param general
+	 *            the general elements, which must be at least as long as the specific elements
+	 * @return {@code true} if the specific elements are compatible with the general ones, {@code false}
+	 *         otherwise
+	 */
+	static boolean isCompatible(CharSequence specific, CharSequence general) {
+		if (general.length() < specific.length()) {
+			return false;
+		}
+		for (int i = 0; i < specific.length(); i++) {
+			char code = general.charAt(i);
+			if (code == 'n' || code == 'N') {
+				continue;
+			}
+			boolean[] allowed = code < TABLE_SIZE ? COMPATIBLE[code] : null;
+			char c = specific.charAt(i);
+			if (allowed == null || c >= TABLE_SIZE || !allowed[c]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a view of the characters of the given elements between the given indices, which reads
+	 * them in place rather than copying them.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the given indices are out of range
+	 */
+	static CharSequence slice(CharSequence elements, int start, int end) {
+		if (start < 0 || end > elements.length() || start > end) {
+			throw new IndexOutOfBoundsException(
+					"start " + start + ", end " + end + ", length " + elements.length());
+		}
+		if (elements instanceof Slice) {
+			Slice slice = (Slice) elements;
+			return new Slice(slice.elements, slice.start + start, slice.start + end);
+		}
+		return new Slice(elements, start, end);
+	}
+
+	private static final class Slice implements CharSequence {
+
+		private final CharSequence elements;
+		private final int start;
+		private final int end;
+
+		private Slice(CharSequence elements, int start, int end) {
+			this.elements = elements;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= end - start) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+			}
+			return elements.charAt(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return slice(this, start, end);
+		}
+
+		@Override
+		public String toString() {
+			return elements.subSequence(start, end).toString();
+		}
+	}
+
+	/**
+	 * Returns a hash code of the given characters that is the same as that of the string holding them.
+	 */
+	static int hashCode(CharSequence elements) {
+		if (elements instanceof String) {
+			return elements.hashCode();
+		}
+		int hash = 0;
+		for (int i = 0; i < elements.length(); i++) {
+			hash = 31 * hash + elements.charAt(i);
+		}
+		return hash;
+	}
+
+	/**
+	 * Checks if the given character sequences hold the same characters.
+	 */
+	static boolean contentEquals(CharSequence elements, CharSequence other) {
+		if (elements instanceof String) {
+			return ((String) elements).contentEquals(other);
+		}
+		if (elements.length() != other.length()) {
+			return false;
+		}
+		for (int i = 0; i < elements.length(); i++) {
+			if (elements.charAt(i) != other.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
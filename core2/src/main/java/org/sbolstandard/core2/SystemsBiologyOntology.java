@@ -92,7 +92,7 @@ public class SystemsBiologyOntology {
 	}
 	 */
 
-	private static OBOOntology systemsBiologyOntology = null;
+	private static volatile OBOOntology systemsBiologyOntology = null;
 	
 	/**
 	 * Construct an SBO ontology object and read the OBO definition file, if it has not been constructed.
@@ -2,6 +2,7 @@ package org.sbolstandard.core2;
 
 import java.net.URI;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -119,6 +120,23 @@ public abstract class TopLevel extends Identified {
 	 */
 	abstract Identified copy(String URIprefix, String displayId, String version) throws SBOLValidationException;
 
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(attachments);
+	}
+
+	/**
+	 * Returns a digest of the content of this top-level and its child objects that leaves out their
+	 * identities and provenance, feeding each reference to a URI in the given map as the URI it is mapped
+	 * to. Unlike {@link #getDigest()}, the result is not cached.
+	 */
+	byte[] structuralDigest(Map<URI, URI> canonicalURIs) {
+		ContentDigest contentDigest = new ContentDigest(this, canonicalURIs);
+		updateDigest(contentDigest);
+		return contentDigest.digest();
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -207,7 +225,9 @@ public abstract class TopLevel extends Identified {
 				throw new SBOLValidationException("sbol-XXXXX", this);
 			}
 		}
-		return attachments.add(attachmentURI);
+		boolean result = attachments.add(attachmentURI);
+		modified();
+		return result;
 	}
 	
 	/**
@@ -277,6 +297,7 @@ public abstract class TopLevel extends Identified {
 	 */
 	public void clearAttachments() {
 		attachments.clear();
+		modified();
 	}
 	
 	/**
@@ -299,7 +320,9 @@ public abstract class TopLevel extends Identified {
 	 *         successfully, {@code false} otherwise.
 	 */
 	public boolean removeAttachment(URI attachment) {
-		return attachments.remove(attachment);
+		boolean result = attachments.remove(attachment);
+		modified();
+		return result;
 	}
 
 	/**
@@ -0,0 +1,228 @@
+package org.sbolstandard.core2;
+
+import java.net.URI;
+import java.util.HashMap;
+
+/**
+ * A trie of URI segments used by an SBOL document to check top-level identities against URI prefixes.
+ * <p>
+ * A URI is split into segments the same way {@link URIcompliance#extractURIprefix(URI)} splits a compliant
+ * persistent identity into its URI prefix and display ID: each delimiter "/", "#", ":" or "|" is a segment
+ * of its own, and so is each run of characters between delimiters. The URI prefix of a persistent identity
+ * is then the path up to and including its last delimiter, and the path of a top-level identity never ends
+ * at the same node as a URI prefix unless the identity itself ends with a delimiter. Each node counts the
+ * top-level identity and persistent identity keys of the document ending there, and records whether it is
+ * the URI prefix of a top-level of the document, so that the collision and prefix checks for a new
+ * top-level are a single walk down its persistent identity with no regular expression matching or URI
+ * allocation.
+ *
+ * @version 2.1
+ */
+
+final class URIprefixTrie {
+
+	private static final class Node {
+		private HashMap<String, Node> children;
+		private int keys;
+		private boolean prefix;
+
+		private Node getChild(String segment) {
+			return children == null ? null : children.get(segment);
+		}
+
+		private Node addChild(String segment) {
+			if (children == null) {
+				children = new HashMap<>();
+			}
+			Node child = children.get(segment);
+			if (child == null) {
+				child = new Node();
+				children.put(segment, child);
+			}
+			return child;
+		}
+	}
+
+	private final Node root = new Node();
+
+	private static boolean isDelimiter(char c) {
+		return c == '/' || c == '#' || c == ':' || c == '|';
+	}
+
+	/**
+	 * Returns the end of the segment of the given string starting at {@code start}, which is either a
+	 * single delimiter or a run of characters up to the next delimiter or the end of the string.
+	 */
+	private static int segmentEnd(String uri, int start) {
+		if (isDelimiter(uri.charAt(start))) {
+			return start + 1;
+		}
+		for (int i = start + 1; i < uri.length(); i++) {
+			if (isDelimiter(uri.charAt(i))) {
+				return i;
+			}
+		}
+		return uri.length();
+	}
+
+	/**
+	 * Returns the end of the URI prefix of the given persistent identity, which is the index after its
+	 * last delimiter, or 0 if it has no URI prefix.
+	 */
+	private static int prefixEnd(String persistentId) {
+		int prefixEnd = persistentId.length();
+		while (prefixEnd > 0 && !isDelimiter(persistentId.charAt(prefixEnd - 1))) {
+			prefixEnd--;
+		}
+		return prefixEnd == persistentId.length() ? 0 : prefixEnd;
+	}
+
+	/**
+	 * Returns the URI prefix of the given persistent identity, as checked by
+	 * {@link #addPrefixes(TopLevel, String)}.
+	 *
+	 * @param persistentId
+	 *            the persistent identity of a top-level
+	 * @return the URI prefix of the given persistent identity, or {@code null} if it has none
+	 */
+	static String getURIprefix(String persistentId) {
+		int prefixEnd = prefixEnd(persistentId);
+		return prefixEnd == 0 ? null : persistentId.substring(0, prefixEnd);
+	}
+
+	/**
+	 * Returns the node at the end of the given part of the given string, adding the missing nodes on the
+	 * way.
+	 */
+	private Node addPath(String uri, int end) {
+		Node node = root;
+		int start = 0;
+		while (start < end) {
+			int segmentEnd = segmentEnd(uri, start);
+			node = node.addChild(uri.substring(start, segmentEnd));
+			start = segmentEnd;
+		}
+		return node;
+	}
+
+	/**
+	 * Checks the URI prefix of the given persistent identity and records it in this trie.
+	 *
+	 * @param topLevel
+	 *            the top-level being added
+	 * @param persistentId
+	 *            the persistent identity of the top-level being added
+	 * @throws SBOLValidationException
+	 *             if the following SBOL validation rule was violated: 10202.
+	 * @throws IllegalArgumentException
+	 *             if the given persistent identity is used as a URI prefix in this trie
+	 * @see #checkPrefixes(TopLevel, String)
+	 */
+	void addPrefixes(TopLevel topLevel, String persistentId) throws SBOLValidationException {
+		checkPrefixes(topLevel, persistentId);
+		addPrefix(persistentId);
+	}
+
+	/**
+	 * Checks the URI prefix of the given persistent identity against this trie, without changing it.
+	 * <p>
+	 * As with {@link URIcompliance#extractURIprefix(URI)}, the URI prefix of a compliant persistent
+	 * identity ends with its last delimiter. It must not be the identity or persistent identity of a
+	 * top-level in the document, and the given persistent identity must not be the URI prefix of a
+	 * top-level in the document.
+	 *
+	 * @param topLevel
+	 *            the top-level being added
+	 * @param persistentId
+	 *            the persistent identity of the top-level being added
+	 * @throws SBOLValidationException
+	 *             if the following SBOL validation rule was violated: 10202.
+	 * @throws IllegalArgumentException
+	 *             if the given persistent identity is used as a URI prefix in this trie
+	 */
+	void checkPrefixes(TopLevel topLevel, String persistentId) throws SBOLValidationException {
+		int prefixEnd = prefixEnd(persistentId);
+		if (prefixEnd == 0) {
+			return;
+		}
+		Node prefix = getNode(persistentId, prefixEnd);
+		if (prefix == null) {
+			return;
+		}
+		if (prefix.keys > 0) {
+			throw new SBOLValidationException("sbol-10202", topLevel);
+		}
+		Node leaf = prefix.getChild(persistentId.substring(prefixEnd));
+		if (leaf != null && leaf.prefix) {
+			throw new IllegalArgumentException(
+					"Persistent identity `" + persistentId + "' matches URI prefix in document.");
+		}
+	}
+
+	/**
+	 * Records the URI prefix of the given persistent identity in this trie, without checking it.
+	 *
+	 * @param persistentId
+	 *            the persistent identity of a top-level added to the document
+	 */
+	void addPrefix(String persistentId) {
+		int prefixEnd = prefixEnd(persistentId);
+		if (prefixEnd > 0) {
+			addPath(persistentId, prefixEnd).prefix = true;
+		}
+	}
+
+	/**
+	 * Records the given identity or persistent identity as a key of a top-level in the document.
+	 *
+	 * @param key
+	 *            the identity or persistent identity of a top-level
+	 */
+	void addKey(URI key) {
+		String uri = key.toString();
+		addPath(uri, uri.length()).keys++;
+	}
+
+	/**
+	 * Removes one occurrence of the given identity or persistent identity as a key of a top-level in the
+	 * document.
+	 *
+	 * @param key
+	 *            the identity or persistent identity of a top-level
+	 */
+	void removeKey(URI key) {
+		String uri = key.toString();
+		Node node = getNode(uri, uri.length());
+		if (node != null && node.keys > 0) {
+			node.keys--;
+		}
+	}
+
+	/**
+	 * Returns whether the given string is the identity or persistent identity of a top-level in the
+	 * document.
+	 *
+	 * @param uri
+	 *            the string to be looked up
+	 * @return {@code true} if the given string is a key of a top-level in the document
+	 */
+	boolean containsKey(String uri) {
+		Node node = getNode(uri, uri.length());
+		return node != null && node.keys > 0;
+	}
+
+	/**
+	 * Returns the node at the end of the given part of the given string, or {@code null} if there is
+	 * none.
+	 */
+	private Node getNode(String uri, int end) {
+		Node node = root;
+		int start = 0;
+		while (node != null && start < end) {
+			int segmentEnd = segmentEnd(uri, start);
+			node = node.getChild(uri.substring(start, segmentEnd));
+			start = segmentEnd;
+		}
+		return node;
+	}
+}
@@ -52,6 +52,13 @@ public class Usage extends Identified {
 		}
 	}
 	
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.update(entity);
+		contentDigest.updateURIs(roles);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -130,6 +137,7 @@ public class Usage extends Identified {
 			throw new SBOLValidationException("sbol-12502",this);
 		}
 		this.entity = entity;
+		modified();
 	}
 
 	/**
@@ -139,7 +147,9 @@ public class Usage extends Identified {
 	 * @return {@code true} if this set did not already contain the specified role, {@code false} otherwise.
 	 */
 	public boolean addRole(URI roleURI) {
-		return roles.add(roleURI);
+		boolean result = roles.add(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -159,7 +169,9 @@ public class Usage extends Identified {
 	 * @return {@code true} if the matching role reference was removed successfully, {@code false} otherwise.
 	 */
 	public boolean removeRole(URI roleURI) {
-		return roles.remove(roleURI);
+		boolean result = roles.remove(roleURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -203,6 +215,7 @@ public class Usage extends Identified {
 	 */
 	public void clearRoles() {
 		roles.clear();
+		modified();
 	}
 
 	@Override
@@ -95,6 +95,7 @@ public class VariableComponent extends Identified {
 			}
 		}
 		variants.add(variant);
+		modified();
 	}
 
 	/**
@@ -121,6 +122,7 @@ public class VariableComponent extends Identified {
 			}
 		}
 		variantCollections.add(variantCollection);
+		modified();
 	}
 
 	/**
@@ -138,6 +140,7 @@ public class VariableComponent extends Identified {
 			}
 		}
 		variantDerivations.add(variantDerivation);
+		modified();
 	}
 
 	/**
@@ -181,6 +184,7 @@ public class VariableComponent extends Identified {
 			}
 		}
 		this.variable = variable;
+		modified();
 	}
 
 	/**
@@ -212,6 +216,7 @@ public class VariableComponent extends Identified {
 			}
 		}
 		this.operator = operator;
+		modified();
 	}
 
 	/**
@@ -404,7 +409,9 @@ public class VariableComponent extends Identified {
 	 *         successfully, {@code false} otherwise.
 	 */
 	public boolean removeVariant(ComponentDefinition variant) {
-		return variants.remove(variant.getIdentity());
+		boolean result = variants.remove(variant.getIdentity());
+		modified();
+		return result;
 	}
 
 	/**
@@ -417,7 +424,9 @@ public class VariableComponent extends Identified {
 	 *         successfully, {@code false} otherwise.
 	 */
 	public boolean removeVariantURI(URI variantURI) {
-		return variants.remove(variantURI);
+		boolean result = variants.remove(variantURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -426,6 +435,7 @@ public class VariableComponent extends Identified {
 	 */
 	public void clearVariants() {
 		variants.clear();
+		modified();
 	}
 
 	/**
@@ -437,7 +447,9 @@ public class VariableComponent extends Identified {
 	 *         {@code false} otherwise.
 	 */
 	public boolean removeVariantCollection(Collection variantCollection) {
-		return variantCollections.remove(variantCollection.getIdentity());
+		boolean result = variantCollections.remove(variantCollection.getIdentity());
+		modified();
+		return result;
 	}
 
 	/**
@@ -450,7 +462,9 @@ public class VariableComponent extends Identified {
 	 *         {@code false} otherwise.
 	 */
 	public boolean removeVariantCollectionURI(URI variantCollectionURI) {
-		return variantCollections.remove(variantCollectionURI);
+		boolean result = variantCollections.remove(variantCollectionURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -460,6 +474,7 @@ public class VariableComponent extends Identified {
 	 */
 	public void clearVariantCollections() {
 		variantCollections.clear();
+		modified();
 	}
 
 	/**
@@ -472,7 +487,9 @@ public class VariableComponent extends Identified {
 	 *         successfully, {@code false} otherwise.
 	 */
 	public boolean removeVariantDerivation(CombinatorialDerivation variantDerivation) {
-		return variantDerivations.remove(variantDerivation.getIdentity());
+		boolean result = variantDerivations.remove(variantDerivation.getIdentity());
+		modified();
+		return result;
 	}
 
 	/**
@@ -485,7 +502,9 @@ public class VariableComponent extends Identified {
 	 *         successfully, {@code false} otherwise.
 	 */
 	public boolean removeVariantDerivationURI(URI variantDerivationURI) {
-		return variantDerivations.remove(variantDerivationURI);
+		boolean result = variantDerivations.remove(variantDerivationURI);
+		modified();
+		return result;
 	}
 
 	/**
@@ -495,6 +514,17 @@ public class VariableComponent extends Identified {
 	 */
 	public void clearVariantDerivations() {
 		variantDerivations.clear();
+		modified();
+	}
+
+	@Override
+	void updateDigest(ContentDigest contentDigest) {
+		super.updateDigest(contentDigest);
+		contentDigest.updateURIs(variants);
+		contentDigest.updateURIs(variantCollections);
+		contentDigest.updateURIs(variantDerivations);
+		contentDigest.update(variable);
+		contentDigest.update(operator == null ? null : operator.toString());
 	}
 
 	/**
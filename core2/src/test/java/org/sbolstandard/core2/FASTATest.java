@@ -1,7 +1,15 @@
 package org.sbolstandard.core2;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
 
 import org.junit.Test;
 
@@ -89,6 +97,108 @@ public class FASTATest {
 		}
 	}
 	
+	/**
+	 * Test reading FASTA and GenBank into memory-mapped sequence elements
+	 */
+	@Test
+	public void testReadMappedSequences() throws Exception {
+		String URIprefix = "http://sbols.org/";
+		String version = "1.0";
+		StringBuilder elements = new StringBuilder();
+		StringBuilder fasta = new StringBuilder(">big : a large sequence" + SBOLTestUtils.NEWLINE);
+		for (int i = 0; i < 1000; i++) {
+			String line = i % 2 == 0 ? "acgtacgtac" : "ggccttaann";
+			elements.append(line).append(line);
+			fasta.append(line).append(' ').append(line).append(SBOLTestUtils.NEWLINE);
+		}
+		fasta.append(">protein" + SBOLTestUtils.NEWLINE + "MKLV" + SBOLTestUtils.NEWLINE);
+		SBOLReader.setURIPrefix(URIprefix);
+		SBOLReader.setVersion(version);
+		SBOLReader.setMapSequences(true);
+		try {
+			SBOLDocument doc = SBOLReader.read(new ByteArrayInputStream(fasta.toString().getBytes()));
+			assertTrue(doc.getSequences().size() == 2);
+			Sequence seq = doc.getSequence("big", version);
+			assertTrue(seq.isMapped());
+			assertTrue(Sequence.IUPAC_DNA.equals(seq.getEncoding()));
+			assertTrue("a large sequence".equals(seq.getDescription()));
+			assertTrue(elements.length() == seq.getElementsLength());
+			assertTrue(elements.toString().equals(seq.getElements()));
+			assertTrue(elements.substring(15, 45).equals(seq.getElements(15, 45)));
+			assertTrue(Sequence.IUPAC_PROTEIN.equals(doc.getSequence("protein", version).getEncoding()));
+			assertTrue("MKLV".equals(doc.getSequence("protein", version).getElements()));
+
+			// mapped and string elements are equal if their characters are
+			SBOLDocument copy = new SBOLDocument();
+			copy.setDefaultURIprefix(URIprefix);
+			Sequence unmapped = copy.createSequence("big", version, elements.toString(), Sequence.IUPAC_DNA);
+			unmapped.setDescription("a large sequence");
+			assertTrue(seq.equals(unmapped) && unmapped.equals(seq));
+			assertTrue(seq.hashCode() == unmapped.hashCode());
+
+			// writing decodes a line at a time, breaking lines as for string elements
+			ByteArrayOutputStream mappedOut = new ByteArrayOutputStream();
+			ByteArrayOutputStream stringOut = new ByteArrayOutputStream();
+			FASTA.write(doc, mappedOut);
+			SBOLDocument unmappedDoc = new SBOLDocument();
+			unmappedDoc.setDefaultURIprefix(URIprefix);
+			unmappedDoc.createCopy(unmapped);
+			unmappedDoc.createCopy(doc.getSequence("protein", version));
+			FASTA.write(unmappedDoc, stringOut);
+			assertTrue(stringOut.toString().equals(mappedOut.toString()));
+
+			String genbank = 
+					"LOCUS       simple                    56 bp    DNA     circular      29-MAR-2016" + SBOLTestUtils.NEWLINE +
+					"FEATURES             Location/Qualifiers                        " + SBOLTestUtils.NEWLINE +
+					"     CDS             1..20                                      " + SBOLTestUtils.NEWLINE +
+					"ORIGIN"+ SBOLTestUtils.NEWLINE +
+					"         1 CGTGGAAACC GTTCGAGAGC AAAAATCATA GTGGAATAAC ATTTAGTCTT GATAGT" + SBOLTestUtils.NEWLINE +
+					"//";
+			doc = SBOLReader.read(new ByteArrayInputStream(genbank.getBytes()));
+			seq = doc.getSequence("simple_seq", version);
+			assertTrue(seq.isMapped());
+			assertTrue("CGTGGAAACCGTTCGAGAGCAAAAATCATAGTGGAATAACATTTAGTCTTGATAGT".equals(seq.getElements()));
+		} finally {
+			SBOLReader.setMapSequences(false);
+		}
+	}
+
+	@Test
+	public void testReadMappedSequencesFailure() throws Exception {
+		int temporaryFiles = countMappedElementsFiles();
+		// Lines are read one ahead, so the reader fails after the first line of elements is appended.
+		InputStream broken = new SequenceInputStream(
+				new ByteArrayInputStream((">big" + SBOLTestUtils.NEWLINE + "acgtacgtac" + SBOLTestUtils.NEWLINE
+						+ "acgtacgtac" + SBOLTestUtils.NEWLINE).getBytes()),
+				new InputStream() {
+					@Override
+					public int read() throws IOException {
+						throw new IOException("broken");
+					}
+				});
+		SBOLReader.setMapSequences(true);
+		try {
+			SBOLDocument doc = new SBOLDocument();
+			FASTA.read(doc, new BufferedReader(new InputStreamReader(broken)), "http://sbols.org/", "1.0", Sequence.IUPAC_DNA);
+			fail();
+		} catch (IOException e) {
+			assertTrue("broken".equals(e.getMessage()));
+		} finally {
+			SBOLReader.setMapSequences(false);
+		}
+		assertTrue(countMappedElementsFiles() == temporaryFiles);
+	}
+
+	private static int countMappedElementsFiles() {
+		int count = 0;
+		for (String name : new File(System.getProperty("java.io.tmpdir")).list()) {
+			if (name.startsWith("sbol") && name.endsWith(".elements")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
 //		@Test
 //		public void testWriteSequenceString() {
 //			fail("Not yet implemented"); 
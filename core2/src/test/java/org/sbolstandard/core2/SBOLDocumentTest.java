@@ -759,5 +759,101 @@ public class SBOLDocumentTest {
 	
 	
 	
-}
+	@Test
+	public void nestedPersistentIdentity() throws SBOLValidationException
+	{
+		SBOLDocument document = new SBOLDocument();
+		document.addCollection(new Collection(URI.create("http://partsregistry.org/parts/")));
+		try {
+			document.createComponentDefinition("http://partsregistry.org/parts", "BBa_R0040", "1", ComponentDefinition.DNA);
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().startsWith("sbol-10202"));
+		}
+		assertNull(document.getComponentDefinition(URI.create("http://partsregistry.org/parts/BBa_R0040/1")));
+		document.createComponentDefinition("http://partsregistry.org/other", "BBa_R0040", "1", ComponentDefinition.DNA);
+		assertNotNull(document.getComponentDefinition(URI.create("http://partsregistry.org/other/BBa_R0040/1")));
+	}
+
+	@Test
+	public void snapshotDocumentChecksBasePrefixes() throws SBOLValidationException
+	{
+		SBOLDocument document = new SBOLDocument();
+		document.addCollection(new Collection(URI.create("http://partsregistry.org/parts/")));
+		SBOLDocument derived = document.snapshot().createDocument();
+		try {
+			derived.createComponentDefinition("http://partsregistry.org/parts", "BBa_R0040", "1", ComponentDefinition.DNA);
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().startsWith("sbol-10202"));
+		}
+		derived.createComponentDefinition("http://partsregistry.org/other", "BBa_R0040", "1", ComponentDefinition.DNA);
+	}
+
+	@Test
+	public void snapshotDocumentEqualsWithoutCopying() throws SBOLValidationException
+	{
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix("http://partsregistry.org");
+		document.createComponentDefinition("BBa_R0040", "1", ComponentDefinition.DNA);
+		document.createComponentDefinition("BBa_R0040", "2", ComponentDefinition.DNA);
+		document.createSequence("BBa_R0040_seq", "1", "ttgacagctagc", Sequence.IUPAC_DNA);
+		SBOLDocument derived = document.snapshot().createDocument();
+		long modifications = derived.getModifications();
+		assertEquals(document, derived);
+		assertEquals(document.hashCode(), derived.hashCode());
+		assertEquals(modifications, derived.getModifications());
+
+		derived.getComponentDefinition(URI.create("http://partsregistry.org/BBa_R0040"));
+		assertTrue(derived.getModifications() > modifications);
+		assertEquals(document, derived);
+		assertEquals(document.hashCode(), derived.hashCode());
+		derived.getSequence(URI.create("http://partsregistry.org/BBa_R0040_seq")).setElements("ttgaca");
+		assertFalse(document.equals(derived));
+	}
+
+	@Test
+	public void test_snapshotSharesUnchangedTopLevels() throws SBOLValidationException {
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix("http://partsregistry.org");
+		ComponentDefinition promoter = document.createComponentDefinition("CRa_promoter", ComponentDefinition.DNA);
+		URI other = document.createComponentDefinition("TetR_promoter", ComponentDefinition.DNA).getIdentity();
+		ComponentDefinition device = document.createComponentDefinition("device", ComponentDefinition.DNA);
+		device.createComponent("promoter", AccessType.PUBLIC, promoter.getIdentity());
+		SBOLDocumentSnapshot first = document.snapshot();
+		assertSame(first.getFrozenTopLevel(other), document.snapshot().getFrozenTopLevel(other));
 
+		promoter.addRole(SequenceOntology.PROMOTER);
+		SBOLDocumentSnapshot second = document.snapshot();
+		assertSame(first.getFrozenTopLevel(other), second.getFrozenTopLevel(other));
+		assertNotSame(first.getFrozenTopLevel(promoter.getIdentity()), second.getFrozenTopLevel(promoter.getIdentity()));
+		assertTrue(((ComponentDefinition) first.getFrozenTopLevel(promoter.getIdentity())).getRoles().isEmpty());
+		// The device refers to the changed promoter, so it is copied again to look it up in the new snapshot.
+		ComponentDefinition frozenDevice = (ComponentDefinition) second.getFrozenTopLevel(device.getIdentity());
+		assertNotSame(first.getFrozenTopLevel(device.getIdentity()), frozenDevice);
+		assertTrue(frozenDevice.getComponent("promoter").getDefinition().containsRole(SequenceOntology.PROMOTER));
+
+		SBOLDocument request = second.createDocument();
+		request.getComponentDefinition("TetR_promoter", "").addRole(SequenceOntology.PROMOTER);
+		assertNotNull(request.getComponentDefinition("CRa_promoter", ""));
+		SBOLDocumentSnapshot third = request.snapshot();
+		assertSame(second.getFrozenTopLevel(device.getIdentity()), third.getFrozenTopLevel(device.getIdentity()));
+		assertSame(second.getFrozenTopLevel(promoter.getIdentity()), third.getFrozenTopLevel(promoter.getIdentity()));
+		assertNotSame(second.getFrozenTopLevel(other), third.getFrozenTopLevel(other));
+		assertEquals(second.size(), third.size());
+	}
+
+	@Test
+	public void test_materializeMissingURI() throws SBOLValidationException {
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix("http://partsregistry.org");
+		document.createComponentDefinition("BBa_R0040", ComponentDefinition.DNA);
+		SBOLDocument derived = document.snapshot().createDocument(true);
+		long modifications = derived.getModifications();
+		assertNull(derived.getComponentDefinition(URI.create("http://partsregistry.org/missing")));
+		assertNull(derived.getSequence(URI.create("http://partsregistry.org/BBa_R0040")));
+		assertEquals(modifications, derived.getModifications());
+		assertNotNull(derived.getComponentDefinition(URI.create("http://partsregistry.org/BBa_R0040")));
+		assertTrue(derived.getModifications() > modifications);
+	}
+}
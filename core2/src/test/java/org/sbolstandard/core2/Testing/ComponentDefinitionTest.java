@@ -152,6 +152,162 @@ public class ComponentDefinitionTest {
 	}
 	
 
+	@Test
+	public void test_sortedComponents_order() throws SBOLValidationException
+	{
+		int count = 2000;
+		doc.createComponentDefinition("part_comp", ComponentDefinition.DNA);
+		for (int i = 0; i < count; i++) {
+			gRNA_b_gene.createComponent("part" + i, AccessType.PUBLIC, "part_comp");
+		}
+		// The first half is ordered by annotations, the second half by constraints.
+		for (int i = 0; i < count / 2; i++) {
+			gRNA_b_gene.createSequenceAnnotation("annot" + i, "range", 2 * i + 1, 2 * i + 2).setComponent("part" + i);
+		}
+		for (int i = count / 2 - 1; i < count - 1; i++) {
+			gRNA_b_gene.createSequenceConstraint("constraint" + i, RestrictionType.PRECEDES, "part" + i, "part" + (i + 1));
+		}
+		List<Component> sorted = gRNA_b_gene.getSortedComponents();
+		assertEquals(count, sorted.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals("part" + i, sorted.get(i).getDisplayId());
+		}
+		gRNA_b_gene.createSequenceConstraint("cycle", RestrictionType.PRECEDES, "part" + (count - 1), "part0");
+		try {
+			gRNA_b_gene.getSortedComponents();
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().contains("part0"));
+		}
+	}
+
+	@Test
+	public void test_motifScanner() throws SBOLValidationException
+	{
+		MotifScanner scanner = new MotifScanner();
+		scanner.addMotif("NheI", "GCTAGC", 1);
+		scanner.addMotif("box35", "TTGACA");
+		scanner.addMotif("box10", "TATRAT");
+		List<MotifScanner.Match> matches = scanner.scan(generic_seq);
+		assertEquals(4, matches.size());
+		assertEquals("box35", matches.get(0).getName());
+		assertEquals(6, matches.get(0).getEnd());
+		assertEquals(7, matches.get(1).getCut());
+		assertEquals("box10", matches.get(2).getName());
+		assertEquals(30, matches.get(3).getCut());
+
+		List<SequenceAnnotation> annotations = scanner.annotate(doc);
+		assertEquals(4, annotations.size());
+		assertEquals(4, gRNA_b_gene.getSequenceAnnotations().size());
+		SequenceAnnotation box35 = gRNA_b_gene.getSequenceAnnotation("box35_0");
+		assertEquals(1, ((Range) box35.getLocation("range")).getStart());
+		assertEquals(OrientationType.INLINE, box35.getLocation("range").getOrientation());
+		assertEquals(7, ((Cut) gRNA_b_gene.getSequenceAnnotation("NheI_1").getLocation("cut")).getAt());
+	}
+
+	@Test
+	public void test_motifScannerWeakStrong() throws SBOLValidationException
+	{
+		Sequence sequence = doc.createSequence("weak_seq", "aaccaggtttcctggaatcaggaa", Sequence.IUPAC_DNA);
+		MotifScanner scanner = new MotifScanner();
+		scanner.addMotif("EcoRII", "CCWGG");
+		scanner.addMotif("half", "CCWGA");
+		List<MotifScanner.Match> matches = scanner.scan(sequence);
+		assertEquals(3, matches.size());
+		assertEquals("EcoRII", matches.get(0).getName());
+		assertEquals(3, matches.get(0).getStart());
+		assertEquals(OrientationType.INLINE, matches.get(0).getStrand());
+		assertEquals("EcoRII", matches.get(1).getName());
+		assertEquals(11, matches.get(1).getStart());
+		assertEquals(OrientationType.INLINE, matches.get(1).getStrand());
+		assertEquals("half", matches.get(2).getName());
+		assertEquals(18, matches.get(2).getStart());
+		assertEquals(OrientationType.REVERSECOMPLEMENT, matches.get(2).getStrand());
+	}
+
+	@Test
+	public void test_featureTable() throws SBOLValidationException
+	{
+		ComponentDefinition promoter = doc.createComponentDefinition("promoter_def", ComponentDefinition.DNA);
+		promoter.createSequenceAnnotation("tss", "range", 5, 6);
+		ComponentDefinition device = doc.createComponentDefinition("device", ComponentDefinition.DNA);
+		device.createComponent("promoter1", AccessType.PUBLIC, "promoter_def");
+		device.createComponent("promoter2", AccessType.PUBLIC, "promoter_def");
+		device.createSequenceAnnotation("p1", "range", 11, 30).setComponent("promoter1");
+		device.createSequenceAnnotation("p2", "range", 51, 70, OrientationType.REVERSECOMPLEMENT)
+				.setComponent("promoter2");
+
+		FeatureTable table = device.getFeatureTable();
+		assertSame(table, device.getFeatureTable());
+		List<FeatureTable.Feature> features = table.getFeatures();
+		assertEquals(4, features.size());
+		assertEquals(2, table.getLeafFeatures().size());
+
+		FeatureTable.Feature tss1 = features.get(0);
+		assertEquals("tss", tss1.getAnnotation().getDisplayId());
+		assertEquals(15, tss1.getStart());
+		assertEquals(16, tss1.getEnd());
+		assertEquals(OrientationType.INLINE, tss1.getOrientation());
+		FeatureTable.Feature p1 = features.get(1);
+		assertEquals("p1", p1.getAnnotation().getDisplayId());
+		assertFalse(p1.isLeaf());
+		assertEquals(promoter, p1.getDefinition());
+
+		FeatureTable.Feature tss2 = features.get(2);
+		assertEquals(65, tss2.getStart());
+		assertEquals(66, tss2.getEnd());
+		assertEquals(OrientationType.REVERSECOMPLEMENT, tss2.getOrientation());
+		assertEquals(Arrays.asList(device.getSequenceAnnotation("p2"), promoter.getSequenceAnnotation("tss")),
+				tss2.getPath());
+		assertEquals(51, features.get(3).getStart());
+		assertEquals(70, features.get(3).getEnd());
+
+		promoter.createSequenceAnnotation("rbs", "range", 20, 25);
+		assertEquals(6, device.getFeatureTable().getFeatures().size());
+	}
+
+	@Test
+	public void test_impliedNucleicAcidSequence() throws SBOLValidationException
+	{
+		ComponentDefinition promoter = doc.createComponentDefinition("promoter_comp", ComponentDefinition.DNA);
+		promoter.addSequence(doc.createSequence("promoter_seq", "ttgaca", Sequence.IUPAC_DNA));
+		ComponentDefinition gene = doc.createComponentDefinition("gene_comp", ComponentDefinition.DNA);
+		Sequence gene_seq = doc.createSequence("gene_seq", "atgc", Sequence.IUPAC_DNA);
+		gene.addSequence(gene_seq);
+
+		ComponentDefinition cassette = doc.createComponentDefinition("cassette", ComponentDefinition.DNA);
+		cassette.createComponent("promoter", AccessType.PUBLIC, "promoter_comp");
+		cassette.createComponent("gene", AccessType.PUBLIC, "gene_comp");
+		cassette.createSequenceAnnotation("promoter_annot", "range", 1, 6).setComponent("promoter");
+		cassette.createSequenceAnnotation("gene_annot", "range", 7, 10, OrientationType.REVERSECOMPLEMENT).setComponent("gene");
+
+		ComponentDefinition device = doc.createComponentDefinition("device", ComponentDefinition.DNA);
+		device.createComponent("cassette", AccessType.PUBLIC, "cassette");
+		device.createComponent("gene", AccessType.PUBLIC, "gene_comp");
+		device.createSequenceAnnotation("cassette_annot", "range", 1, 10).setComponent("cassette");
+		SequenceAnnotation gene_annot = device.createSequenceAnnotation("gene_annot", "range", 13, 16);
+		gene_annot.setComponent("gene");
+
+		assertEquals("ttgacagcat", cassette.getImpliedNucleicAcidSequence());
+		assertEquals("ttgacagcatNNatgc", device.getImpliedNucleicAcidSequence());
+		assertSame(device.getImpliedNucleicAcidSequence(), device.getImpliedNucleicAcidSequence());
+
+		gene_seq.setElements("atgg");
+		assertEquals("ttgacaccat", cassette.getImpliedNucleicAcidSequence());
+		assertEquals("ttgacaccatNNatgg", device.getImpliedNucleicAcidSequence());
+
+		((Range) gene_annot.getLocation("range")).setStart(11);
+		assertEquals("ttgacaccatatggNN", device.getImpliedNucleicAcidSequence());
+
+		// A gene longer than its range does not fit, which validation reports as a violation of rule 10520.
+		((Range) gene_annot.getLocation("range")).setStart(15);
+		try {
+			device.getImpliedNucleicAcidSequence();
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
 	@Test
 	public void test_sortedComponents_CD() throws SBOLValidationException
 	{
@@ -0,0 +1,175 @@
+package org.sbolstandard.core2.Testing;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.CombinatorialDerivation;
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.DesignSpace;
+import org.sbolstandard.core2.OperatorType;
+import org.sbolstandard.core2.RestrictionType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidate;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SequenceConstraint;
+import org.sbolstandard.core2.StrategyType;
+
+public class DesignSpaceTest {
+
+	private static SBOLDocument createDesignSpaceDocument() throws SBOLValidationException {
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix("http://sbols.org/Design_Space/");
+		document.setComplete(true);
+		document.setCreateDefaults(true);
+		String version = "1.0";
+		for (String part : new String[] { "p1", "p2", "c1", "c2", "t1", "t2" }) {
+			document.createComponentDefinition(part, version, ComponentDefinition.DNA);
+		}
+		ComponentDefinition template = document.createComponentDefinition("gene", version, ComponentDefinition.DNA);
+		template.createComponent("promoter", AccessType.PUBLIC, "p1", version);
+		template.createComponent("cds", AccessType.PUBLIC, "c1", version);
+		template.createComponent("terminator", AccessType.PUBLIC, "t1", version);
+		template.createSequenceConstraint("gene_constraint1", RestrictionType.PRECEDES, "promoter", "cds");
+		template.createSequenceConstraint("gene_constraint2", RestrictionType.PRECEDES, "cds", "terminator");
+		document.createCollection("cdss", version).addMember(document.getComponentDefinition("c1", version).getIdentity());
+		document.getCollection("cdss", version).addMember(document.getComponentDefinition("c2", version).getIdentity());
+		CombinatorialDerivation derivation = document.createCombinatorialDerivation("gene_derivation", version,
+				template.getIdentity());
+		derivation.setStrategy(StrategyType.SAMPLE);
+		derivation.createVariableComponent("promoter_variable", OperatorType.ONE, "promoter")
+				.addVariant(document.getComponentDefinition("p1", version).getIdentity());
+		derivation.getVariableComponent("promoter_variable").addVariant(document.getComponentDefinition("p2", version).getIdentity());
+		derivation.createVariableComponent("cds_variable", OperatorType.ZEROORONE, "cds")
+				.addVariantCollection(document.getCollection("cdss", version).getIdentity());
+		derivation.createVariableComponent("terminator_variable", OperatorType.ONEORMORE, "terminator")
+				.addVariant(document.getComponentDefinition("t1", version).getIdentity());
+		derivation.getVariableComponent("terminator_variable").addVariant(document.getComponentDefinition("t2", version).getIdentity());
+		return document;
+	}
+
+	@Test
+	public void test_designSpace() throws SBOLValidationException {
+		SBOLDocument document = createDesignSpaceDocument();
+		CombinatorialDerivation derivation = document.getCombinatorialDerivation("gene_derivation", "1.0");
+		DesignSpace designSpace = derivation.getDesignSpace();
+		assertEquals(18, designSpace.size());
+		Set<URI> identities = new HashSet<>();
+		for (DesignSpace.Design design : designSpace) {
+			identities.add(design.getComponentDefinition().getIdentity());
+		}
+		assertEquals(18, identities.size());
+		List<DesignSpace.Design> designs = designSpace.parallelStream().collect(Collectors.toList());
+		assertEquals(18, designs.size());
+		for (int i = 0; i < designs.size(); i++) {
+			assertEquals(BigInteger.valueOf(i), designs.get(i).getIndex());
+		}
+
+		// Index 0: no cds, promoter p1, terminator t1
+		ComponentDefinition first = designSpace.get(0).getComponentDefinition();
+		assertNull(first.getComponent("cds"));
+		assertEquals(document.getComponentDefinition("p1", "1.0").getIdentity(),
+				first.getComponent("promoter").getDefinitionURI());
+		assertEquals(2, first.getComponents().size());
+		assertEquals(1, first.getSequenceConstraints().size());
+		SequenceConstraint bridge = first.getSequenceConstraints().iterator().next();
+		assertEquals(first.getComponent("promoter").getIdentity(), bridge.getSubjectURI());
+		assertEquals(first.getComponent("terminator").getIdentity(), bridge.getObjectURI());
+		assertTrue(first.getWasDerivedFroms().contains(derivation.getIdentity()));
+
+		// Index 17: cds c2, promoter p2, terminators t1 then t2
+		ComponentDefinition last = designSpace.get(17).getComponentDefinition();
+		assertEquals(4, last.getComponents().size());
+		Component second = last.getComponent("terminator_2");
+		assertNotNull(second);
+		assertTrue(second.getWasDerivedFroms().contains(
+				document.getComponentDefinition("gene", "1.0").getComponent("terminator").getIdentity()));
+		assertEquals(4, last.getSequenceConstraints().size());
+		assertNotNull(last.getSequenceConstraint("gene_constraint2_2"));
+		assertEquals(second.getIdentity(), last.getSequenceConstraint("gene_constraint2_2").getObjectURI());
+
+		ComponentDefinition added = designSpace.get(17).addTo(document);
+		assertNotNull(added);
+		SBOLValidate.validateSBOL(document, true, true, false);
+		assertEquals(0, SBOLValidate.getNumErrors());
+	}
+
+	@Test
+	public void test_nestedDesignSpace() throws SBOLValidationException {
+		SBOLDocument document = createDesignSpaceDocument();
+		String version = "1.0";
+		ComponentDefinition device = document.createComponentDefinition("device", version, ComponentDefinition.DNA);
+		device.createComponent("unit", AccessType.PUBLIC, "c1", version);
+		CombinatorialDerivation derivation = document.createCombinatorialDerivation("device_derivation", version,
+				device.getIdentity());
+		derivation.createVariableComponent("unit_variable", OperatorType.ONE, "unit")
+				.addVariantDerivation(document.getCombinatorialDerivation("gene_derivation", version).getIdentity());
+		DesignSpace designSpace = derivation.getDesignSpace();
+		assertEquals(18, designSpace.size());
+		DesignSpace.Design design = designSpace.get(5);
+		List<ComponentDefinition> componentDefinitions = design.getComponentDefinitions();
+		assertEquals(2, componentDefinitions.size());
+		assertEquals(design.getComponentDefinition(), componentDefinitions.get(1));
+		assertEquals(componentDefinitions.get(0).getIdentity(),
+				design.getComponentDefinition().getComponent("unit").getDefinitionURI());
+		design.addTo(document);
+		assertNotNull(document.getComponentDefinition(componentDefinitions.get(0).getIdentity()));
+		SBOLValidate.validateSBOL(document, true, true, false);
+		assertEquals(0, SBOLValidate.getNumErrors());
+		assertEquals(BigInteger.valueOf(5), designSpace.rank(design.getComponentDefinition()));
+	}
+
+	@Test
+	public void test_designSpaceSampling() throws SBOLValidationException {
+		SBOLDocument document = createDesignSpaceDocument();
+		DesignSpace genes = document.getCombinatorialDerivation("gene_derivation", "1.0").getDesignSpace();
+		for (long i = 0; i < genes.size(); i++) {
+			assertEquals(BigInteger.valueOf(i), genes.rank(genes.get(i).getComponentDefinition()));
+		}
+
+		String version = "1.0";
+		ComponentDefinition library = document.createComponentDefinition("library", version, ComponentDefinition.DNA);
+		CombinatorialDerivation derivation = document.createCombinatorialDerivation("library_derivation", version,
+				library.getIdentity());
+		for (int i = 0; i < 12; i++) {
+			library.createComponent("slot" + i, AccessType.PUBLIC, "c1", version);
+			derivation.createVariableComponent("slot" + i + "_variable", OperatorType.ONE, "slot" + i);
+			for (int j = 0; j < 10; j++) {
+				if (document.getComponentDefinition("part" + j, version) == null) {
+					document.createComponentDefinition("part" + j, version, ComponentDefinition.DNA);
+				}
+				derivation.getVariableComponent("slot" + i + "_variable")
+						.addVariant(document.getComponentDefinition("part" + j, version).getIdentity());
+			}
+		}
+		DesignSpace designSpace = derivation.getDesignSpace();
+		assertEquals(BigInteger.TEN.pow(12), designSpace.getSize());
+		assertEquals(1000000000000L, designSpace.size());
+
+		Random random = new Random(42);
+		Set<BigInteger> indexes = designSpace.sampleIndexes(100, random);
+		assertEquals(100, indexes.size());
+		for (BigInteger index : indexes) {
+			assertTrue(index.signum() >= 0 && index.compareTo(designSpace.getSize()) < 0);
+		}
+		BigInteger index = indexes.iterator().next();
+		assertEquals(index, designSpace.rank(designSpace.get(index).getComponentDefinition()));
+		DesignSpace.Design design = designSpace.sample(random);
+		assertEquals(design.getIndex(), designSpace.rank(design.getComponentDefinition()));
+
+		try {
+			designSpace.rank(library);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
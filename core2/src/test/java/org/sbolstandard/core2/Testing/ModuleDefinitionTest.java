@@ -14,6 +14,7 @@ import org.sbolstandard.core2.Interaction;
 import org.sbolstandard.core2.Model;
 import org.sbolstandard.core2.Module;
 import org.sbolstandard.core2.ModuleDefinition;
+import org.sbolstandard.core2.RefinementType;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.SystemsBiologyOntology;
@@ -180,6 +181,44 @@ public class ModuleDefinitionTest {
 		
 	}
 	
+	@Test
+	public void test_flatten() throws SBOLValidationException
+	{
+		ModuleDefinition repressor = doc.createModuleDefinition("repressor");
+		repressor.createFunctionalComponent("protein", AccessType.PUBLIC, "TetR_CD", DirectionType.OUT);
+		repressor.createFunctionalComponent("gene", AccessType.PRIVATE, "TetR_Gene_CD", DirectionType.NONE);
+		Interaction production = repressor.createInteraction("production", SystemsBiologyOntology.GENETIC_PRODUCTION);
+		production.createParticipation("product", "protein", SystemsBiologyOntology.PRODUCT);
+		production.createParticipation("template", "gene", SystemsBiologyOntology.TEMPLATE);
+
+		ModuleDefinition pair = doc.createModuleDefinition("pair");
+		pair.createFunctionalComponent("output", AccessType.PUBLIC, "TetR_CD", DirectionType.OUT);
+		pair.createModule("first", "repressor").createMapsTo("output_map", RefinementType.USELOCAL, "output", "protein");
+		pair.createModule("second", "repressor");
+
+		ModuleDefinition circuit = doc.createModuleDefinition("circuit");
+		circuit.createModule("a", "pair");
+		circuit.createModule("b", "pair");
+
+		ModuleDefinition flat = circuit.flatten("http://sbols.org/CRISPR_Example/", "circuit_flat", "");
+		assertTrue(flat.getModules().isEmpty());
+		assertEquals(8, flat.getFunctionalComponents().size());
+		assertEquals(4, flat.getInteractions().size());
+		for (String module : new String[] { "a", "b" }) {
+			FunctionalComponent output = flat.getFunctionalComponent(module + "__output");
+			assertNotNull(output);
+			assertNull(flat.getFunctionalComponent(module + "__first__protein"));
+			assertNotNull(flat.getFunctionalComponent(module + "__second__protein"));
+			Interaction first = flat.getInteraction(module + "__first__production");
+			assertEquals(output.getIdentity(), first.getParticipation("product").getParticipantURI());
+			assertEquals(flat.getFunctionalComponent(module + "__first__gene").getIdentity(),
+					first.getParticipation("template").getParticipantURI());
+			Interaction second = flat.getInteraction(module + "__second__production");
+			assertEquals(flat.getFunctionalComponent(module + "__second__protein").getIdentity(),
+					second.getParticipation("product").getParticipantURI());
+		}
+	}
+
 	@Test
 	public void test_modelMethods() throws SBOLValidationException
 	{
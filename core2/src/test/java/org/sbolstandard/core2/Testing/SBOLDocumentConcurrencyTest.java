@@ -0,0 +1,314 @@
+package org.sbolstandard.core2.Testing;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLDocumentChange;
+import org.sbolstandard.core2.SBOLDocumentListener;
+import org.sbolstandard.core2.SBOLDocumentSnapshot;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLValidationReport;
+import org.sbolstandard.core2.SBOLValidator;
+import org.sbolstandard.core2.Sequence;
+
+public class SBOLDocumentConcurrencyTest {
+	private static final int THREADS = 8;
+	private static final int OBJECTS = 200;
+	private String prURI = "http://partsregistry.org";
+	private SBOLDocument doc = null;
+	private ExecutorService executor = null;
+
+	@Before
+	public void setUp() throws Exception {
+		doc = new SBOLDocument(true);
+		doc.setDefaultURIprefix(prURI);
+		doc.setTypesInURIs(false);
+		executor = Executors.newFixedThreadPool(THREADS * 2);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private void runAll(List<Callable<Void>> tasks) throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>();
+		for (final Callable<Void> task : tasks) {
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					start.await();
+					return task.call();
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void test_concurrentCreateRemoveGetWrite() throws Exception {
+		assertTrue(doc.isConcurrent());
+		final AtomicInteger writers = new AtomicInteger(THREADS);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int i = 0; i < OBJECTS; i++) {
+						String displayId = "part_" + thread + "_" + i;
+						doc.createSequence(displayId + "_seq", "acgt", Sequence.IUPAC_DNA);
+						ComponentDefinition cd = doc.createComponentDefinition(displayId, ComponentDefinition.DNA);
+						assertEquals(cd, doc.getComponentDefinition(cd.getIdentity()));
+						if (i % 2 == 1) {
+							assertTrue(doc.removeComponentDefinition(cd));
+							assertNull(doc.getComponentDefinition(cd.getIdentity()));
+						}
+					}
+					writers.decrementAndGet();
+					return null;
+				}
+			});
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					while (writers.get() > 0) {
+						for (ComponentDefinition cd : doc.getComponentDefinitions()) {
+							doc.getTopLevel(cd.getIdentity());
+						}
+						int size = doc.getTopLevels().size();
+						assertTrue(size >= 0);
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						doc.write(out);
+						assertTrue(out.size() > 0);
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		assertEquals(THREADS * OBJECTS / 2, doc.getComponentDefinitions().size());
+		assertEquals(THREADS * OBJECTS, doc.getSequences().size());
+		for (int t = 0; t < THREADS; t++) {
+			for (int i = 0; i < OBJECTS; i++) {
+				ComponentDefinition cd = doc.getComponentDefinition("part_" + t + "_" + i, "");
+				if (i % 2 == 1) {
+					assertNull(cd);
+				} else {
+					assertNotNull(cd);
+					assertEquals(URI.create(prURI + "/part_" + t + "_" + i), cd.getIdentity());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_concurrentDuplicateCreation() throws Exception {
+		final AtomicInteger created = new AtomicInteger();
+		final AtomicInteger rejected = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int i = 0; i < OBJECTS; i++) {
+						try {
+							doc.createComponentDefinition("shared_" + i, ComponentDefinition.DNA);
+							created.incrementAndGet();
+						} catch (SBOLValidationException e) {
+							rejected.incrementAndGet();
+						}
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		assertEquals(OBJECTS, created.get());
+		assertEquals((THREADS - 1) * OBJECTS, rejected.get());
+		assertEquals(OBJECTS, doc.getComponentDefinitions().size());
+	}
+
+	@Test
+	public void test_concurrentNamespaceBinding() throws Exception {
+		final int namespaces = 10;
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int i = 0; i < OBJECTS; i++) {
+						ComponentDefinition cd = doc.createComponentDefinition("part_" + thread + "_" + i,
+								ComponentDefinition.DNA);
+						cd.createAnnotation(new QName("http://example.org/ns" + (i % namespaces) + "/", "note", "ex"),
+								"value");
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		Set<String> bound = new HashSet<>();
+		Set<String> prefixes = new HashSet<>();
+		for (QName namespace : doc.getNamespaces()) {
+			if (namespace.getNamespaceURI().startsWith("http://example.org/")) {
+				assertTrue(bound.add(namespace.getNamespaceURI()));
+				assertTrue(prefixes.add(namespace.getPrefix()));
+			}
+		}
+		assertEquals(namespaces, bound.size());
+		for (ComponentDefinition cd : doc.getComponentDefinitions()) {
+			QName qName = cd.getAnnotations().get(0).getQName();
+			assertEquals(qName.getPrefix(), doc.getNamespace(URI.create(qName.getNamespaceURI())).getPrefix());
+		}
+	}
+
+	@Test
+	public void test_concurrentValidation() throws Exception {
+		final SBOLValidator validator = new SBOLValidator(true, false, false);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					SBOLDocument document = new SBOLDocument();
+					document.setDefaultURIprefix(prURI);
+					Set<URI> incomplete = new HashSet<>();
+					for (int i = 0; i < OBJECTS; i++) {
+						ComponentDefinition cd = document.createComponentDefinition("part_" + i,
+								ComponentDefinition.DNA);
+						if (i % (thread + 1) == 0) {
+							cd.addSequence(URI.create(prURI + "/missing_" + thread + "_" + i));
+							incomplete.add(cd.getIdentity());
+						}
+					}
+					for (int round = 0; round < 10; round++) {
+						SBOLValidationReport report = validator.validate(document);
+						Set<URI> found = new HashSet<>();
+						for (SBOLValidationReport.Issue issue : report.getIssues()) {
+							assertEquals("sbol-10513", issue.getRuleId());
+							assertEquals(SBOLValidationReport.Severity.ERROR, issue.getSeverity());
+							found.add(issue.getIdentity());
+						}
+						assertEquals(incomplete.size(), report.getIssues().size());
+						assertEquals(incomplete, found);
+						assertTrue(report.hasErrors());
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+	}
+
+	@Test
+	public void test_parallelValidation() throws Exception {
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix(prURI);
+		for (int i = 0; i < THREADS * OBJECTS * 2; i++) {
+			ComponentDefinition cd = document.createComponentDefinition("part_" + i, ComponentDefinition.DNA);
+			if (i % 7 == 0) {
+				cd.addSequence(URI.create(prURI + "/missing_" + i));
+			}
+		}
+		SBOLValidationReport sequential = new SBOLValidator(true, true, true).validate(document);
+		SBOLValidationReport parallel = new SBOLValidator(true, true, true, true).validate(document);
+		assertEquals(sequential.getIssues(), parallel.getIssues());
+		int incomplete = 0;
+		for (SBOLValidationReport.Issue issue : parallel.getIssues()) {
+			if ("sbol-10513".equals(issue.getRuleId())) {
+				incomplete++;
+			}
+		}
+		assertEquals((THREADS * OBJECTS * 2 + 6) / 7, incomplete);
+	}
+
+	@Test
+	public void test_concurrentSnapshotDocument() throws Exception {
+		for (int i = 0; i < OBJECTS; i++) {
+			doc.createComponentDefinition("part_" + i, ComponentDefinition.DNA);
+		}
+		SBOLDocumentSnapshot snapshot = doc.snapshot();
+		final SBOLDocument derived = snapshot.createDocument(true);
+		assertTrue(derived.isConcurrent());
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int i = 0; i < OBJECTS; i++) {
+						int part = (i + thread * OBJECTS / THREADS) % OBJECTS;
+						ComponentDefinition cd = derived.getComponentDefinition("part_" + part, "");
+						assertNotNull(cd);
+						assertSame(cd, derived.getComponentDefinition(cd.getIdentity()));
+						if (i % 50 == thread) {
+							assertEquals(OBJECTS, derived.getComponentDefinitions().size());
+							derived.snapshot();
+						}
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks);
+		assertEquals(OBJECTS, derived.getComponentDefinitions().size());
+		assertEquals(doc, derived);
+		assertEquals(OBJECTS, snapshot.size());
+	}
+
+	@Test
+	public void test_listenerOutsideWriteLock() throws Exception {
+		final List<Integer> sizes = new ArrayList<>();
+		doc.addDocumentListener(new SBOLDocumentListener() {
+			@Override
+			public void documentChanged(SBOLDocument document, List<SBOLDocumentChange> changes) {
+				// Another thread can only read the document once the write lock has been released.
+				Future<Integer> size = executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						return doc.getTopLevels().size();
+					}
+				});
+				try {
+					sizes.add(size.get(10, TimeUnit.SECONDS));
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		ComponentDefinition promoter = doc.createComponentDefinition("promoter", ComponentDefinition.DNA);
+		doc.createComponentDefinition("terminator", ComponentDefinition.DNA);
+		doc.removeComponentDefinition(promoter);
+		assertEquals(3, sizes.size());
+		assertEquals(Integer.valueOf(1), sizes.get(0));
+		assertEquals(Integer.valueOf(2), sizes.get(1));
+		assertEquals(Integer.valueOf(1), sizes.get(2));
+	}
+}
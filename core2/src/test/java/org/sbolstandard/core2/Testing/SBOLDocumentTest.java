@@ -5,16 +5,39 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.xml.namespace.QName;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.Collection;
+import org.sbolstandard.core2.Component;
 import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.DirectionType;
 import org.sbolstandard.core2.Model;
+import org.sbolstandard.core2.ModuleDefinition;
+import org.sbolstandard.core2.Range;
+import org.sbolstandard.core2.RoleIntegrationType;
 import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLDocumentBatch;
+import org.sbolstandard.core2.SBOLDocumentChange;
+import org.sbolstandard.core2.SBOLDocumentDiff;
+import org.sbolstandard.core2.SBOLDocumentListener;
+import org.sbolstandard.core2.SBOLDocumentSnapshot;
+import org.sbolstandard.core2.SBOLIncrementalValidator;
 import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLValidationReport;
+import org.sbolstandard.core2.SBOLValidator;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstandard.core2.SystemsBiologyOntology;
 import org.sbolstandard.core2.TopLevel;
 
@@ -143,6 +166,394 @@ public class SBOLDocumentTest {
 		
 	}
 
+	@Test
+	public void test_snapshot() throws SBOLValidationException
+	{
+		ComponentDefinition gRNA_b_gene = doc.createComponentDefinition("gRNA_b_gene", ComponentDefinition.DNA);
+		SBOLDocumentSnapshot snapshot = doc.snapshot();
+		assertEquals(4, snapshot.size());
+		doc.removeComponentDefinition(gRNA_b_gene);
+		assertNotNull(snapshot.getTopLevel(gRNA_b_gene.getIdentity()));
+
+		SBOLDocument request1 = snapshot.createDocument();
+		SBOLDocument request2 = snapshot.createDocument();
+		ComponentDefinition copy = request1.getComponentDefinition("gRNA_b_gene", "");
+		assertNotNull(copy);
+		assertNotSame(snapshot.getTopLevel(copy.getIdentity()), copy);
+		copy.addRole(SequenceOntology.PROMOTER);
+		assertTrue(request2.getComponentDefinition("gRNA_b_gene", "").getRoles().isEmpty());
+		assertTrue(((ComponentDefinition) snapshot.getTopLevel(copy.getIdentity())).getRoles().isEmpty());
+		snapshot.getTopLevel(copy.getIdentity()).setName("changed");
+		assertNull(snapshot.getTopLevel(copy.getIdentity()).getName());
+		assertNull(snapshot.createDocument().getComponentDefinition("gRNA_b_gene", "").getName());
+
+		request1.removeComponentDefinition(copy);
+		assertNull(request1.getComponentDefinition("gRNA_b_gene", ""));
+		assertEquals(3, request1.getComponentDefinitions().size());
+		assertEquals(4, request2.getComponentDefinitions().size());
+		try {
+			request2.createComponentDefinition("CRa_promoter", ComponentDefinition.DNA);
+			fail();
+		} catch (SBOLValidationException e) {
+		}
+		assertEquals(4, snapshot.createDocument().getTopLevels().size());
+	}
+
+	@Test
+	public void test_batch() throws SBOLValidationException
+	{
+		Set<URI> types = new HashSet<URI>();
+		types.add(ComponentDefinition.DNA);
+		SBOLDocumentBatch batch = doc.createBatch();
+		for (int i = 0; i < 100; i++) {
+			ComponentDefinition cd = batch.createComponentDefinition("part_" + i, "1", types);
+			Sequence seq = batch.createSequence("part_" + i + "_seq", "1", "acgt", Sequence.IUPAC_DNA);
+			cd.addSequence(seq);
+		}
+		assertEquals(200, batch.size());
+		assertNull(doc.getComponentDefinition("part_0", "1"));
+		batch.commit();
+		assertEquals(103, doc.getComponentDefinitions().size());
+		assertEquals(100, doc.getSequences().size());
+		assertNotNull(doc.getComponentDefinition("part_99", ""));
+		assertEquals(doc.getSequence("part_0_seq", "1"), doc.getComponentDefinition("part_0", "1").getSequences().iterator().next());
+
+		batch = doc.createBatch();
+		batch.createComponentDefinition("part_0", "1", types);
+		batch.createSequence("CRa_promoter", "2", "acgt", Sequence.IUPAC_DNA);
+		batch.createCollection("new_1", "");
+		batch.createCollection("new_1", "");
+		batch.createCollection("http://bad$prefix", "new_2", "");
+		try {
+			batch.commit();
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().startsWith("sbol-10201"));
+			assertEquals(0, e.getSuppressed().length);
+		}
+		try {
+			batch.createCollection("http://bad prefix", "new_3", "");
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().startsWith("sbol-10201"));
+		}
+		batch = doc.createBatch();
+		batch.createComponentDefinition("part_0", "1", types);
+		batch.createSequence("CRa_promoter", "2", "acgt", Sequence.IUPAC_DNA);
+		batch.createCollection("new_1", "");
+		batch.createCollection("new_1", "");
+		try {
+			batch.commit();
+			fail();
+		} catch (SBOLValidationException e) {
+			assertTrue(e.getMessage().startsWith("sbol-10202"));
+			assertEquals(2, e.getSuppressed().length);
+			for (Throwable violation : e.getSuppressed()) {
+				assertTrue(violation.getMessage().startsWith("sbol-10202") || violation.getMessage().startsWith("sbol-10220"));
+			}
+		}
+		assertTrue(doc.getCollections().isEmpty());
+		assertEquals(100, doc.getSequences().size());
+	}
+
+	@Test
+	public void test_renameAll() throws SBOLValidationException
+	{
+		ComponentDefinition device = doc.createComponentDefinition("device", ComponentDefinition.DNA);
+		device.createComponent("promoter", AccessType.PUBLIC, URI.create(prURI + "/CRa_promoter"));
+		Collection parts = doc.createCollection("parts");
+		parts.addMember(URI.create(prURI + "/gRNA_promoter"));
+		Map<URI, TopLevel> renamed = doc.rename(doc.getTopLevels(), "http://example.com", "2", true);
+		assertEquals(5, renamed.size());
+		assertEquals(5, doc.getTopLevels().size());
+		assertNull(doc.getComponentDefinition(URI.create(prURI + "/CRa_promoter")));
+		ComponentDefinition promoter = doc.getComponentDefinition(URI.create("http://example.com/CRa_promoter/2"));
+		assertNotNull(promoter);
+		assertEquals(promoter, renamed.get(URI.create(prURI + "/CRa_promoter")));
+		ComponentDefinition renamedDevice = doc.getComponentDefinition(URI.create("http://example.com/device/2"));
+		assertEquals(promoter.getIdentity(), renamedDevice.getComponent("promoter").getDefinitionURI());
+		Collection renamedParts = doc.getCollection(URI.create("http://example.com/parts/2"));
+		assertTrue(renamedParts.containsMember(URI.create("http://example.com/gRNA_promoter/2")));
+		Map<URI, TopLevel> unchanged = doc.rename(doc.getTopLevels(), "http://example.com/", "2", false);
+		assertSame(promoter, unchanged.get(promoter.getIdentity()));
+		assertEquals(5, doc.getTopLevels().size());
+	}
+
+	@Test
+	public void test_recursiveCopyDeepHierarchy() throws SBOLValidationException
+	{
+		int depth = 10000;
+		// Each level refers to the next one before it is created, so that building the hierarchy never
+		// walks it.
+		doc.setComplete(false);
+		for (int i = 0; i < depth; i++) {
+			ComponentDefinition level = doc.createComponentDefinition("level_" + i, ComponentDefinition.DNA);
+			URI child = URI.create(prURI + (i + 1 < depth ? "/level_" + (i + 1) : "/CRa_promoter"));
+			level.createComponent("child", AccessType.PUBLIC, child);
+			level.createComponent("promoter", AccessType.PUBLIC, URI.create(prURI + "/TetR_promoter"));
+		}
+		doc.setComplete(true);
+		ComponentDefinition child = doc.getComponentDefinition("level_0", "");
+		SBOLDocument copy = doc.createRecursiveCopy(child);
+		assertEquals(depth + 2, copy.getComponentDefinitions().size());
+		assertNull(copy.getComponentDefinition(URI.create("http://partsregistry.org/gRNA_promoter")));
+
+		SBOLDocument concurrentCopy = new SBOLDocument(true);
+		doc.createRecursiveCopy(concurrentCopy, child, true);
+		assertEquals(copy.getTopLevels(), concurrentCopy.getTopLevels());
+	}
+
+	@Test
+	public void test_diff() throws SBOLValidationException
+	{
+		SBOLDocument other = doc.snapshot().createDocument();
+		assertTrue(doc.diff(other).isEmpty());
+		other.getComponentDefinition("CRa_promoter", "").setName("Promoter");
+		other.removeComponentDefinition(other.getComponentDefinition("TetR_promoter", ""));
+		other.createSequence("seq", "ttgacagctagctcag", Sequence.IUPAC_DNA);
+
+		SBOLDocumentDiff diff = doc.diff(other);
+		assertEquals(1, diff.getAddedTopLevels().size());
+		assertTrue(diff.getAddedTopLevels().contains(URI.create(prURI + "/seq")));
+		assertTrue(diff.getRemovedTopLevels().contains(URI.create(prURI + "/TetR_promoter")));
+		assertEquals(1, diff.getModifiedTopLevels().size());
+		SBOLDocumentDiff.Change modified = null;
+		for (SBOLDocumentDiff.Change change : diff.getChanges()) {
+			if (change.getChangeType() == SBOLDocumentDiff.ChangeType.MODIFIED) {
+				modified = change;
+			}
+		}
+		assertEquals(URI.create(prURI + "/CRa_promoter"), modified.getIdentity());
+		assertEquals(1, modified.getPropertyChanges().size());
+		SBOLDocumentDiff.PropertyChange title = modified.getPropertyChanges().get(0);
+		assertEquals(URI.create("http://purl.org/dc/terms/title"), title.getProperty());
+		assertTrue(title.getRemovedValues().isEmpty());
+		assertEquals("Promoter", title.getAddedValues().get(0));
+
+		diff.apply(doc);
+		assertTrue(doc.diff(other).isEmpty());
+		assertEquals("Promoter", doc.getComponentDefinition("CRa_promoter", "").getName());
+		try {
+			diff.apply(doc);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void test_digest() throws SBOLValidationException
+	{
+		SBOLDocument other = doc.snapshot().createDocument();
+		ComponentDefinition promoter = doc.getComponentDefinition("CRa_promoter", "");
+		ComponentDefinition otherPromoter = other.getComponentDefinition("CRa_promoter", "");
+		assertArrayEquals(promoter.getDigest(), otherPromoter.getDigest());
+		byte[] digest = promoter.getDigest();
+
+		promoter.setName("Promoter");
+		assertFalse(Arrays.equals(digest, promoter.getDigest()));
+		promoter.unsetName();
+		assertArrayEquals(digest, promoter.getDigest());
+
+		Range range = (Range) promoter.createSequenceAnnotation("anno", "range", 1, 10).getLocation("range");
+		byte[] annotated = promoter.getDigest();
+		assertFalse(Arrays.equals(digest, annotated));
+		range.setEnd(20);
+		assertFalse(Arrays.equals(annotated, promoter.getDigest()));
+		range.setEnd(10);
+		assertArrayEquals(annotated, promoter.getDigest());
+	}
+
+	@Test
+	public void test_deduplicate() throws SBOLValidationException
+	{
+		doc.createSequence("seq1", "", "ttgacagctagctcag", Sequence.IUPAC_DNA);
+		doc.createSequence("seq2", "", "ttgacagctagctcag", Sequence.IUPAC_DNA);
+		ComponentDefinition CRa_promoter = doc.getComponentDefinition("CRa_promoter", "");
+		CRa_promoter.addSequence("seq1");
+		doc.getComponentDefinition("TetR_promoter", "").addSequence("seq2");
+		doc.getComponentDefinition("gRNA_promoter", "").setName("gRNA promoter");
+		for (String displayId : new String[] { "device", "device2" }) {
+			ComponentDefinition device = doc.createComponentDefinition(displayId, "", ComponentDefinition.DNA);
+			String promoterId = displayId.equals("device") ? "TetR_promoter" : "CRa_promoter";
+			device.createComponent("promoter", AccessType.PUBLIC, promoterId);
+			device.createSequenceAnnotation("anno", "range", 1, 16).setComponent("promoter");
+		}
+
+		Map<URI, TopLevel> duplicates = doc.deduplicate();
+		assertEquals(3, duplicates.size());
+		assertEquals(CRa_promoter, duplicates.get(URI.create(prURI + "/TetR_promoter")));
+		assertEquals(doc.getSequence("seq1", ""), duplicates.get(URI.create(prURI + "/seq2")));
+		assertEquals(1, doc.getSequences().size());
+		assertNull(doc.getComponentDefinition("device2", ""));
+		assertEquals(3, doc.getComponentDefinitions().size());
+		assertTrue(CRa_promoter.getWasDerivedFroms().contains(URI.create(prURI + "/TetR_promoter")));
+
+		ComponentDefinition device = doc.getComponentDefinition("device", "");
+		assertEquals(CRa_promoter.getIdentity(), device.getComponent("promoter").getDefinitionURI());
+		assertTrue(device.getWasDerivedFroms().contains(URI.create(prURI + "/device2")));
+		assertTrue(doc.deduplicate().isEmpty());
+	}
+
+	@Test
+	public void test_deduplicateChildDisplayIds() throws SBOLValidationException
+	{
+		ComponentDefinition device = doc.createComponentDefinition("device", "", ComponentDefinition.DNA);
+		device.createComponent("promoter", AccessType.PUBLIC, "CRa_promoter");
+		ComponentDefinition device2 = doc.createComponentDefinition("device2", "", ComponentDefinition.DNA);
+		device2.createComponent("prom", AccessType.PUBLIC, "CRa_promoter");
+		doc.createComponentDefinition("device3", "", ComponentDefinition.DNA)
+			.createComponent("promoter", AccessType.PUBLIC, "TetR_promoter");
+		ModuleDefinition module = doc.createModuleDefinition("module", "");
+		module.createFunctionalComponent("device2", AccessType.PUBLIC, "device2", DirectionType.NONE);
+		module.createFunctionalComponent("device3", AccessType.PUBLIC, "device3", DirectionType.NONE);
+
+		Map<URI, TopLevel> duplicates = doc.deduplicate();
+		assertEquals(device, duplicates.get(URI.create(prURI + "/device3")));
+		assertFalse(duplicates.containsKey(device2.getIdentity()));
+		assertEquals(device2, doc.getComponentDefinition("device2", ""));
+		assertNotNull(device2.getComponent("prom"));
+		assertEquals(device2.getIdentity(), module.getFunctionalComponent("device2").getDefinitionURI());
+		assertEquals(device.getIdentity(), module.getFunctionalComponent("device3").getDefinitionURI());
+	}
+
+	@Test
+	public void test_listener() throws SBOLValidationException
+	{
+		final List<List<SBOLDocumentChange>> deliveries = new ArrayList<>();
+		SBOLDocumentListener listener = new SBOLDocumentListener() {
+			@Override
+			public void documentChanged(SBOLDocument document, List<SBOLDocumentChange> changes) {
+				deliveries.add(changes);
+			}
+		};
+		doc.addDocumentListener(listener);
+
+		ComponentDefinition promoter = doc.createComponentDefinition("promoter", "", ComponentDefinition.DNA);
+		assertEquals(1, deliveries.size());
+		assertEquals(SBOLDocumentChange.Type.TOP_LEVEL_ADDED, deliveries.get(0).get(0).getType());
+		assertEquals(promoter.getIdentity(), deliveries.get(0).get(0).getIdentity());
+
+		deliveries.clear();
+		promoter.addRole(SequenceOntology.PROMOTER);
+		SBOLDocumentChange change = deliveries.get(0).get(0);
+		assertEquals(SBOLDocumentChange.Type.PROPERTY_CHANGED, change.getType());
+		assertEquals(promoter.getIdentity(), change.getTopLevelIdentity());
+		assertTrue(promoter.getRoles().contains(SequenceOntology.PROMOTER));
+
+		deliveries.clear();
+		SequenceAnnotation annotation = promoter.createSequenceAnnotation("anno", "range", 1, 10);
+		Range range = (Range) annotation.getLocation("range");
+		boolean added = false;
+		for (List<SBOLDocumentChange> delivery : deliveries) {
+			for (SBOLDocumentChange delivered : delivery) {
+				if (delivered.getType() == SBOLDocumentChange.Type.CHILD_ADDED
+						&& delivered.getIdentity().equals(annotation.getIdentity())) {
+					assertEquals(promoter.getIdentity(), delivered.getTopLevelIdentity());
+					added = true;
+				}
+			}
+		}
+		assertTrue(added);
+
+		deliveries.clear();
+		promoter.createAnnotation(new QName("http://myannotation.org/", "thisAnnotation", "annot"), "value");
+		assertEquals(SBOLDocumentChange.Type.ANNOTATION_CHANGED, deliveries.get(0).get(0).getType());
+
+		deliveries.clear();
+		doc.beginChangeBatch();
+		promoter.setName("promoter");
+		range.setEnd(20);
+		promoter.setName("a promoter");
+		assertTrue(deliveries.isEmpty());
+		doc.endChangeBatch();
+		assertEquals(1, deliveries.size());
+		assertEquals(2, deliveries.get(0).size());
+		assertEquals(range.getIdentity(), deliveries.get(0).get(0).getIdentity());
+		assertEquals(promoter.getIdentity(), deliveries.get(0).get(1).getIdentity());
+
+		deliveries.clear();
+		doc.removeComponentDefinition(promoter);
+		assertEquals(SBOLDocumentChange.Type.TOP_LEVEL_REMOVED, deliveries.get(0).get(0).getType());
+
+		deliveries.clear();
+		assertTrue(doc.removeDocumentListener(listener));
+		doc.createComponentDefinition("terminator", "", ComponentDefinition.DNA);
+		assertTrue(deliveries.isEmpty());
+	}
+
+	@Test
+	public void test_incrementalValidation() throws SBOLValidationException
+	{
+		SBOLDocument document = new SBOLDocument();
+		document.setDefaultURIprefix(prURI);
+		ComponentDefinition construct = document.createComponentDefinition("construct", "", ComponentDefinition.DNA);
+		ComponentDefinition device = document.createComponentDefinition("device", "", ComponentDefinition.DNA);
+		ComponentDefinition promoter = document.createComponentDefinition("promoter", "", ComponentDefinition.DNA);
+		construct.createComponent("device", AccessType.PUBLIC, device.getIdentity());
+		device.createComponent("promoter", AccessType.PUBLIC, promoter.getIdentity());
+		Sequence sequence = document.createSequence("promoter_seq", "", "tttgacaa", Sequence.IUPAC_DNA);
+		promoter.addSequence(sequence.getIdentity());
+		SBOLValidator validator = new SBOLValidator();
+		SBOLIncrementalValidator incremental = new SBOLIncrementalValidator(document, validator);
+		try {
+			assertEquals(validator.validate(document).getIssues(), incremental.validate().getIssues());
+
+			document.removeSequence(sequence);
+			SBOLValidationReport report = incremental.validate();
+			assertEquals(validator.validate(document).getIssues(), report.getIssues());
+			assertTrue(hasIssue(report, "sbol-10513", promoter.getIdentity()));
+
+			document.createSequence("promoter_seq", "", "tttgacaa", Sequence.IUPAC_DNA);
+			assertEquals(validator.validate(document).getIssues(), incremental.validate().getIssues());
+
+			promoter.addRole(SequenceOntology.PROMOTER);
+			device.createSequenceAnnotation("anno", "range", 1, 8);
+			document.removeComponentDefinition(construct);
+			assertEquals(validator.validate(document).getIssues(), incremental.validate().getIssues());
+
+			ComponentDefinition part = document.createComponentDefinition("part", "1", ComponentDefinition.DNA);
+			ComponentDefinition system = document.createComponentDefinition("system", "1", ComponentDefinition.DNA);
+			Component systemPart = system.createComponent("part", AccessType.PUBLIC, part.getPersistentIdentity());
+			systemPart.setRoleIntegration(RoleIntegrationType.MERGEROLES);
+			systemPart.addRole(SequenceOntology.PROMOTER);
+			assertEquals(validator.validate(document).getIssues(), incremental.validate().getIssues());
+
+			ComponentDefinition part2 = document.createComponentDefinition("part", "2", ComponentDefinition.DNA);
+			assertEquals(validator.validate(document).getIssues(), incremental.validate().getIssues());
+
+			part2.setTypes(new HashSet<URI>(Arrays.asList(ComponentDefinition.PROTEIN)));
+			report = incremental.validate();
+			assertEquals(validator.validate(document).getIssues(), report.getIssues());
+			assertTrue(hasIssue(report, "sbol-10706", system.getIdentity()));
+
+			document.removeComponentDefinition(part2);
+			report = incremental.validate();
+			assertEquals(validator.validate(document).getIssues(), report.getIssues());
+			assertFalse(hasIssue(report, "sbol-10706", system.getIdentity()));
+
+			document.createComponentDefinition("part", "2", ComponentDefinition.PROTEIN);
+			report = incremental.validate();
+			assertEquals(validator.validate(document).getIssues(), report.getIssues());
+			assertTrue(hasIssue(report, "sbol-10706", system.getIdentity()));
+		} finally {
+			incremental.close();
+		}
+		try {
+			incremental.validate();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	private static boolean hasIssue(SBOLValidationReport report, String ruleId, URI identity) {
+		for (SBOLValidationReport.Issue issue : report.getIssues()) {
+			if (ruleId.equals(issue.getRuleId()) && issue.getIdentity().equals(identity)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	
 
 }
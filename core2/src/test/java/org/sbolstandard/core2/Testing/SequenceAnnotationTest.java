@@ -1,6 +1,9 @@
 package org.sbolstandard.core2.Testing;
 
 import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -144,4 +147,38 @@ public class SequenceAnnotationTest {
 
 	}
 
+	@Test
+	public void test_annotationIndex() throws SBOLValidationException{
+		ComponentDefinition plasmid = doc.createComponentDefinition("plasmid", "", ComponentDefinition.DNA);
+		plasmid.addType(SequenceOntology.CIRCULAR);
+		SequenceAnnotation a = plasmid.createSequenceAnnotation("a", "range", 10, 20);
+		SequenceAnnotation b = plasmid.createSequenceAnnotation("b", "range", 15, 30);
+		SequenceAnnotation site = plasmid.createSequenceAnnotation("site", "cut", 50);
+		// A feature straddling the origin, held as two ranges as the GenBank reader creates it.
+		SequenceAnnotation ori = plasmid.createSequenceAnnotation("ori", "range0", 95, 100);
+		ori.addRange("range1", 1, 5);
+		plasmid.createSequenceAnnotation("generic", "generic");
+
+		assertEquals(Arrays.asList(a, b), plasmid.getOverlappingSequenceAnnotations(18, 25));
+		assertEquals(Arrays.asList(site), plasmid.getOverlappingSequenceAnnotations(50, 50));
+		assertEquals(Arrays.asList(ori), plasmid.getOverlappingSequenceAnnotations(98, 3));
+		assertEquals(Arrays.asList(a, b), plasmid.getContainedSequenceAnnotations(10, 30));
+		assertEquals(Arrays.asList(a), plasmid.getContainedSequenceAnnotations(1, 20));
+		assertEquals(Arrays.asList(ori), plasmid.getContainedSequenceAnnotations(90, 10));
+		assertEquals(site, plasmid.getNearestSequenceAnnotation(45));
+		assertEquals(ori, plasmid.getNearestSequenceAnnotation(7));
+		assertEquals(ori, plasmid.getNearestSequenceAnnotation(90));
+
+		((Range)a.getLocation("range")).setEnd(40);
+		assertEquals(Arrays.asList(a), plasmid.getOverlappingSequenceAnnotations(35, 36));
+		assertTrue(plasmid.removeSequenceAnnotation(b));
+		assertEquals(Arrays.asList(a), plasmid.getOverlappingSequenceAnnotations(18, 25));
+
+		try {
+			gRNA_b_gene.getOverlappingSequenceAnnotations(20, 10);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
 }
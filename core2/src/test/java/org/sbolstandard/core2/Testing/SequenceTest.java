@@ -1,12 +1,18 @@
 package org.sbolstandard.core2.Testing;
 
 import static org.junit.Assert.*;
+
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OrientationType;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceIndex;
 
 public class SequenceTest {
 	private SBOLDocument doc = null;
@@ -46,6 +52,125 @@ public class SequenceTest {
 		assertTrue(generic_seq.toString().contains("displayId="+generic_seq.getDisplayId()));
 		assertTrue(!generic_seq.toString().contains("name="+generic_seq.getDisplayId()));
 	}
+
+	@Test
+	public void test_pack() throws SBOLValidationException
+	{
+		String elements = generic_seq.getElements();
+		assertTrue(generic_seq.pack());
+		assertTrue(generic_seq.isPacked());
+		assertEquals(elements, generic_seq.getElements());
+		assertEquals(elements.length(), generic_seq.getElementsLength());
+		assertEquals(elements.substring(5, 20), generic_seq.getElements(5, 20));
+
+		SBOLDocument other = new SBOLDocument();
+		Sequence unpacked = (Sequence) other.createCopy(generic_seq);
+		unpacked.setElements(elements);
+		assertFalse(unpacked.isPacked());
+		assertEquals(unpacked, generic_seq);
+		assertEquals(unpacked.hashCode(), generic_seq.hashCode());
+
+		String mixed = "ACGTNNRYacgt-..ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT";
+		Sequence iupac = doc.createSequence("iupac_seq", mixed, Sequence.IUPAC_DNA);
+		assertTrue(iupac.pack());
+		assertEquals(mixed, iupac.getElements());
+		for (int i = 0; i < mixed.length(); i++) {
+			assertEquals(mixed.substring(i), iupac.getElements(i, mixed.length()));
+		}
+		Sequence copy = (Sequence) doc.createCopy(iupac, "iupac_copy");
+		assertTrue(copy.isPacked());
+		assertEquals(mixed, copy.getElements());
+
+		Sequence protein = doc.createSequence("protein_seq", "MKV", Sequence.IUPAC_PROTEIN);
+		assertFalse(protein.pack());
+		iupac.setElements("acgt");
+		assertFalse(iupac.isPacked());
+	}
+
+	@Test
+	public void test_reverseComplement() throws SBOLValidationException
+	{
+		assertEquals("gctagcattatacctaggactgagctagctgtcaa",
+				Sequence.reverseComplement(generic_seq.getElements(), ComponentDefinition.DNA));
+		assertEquals("uuuacgn-.", Sequence.reverseComplement(".-ncgtaaa", ComponentDefinition.RNA));
+		assertEquals("ryvbhdmk", Sequence.reverseComplement("mkhdvbry", ComponentDefinition.DNA));
+
+		StringBuilder megabase = new StringBuilder();
+		while (megabase.length() < 1000000) {
+			megabase.append("acgtrymk");
+		}
+		String reverse = Sequence.reverseComplement(megabase.toString(), ComponentDefinition.DNA);
+		assertEquals(megabase.length(), reverse.length());
+		assertEquals(megabase.toString(), Sequence.reverseComplement(reverse, ComponentDefinition.DNA));
+	}
+
+	@Test
+	public void test_getElementsView() throws SBOLValidationException
+	{
+		String elements = generic_seq.getElements();
+		CharSequence view = generic_seq.getElementsView(5, 20);
+		assertEquals(elements.substring(5, 20), view.toString());
+		assertEquals(15, view.length());
+		assertEquals(elements.charAt(7), view.charAt(2));
+		assertEquals(elements.substring(7, 10), view.subSequence(2, 5).toString());
+		assertTrue(generic_seq.pack());
+		assertEquals(elements.substring(5, 20), generic_seq.getElementsView(5, 20).toString());
+		try {
+			generic_seq.getElementsView(5, elements.length() + 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
 	
 
+	@Test
+	public void test_sequenceIndex() throws SBOLValidationException
+	{
+		SequenceIndex index = doc.createSequenceIndex(4);
+		List<SequenceIndex.Hit> hits = index.find("GCTAGC");
+		assertEquals(2, hits.size());
+		assertEquals(7, hits.get(0).getPosition());
+		assertEquals(30, hits.get(1).getPosition());
+		assertEquals(OrientationType.INLINE, hits.get(0).getStrand());
+		hits = index.find("tgtcaa");
+		assertEquals(1, hits.size());
+		assertSame(generic_seq, hits.get(0).getSequence());
+		assertEquals(1, hits.get(0).getPosition());
+		assertEquals(OrientationType.REVERSECOMPLEMENT, hits.get(0).getStrand());
+		hits = index.findDegenerate("ttgacr");
+		assertEquals(1, hits.size());
+		assertEquals(OrientationType.INLINE, hits.get(0).getStrand());
+
+		Sequence other_seq = doc.createSequence("other_seq", "aaaattgacaaaaa", Sequence.IUPAC_DNA);
+		assertEquals(2, index.find("ttgaca").size());
+		assertTrue(doc.removeSequence(generic_seq));
+		hits = index.find("ttgaca");
+		assertEquals(1, hits.size());
+		assertSame(other_seq, hits.get(0).getSequence());
+		assertEquals(5, hits.get(0).getPosition());
+		other_seq.setElements("ccc");
+		assertTrue(index.find("ttgaca").isEmpty());
+	}
+
+	@Test
+	public void test_sequenceIndexWeakStrong() throws SBOLValidationException
+	{
+		Sequence weak_seq = doc.createSequence("weak_seq", "aaccaggtttcctggaatcaggaa", Sequence.IUPAC_DNA);
+		SequenceIndex index = doc.createSequenceIndex(4);
+		List<SequenceIndex.Hit> hits = index.findDegenerate("CCWGG");
+		assertEquals(2, hits.size());
+		assertSame(weak_seq, hits.get(0).getSequence());
+		assertEquals(3, hits.get(0).getPosition());
+		assertEquals(OrientationType.INLINE, hits.get(0).getStrand());
+		assertSame(weak_seq, hits.get(1).getSequence());
+		assertEquals(11, hits.get(1).getPosition());
+		assertEquals(OrientationType.INLINE, hits.get(1).getStrand());
+		hits = index.findDegenerate("ccwga");
+		assertEquals(1, hits.size());
+		assertSame(weak_seq, hits.get(0).getSequence());
+		assertEquals(18, hits.get(0).getPosition());
+		assertEquals(OrientationType.REVERSECOMPLEMENT, hits.get(0).getStrand());
+		hits = index.findDegenerate("ccsgg");
+		assertTrue(hits.isEmpty());
+	}
 }